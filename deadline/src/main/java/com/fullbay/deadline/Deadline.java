@@ -0,0 +1,43 @@
+package com.fullbay.deadline;
+
+/** Point in time by which a request must have completed its Descope calls. */
+public final class Deadline {
+
+  private final long expiresAtNanos;
+
+  private Deadline(long expiresAtNanos) {
+    this.expiresAtNanos = expiresAtNanos;
+  }
+
+  /**
+   * Creates a deadline the given number of milliseconds from now.
+   *
+   * @param millis The budget in milliseconds
+   * @return The deadline
+   */
+  public static Deadline afterMillis(long millis) {
+    return new Deadline(System.nanoTime() + millis * 1_000_000);
+  }
+
+  /**
+   * Gets the time left before the deadline.
+   *
+   * @return The remaining milliseconds, or a non-positive value once the deadline has passed
+   */
+  public long remainingMillis() {
+    return (expiresAtNanos - System.nanoTime()) / 1_000_000;
+  }
+
+  /**
+   * Returns whichever of this deadline and the other expires first.
+   *
+   * @param other The other deadline, may be null
+   * @return The earlier deadline
+   */
+  public Deadline earliest(Deadline other) {
+    if (other == null || expiresAtNanos - other.expiresAtNanos <= 0) {
+      return this;
+    }
+    return other;
+  }
+}
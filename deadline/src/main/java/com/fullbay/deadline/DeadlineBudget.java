@@ -0,0 +1,57 @@
+package com.fullbay.deadline;
+
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Derives the deadline of an operation from the Lambda invocation's remaining time and the
+ * configured budget of the operation, whichever ends first.
+ *
+ * <p>Budgets are read from {@code deadline.budget.<operation>.millis}, where {@code <operation>}
+ * is the resource method name or the AppSync field name, falling back to {@code
+ * deadline.default-budget.millis}. A budget of 0 means the operation is only bounded by the Lambda
+ * timeout.
+ */
+@ApplicationScoped
+public class DeadlineBudget {
+
+  @ConfigProperty(name = "deadline.default-budget.millis", defaultValue = "0")
+  long defaultBudgetMillis;
+
+  @ConfigProperty(name = "deadline.safety-margin.millis", defaultValue = "500")
+  long safetyMarginMillis;
+
+  /**
+   * Computes the deadline of an operation starting now.
+   *
+   * @param operation The resource method or field name, or null to use the default budget
+   * @param lambdaRemainingMillis The invocation's remaining time, or null outside Lambda
+   * @return The deadline, or null if the operation is unbounded
+   */
+  public Deadline deadline(String operation, Long lambdaRemainingMillis) {
+    Deadline deadline = null;
+    long budget = budgetMillis(operation);
+    if (budget > 0) {
+      deadline = Deadline.afterMillis(budget);
+    }
+    if (lambdaRemainingMillis != null) {
+      // Keep enough time to serialize the timeout response before Lambda kills the invocation
+      Deadline invocation = Deadline.afterMillis(lambdaRemainingMillis - safetyMarginMillis);
+      deadline = invocation.earliest(deadline);
+    }
+    return deadline;
+  }
+
+  private long budgetMillis(String operation) {
+    if (operation == null) {
+      return defaultBudgetMillis;
+    }
+    String key = "deadline.budget." + operation + ".millis";
+    Optional<Long> budget = ConfigProvider.getConfig().getOptionalValue(key, Long.class);
+    return budget.orElse(defaultBudgetMillis);
+  }
+}
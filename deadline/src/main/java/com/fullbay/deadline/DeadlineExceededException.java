@@ -0,0 +1,52 @@
+package com.fullbay.deadline;
+
+/** Exception thrown when a request's deadline passes before a Descope call completes. */
+public class DeadlineExceededException extends RuntimeException {
+
+  private final String operation;
+  private final boolean outcomeUnknown;
+
+  /**
+   * Creates a new DeadlineExceededException for a call that was abandoned or never started.
+   *
+   * @param operation The Descope operation that did not complete in time
+   */
+  public DeadlineExceededException(String operation) {
+    this(operation, false);
+  }
+
+  /**
+   * Creates a new DeadlineExceededException.
+   *
+   * @param operation The Descope operation that did not complete in time
+   * @param outcomeUnknown Whether the operation is a mutation that was sent and may still apply
+   */
+  public DeadlineExceededException(String operation, boolean outcomeUnknown) {
+    super(
+        outcomeUnknown
+            ? String.format(
+                "Request deadline exceeded during %s; the outcome is unknown", operation)
+            : String.format("Request deadline exceeded during %s", operation));
+    this.operation = operation;
+    this.outcomeUnknown = outcomeUnknown;
+  }
+
+  /**
+   * Gets the operation that did not complete in time.
+   *
+   * @return The operation name
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Whether the operation was a mutation still in flight at the deadline, which may or may not take
+   * effect.
+   *
+   * @return True if the outcome of the operation is unknown
+   */
+  public boolean isOutcomeUnknown() {
+    return outcomeUnknown;
+  }
+}
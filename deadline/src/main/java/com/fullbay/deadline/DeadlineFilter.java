@@ -0,0 +1,49 @@
+package com.fullbay.deadline;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Derives the deadline of each request from the Lambda invocation's remaining time and the
+ * configured budget of the endpoint, whichever ends first. See {@link DeadlineBudget}; endpoints
+ * are budgeted by their resource method name.
+ */
+@Provider
+public class DeadlineFilter implements ContainerRequestFilter {
+
+  @Inject DeadlineBudget deadlineBudget;
+
+  @Inject RequestDeadline requestDeadline;
+
+  @Inject Instance<com.amazonaws.services.lambda.runtime.Context> lambdaContext;
+
+  @Context ResourceInfo resourceInfo;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    String method =
+        resourceInfo == null || resourceInfo.getResourceMethod() == null
+            ? null
+            : resourceInfo.getResourceMethod().getName();
+    requestDeadline.set(deadlineBudget.deadline(method, lambdaRemainingMillis()));
+  }
+
+  private Long lambdaRemainingMillis() {
+    try {
+      if (lambdaContext.isResolvable()) {
+        com.amazonaws.services.lambda.runtime.Context context = lambdaContext.get();
+        if (context != null) {
+          return (long) context.getRemainingTimeInMillis();
+        }
+      }
+    } catch (RuntimeException e) {
+      // Not invoked through Lambda (tests, dev mode), so there is no invocation timeout
+    }
+    return null;
+  }
+}
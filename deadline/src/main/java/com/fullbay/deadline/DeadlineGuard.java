@@ -0,0 +1,230 @@
+package com.fullbay.deadline;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.logging.Log;
+
+/**
+ * Runs Descope calls within the current request's deadline.
+ *
+ * <p>Calls made outside a request, or in a request without a deadline, run directly on the caller's
+ * thread. Otherwise a read runs on a virtual thread and the caller waits at most the remaining
+ * budget; on expiry the call is cancelled and {@link DeadlineExceededException} is thrown.
+ *
+ * <p>A mutation is only started while budget remains. It also runs on a virtual thread with the
+ * caller waiting at most the remaining budget, but it is never cancelled: a write already sent may
+ * still apply, so on expiry the caller gets a {@link DeadlineExceededException} whose outcome is
+ * unknown while the mutation runs on. Bookkeeping that must follow an applied write, such as cache
+ * invalidation or change recording, is passed as {@code onApplied} so it runs after the write
+ * even when the caller has stopped waiting.
+ */
+@ApplicationScoped
+public class DeadlineGuard {
+
+  @Inject RequestDeadline requestDeadline;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Runs a read-only Descope call that returns a value.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param call The Descope call
+   * @param <T> The result type
+   * @return The call's result
+   * @throws DeadlineExceededException if the deadline passes before the call completes
+   */
+  public <T> T call(String operation, Supplier<T> call) {
+    Deadline deadline = currentDeadline();
+    if (deadline == null) {
+      return call.get();
+    }
+    long remaining = deadline.remainingMillis();
+    if (remaining <= 0) {
+      throw new DeadlineExceededException(operation);
+    }
+
+    Future<T> future = executor.submit(call::get);
+    try {
+      return future.get(remaining, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      Log.warnf("Descope call %s cancelled after exceeding the request deadline", operation);
+      throw new DeadlineExceededException(operation);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new DeadlineExceededException(operation);
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /**
+   * Runs a read-only Descope call that returns nothing.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param call The Descope call
+   * @throws DeadlineExceededException if the deadline passes before the call completes
+   */
+  public void run(String operation, Runnable call) {
+    call(
+        operation,
+        () -> {
+          call.run();
+          return null;
+        });
+  }
+
+  /**
+   * Runs a Descope mutation that returns a value, if the deadline has not passed yet.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param mutation The Descope mutation
+   * @param <T> The result type
+   * @return The mutation's result
+   * @throws DeadlineExceededException if the deadline passed before the mutation was started, or
+   *     while it was in flight, in which case its outcome is unknown
+   */
+  public <T> T callMutation(String operation, Supplier<T> mutation) {
+    return callMutation(operation, mutation, () -> {});
+  }
+
+  /**
+   * Runs a Descope mutation that returns a value, if the deadline has not passed yet, followed by
+   * the work that must accompany it once applied.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param mutation The Descope mutation
+   * @param onApplied Work run right after the mutation succeeds, even if the caller stopped waiting
+   * @param <T> The result type
+   * @return The mutation's result
+   * @throws DeadlineExceededException if the deadline passed before the mutation was started, or
+   *     while it was in flight, in which case its outcome is unknown
+   */
+  public <T> T callMutation(String operation, Supplier<T> mutation, Runnable onApplied) {
+    Supplier<T> applied =
+        () -> {
+          T result = mutation.get();
+          onApplied.run();
+          return result;
+        };
+    Deadline deadline = currentDeadline();
+    if (deadline == null) {
+      return applied.get();
+    }
+    long remaining = deadline.remainingMillis();
+    if (remaining <= 0) {
+      throw new DeadlineExceededException(operation);
+    }
+
+    Future<T> future = executor.submit(applied::get);
+    try {
+      return future.get(remaining, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      // Not cancelled: the write may already be applied, and interrupting it would not undo that
+      Log.warnf("Descope mutation %s still in flight at the request deadline", operation);
+      throw new DeadlineExceededException(operation, true);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DeadlineExceededException(operation, true);
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /**
+   * Runs a Descope mutation that returns nothing, if the deadline has not passed yet.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param mutation The Descope mutation
+   * @throws DeadlineExceededException if the deadline passed before the mutation was started, or
+   *     while it was in flight, in which case its outcome is unknown
+   */
+  public void runMutation(String operation, Runnable mutation) {
+    runMutation(operation, mutation, () -> {});
+  }
+
+  /**
+   * Runs a Descope mutation that returns nothing, if the deadline has not passed yet, followed by
+   * the work that must accompany it once applied.
+   *
+   * @param operation The operation name, used in the timeout error
+   * @param mutation The Descope mutation
+   * @param onApplied Work run right after the mutation succeeds, even if the caller stopped waiting
+   * @throws DeadlineExceededException if the deadline passed before the mutation was started, or
+   *     while it was in flight, in which case its outcome is unknown
+   */
+  public void runMutation(String operation, Runnable mutation, Runnable onApplied) {
+    callMutation(
+        operation,
+        () -> {
+          mutation.run();
+          return null;
+        },
+        onApplied);
+  }
+
+  /**
+   * Runs work that was not routed through JAX-RS, such as an AppSync resolver, under a deadline.
+   * A request context is activated for the work when the calling thread has none.
+   *
+   * @param deadline The deadline, or null for none
+   * @param work The work, whose Descope calls go through this guard
+   * @param <T> The result type
+   * @return The work's result
+   */
+  public <T> T within(Deadline deadline, Supplier<T> work) {
+    ManagedContext requestContext = Arc.container().requestContext();
+    if (requestContext.isActive()) {
+      Deadline previous = requestDeadline.get();
+      requestDeadline.set(deadline);
+      try {
+        return work.get();
+      } finally {
+        requestDeadline.set(previous);
+      }
+    }
+    requestContext.activate();
+    try {
+      requestDeadline.set(deadline);
+      return work.get();
+    } finally {
+      requestContext.terminate();
+    }
+  }
+
+  private static RuntimeException unwrap(ExecutionException e) {
+    if (e.getCause() instanceof RuntimeException runtime) {
+      return runtime;
+    }
+    if (e.getCause() instanceof Error error) {
+      throw error;
+    }
+    return new IllegalStateException(e.getCause());
+  }
+
+  private Deadline currentDeadline() {
+    if (!Arc.container().requestContext().isActive()) {
+      return null;
+    }
+    return requestDeadline.get();
+  }
+}
@@ -0,0 +1,18 @@
+package com.fullbay.deadline;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/** Holds the deadline of the current request, if one applies. */
+@RequestScoped
+public class RequestDeadline {
+
+  private Deadline deadline;
+
+  public Deadline get() {
+    return deadline;
+  }
+
+  public void set(Deadline deadline) {
+    this.deadline = deadline;
+  }
+}
@@ -6,15 +6,21 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 
+import com.fullbay.memberservice.http.ContentHasher;
+import com.fullbay.memberservice.idempotency.IdempotencyStore;
 import com.fullbay.memberservice.model.ErrorResponse;
 import com.fullbay.memberservice.model.Member;
 import com.fullbay.memberservice.model.MemberRequest;
@@ -38,10 +44,14 @@ public class MemberResource {
 
   @Inject MemberService memberService;
 
+  @Inject IdempotencyStore idempotencyStore;
+
   /**
-   * Creates a new member in the specified tenant.
+   * Creates a new member in the specified tenant. Retries carrying the same idempotency key replay
+   * the recorded response without creating the user again.
    *
    * @param tenantId The tenant ID
+   * @param idempotencyKey Optional client-supplied idempotency key
    * @param request The member creation request
    * @return HTTP 201 with the created member or HTTP 500 on error
    */
@@ -62,9 +72,18 @@ public class MemberResource {
   public Response createMember(
       @Parameter(description = "Tenant unique identifier", required = true) @PathParam("tenantId")
           String tenantId,
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
       @Valid MemberRequest request) {
-    Member member = memberService.createMember(tenantId, request);
-    return Response.status(Response.Status.CREATED).entity(member).build();
+    return idempotencyStore.execute(
+        "createMember:" + tenantId,
+        idempotencyKey,
+        request,
+        () -> {
+          Member member = memberService.createMember(tenantId, request);
+          return Response.status(Response.Status.CREATED).entity(member).build();
+        });
   }
 
   /**
@@ -108,7 +127,8 @@ public class MemberResource {
    * @param tenantId The tenant ID
    * @param page The page number (0-indexed, default 0)
    * @param pageSize The number of items per page (default 20)
-   * @return HTTP 200 with paginated members or HTTP 500 on error
+   * @param request The request, used to evaluate {@code If-None-Match}
+   * @return HTTP 200 with paginated members, HTTP 304 if unchanged, or HTTP 500 on error
    */
   @GET
   @Operation(
@@ -119,6 +139,7 @@ public class MemberResource {
         responseCode = "200",
         description = "Members retrieved successfully",
         content = @Content(schema = @Schema(implementation = PaginatedResponse.class))),
+    @APIResponse(responseCode = "304", description = "Members unchanged since the given ETag"),
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
@@ -134,9 +155,30 @@ public class MemberResource {
       @Parameter(description = "Number of items per page", example = "20")
           @QueryParam("pageSize")
           @DefaultValue("20")
-          int pageSize) {
+          int pageSize,
+      @Context Request request) {
     PaginatedResponse<Member> response = memberService.getAllMembers(tenantId, page, pageSize);
-    return Response.ok(response).build();
+
+    // Hash the page content directly so an unchanged page is never serialized
+    ContentHasher hasher =
+        new ContentHasher()
+            .add(response.getPage())
+            .add(response.getPageSize())
+            .add(response.getTotalItems());
+    for (Member member : response.getItems()) {
+      hasher
+          .add(member.getLoginId())
+          .add(member.getName())
+          .add(member.getEmail())
+          .add(member.getPhone())
+          .add(member.getTenantId());
+    }
+    EntityTag etag = hasher.toEntityTag();
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+    if (notModified != null) {
+      return notModified.tag(etag).build();
+    }
+    return Response.ok(response).tag(etag).build();
   }
 
   /**
@@ -0,0 +1,166 @@
+package com.fullbay.memberservice.appsync;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.deadline.Deadline;
+import com.fullbay.deadline.DeadlineBudget;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Resolves AppSync {@code BatchInvoke} payloads through {@link AppSyncFieldResolver}.
+ *
+ * <p>Identical items in a batch are resolved once, and distinct items are resolved in parallel
+ * with at most {@code appsync.batch.max-concurrency} Descope calls in flight. Results are returned
+ * in the order of the batch. Only read-only fields are accepted in a batch, and a malformed item
+ * gets its own error result rather than failing the batch.
+ */
+@ApplicationScoped
+public class AppSyncBatchHandler {
+
+  private static final TypeReference<List<BatchInvokeItem>> BATCH_TYPE = new TypeReference<>() {};
+
+  @ConfigProperty(name = "appsync.batch.max-concurrency", defaultValue = "8")
+  int maxConcurrency;
+
+  @Inject AppSyncFieldResolver fieldResolver;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject DeadlineBudget deadlineBudget;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Decodes a {@code BatchInvoke} payload, resolves it and writes the results.
+   *
+   * @param payload The JSON array sent by AppSync
+   * @param output The stream receiving the JSON array of results
+   * @param lambdaRemainingMillis The invocation's remaining time, or null outside Lambda
+   * @throws IOException if the payload cannot be read or the results cannot be written
+   */
+  public void handle(byte[] payload, OutputStream output, Long lambdaRemainingMillis)
+      throws IOException {
+    List<BatchInvokeItem> items = objectMapper.readValue(payload, BATCH_TYPE);
+    objectMapper.writeValue(output, resolve(items, lambdaRemainingMillis));
+  }
+
+  /**
+   * Resolves every item of a batch outside Lambda, bounded only by the configured budgets.
+   *
+   * @param items The batch items
+   * @return One result per item, in batch order
+   */
+  public List<BatchInvokeResult> resolve(List<BatchInvokeItem> items) {
+    return resolve(items, null);
+  }
+
+  /**
+   * Resolves every item of a batch. Each item's Descope calls end at the item's deadline, taken
+   * from its field's budget and the invocation's remaining time when the batch arrived.
+   *
+   * @param items The batch items
+   * @param lambdaRemainingMillis The invocation's remaining time, or null outside Lambda
+   * @return One result per item, in batch order
+   */
+  public List<BatchInvokeResult> resolve(List<BatchInvokeItem> items, Long lambdaRemainingMillis) {
+    Semaphore permits = new Semaphore(maxConcurrency);
+    Map<String, Future<BatchInvokeResult>> calls = new HashMap<>();
+    List<Future<BatchInvokeResult>> pending = new ArrayList<>(items.size());
+    for (BatchInvokeItem item : items) {
+      String key;
+      try {
+        key = key(item);
+      } catch (IllegalArgumentException e) {
+        // A malformed item fails on its own; the rest of the batch still resolves
+        pending.add(
+            CompletableFuture.completedFuture(
+                BatchInvokeResult.error(e.getMessage(), "BadRequest")));
+        continue;
+      }
+      Deadline deadline = deadlineBudget.deadline(item.getField(), lambdaRemainingMillis);
+      pending.add(
+          calls.computeIfAbsent(
+              key,
+              k ->
+                  executor.submit(
+                      () -> {
+                        permits.acquire();
+                        try {
+                          return resolveItem(item, deadline);
+                        } finally {
+                          permits.release();
+                        }
+                      })));
+    }
+    Log.infof(
+        "Resolving AppSync batch of %d item(s) with %d distinct call(s)",
+        items.size(), calls.size());
+
+    List<BatchInvokeResult> results = new ArrayList<>(items.size());
+    for (Future<BatchInvokeResult> call : pending) {
+      results.add(await(call));
+    }
+    return results;
+  }
+
+  private BatchInvokeResult resolveItem(BatchInvokeItem item, Deadline deadline) {
+    if (!fieldResolver.isBatchable(item.getField())) {
+      return BatchInvokeResult.error(
+          "Field " + item.getField() + " cannot be batch resolved", "BadRequest");
+    }
+    return fieldResolver.resolve(item, deadline);
+  }
+
+  /** Builds the de-duplication key of an item; missing arguments count as an empty map. */
+  private String key(BatchInvokeItem item) {
+    if (item == null) {
+      throw new IllegalArgumentException("Batch item must not be null");
+    }
+    Map<String, Object> arguments =
+        item.getArguments() == null ? Map.of() : new TreeMap<>(item.getArguments());
+    try {
+      return item.getField() + objectMapper.writeValueAsString(arguments);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid arguments for " + item.getField(), e);
+    }
+  }
+
+  private static BatchInvokeResult await(Future<BatchInvokeResult> call) {
+    try {
+      return call.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return BatchInvokeResult.error("Batch resolution interrupted", "InternalError");
+    } catch (ExecutionException e) {
+      Log.errorf(e.getCause(), "Unexpected error resolving batch item: %s", e.getMessage());
+      return BatchInvokeResult.error("An unexpected error occurred", "InternalError");
+    }
+  }
+}
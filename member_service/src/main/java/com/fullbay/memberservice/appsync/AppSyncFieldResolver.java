@@ -0,0 +1,189 @@
+package com.fullbay.memberservice.appsync;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import com.descope.exception.DescopeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.deadline.Deadline;
+import com.fullbay.deadline.DeadlineBudget;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.deadline.DeadlineGuard;
+import com.fullbay.memberservice.exception.MemberNotFoundException;
+import com.fullbay.memberservice.model.MemberRequest;
+import com.fullbay.memberservice.service.MemberService;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Resolves AppSync GraphQL fields directly against {@link MemberService}, without translating the
+ * resolver event into an HTTP request and routing it through JAX-RS.
+ *
+ * <p>A missing member resolves to {@code null} for the nullable lookups and to a {@code NotFound}
+ * error for mutations. Other failures are reported with an {@code errorType} of {@code
+ * BadRequest}, {@code Timeout} or {@code InternalError}, which the resolver response templates
+ * raise as GraphQL errors.
+ */
+@ApplicationScoped
+public class AppSyncFieldResolver {
+
+  /** Read-only fields that may be resolved as part of a {@code BatchInvoke} payload. */
+  private static final Set<String> BATCHABLE_FIELDS = Set.of("getMember", "getUserById");
+
+  @Inject MemberService memberService;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject DeadlineBudget deadlineBudget;
+
+  @Inject DeadlineGuard deadlineGuard;
+
+  @Inject Validator validator;
+
+  /**
+   * Decodes a direct {@code Invoke} payload, resolves it within the field's deadline and writes the
+   * result.
+   *
+   * @param payload The JSON object sent by AppSync
+   * @param output The stream receiving the JSON result
+   * @param lambdaRemainingMillis The invocation's remaining time, or null outside Lambda
+   * @throws IOException if the payload cannot be read or the result cannot be written
+   */
+  public void handle(byte[] payload, OutputStream output, Long lambdaRemainingMillis)
+      throws IOException {
+    BatchInvokeItem item = objectMapper.readValue(payload, BatchInvokeItem.class);
+    Deadline deadline = deadlineBudget.deadline(item.getField(), lambdaRemainingMillis);
+    objectMapper.writeValue(output, resolve(item, deadline));
+  }
+
+  /**
+   * Checks whether a field is read-only and can therefore be de-duplicated within a batch.
+   *
+   * @param field The GraphQL field name
+   * @return True if the field may be batch resolved
+   */
+  public boolean isBatchable(String field) {
+    return BATCHABLE_FIELDS.contains(field);
+  }
+
+  /**
+   * Resolves one field invocation under a deadline.
+   *
+   * @param item The field name and its arguments
+   * @param deadline The deadline of the field's Descope calls, or null for none
+   * @return The field data, or an error
+   */
+  public BatchInvokeResult resolve(BatchInvokeItem item, Deadline deadline) {
+    return deadlineGuard.within(deadline, () -> resolve(item));
+  }
+
+  /**
+   * Resolves one field invocation within the current request's deadline, if any.
+   *
+   * @param item The field name and its arguments
+   * @return The field data, or an error
+   */
+  public BatchInvokeResult resolve(BatchInvokeItem item) {
+    if (item == null) {
+      return BatchInvokeResult.error("Field invocation must not be null", "BadRequest");
+    }
+    Map<String, Object> args = item.getArguments() == null ? Map.of() : item.getArguments();
+    try {
+      return switch (String.valueOf(item.getField())) {
+        case "getUserById" -> lookup(() -> memberService.getUserById(argument(args, "userId")));
+        case "getMember" -> lookup(
+            () -> memberService.getMember(argument(args, "tenantId"), argument(args, "loginId")));
+        case "listMembers" -> BatchInvokeResult.data(
+            memberService.getAllMembers(
+                argument(args, "tenantId"),
+                intArgument(args, "page", 0),
+                intArgument(args, "pageSize", 20)));
+        case "createMember" -> BatchInvokeResult.data(
+            memberService.createMember(argument(args, "tenantId"), input(args)));
+        case "updateMember" -> BatchInvokeResult.data(
+            memberService.updateMember(
+                argument(args, "tenantId"), argument(args, "loginId"), input(args)));
+        case "deleteMember" -> {
+          memberService.deleteMember(argument(args, "tenantId"), argument(args, "loginId"));
+          // The schema declares Boolean!, which the HTTP-shaped template also answered with true
+          yield BatchInvokeResult.data(Boolean.TRUE);
+        }
+        default -> BatchInvokeResult.error(
+            "Field " + item.getField() + " is not supported", "BadRequest");
+      };
+    } catch (MemberNotFoundException e) {
+      return BatchInvokeResult.error(e.getMessage(), "NotFound");
+    } catch (IllegalArgumentException e) {
+      return BatchInvokeResult.error(e.getMessage(), "BadRequest");
+    } catch (DeadlineExceededException e) {
+      return BatchInvokeResult.error(e.getMessage(), "Timeout");
+    } catch (DescopeException e) {
+      Log.errorf(e, "Descope API error resolving %s: %s", item.getField(), e.getMessage());
+      return BatchInvokeResult.error("An error occurred processing your request", "InternalError");
+    } catch (RuntimeException e) {
+      // Reported like any other failure, instead of escaping as a raw Lambda error
+      Log.errorf(e, "Unexpected error resolving %s", item.getField());
+      return BatchInvokeResult.error("An unexpected error occurred", "InternalError");
+    }
+  }
+
+  /** Resolves a nullable lookup, mapping a missing member to {@code null} data. */
+  private static BatchInvokeResult lookup(Lookup lookup) {
+    try {
+      return BatchInvokeResult.data(lookup.get());
+    } catch (MemberNotFoundException e) {
+      return BatchInvokeResult.data(null);
+    }
+  }
+
+  /** Converts and validates the {@code input} argument of the member mutations. */
+  private MemberRequest input(Map<String, Object> args) {
+    if (args.get("input") == null) {
+      throw new IllegalArgumentException("Argument input is required");
+    }
+    MemberRequest request = objectMapper.convertValue(args.get("input"), MemberRequest.class);
+    Set<ConstraintViolation<MemberRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Validation failed: "
+              + violations.stream()
+                  .map(cv -> cv.getPropertyPath() + ": " + cv.getMessage())
+                  .collect(Collectors.joining(", ")));
+    }
+    return request;
+  }
+
+  private static String argument(Map<String, Object> args, String name) {
+    Object value = args.get(name);
+    if (value == null || value.toString().isBlank()) {
+      throw new IllegalArgumentException("Argument " + name + " is required");
+    }
+    return value.toString();
+  }
+
+  private static int intArgument(Map<String, Object> args, String name, int defaultValue) {
+    Object value = args.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.toString());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Argument " + name + " must be an integer", e);
+    }
+  }
+
+  /** A lookup that may throw {@link MemberNotFoundException}. */
+  @FunctionalInterface
+  private interface Lookup {
+    Object get();
+  }
+}
@@ -0,0 +1,41 @@
+package com.fullbay.memberservice.appsync;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One field resolution sent by AppSync, either as a direct {@code Invoke} payload or as an element
+ * of a {@code BatchInvoke} payload.
+ */
+public class BatchInvokeItem {
+
+  @JsonProperty("field")
+  private String field;
+
+  @JsonProperty("arguments")
+  private Map<String, Object> arguments;
+
+  /** Default constructor for JSON deserialization. */
+  public BatchInvokeItem() {}
+
+  /**
+   * Creates a new BatchInvokeItem.
+   *
+   * @param field The GraphQL field being resolved
+   * @param arguments The field arguments
+   */
+  public BatchInvokeItem(String field, Map<String, Object> arguments) {
+    this.field = field;
+    this.arguments = arguments;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public Map<String, Object> getArguments() {
+    return arguments == null ? Collections.emptyMap() : arguments;
+  }
+}
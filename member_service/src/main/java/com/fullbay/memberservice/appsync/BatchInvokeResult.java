@@ -0,0 +1,61 @@
+package com.fullbay.memberservice.appsync;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Result of one AppSync field resolution, returned alone or as an element of a batch response.
+ * Response mapping templates raise {@code errorMessage} as a field error and otherwise return
+ * {@code data}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchInvokeResult {
+
+  @JsonProperty("data")
+  private final Object data;
+
+  @JsonProperty("errorMessage")
+  private final String errorMessage;
+
+  @JsonProperty("errorType")
+  private final String errorType;
+
+  private BatchInvokeResult(Object data, String errorMessage, String errorType) {
+    this.data = data;
+    this.errorMessage = errorMessage;
+    this.errorType = errorType;
+  }
+
+  /**
+   * Creates a successful result.
+   *
+   * @param data The resolved value, may be null
+   * @return The result
+   */
+  public static BatchInvokeResult data(Object data) {
+    return new BatchInvokeResult(data, null, null);
+  }
+
+  /**
+   * Creates a failed result.
+   *
+   * @param errorMessage The error message returned to the client
+   * @param errorType The GraphQL error type
+   * @return The result
+   */
+  public static BatchInvokeResult error(String errorMessage, String errorType) {
+    return new BatchInvokeResult(null, errorMessage, errorType);
+  }
+
+  public Object getData() {
+    return data;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public String getErrorType() {
+    return errorType;
+  }
+}
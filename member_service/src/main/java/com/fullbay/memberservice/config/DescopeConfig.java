@@ -12,7 +12,13 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import io.quarkus.arc.DefaultBean;
 import io.quarkus.logging.Log;
 
-/** Configuration class for Descope client initialization. */
+/**
+ * Configuration class for Descope client initialization.
+ *
+ * <p>The SDK builds and pools its own HTTP client, and its {@link Config} offers no way to supply
+ * or tune one, so connection reuse and socket timeouts are left to the SDK. Each call is instead
+ * bounded by the request deadline through {@code DeadlineGuard}.
+ */
 @Singleton
 public class DescopeConfig {
 
@@ -0,0 +1,26 @@
+package com.fullbay.memberservice.config;
+
+import com.descope.model.auth.AssociatedTenant;
+import com.descope.model.user.request.UserRequest;
+import com.descope.model.user.request.UserSearchRequest;
+import com.descope.model.user.response.AllUsersResponseDetails;
+import com.descope.model.user.response.UserResponse;
+import com.descope.model.user.response.UserResponseDetails;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Registers classes for reflection in native builds. Quarkus registers REST request and response
+ * types itself; this covers the Descope SDK user models the SDK maps with Jackson internally.
+ */
+@RegisterForReflection(
+    targets = {
+      AssociatedTenant.class,
+      UserRequest.class,
+      UserSearchRequest.class,
+      AllUsersResponseDetails.class,
+      UserResponse.class,
+      UserResponseDetails.class
+    },
+    registerFullHierarchy = true)
+public class NativeReflectionConfig {}
@@ -10,6 +10,7 @@ import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 
 import com.descope.exception.DescopeException;
+import com.fullbay.deadline.DeadlineExceededException;
 import com.fullbay.memberservice.model.ErrorResponse;
 
 import io.quarkus.logging.Log;
@@ -43,6 +44,26 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
           .build();
     }
 
+    if (exception instanceof IdempotentRequestInProgressException e) {
+      return Response.status(Response.Status.CONFLICT)
+          .entity(new ErrorResponse("Request in progress", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof IdempotencyKeyReusedException e) {
+      // 422 Unprocessable Content has no Response.Status constant
+      return Response.status(422)
+          .entity(new ErrorResponse("Idempotency key reused", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof DeadlineExceededException e) {
+      String title = e.isOutcomeUnknown() ? "Outcome unknown" : "Deadline exceeded";
+      return Response.status(Response.Status.GATEWAY_TIMEOUT)
+          .entity(new ErrorResponse(title, e.getMessage()))
+          .build();
+    }
+
     if (exception instanceof DescopeException e) {
       Log.errorf(e, "Descope API error: %s", e.getMessage());
       // Return generic message to client, don't expose internal details
@@ -0,0 +1,14 @@
+package com.fullbay.memberservice.exception;
+
+/** Exception thrown when an idempotency key is reused for a request with a different body. */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  /**
+   * Creates a new IdempotencyKeyReusedException.
+   *
+   * @param message The error message
+   */
+  public IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,197 @@
+package com.fullbay.memberservice.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.memberservice.exception.IdempotencyKeyReusedException;
+import com.fullbay.memberservice.exception.IdempotentRequestInProgressException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Bounded, TTL-based store of responses recorded against client-supplied idempotency keys.
+ *
+ * <p>The first request for a key runs the write and records its status, headers and entity;
+ * retries with the same key get the recorded response back without reissuing the write. A key is
+ * bound to a hash of the request it was first used with, and reusing it for a different request is
+ * rejected. Concurrent retries wait up to {@code idempotency.in-progress-wait.millis} for the
+ * in-flight request instead of racing it and get its response, whatever its status; past that they
+ * are answered 409 so a hung request cannot pin them. Failed requests are not recorded, so the
+ * client can retry them with the same key.
+ *
+ * <p>The store is per instance: a retry answered by another instance, such as another Lambda
+ * sandbox, is not deduplicated.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+
+  /** Header carrying the client's idempotency key. */
+  public static final String HEADER = "Idempotency-Key";
+
+  /** Header set on responses that were replayed from the store. */
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  static final int MAX_KEY_LENGTH = 255;
+
+  @ConfigProperty(name = "idempotency.max-entries", defaultValue = "10000")
+  int maxEntries;
+
+  @ConfigProperty(name = "idempotency.ttl.seconds", defaultValue = "3600")
+  long ttlSeconds;
+
+  @ConfigProperty(name = "idempotency.in-progress-wait.millis", defaultValue = "5000")
+  long inProgressWaitMillis;
+
+  @Inject ObjectMapper objectMapper;
+
+  // Insertion-ordered so the oldest key is evicted first once the store is full
+  private final Map<String, Entry> entries =
+      new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return size() > maxEntries;
+        }
+      };
+
+  /**
+   * Runs the action once per (scope, key) and replays its recorded response afterwards.
+   *
+   * @param scope The operation the key belongs to, so one key cannot collide across endpoints
+   * @param key The client-supplied idempotency key, or null to run the action unconditionally
+   * @param request The request the key is bound to: the body, or the parameters of a bodiless write
+   * @param action The write to perform
+   * @return The response of the action, or the recorded one for a repeated key
+   * @throws IdempotencyKeyReusedException if the key was first used with a different request
+   * @throws IdempotentRequestInProgressException if the request first sent with the key is still
+   *     running after {@code idempotency.in-progress-wait.millis}
+   */
+  public Response execute(String scope, String key, Object request, Supplier<Response> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException(
+          HEADER + " must not exceed " + MAX_KEY_LENGTH + " characters");
+    }
+
+    String storeKey = scope + ":" + key;
+    long now = System.currentTimeMillis();
+    Entry created = new Entry(now + ttlSeconds * 1000, fingerprint(request));
+    Entry existing;
+    synchronized (entries) {
+      existing = entries.get(storeKey);
+      if (existing == null || existing.isExpired(now)) {
+        entries.remove(storeKey);
+        entries.put(storeKey, created);
+        existing = created;
+      }
+    }
+
+    if (existing != created) {
+      if (!Arrays.equals(existing.fingerprint, created.fingerprint)) {
+        throw new IdempotencyKeyReusedException(
+            HEADER + " was already used for a different request");
+      }
+      Log.infof("Replaying recorded response for %s key %s", scope, key);
+      return replay(existing);
+    }
+
+    Response response;
+    try {
+      response = action.get();
+    } catch (RuntimeException e) {
+      forget(storeKey, created);
+      created.result.completeExceptionally(e);
+      throw e;
+    }
+
+    if (response.getStatus() < 200 || response.getStatus() >= 300) {
+      // Not kept for later retries, but handed to requests already waiting on this one
+      forget(storeKey, created);
+    }
+    Map<String, List<Object>> headers = new LinkedHashMap<>();
+    response.getHeaders().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+    created.result.complete(
+        new RecordedResponse(response.getStatus(), headers, response.getEntity()));
+    return response;
+  }
+
+  private byte[] fingerprint(Object request) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Failed to fingerprint request", e);
+    }
+  }
+
+  private void forget(String storeKey, Entry entry) {
+    synchronized (entries) {
+      entries.remove(storeKey, entry);
+    }
+  }
+
+  private Response replay(Entry entry) {
+    RecordedResponse recorded;
+    try {
+      recorded = entry.result.get(inProgressWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      // The original request failed while we waited; surface the same failure
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new IdempotentRequestInProgressException(
+          "A request with this " + HEADER + " is still in progress, retry later");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IdempotentRequestInProgressException(
+          "Interrupted waiting for the request with this " + HEADER);
+    }
+    Response.ResponseBuilder builder = Response.status(recorded.status).entity(recorded.entity);
+    recorded.headers.forEach(
+        (name, values) -> values.forEach(value -> builder.header(name, value)));
+    return builder.header(REPLAYED_HEADER, "true").build();
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static final class Entry {
+    private final long expiresAt;
+    private final byte[] fingerprint;
+    private final CompletableFuture<RecordedResponse> result = new CompletableFuture<>();
+
+    private Entry(long expiresAt, byte[] fingerprint) {
+      this.expiresAt = expiresAt;
+      this.fingerprint = fingerprint;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  private record RecordedResponse(int status, Map<String, List<Object>> headers, Object entity) {}
+}
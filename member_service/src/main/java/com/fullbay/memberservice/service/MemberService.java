@@ -15,6 +15,7 @@ import com.descope.model.user.request.UserSearchRequest;
 import com.descope.model.user.response.AllUsersResponseDetails;
 import com.descope.model.user.response.UserResponse;
 import com.descope.model.user.response.UserResponseDetails;
+import com.fullbay.deadline.DeadlineGuard;
 import com.fullbay.memberservice.exception.MemberNotFoundException;
 import com.fullbay.memberservice.model.Member;
 import com.fullbay.memberservice.model.MemberRequest;
@@ -29,6 +30,8 @@ public class MemberService {
 
   @Inject DescopeClient descopeClient;
 
+  @Inject DeadlineGuard deadlineGuard;
+
   /**
    * Creates a new member in the specified tenant.
    *
@@ -51,10 +54,13 @@ public class MemberService {
     tenant.setTenantId(tenantId);
     userRequest.setUserTenants(Collections.singletonList(tenant));
 
-    descopeClient
-        .getManagementServices()
-        .getUserService()
-        .create(request.getLoginId(), userRequest);
+    deadlineGuard.runMutation(
+        "createUser",
+        () ->
+            descopeClient
+                .getManagementServices()
+                .getUserService()
+                .create(request.getLoginId(), userRequest));
 
     Log.infof("Member created successfully: %s in tenant: %s", request.getLoginId(), tenantId);
 
@@ -74,7 +80,8 @@ public class MemberService {
     Log.infof("Retrieving member with loginId: %s from tenant: %s", loginId, tenantId);
 
     UserResponseDetails userDetails =
-        descopeClient.getManagementServices().getUserService().load(loginId);
+        deadlineGuard.call(
+            "loadUser", () -> descopeClient.getManagementServices().getUserService().load(loginId));
     UserResponse user = userDetails.getUser();
 
     // Log tenant associations for debugging
@@ -128,7 +135,9 @@ public class MemberService {
     tenant.setTenantId(tenantId);
     userRequest.setUserTenants(Collections.singletonList(tenant));
 
-    descopeClient.getManagementServices().getUserService().update(loginId, userRequest);
+    deadlineGuard.runMutation(
+        "updateUser",
+        () -> descopeClient.getManagementServices().getUserService().update(loginId, userRequest));
 
     Log.infof("Member %s updated successfully in tenant: %s", loginId, tenantId);
 
@@ -149,7 +158,8 @@ public class MemberService {
     getMember(tenantId, loginId);
 
     // Delete the user
-    descopeClient.getManagementServices().getUserService().delete(loginId);
+    deadlineGuard.runMutation(
+        "deleteUser", () -> descopeClient.getManagementServices().getUserService().delete(loginId));
 
     Log.infof("Member %s deleted successfully from tenant: %s", loginId, tenantId);
   }
@@ -173,7 +183,9 @@ public class MemberService {
     searchRequest.setTenantIds(Collections.singletonList(tenantId));
 
     AllUsersResponseDetails usersResponse =
-        descopeClient.getManagementServices().getUserService().searchAll(searchRequest);
+        deadlineGuard.call(
+            "searchUsers",
+            () -> descopeClient.getManagementServices().getUserService().searchAll(searchRequest));
 
     List<UserResponse> allUsers = usersResponse.getUsers();
     if (allUsers == null) {
@@ -219,7 +231,9 @@ public class MemberService {
     Log.infof("Retrieving user info for userId: %s", userId);
 
     UserResponseDetails userDetails =
-        descopeClient.getManagementServices().getUserService().loadByUserId(userId);
+        deadlineGuard.call(
+            "loadUserById",
+            () -> descopeClient.getManagementServices().getUserService().loadByUserId(userId));
     UserResponse user = userDetails.getUser();
 
     Log.infof("Retrieved user info for userId: %s, email: %s", userId, user.getEmail());
@@ -8,11 +8,14 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 
 import com.descope.exception.ServerCommonException;
+import com.fullbay.deadline.DeadlineExceededException;
 import com.fullbay.memberservice.exception.MemberNotFoundException;
 import com.fullbay.memberservice.model.Member;
 import com.fullbay.memberservice.model.MemberRequest;
@@ -78,6 +81,96 @@ class MemberResourceTest {
         .body("error", equalTo("Service error"));
   }
 
+  @Test
+  @DisplayName("createMember - deadline exceeded - should return 504")
+  void createMember_deadlineExceeded_shouldReturn504() throws Exception {
+    // Given
+    String tenantId = "tenant123";
+    when(memberService.createMember(eq(tenantId), any(MemberRequest.class)))
+        .thenThrow(new DeadlineExceededException("createUser"));
+
+    MemberRequest request =
+        new MemberRequest("user@example.com", "John Doe", "user@example.com", "+1234567890");
+
+    // When/Then
+    given()
+        .contentType(ContentType.JSON)
+        .body(request)
+        .when()
+        .post("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(504)
+        .body("error", equalTo("Deadline exceeded"));
+  }
+
+  @Test
+  @DisplayName("createMember - repeated idempotency key - should replay without creating again")
+  void createMember_repeatedIdempotencyKey_shouldReplayRecordedResponse() throws Exception {
+    // Given
+    String tenantId = "tenant123";
+    Member mockMember =
+        new Member("user@example.com", "John Doe", "user@example.com", "+1234567890", tenantId);
+    when(memberService.createMember(eq(tenantId), any(MemberRequest.class))).thenReturn(mockMember);
+
+    MemberRequest request =
+        new MemberRequest("user@example.com", "John Doe", "user@example.com", "+1234567890");
+
+    // When/Then
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "member-create-1")
+        .body(request)
+        .when()
+        .post("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(201);
+
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "member-create-1")
+        .body(request)
+        .when()
+        .post("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(201)
+        .header("Idempotent-Replayed", "true")
+        .body("loginId", equalTo("user@example.com"));
+
+    verify(memberService, times(1)).createMember(eq(tenantId), any(MemberRequest.class));
+  }
+
+  @Test
+  @DisplayName("createMember - idempotency key reused with other body - should return 422")
+  void createMember_idempotencyKeyReusedWithOtherBody_shouldReturn422() throws Exception {
+    // Given
+    String tenantId = "tenant123";
+    Member mockMember =
+        new Member("user@example.com", "John Doe", "user@example.com", "+1234567890", tenantId);
+    when(memberService.createMember(eq(tenantId), any(MemberRequest.class))).thenReturn(mockMember);
+
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "member-reuse-1")
+        .body(new MemberRequest("user@example.com", "John Doe", "user@example.com", null))
+        .when()
+        .post("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(201);
+
+    // When/Then
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "member-reuse-1")
+        .body(new MemberRequest("other@example.com", "Jane Doe", "other@example.com", null))
+        .when()
+        .post("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(422)
+        .body("error", equalTo("Idempotency key reused"));
+
+    verify(memberService, times(1)).createMember(eq(tenantId), any(MemberRequest.class));
+  }
+
   @Test
   @DisplayName("getMember - valid loginId - should return 200 with member")
   void getMember_validLoginId_shouldReturn200() throws Exception {
@@ -116,6 +209,39 @@ class MemberResourceTest {
         .body("error", equalTo("Member not found"));
   }
 
+  @Test
+  @DisplayName("getAllMembers - matching If-None-Match - should return 304 without body")
+  void getAllMembers_matchingIfNoneMatch_shouldReturn304() throws Exception {
+    // Given
+    String tenantId = "tenant123";
+    PaginatedResponse<Member> mockResponse =
+        new PaginatedResponse<>(
+            Arrays.asList(
+                new Member("user1@example.com", "User One", "user1@example.com", null, tenantId)),
+            0,
+            20,
+            1);
+    when(memberService.getAllMembers(eq(tenantId), anyInt(), anyInt())).thenReturn(mockResponse);
+
+    String etag =
+        given()
+            .when()
+            .get("/tenants/{tenantId}/members", tenantId)
+            .then()
+            .statusCode(200)
+            .extract()
+            .header("ETag");
+
+    // When/Then
+    given()
+        .header("If-None-Match", etag)
+        .when()
+        .get("/tenants/{tenantId}/members", tenantId)
+        .then()
+        .statusCode(304)
+        .header("ETag", equalTo(etag));
+  }
+
   @Test
   @DisplayName("getAllMembers - valid request - should return 200 with paginated members")
   void getAllMembers_validRequest_shouldReturn200() throws Exception {
@@ -0,0 +1,151 @@
+package com.fullbay.memberservice.appsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import com.descope.exception.ServerCommonException;
+import com.fullbay.memberservice.exception.MemberNotFoundException;
+import com.fullbay.memberservice.model.Member;
+import com.fullbay.memberservice.service.MemberService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class AppSyncBatchHandlerTest {
+
+  @InjectMock MemberService memberService;
+
+  @Inject AppSyncBatchHandler batchHandler;
+
+  @Test
+  @DisplayName("resolve - duplicate items - should call Descope once and answer every item")
+  void resolve_duplicateItems_shouldCallServiceOnce() throws Exception {
+    // Given
+    Member member = new Member("user@example.com", "John Doe", "user@example.com", null, "t1");
+    when(memberService.getMember("t1", "user@example.com")).thenReturn(member);
+    BatchInvokeItem item =
+        new BatchInvokeItem("getMember", Map.of("tenantId", "t1", "loginId", "user@example.com"));
+
+    // When
+    List<BatchInvokeResult> results = batchHandler.resolve(List.of(item, item, item));
+
+    // Then
+    assertThat(results).hasSize(3).allSatisfy(r -> assertThat(r.getData()).isSameAs(member));
+    verify(memberService, times(1)).getMember("t1", "user@example.com");
+  }
+
+  @Test
+  @DisplayName("resolve - mixed items - should return results in batch order")
+  void resolve_mixedItems_shouldPreserveOrder() throws Exception {
+    // Given
+    Member first = new Member("a@example.com", "A", "a@example.com", null, "t1");
+    Member second = new Member("b@example.com", "B", "b@example.com", null, "t1");
+    when(memberService.getMember("t1", "a@example.com")).thenReturn(first);
+    when(memberService.getMember("t1", "b@example.com")).thenReturn(second);
+
+    // When
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            List.of(
+                new BatchInvokeItem(
+                    "getMember", Map.of("tenantId", "t1", "loginId", "b@example.com")),
+                new BatchInvokeItem(
+                    "getMember", Map.of("tenantId", "t1", "loginId", "a@example.com"))));
+
+    // Then
+    assertThat(results).extracting(BatchInvokeResult::getData).containsExactly(second, first);
+  }
+
+  @Test
+  @DisplayName("resolve - member not found - should return null data without an error")
+  void resolve_memberNotFound_shouldReturnNullData() throws Exception {
+    // Given
+    when(memberService.getMember("t1", "missing"))
+        .thenThrow(new MemberNotFoundException("t1", "missing"));
+
+    // When
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            List.of(
+                new BatchInvokeItem("getMember", Map.of("tenantId", "t1", "loginId", "missing"))));
+
+    // Then
+    assertThat(results.get(0).getData()).isNull();
+    assertThat(results.get(0).getErrorType()).isNull();
+  }
+
+  @Test
+  @DisplayName("resolve - Descope failure or unknown field - should return per-item errors")
+  void resolve_failures_shouldReturnErrors() throws Exception {
+    // Given
+    when(memberService.getUserById("u1"))
+        .thenThrow(ServerCommonException.invalidArgument("Failed to load user"));
+
+    // When
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            List.of(
+                new BatchInvokeItem("getUserById", Map.of("userId", "u1")),
+                new BatchInvokeItem("getAllMembers", Map.of("tenantId", "t1")),
+                new BatchInvokeItem("getUserById", Map.of())));
+
+    // Then
+    assertThat(results)
+        .extracting(BatchInvokeResult::getErrorType)
+        .containsExactly("InternalError", "BadRequest", "BadRequest");
+  }
+
+  @Test
+  @DisplayName("handle - JSON batch payload - should write a JSON array of results")
+  void handle_jsonPayload_shouldWriteResults() throws Exception {
+    // Given
+    String payload =
+        "[{\"field\":\"getUserById\",\"arguments\":{}},{\"field\":\"unknown\",\"arguments\":{}}]";
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // When
+    batchHandler.handle(payload.getBytes(StandardCharsets.UTF_8), output, null);
+
+    // Then
+    String json = output.toString(StandardCharsets.UTF_8);
+    assertThat(json).startsWith("[").contains("\"errorType\":\"BadRequest\"");
+    assertThat(json).doesNotContain("\"data\"");
+  }
+
+  @Test
+  @DisplayName("resolve - null item and null arguments - should return per-item errors")
+  void resolve_nullItemAndArguments_shouldReturnErrors() throws Exception {
+    // Given
+    Member member = new Member("a@example.com", "A", "a@example.com", null, "t1");
+    when(memberService.getMember("t1", "a@example.com")).thenReturn(member);
+
+    // When
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            Arrays.asList(
+                null,
+                new BatchInvokeItem("getMember", null),
+                new BatchInvokeItem(
+                    "getMember", Map.of("tenantId", "t1", "loginId", "a@example.com"))));
+
+    // Then
+    assertThat(results)
+        .extracting(BatchInvokeResult::getErrorType)
+        .containsExactly("BadRequest", "BadRequest", null);
+    assertThat(results.get(2).getData()).isSameAs(member);
+  }
+}
@@ -0,0 +1,133 @@
+package com.fullbay.memberservice.appsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import com.fullbay.memberservice.exception.MemberNotFoundException;
+import com.fullbay.memberservice.model.Member;
+import com.fullbay.memberservice.model.MemberRequest;
+import com.fullbay.memberservice.model.PaginatedResponse;
+import com.fullbay.memberservice.service.MemberService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class AppSyncFieldResolverTest {
+
+  @InjectMock MemberService memberService;
+
+  @Inject AppSyncFieldResolver fieldResolver;
+
+  @Test
+  @DisplayName("resolve - createMember with valid input - should return the created member")
+  void resolve_createMember_shouldReturnMember() throws Exception {
+    // Given
+    Member member = new Member("user@example.com", "John Doe", "user@example.com", null, "t1");
+    when(memberService.createMember(eq("t1"), any(MemberRequest.class))).thenReturn(member);
+    Map<String, Object> input = Map.of("loginId", "user@example.com", "email", "user@example.com");
+
+    // When
+    BatchInvokeResult result =
+        fieldResolver.resolve(
+            new BatchInvokeItem("createMember", Map.of("tenantId", "t1", "input", input)));
+
+    // Then
+    assertThat(result.getData()).isSameAs(member);
+  }
+
+  @Test
+  @DisplayName("resolve - createMember with invalid email - should return BadRequest")
+  void resolve_createMemberInvalid_shouldReturnBadRequest() throws Exception {
+    // Given
+    Map<String, Object> input = Map.of("loginId", "user", "email", "not-an-email");
+
+    // When
+    BatchInvokeResult result =
+        fieldResolver.resolve(
+            new BatchInvokeItem("createMember", Map.of("tenantId", "t1", "input", input)));
+
+    // Then
+    assertThat(result.getErrorType()).isEqualTo("BadRequest");
+    assertThat(result.getErrorMessage()).contains("Invalid email format");
+    verify(memberService, never()).createMember(any(), any());
+  }
+
+  @Test
+  @DisplayName("resolve - listMembers without paging arguments - should use default paging")
+  void resolve_listMembersDefaults_shouldUseDefaultPaging() throws Exception {
+    // Given
+    PaginatedResponse<Member> page = new PaginatedResponse<>(List.of(), 0, 20, 0);
+    when(memberService.getAllMembers("t1", 0, 20)).thenReturn(page);
+
+    // When
+    BatchInvokeResult result =
+        fieldResolver.resolve(new BatchInvokeItem("listMembers", Map.of("tenantId", "t1")));
+
+    // Then
+    assertThat(result.getData()).isSameAs(page);
+  }
+
+  @Test
+  @DisplayName("resolve - updateMember for missing member - should return NotFound")
+  void resolve_updateMissingMember_shouldReturnNotFound() throws Exception {
+    // Given
+    when(memberService.updateMember(eq("t1"), eq("missing"), any(MemberRequest.class)))
+        .thenThrow(new MemberNotFoundException("t1", "missing"));
+    Map<String, Object> input = Map.of("loginId", "missing", "email", "missing@example.com");
+
+    // When
+    BatchInvokeResult result =
+        fieldResolver.resolve(
+            new BatchInvokeItem(
+                "updateMember", Map.of("tenantId", "t1", "loginId", "missing", "input", input)));
+
+    // Then
+    assertThat(result.getErrorType()).isEqualTo("NotFound");
+  }
+
+  @Test
+  @DisplayName("handle - direct deleteMember payload - should delete and write true")
+  void handle_deleteMember_shouldWriteTrue() throws Exception {
+    // Given
+    String payload =
+        "{\"field\":\"deleteMember\",\"arguments\":{\"tenantId\":\"t1\",\"loginId\":\"u1\"}}";
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // When
+    fieldResolver.handle(payload.getBytes(StandardCharsets.UTF_8), output, null);
+
+    // Then
+    assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("{\"data\":true}");
+    verify(memberService).deleteMember("t1", "u1");
+  }
+
+  @Test
+  @DisplayName("resolve - unexpected runtime exception - should return InternalError")
+  void resolve_unexpectedException_shouldReturnInternalError() throws Exception {
+    // Given
+    when(memberService.getUserById("u1")).thenThrow(new IllegalStateException("client closed"));
+
+    // When
+    BatchInvokeResult result =
+        fieldResolver.resolve(new BatchInvokeItem("getUserById", Map.of("userId", "u1")));
+
+    // Then
+    assertThat(result.getErrorType()).isEqualTo("InternalError");
+    assertThat(result.getErrorMessage()).doesNotContain("client closed");
+  }
+}
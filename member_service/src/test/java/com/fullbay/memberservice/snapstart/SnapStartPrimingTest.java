@@ -0,0 +1,79 @@
+package com.fullbay.memberservice.snapstart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.inject.Inject;
+
+import com.descope.client.DescopeClient;
+import com.descope.exception.ServerCommonException;
+import com.descope.model.mgmt.ManagementServices;
+import com.descope.sdk.mgmt.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fullbay.memberservice.config.MockDescopeClientProducer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class SnapStartPrimingTest {
+
+  @Inject SnapStartPriming priming;
+
+  @Test
+  @DisplayName("primeCodePaths - synthetic payloads - should process every iteration")
+  void primeCodePaths_syntheticPayloads_shouldProcessEveryIteration() throws Exception {
+    // Act
+    int processed = priming.primeCodePaths();
+
+    // Assert
+    assertThat(processed).isEqualTo(priming.iterations * 10);
+  }
+
+  @Test
+  @DisplayName("primeCodePaths - application object mapper - should cache its serializers")
+  void primeCodePaths_applicationObjectMapper_shouldCacheSerializers() throws Exception {
+    // Arrange: a copy keeps the application's modules and settings but starts with an empty cache
+    ObjectMapper applicationMapper = priming.objectMapper;
+    ObjectMapper fresh = applicationMapper.copy();
+    DefaultSerializerProvider serializers =
+        (DefaultSerializerProvider) fresh.getSerializerProvider();
+    priming.objectMapper = fresh;
+
+    // Act
+    try {
+      priming.primeCodePaths();
+    } finally {
+      priming.objectMapper = applicationMapper;
+    }
+
+    // Assert
+    assertThat(serializers.cachedSerializersCount()).isPositive();
+  }
+
+  @Test
+  @DisplayName("warmDescopeTransport - lookup fails - should call the SDK and swallow the error")
+  void warmDescopeTransport_lookupFails_shouldCallSdk() {
+    // Arrange
+    DescopeClient descopeClient = MockDescopeClientProducer.getMockClient();
+    reset(descopeClient);
+    ManagementServices managementServices = mock(ManagementServices.class);
+    UserService service = mock(UserService.class);
+    when(descopeClient.getManagementServices()).thenReturn(managementServices);
+    when(managementServices.getUserService()).thenReturn(service);
+    when(service.load(SnapStartPriming.PROBE_ID))
+        .thenThrow(ServerCommonException.invalidArgument("Not found"));
+
+    // Act
+    priming.warmDescopeTransport();
+
+    // Assert
+    verify(service).load(SnapStartPriming.PROBE_ID);
+  }
+}
@@ -12,9 +12,13 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 
+import com.fullbay.orgservice.http.ContentHasher;
 import com.fullbay.orgservice.model.ErrorResponse;
 import com.fullbay.orgservice.model.PaginatedResponse;
 import com.fullbay.orgservice.model.Tenant;
@@ -100,7 +104,8 @@ public class TenantResource {
    *
    * @param page The page number (0-indexed, default 0)
    * @param pageSize The number of items per page (default 20)
-   * @return HTTP 200 with paginated tenants or HTTP 500 on error
+   * @param request The request, used to evaluate {@code If-None-Match}
+   * @return HTTP 200 with paginated tenants, HTTP 304 if unchanged, or HTTP 500 on error
    */
   @GET
   @Operation(
@@ -111,6 +116,7 @@ public class TenantResource {
         responseCode = "200",
         description = "Tenants retrieved successfully",
         content = @Content(schema = @Schema(implementation = PaginatedResponse.class))),
+    @APIResponse(responseCode = "304", description = "Tenants unchanged since the given ETag"),
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
@@ -124,9 +130,25 @@ public class TenantResource {
       @Parameter(description = "Number of items per page", example = "20")
           @QueryParam("pageSize")
           @DefaultValue("20")
-          int pageSize) {
+          int pageSize,
+      @Context Request request) {
     PaginatedResponse<Tenant> response = tenantService.getAllTenants(page, pageSize);
-    return Response.ok(response).build();
+
+    // Hash the page content directly so an unchanged page is never serialized
+    ContentHasher hasher =
+        new ContentHasher()
+            .add(response.getPage())
+            .add(response.getPageSize())
+            .add(response.getTotalItems());
+    for (Tenant tenant : response.getItems()) {
+      hasher.add(tenant.getId()).add(tenant.getName());
+    }
+    EntityTag etag = hasher.toEntityTag();
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+    if (notModified != null) {
+      return notModified.tag(etag).build();
+    }
+    return Response.ok(response).tag(etag).build();
   }
 
   /**
@@ -0,0 +1,12 @@
+package com.fullbay.orgservice.config;
+
+import com.descope.model.tenant.Tenant;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Registers classes for reflection in native builds. Quarkus registers REST request and response
+ * types itself; this covers the Descope SDK tenant model the SDK maps with Jackson internally.
+ */
+@RegisterForReflection(targets = {Tenant.class}, registerFullHierarchy = true)
+public class NativeReflectionConfig {}
@@ -10,6 +10,7 @@ import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 
 import com.descope.exception.DescopeException;
+import com.fullbay.deadline.DeadlineExceededException;
 import com.fullbay.orgservice.model.ErrorResponse;
 
 import io.quarkus.logging.Log;
@@ -43,6 +44,13 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
           .build();
     }
 
+    if (exception instanceof DeadlineExceededException e) {
+      String title = e.isOutcomeUnknown() ? "Outcome unknown" : "Deadline exceeded";
+      return Response.status(Response.Status.GATEWAY_TIMEOUT)
+          .entity(new ErrorResponse(title, e.getMessage()))
+          .build();
+    }
+
     if (exception instanceof DescopeException e) {
       Log.errorf(e, "Descope API error: %s", e.getMessage());
       // Return generic message to client, don't expose internal details
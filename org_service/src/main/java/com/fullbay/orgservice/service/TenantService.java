@@ -11,6 +11,7 @@ import jakarta.inject.Inject;
 import com.descope.client.DescopeClient;
 import com.descope.exception.DescopeException;
 import com.descope.model.tenant.Tenant;
+import com.fullbay.deadline.DeadlineGuard;
 import com.fullbay.orgservice.model.PaginatedResponse;
 import com.fullbay.orgservice.model.TenantRequest;
 
@@ -22,6 +23,8 @@ public class TenantService {
 
   @Inject DescopeClient descopeClient;
 
+  @Inject DeadlineGuard deadlineGuard;
+
   /**
    * Creates a new tenant.
    *
@@ -34,10 +37,13 @@ public class TenantService {
     Log.infof("Creating tenant with name: %s", request.getName());
 
     String tenantId =
-        descopeClient
-            .getManagementServices()
-            .getTenantService()
-            .create(request.getName(), Collections.emptyList(), new HashMap<>());
+        deadlineGuard.callMutation(
+            "createTenant",
+            () ->
+                descopeClient
+                    .getManagementServices()
+                    .getTenantService()
+                    .create(request.getName(), Collections.emptyList(), new HashMap<>()));
 
     Log.infof("Tenant created successfully with ID: %s", tenantId);
 
@@ -54,7 +60,10 @@ public class TenantService {
   public com.fullbay.orgservice.model.Tenant getTenant(String tenantId) throws DescopeException {
     Log.infof("Retrieving tenant with ID: %s", tenantId);
 
-    Tenant descopeTenant = descopeClient.getManagementServices().getTenantService().load(tenantId);
+    Tenant descopeTenant =
+        deadlineGuard.call(
+            "loadTenant",
+            () -> descopeClient.getManagementServices().getTenantService().load(tenantId));
 
     return new com.fullbay.orgservice.model.Tenant(descopeTenant.getId(), descopeTenant.getName());
   }
@@ -71,10 +80,13 @@ public class TenantService {
       throws DescopeException {
     Log.infof("Updating tenant %s with name: %s", tenantId, request.getName());
 
-    descopeClient
-        .getManagementServices()
-        .getTenantService()
-        .update(tenantId, request.getName(), Collections.emptyList(), new HashMap<>());
+    deadlineGuard.runMutation(
+        "updateTenant",
+        () ->
+            descopeClient
+                .getManagementServices()
+                .getTenantService()
+                .update(tenantId, request.getName(), Collections.emptyList(), new HashMap<>()));
 
     Log.infof("Tenant %s updated successfully", tenantId);
 
@@ -90,7 +102,9 @@ public class TenantService {
   public void deleteTenant(String tenantId) throws DescopeException {
     Log.infof("Deleting tenant with ID: %s", tenantId);
 
-    descopeClient.getManagementServices().getTenantService().delete(tenantId);
+    deadlineGuard.runMutation(
+        "deleteTenant",
+        () -> descopeClient.getManagementServices().getTenantService().delete(tenantId));
 
     Log.infof("Tenant %s deleted successfully", tenantId);
   }
@@ -107,7 +121,10 @@ public class TenantService {
       int page, int pageSize) throws DescopeException {
     Log.infof("Retrieving all tenants - page: %d, pageSize: %d", page, pageSize);
 
-    List<Tenant> allTenants = descopeClient.getManagementServices().getTenantService().loadAll();
+    List<Tenant> allTenants =
+        deadlineGuard.call(
+            "loadAllTenants",
+            () -> descopeClient.getManagementServices().getTenantService().loadAll());
 
     if (allTenants == null) {
       allTenants = Collections.emptyList();
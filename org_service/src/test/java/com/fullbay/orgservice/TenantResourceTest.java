@@ -4,6 +4,7 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -14,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collections;
 
 import com.descope.exception.ServerCommonException;
+import com.fullbay.deadline.DeadlineExceededException;
 import com.fullbay.orgservice.exception.ResourceNotFoundException;
 import com.fullbay.orgservice.model.PaginatedResponse;
 import com.fullbay.orgservice.model.Tenant;
@@ -69,6 +71,24 @@ class TenantResourceTest {
         .body("error", equalTo("Service error"));
   }
 
+  @Test
+  @DisplayName("POST /tenants - deadline exceeded - should return 504")
+  void createTenant_deadlineExceeded_shouldReturn504() throws Exception {
+    // Arrange
+    when(tenantService.createTenant(any(TenantRequest.class)))
+        .thenThrow(new DeadlineExceededException("createTenant"));
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\":\"Test Tenant\"}")
+        .when()
+        .post("/tenants")
+        .then()
+        .statusCode(504)
+        .body("error", equalTo("Deadline exceeded"));
+  }
+
   @Test
   @DisplayName("GET /tenants/{tenantId} - valid id - should return 200 with tenant")
   void getTenant_validId_shouldReturn200() throws Exception {
@@ -128,6 +148,50 @@ class TenantResourceTest {
         .body("items[1].id", equalTo("tenant-2"));
   }
 
+  @Test
+  @DisplayName("GET /tenants - matching If-None-Match - should return 304 without body")
+  void getAllTenants_matchingIfNoneMatch_shouldReturn304() throws Exception {
+    // Arrange
+    PaginatedResponse<Tenant> response =
+        new PaginatedResponse<>(Arrays.asList(new Tenant("tenant-1", "Tenant 1")), 0, 20, 1);
+    when(tenantService.getAllTenants(0, 20)).thenReturn(response);
+
+    String etag = given().when().get("/tenants").then().statusCode(200).extract().header("ETag");
+
+    // Act & Assert
+    given()
+        .header("If-None-Match", etag)
+        .when()
+        .get("/tenants")
+        .then()
+        .statusCode(304)
+        .header("ETag", equalTo(etag));
+  }
+
+  @Test
+  @DisplayName("GET /tenants - changed content - should return new ETag")
+  void getAllTenants_changedContent_shouldReturn200WithNewEtag() throws Exception {
+    // Arrange
+    when(tenantService.getAllTenants(0, 20))
+        .thenReturn(
+            new PaginatedResponse<>(Arrays.asList(new Tenant("tenant-1", "Tenant 1")), 0, 20, 1));
+    String etag = given().when().get("/tenants").then().statusCode(200).extract().header("ETag");
+
+    when(tenantService.getAllTenants(0, 20))
+        .thenReturn(
+            new PaginatedResponse<>(Arrays.asList(new Tenant("tenant-1", "Renamed")), 0, 20, 1));
+
+    // Act & Assert
+    given()
+        .header("If-None-Match", etag)
+        .when()
+        .get("/tenants")
+        .then()
+        .statusCode(200)
+        .header("ETag", not(equalTo(etag)))
+        .body("items[0].name", equalTo("Renamed"));
+  }
+
   @Test
   @DisplayName("GET /tenants - with pagination params - should use provided params")
   void getAllTenants_withPaginationParams_shouldUseParams() throws Exception {
@@ -0,0 +1,120 @@
+package com.fullbay.rebacservice;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import com.fullbay.rebacservice.idempotency.IdempotencyStore;
+import com.fullbay.rebacservice.job.Job;
+import com.fullbay.rebacservice.job.JobService;
+import com.fullbay.rebacservice.model.ErrorResponse;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+
+/**
+ * REST resource for deleting a namespace's relations as a background bulk job. Like the other job
+ * endpoints, it is only built with {@code rebac.jobs.enabled=true}.
+ */
+@Path("/relations/namespace")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Relation Jobs", description = "Background bulk relation writes with status polling")
+@IfBuildProperty(name = RelationJobResource.ENABLED, stringValue = "true")
+public class NamespaceDeletionResource {
+
+  @Inject JobService jobService;
+
+  @Inject IdempotencyStore idempotencyStore;
+
+  /**
+   * Deletes every relation in a namespace, optionally only those of resources with a given prefix,
+   * as a background job. Retries carrying the same idempotency key return the job first submitted.
+   * Descope cannot list a namespace, so only a sweep of named resources is complete.
+   *
+   * @param idempotencyKey Optional client-supplied idempotency key
+   * @param namespace The namespace to empty
+   * @param resourcePrefix Optional prefix the deleted resources must start with
+   * @param resources The resources to sweep, or empty for those known to this instance
+   * @param uriInfo The request URI, used to build the status location
+   * @return HTTP 202 with the job status, or HTTP 503 if the job queue is full
+   */
+  @DELETE
+  @Path("/{namespace}")
+  @Operation(
+      summary = "Delete namespace relations",
+      description =
+          "Queues a background job that enumerates every relation of the named resources, or of the resources known to this instance when none are named, optionally only resources starting with resourcePrefix, and deletes them in parallel chunks; poll the returned location for progress. A job without named resources ends PARTIAL, since Descope cannot list a namespace")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "202",
+        description = "Deletion job accepted",
+        content =
+            @Content(
+                schema = @Schema(implementation = RelationJobResource.JobStatusResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - invalid namespace",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "501",
+        description = "Bulk jobs are not available on Lambda or without a durable job store",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "503",
+        description = "Job queue is full",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response deleteNamespace(
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
+      @Parameter(description = "Namespace to empty", required = true, example = "documents")
+          @PathParam("namespace")
+          String namespace,
+      @Parameter(description = "Only delete relations of resources starting with this prefix")
+          @QueryParam("resourcePrefix")
+          String resourcePrefix,
+      @Parameter(description = "Resources to sweep; repeat for each resource", example = "doc:1")
+          @QueryParam("resource")
+          List<String> resources,
+      @Context UriInfo uriInfo) {
+    if (namespace.length() > RelationTuple.MAX_NAMESPACE_LENGTH) {
+      throw new IllegalArgumentException(RelationTuple.NAMESPACE_TOO_LONG);
+    }
+    String prefix = resourcePrefix == null || resourcePrefix.isEmpty() ? null : resourcePrefix;
+    return idempotencyStore.execute(
+        "deleteNamespace",
+        idempotencyKey,
+        Arrays.asList(namespace, prefix, resources),
+        () -> {
+          Job job = jobService.submitNamespaceDeletion(namespace, prefix, resources);
+          return Response.accepted(new RelationJobResource.JobStatusResponse(job))
+              .location(
+                  uriInfo
+                      .getBaseUriBuilder()
+                      .path(RelationJobResource.class)
+                      .path(job.getId())
+                      .build())
+              .build();
+        });
+  }
+}
@@ -0,0 +1,310 @@
+package com.fullbay.rebacservice;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.idempotency.IdempotencyStore;
+import com.fullbay.rebacservice.job.Job;
+import com.fullbay.rebacservice.job.JobService;
+import com.fullbay.rebacservice.job.RelationCsvParser;
+import com.fullbay.rebacservice.model.ErrorResponse;
+import com.fullbay.rebacservice.model.RelationJobRequest;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+
+/**
+ * REST resource for submitting and polling background bulk relation jobs. Jobs need a long-running
+ * instance, so the job endpoints are only built with {@code rebac.jobs.enabled=true}, which the
+ * Lambda build leaves off.
+ */
+@Path("/relations/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Relation Jobs", description = "Background bulk relation writes with status polling")
+@IfBuildProperty(name = RelationJobResource.ENABLED, stringValue = "true")
+public class RelationJobResource {
+
+  /** Build-time property including the job endpoints in the application. */
+  static final String ENABLED = "rebac.jobs.enabled";
+
+  static final String CSV = "text/csv";
+  static final String TSV = "text/tab-separated-values";
+
+  @Inject JobService jobService;
+
+  @Inject IdempotencyStore idempotencyStore;
+
+  @Inject RelationCsvParser csvParser;
+
+  /**
+   * Submits a bulk relation write to run in the background.
+   *
+   * @param idempotencyKey Optional client-supplied idempotency key
+   * @param request The job request
+   * @param uriInfo The request URI, used to build the status location
+   * @return HTTP 202 with the job status, or HTTP 503 if the job queue is full
+   */
+  @POST
+  @Operation(
+      summary = "Submit bulk relation job",
+      description =
+          "Queues a bulk create or delete of relation tuples; poll the returned location for"
+              + " progress")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "202",
+        description = "Job accepted",
+        content = @Content(schema = @Schema(implementation = JobStatusResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - invalid input",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "501",
+        description = "Bulk jobs are not available on Lambda",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "503",
+        description = "Job queue is full",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response submitJob(
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
+      @Valid RelationJobRequest request,
+      @Context UriInfo uriInfo) {
+    return idempotencyStore.execute(
+        "submitRelationJob",
+        idempotencyKey,
+        request,
+        () -> {
+          Job job = jobService.submit(request.getOperation(), request.getRelations());
+          return Response.accepted(new JobStatusResponse(job))
+              .location(uriInfo.getAbsolutePathBuilder().path(job.getId()).build())
+              .build();
+        });
+  }
+
+  /**
+   * Imports a CSV or TSV export of relation tuples as a background bulk job.
+   *
+   * @param idempotencyKey Optional client-supplied idempotency key
+   * @param operation Whether to create or delete the imported tuples
+   * @param contentType The export format
+   * @param body The export, one {@code resource,relationDefinition,namespace,target} row per line,
+   *     streamed into the job store as it is parsed
+   * @param uriInfo The request URI, used to build the status location
+   * @return HTTP 202 with the job status, or HTTP 503 if the job queue is full
+   */
+  @POST
+  @Path("/import")
+  @Consumes({CSV, TSV})
+  @Operation(
+      summary = "Import relations from CSV or TSV",
+      description =
+          "Streams an export of resource, relationDefinition, namespace, target[, expiresAt] rows"
+              + " into the job store, parsing ranges in parallel and dropping duplicate rows, then"
+              + " queues them as a bulk job")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "202",
+        description = "Job accepted",
+        content = @Content(schema = @Schema(implementation = JobStatusResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - malformed or invalid rows",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "501",
+        description = "Bulk jobs are not available on Lambda",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "503",
+        description = "Job queue is full",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response importRelations(
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
+      @Parameter(description = "Operation applied to the imported tuples")
+          @QueryParam("operation")
+          @DefaultValue("CREATE")
+          RelationChange.Operation operation,
+      @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+      InputStream body,
+      @Context UriInfo uriInfo) {
+    jobService.ensureCapacity();
+    char delimiter = contentType != null && contentType.startsWith(TSV) ? '\t' : ',';
+    MessageDigest digest = sha256();
+    InputStream upload = new DigestInputStream(body, digest);
+    Job staged = jobService.stage(operation, sink -> csvParser.parse(upload, delimiter, sink));
+    AtomicBoolean submitted = new AtomicBoolean();
+    try {
+      // The upload is only fingerprinted once it has been read, so a retry is staged again and
+      // discarded when its key is replayed
+      return idempotencyStore.execute(
+          "importRelations",
+          idempotencyKey,
+          Arrays.asList(operation, contentType, HexFormat.of().formatHex(digest.digest())),
+          () -> {
+            if (staged.getTotal() == 0) {
+              throw new IllegalArgumentException("Import contains no relations");
+            }
+            Job job = jobService.submit(staged);
+            submitted.set(true);
+            return Response.accepted(new JobStatusResponse(job))
+                .location(
+                    uriInfo
+                        .getBaseUriBuilder()
+                        .path(RelationJobResource.class)
+                        .path(job.getId())
+                        .build())
+                .build();
+          });
+    } finally {
+      if (!submitted.get()) {
+        jobService.discard(staged);
+      }
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Gets the status of a bulk relation job.
+   *
+   * @param jobId The job identifier
+   * @return HTTP 200 with the job status or HTTP 404 if the job is unknown
+   */
+  @GET
+  @Path("/{jobId}")
+  @Operation(
+      summary = "Get bulk relation job status",
+      description = "Retrieves the status, progress, throughput and errors of a bulk job")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Job status retrieved successfully",
+        content = @Content(schema = @Schema(implementation = JobStatusResponse.class))),
+    @APIResponse(
+        responseCode = "404",
+        description = "Job not found",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response getJob(
+      @Parameter(description = "Job identifier", required = true) @PathParam("jobId")
+          String jobId) {
+    return Response.ok(new JobStatusResponse(jobService.getJob(jobId))).build();
+  }
+
+  /** Response model for job status queries. */
+  @Schema(description = "Status and progress of a bulk relation job")
+  public static class JobStatusResponse {
+    @Schema(description = "Job identifier")
+    public String id;
+
+    @Schema(description = "Operation applied to the tuples", example = "CREATE")
+    public String operation;
+
+    @Schema(
+        description =
+            "Job status; a namespace deletion without named resources ends PARTIAL instead of SUCCEEDED",
+        example = "RUNNING")
+    public String status;
+
+    @Schema(description = "Namespace emptied by a namespace deletion", example = "documents")
+    public String namespace;
+
+    @Schema(description = "Resource prefix a namespace deletion is limited to")
+    public String resourcePrefix;
+
+    @Schema(
+        description =
+            "False for a namespace deletion of the resources known to this instance, which may miss relations")
+    public boolean complete;
+
+    @Schema(
+        description = "Resources whose relations a namespace deletion has enumerated",
+        example = "800")
+    public int resourcesScanned;
+
+    @Schema(description = "Total number of tuples in the job", example = "5000")
+    public int total;
+
+    @Schema(description = "Number of tuples written so far", example = "1200")
+    public int processed;
+
+    @Schema(description = "Tuples written per second since the job started", example = "850.5")
+    public double throughput;
+
+    @Schema(description = "Errors encountered, truncated to the first 20")
+    public List<String> errors;
+
+    @Schema(description = "When the job was submitted")
+    public Instant createdAt;
+
+    @Schema(description = "When processing started")
+    public Instant startedAt;
+
+    @Schema(description = "When processing finished")
+    public Instant finishedAt;
+
+    public JobStatusResponse(Job job) {
+      this.id = job.getId();
+      this.operation = job.getOperation().name();
+      this.status = job.getStatus().name();
+      this.namespace = job.getNamespace();
+      this.resourcePrefix = job.getResourcePrefix();
+      this.complete = job.isComplete();
+      this.resourcesScanned = job.getResourcesScanned();
+      this.total = job.getTotal();
+      this.processed = job.getProcessed();
+      this.throughput = job.getThroughput();
+      this.errors = job.getErrors();
+      this.createdAt = job.getCreatedAt();
+      this.startedAt = job.getStartedAt();
+      this.finishedAt = job.getFinishedAt();
+    }
+  }
+}
@@ -1,24 +1,48 @@
 package com.fullbay.rebacservice;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
+import com.fullbay.rebacservice.batch.ResourceBatchReader;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.expand.RelationExpander;
+import com.fullbay.rebacservice.expiry.TupleExpiryService;
+import com.fullbay.rebacservice.export.RelationExporter;
+import com.fullbay.rebacservice.graph.AdjacencyStore;
+import com.fullbay.rebacservice.http.ContentHasher;
+import com.fullbay.rebacservice.idempotency.IdempotencyStore;
+import com.fullbay.rebacservice.model.AccessFilterRequest;
 import com.fullbay.rebacservice.model.ErrorResponse;
+import com.fullbay.rebacservice.model.ExpandNode;
 import com.fullbay.rebacservice.model.RelationRequest;
 import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.model.ResourceBatchGetRequest;
+import com.fullbay.rebacservice.model.SetQueryRequest;
+import com.fullbay.rebacservice.outbox.RelationOutbox;
 import com.fullbay.rebacservice.service.RelationService;
+import com.fullbay.rebacservice.shadow.ShadowEvaluator;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -37,13 +61,37 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
     description = "Operations for managing Fine-Grained Authorization relation tuples")
 public class RelationResource {
 
+  static final String EXPORT_NEXT_CURSOR_HEADER = "Export-Next-Cursor";
+  static final String EXPORT_COVERAGE_HEADER = "Export-Coverage";
+
   @Inject RelationService relationService;
 
+  @Inject IdempotencyStore idempotencyStore;
+
+  @Inject RelationExpander relationExpander;
+
+  @Inject RelationExporter relationExporter;
+
+  @Inject ResourceBatchReader resourceBatchReader;
+
+  @Inject AdjacencyStore adjacencyStore;
+
+  @Inject ShadowEvaluator shadowEvaluator;
+
+  @Inject RelationOutbox relationOutbox;
+
+  @Inject TupleExpiryService tupleExpiryService;
+
   /**
-   * Creates one or more relation tuples.
+   * Creates one or more relation tuples. Retries carrying the same idempotency key replay the
+   * recorded response without reissuing the write. With the outbox enabled the tuples are queued
+   * durably and written to Descope in the background. Tuples with an expiry are refused where the
+   * expiry cannot be honored.
    *
+   * @param idempotencyKey Optional client-supplied idempotency key
    * @param request The relation creation request
-   * @return HTTP 201 on success or HTTP 500 on error
+   * @return HTTP 201 on success, HTTP 202 with a pending token if queued, HTTP 501 if an expiry
+   *     cannot be honored, or HTTP 500 on error
    */
   @POST
   @Operation(
@@ -54,28 +102,54 @@ public class RelationResource {
         responseCode = "201",
         description = "Relations created successfully",
         content = @Content(schema = @Schema(implementation = SuccessResponse.class))),
+    @APIResponse(
+        responseCode = "202",
+        description = "Relations queued in the outbox",
+        content = @Content(schema = @Schema(implementation = PendingWriteResponse.class))),
     @APIResponse(
         responseCode = "400",
         description = "Bad request - invalid input",
         content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "501",
+        description = "expiresAt is not available on this deployment",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
         content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
   })
-  public Response createRelations(@Valid RelationRequest request) {
-    relationService.createRelations(request.getRelations());
-    return Response.status(Response.Status.CREATED)
-        .entity(
-            new SuccessResponse("Created " + request.getRelations().size() + " relation tuple(s)"))
-        .build();
+  public Response createRelations(
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
+      @Valid RelationRequest request) {
+    return idempotencyStore.execute(
+        "createRelations",
+        idempotencyKey,
+        request,
+        () -> {
+          tupleExpiryService.ensureSupported(request.getRelations());
+          if (relationOutbox.isEnabled()) {
+            return accepted(RelationChange.Operation.CREATE, request.getRelations());
+          }
+          relationService.createRelations(request.getRelations());
+          return Response.status(Response.Status.CREATED)
+              .entity(
+                  new SuccessResponse(
+                      "Created " + request.getRelations().size() + " relation tuple(s)"))
+              .build();
+        });
   }
 
   /**
-   * Deletes one or more relation tuples.
+   * Deletes one or more relation tuples. Retries carrying the same idempotency key replay the
+   * recorded response without reissuing the write. With the outbox enabled the deletion is queued
+   * durably and written to Descope in the background.
    *
+   * @param idempotencyKey Optional client-supplied idempotency key
    * @param request The relation deletion request
-   * @return HTTP 204 on success or HTTP 500 on error
+   * @return HTTP 204 on success, HTTP 202 with a pending token if queued, or HTTP 500 on error
    */
   @DELETE
   @Operation(
@@ -83,6 +157,10 @@ public class RelationResource {
       description = "Deletes one or more authorization relation tuples from the FGA system")
   @APIResponses({
     @APIResponse(responseCode = "204", description = "Relations deleted successfully"),
+    @APIResponse(
+        responseCode = "202",
+        description = "Deletion queued in the outbox",
+        content = @Content(schema = @Schema(implementation = PendingWriteResponse.class))),
     @APIResponse(
         responseCode = "400",
         description = "Bad request - invalid input",
@@ -92,9 +170,86 @@ public class RelationResource {
         description = "Internal server error",
         content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
   })
-  public Response deleteRelations(@Valid RelationRequest request) {
-    relationService.deleteRelations(request.getRelations());
-    return Response.noContent().build();
+  public Response deleteRelations(
+      @Parameter(description = "Optional key making retries of this request idempotent")
+          @HeaderParam(IdempotencyStore.HEADER)
+          String idempotencyKey,
+      @Valid RelationRequest request) {
+    return idempotencyStore.execute(
+        "deleteRelations",
+        idempotencyKey,
+        request,
+        () -> {
+          if (relationOutbox.isEnabled()) {
+            return accepted(RelationChange.Operation.DELETE, request.getRelations());
+          }
+          relationService.deleteRelations(request.getRelations());
+          return Response.noContent().build();
+        });
+  }
+
+  private Response accepted(RelationChange.Operation operation, List<RelationTuple> tuples) {
+    String token = relationOutbox.append(operation, tuples);
+    return Response.accepted(
+            new PendingWriteResponse(
+                "Queued " + operation + " of " + tuples.size() + " relation tuple(s)", token))
+        .build();
+  }
+
+  /**
+   * Reports the write-behind outbox counters.
+   *
+   * @return HTTP 200 with the pending and delivered counts
+   */
+  @GET
+  @Path("/outbox")
+  @Operation(
+      summary = "Outbox status",
+      description =
+          "Returns the number of queued, in-flight, applied and failed writes in the write-behind outbox and the age of the oldest queued write")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Counters returned",
+        content = @Content(schema = @Schema(implementation = RelationOutbox.Stats.class)))
+  })
+  public Response outboxStats() {
+    return Response.ok(relationOutbox.stats()).build();
+  }
+
+  /**
+   * Gets the delivery state of a write queued in the outbox.
+   *
+   * @param token The pending token returned when the write was queued
+   * @return HTTP 200 with the state or HTTP 404 if the token is unknown
+   */
+  @GET
+  @Path("/outbox/{token}")
+  @Operation(
+      summary = "Get queued write status",
+      description =
+          "Reports whether a queued write is still pending, applied or failed, or unknown once its outcome is no longer retained")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "State returned",
+        content = @Content(schema = @Schema(implementation = RelationOutbox.PendingWrite.class))),
+    @APIResponse(
+        responseCode = "404",
+        description = "Unknown token",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response pendingWrite(
+      @Parameter(description = "Pending token", required = true) @PathParam("token")
+          String token) {
+    return relationOutbox
+        .status(token)
+        .map(write -> Response.ok(write).build())
+        .orElseGet(
+            () ->
+                Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse("Pending write not found", token))
+                    .build());
   }
 
   /**
@@ -148,10 +303,345 @@ public class RelationResource {
   }
 
   /**
-   * Gets all relations for a specific resource.
+   * Checks whether a target holds a relation on a resource.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation type
+   * @param namespace The namespace
+   * @param target The target identifier
+   * @return HTTP 200 with the decision or HTTP 500 on error
+   */
+  @GET
+  @Path("/check")
+  @Operation(
+      summary = "Check relation",
+      description =
+          "Checks whether a target holds a relation on a resource, directly or through the schema. With rebac.decision-cache.enabled, decisions are cached briefly and invalidated by writes through this instance; writes through other instances are seen once a decision expires")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Check successful",
+        content = @Content(schema = @Schema(implementation = CheckResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - missing required parameters",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response check(
+      @Parameter(description = "Resource identifier", required = true, example = "document:123")
+          @QueryParam("resource")
+          String resource,
+      @Parameter(description = "Relation definition/type", required = true, example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition,
+      @Parameter(description = "Namespace for the resource", required = true, example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(
+              description = "Target identifier",
+              required = true,
+              example = "user:alice@example.com")
+          @QueryParam("target")
+          String target) {
+    if (resource == null || relationDefinition == null || namespace == null || target == null) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .entity(
+              new ErrorResponse(
+                  "Invalid request",
+                  "resource, relationDefinition, namespace, and target are required"))
+          .build();
+    }
+
+    boolean allowed = relationService.check(resource, relationDefinition, namespace, target);
+    return Response.ok(new CheckResponse(allowed)).build();
+  }
+
+  /**
+   * Filters candidate resources down to those a target can access.
+   *
+   * @param request The target, relation, namespace and candidates
+   * @return HTTP 200 with the accessible candidates or HTTP 500 on error
+   */
+  @POST
+  @Path("/filter")
+  @Operation(
+      summary = "Filter accessible resources",
+      description =
+          "Returns the subset of up to 10000 candidate resources on which the target holds the relation, in candidate order")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Filter successful",
+        content = @Content(schema = @Schema(implementation = FilterResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - invalid input",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response filterAccessible(@Valid AccessFilterRequest request) {
+    List<String> resources =
+        relationService.filterAccessible(
+            request.getTarget(),
+            request.getRelationDefinition(),
+            request.getNamespace(),
+            request.getResources());
+    return Response.ok(new FilterResponse(resources)).build();
+  }
+
+  /**
+   * Evaluates a set-algebra query over the adjacency store. The store only holds the tuples written
+   * through this instance that the change log retains, so results are flagged as partial.
+   *
+   * @param request The namespace, expression and result limit
+   * @return HTTP 200 with the result, HTTP 400 if the query is malformed, or HTTP 503 if the
+   *     adjacency store is disabled
+   */
+  @POST
+  @Path("/query")
+  @Operation(
+      summary = "Query relation sets",
+      description =
+          "Combines the resources of targets, the targets of resources and literal identifier lists with AND, OR and ANDNOT, evaluated over the bitmaps of the local adjacency store. Results only cover the tuples written through this instance that its change log retains")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Query evaluated",
+        content = @Content(schema = @Schema(implementation = SetQueryResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - malformed query",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "503",
+        description = "Adjacency store disabled",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response query(@Valid SetQueryRequest request) {
+    if (!adjacencyStore.isEnabled()) {
+      return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+          .entity(new ErrorResponse("Service unavailable", "adjacency store is disabled"))
+          .build();
+    }
+    AdjacencyStore.QueryResult result =
+        adjacencyStore.query(request.getNamespace(), request.getQuery(), request.getLimit());
+    return Response.ok(new SetQueryResponse(result.ids(), result.count(), false)).build();
+  }
+
+  /**
+   * Reports how local answers compare with Descope on shadowed requests.
+   *
+   * @return HTTP 200 with agreement and latency counters and the recent disagreements
+   */
+  @GET
+  @Path("/shadow")
+  @Operation(
+      summary = "Shadow evaluation report",
+      description =
+          "Returns the agreement rate and the latency of the local and Descope paths for sampled check and who-can-access requests, with the most recent disagreements")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Report returned",
+        content = @Content(schema = @Schema(implementation = ShadowEvaluator.Report.class)))
+  })
+  public Response shadowReport() {
+    return Response.ok(shadowEvaluator.report()).build();
+  }
+
+  /**
+   * Expands the userset tree that grants a relation on a resource.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation type
+   * @param namespace The namespace
+   * @return HTTP 200 with the expansion tree or HTTP 500 on error
+   */
+  @GET
+  @Path("/expand")
+  @Operation(
+      summary = "Expand resource relation",
+      description =
+          "Returns the direct targets of a resource relation together with the recursive expansion of every userset target (resource#relation), explaining how access is derived")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Expansion successful",
+        content = @Content(schema = @Schema(implementation = ExpandResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - missing required parameters",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response expand(
+      @Parameter(description = "Resource identifier", required = true, example = "document:123")
+          @QueryParam("resource")
+          String resource,
+      @Parameter(description = "Relation definition/type", required = true, example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition,
+      @Parameter(description = "Namespace for the resource", required = true, example = "documents")
+          @QueryParam("namespace")
+          String namespace) {
+    if (resource == null || relationDefinition == null || namespace == null) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .entity(
+              new ErrorResponse(
+                  "Invalid request", "resource, relationDefinition, and namespace are required"))
+          .build();
+    }
+
+    ExpandNode tree = relationExpander.expand(resource, relationDefinition, namespace);
+    return Response.ok(new ExpandResponse(tree)).build();
+  }
+
+  /**
+   * Exports the relations of a namespace, one page of resources per response.
+   *
+   * @param namespace The namespace to export
+   * @param resources The resources to export, or none for those known to this instance
+   * @param format The output format, ndjson or csv
+   * @param after The cursor from the previous response's {@code Export-Next-Cursor} header
+   * @param limit The maximum number of resources to export in this response
+   * @return HTTP 200 with the page's relations, or HTTP 400 if the request is invalid
+   * @throws IOException if the page cannot be written
+   */
+  @GET
+  @Path("/export")
+  @Produces({
+    RelationExporter.NDJSON_MEDIA_TYPE,
+    RelationExporter.CSV_MEDIA_TYPE,
+    MediaType.APPLICATION_JSON
+  })
+  @Operation(
+      summary = "Export namespace relations",
+      description =
+          "Returns every relation of the named resources, or of the resources known in a namespace, as NDJSON or CSV, ordered by resource. The Export-Next-Cursor header, when present, resumes the export in a further request. Export-Coverage is partial unless the resources were named")
+  @APIResponses({
+    @APIResponse(responseCode = "200", description = "Export page returned"),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - missing namespace or unknown format",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error - a listing could not be read",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response export(
+      @Parameter(description = "Namespace to export", required = true, example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(description = "Resources to export; repeat for each resource", example = "doc:1")
+          @QueryParam("resource")
+          List<String> resources,
+      @Parameter(description = "Output format: ndjson or csv", example = "csv")
+          @QueryParam("format")
+          @DefaultValue("ndjson")
+          String format,
+      @Parameter(description = "Resume after this resource, from Export-Next-Cursor")
+          @QueryParam("after")
+          String after,
+      @Parameter(description = "Maximum number of resources in this response", example = "500")
+          @QueryParam("limit")
+          Integer limit)
+      throws IOException {
+    if (namespace == null) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .type(MediaType.APPLICATION_JSON)
+          .entity(new ErrorResponse("Invalid request", "namespace is required"))
+          .build();
+    }
+    RelationExporter.Format exportFormat;
+    try {
+      exportFormat = RelationExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .type(MediaType.APPLICATION_JSON)
+          .entity(new ErrorResponse("Invalid request", "format must be ndjson or csv"))
+          .build();
+    }
+
+    RelationExporter.Page page = relationExporter.page(namespace, resources, after, limit);
+    // Written in full before the status is sent, so a failed listing is an error response
+    // rather than a truncated 200 carrying a cursor past the missing rows
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    relationExporter.write(page, namespace, exportFormat, body);
+    return Response.ok(body.toByteArray(), exportFormat.getMediaType())
+        .header(EXPORT_NEXT_CURSOR_HEADER, page.nextCursor())
+        .header(EXPORT_COVERAGE_HEADER, page.complete() ? "complete" : "partial")
+        .build();
+  }
+
+  /**
+   * Counts who can access a specific resource with a given relation.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation type
+   * @param namespace The namespace
+   * @return HTTP 200 with the number of targets or HTTP 500 on error
+   */
+  @GET
+  @Path("/who-can-access/count")
+  @Operation(
+      summary = "Count who can access resource",
+      description =
+          "Returns the number of targets that can access a resource with the given relation without listing them")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Count successful",
+        content = @Content(schema = @Schema(implementation = CountResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - missing required parameters",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response countWhoCanAccess(
+      @Parameter(description = "Resource identifier", required = true, example = "document:123")
+          @QueryParam("resource")
+          String resource,
+      @Parameter(description = "Relation definition/type", required = true, example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition,
+      @Parameter(description = "Namespace for the resource", required = true, example = "documents")
+          @QueryParam("namespace")
+          String namespace) {
+    if (resource == null || relationDefinition == null || namespace == null) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .entity(
+              new ErrorResponse(
+                  "Invalid request", "resource, relationDefinition, and namespace are required"))
+          .build();
+    }
+
+    long count = relationService.countWhoCanAccess(resource, relationDefinition, namespace);
+    return Response.ok(new CountResponse(count)).build();
+  }
+
+  /**
+   * Gets all relations for a specific resource, optionally filtered by namespace and relation.
    *
    * @param resourceId The resource identifier
-   * @return HTTP 200 with list of relations or HTTP 500 on error
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @param request The request, used to evaluate {@code If-None-Match}
+   * @return HTTP 200 with list of relations, HTTP 304 if unchanged, or HTTP 500 on error
    */
   @GET
   @Path("/resource/{resourceId}")
@@ -164,6 +654,7 @@ public class RelationResource {
         responseCode = "200",
         description = "Relations retrieved successfully",
         content = @Content(schema = @Schema(implementation = RelationsResponse.class))),
+    @APIResponse(responseCode = "304", description = "Relations unchanged since the given ETag"),
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
@@ -172,16 +663,98 @@ public class RelationResource {
   public Response getResourceRelations(
       @Parameter(description = "Resource identifier", required = true, example = "document:123")
           @PathParam("resourceId")
-          String resourceId) {
-    List<RelationTuple> relations = relationService.getResourceRelations(resourceId);
-    return Response.ok(new RelationsResponse(relations)).build();
+          String resourceId,
+      @Parameter(description = "Only return relations in this namespace", example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(description = "Only return relations of this type", example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition,
+      @Context Request request) {
+    List<RelationTuple> relations =
+        relationService.getResourceRelations(resourceId, namespace, relationDefinition);
+    return conditionalRelationsResponse(request, relations);
+  }
+
+  /**
+   * Gets the relations of many resources in one call, optionally filtered by namespace and
+   * relation.
+   *
+   * @param request The resources and filters
+   * @return HTTP 200 with the relations of each resource or HTTP 500 on error
+   */
+  @POST
+  @Path("/resources:batchGet")
+  @Operation(
+      summary = "Batch get resource relations",
+      description =
+          "Retrieves the relation tuples of up to 5000 resources in one call, keyed by resource identifier")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Relations retrieved successfully",
+        content = @Content(schema = @Schema(implementation = BatchRelationsResponse.class))),
+    @APIResponse(
+        responseCode = "400",
+        description = "Bad request - invalid input",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response batchGetResourceRelations(@Valid ResourceBatchGetRequest request) {
+    Map<String, List<RelationTuple>> relations =
+        resourceBatchReader.resourceRelations(
+            request.getResources(), request.getNamespace(), request.getRelationDefinition());
+    return Response.ok(new BatchRelationsResponse(relations)).build();
+  }
+
+  /**
+   * Counts the relations of a specific resource, optionally filtered by namespace and relation.
+   *
+   * @param resourceId The resource identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return HTTP 200 with the number of relations or HTTP 500 on error
+   */
+  @GET
+  @Path("/resource/{resourceId}/count")
+  @Operation(
+      summary = "Count resource relations",
+      description = "Returns the number of relation tuples of a resource without listing them")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Count successful",
+        content = @Content(schema = @Schema(implementation = CountResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response countResourceRelations(
+      @Parameter(description = "Resource identifier", required = true, example = "document:123")
+          @PathParam("resourceId")
+          String resourceId,
+      @Parameter(description = "Only count relations in this namespace", example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(description = "Only count relations of this type", example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition) {
+    long count = relationService.countResourceRelations(resourceId, namespace, relationDefinition);
+    return Response.ok(new CountResponse(count)).build();
   }
 
   /**
-   * Gets all resources a target can access.
+   * Gets all resources a target can access, optionally filtered by namespace and relation.
    *
    * @param targetId The target/subject identifier
-   * @return HTTP 200 with list of relations or HTTP 500 on error
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @param request The request, used to evaluate {@code If-None-Match}
+   * @return HTTP 200 with list of relations, HTTP 304 if unchanged, or HTTP 500 on error
    */
   @GET
   @Path("/target/{targetId}")
@@ -194,6 +767,7 @@ public class RelationResource {
         responseCode = "200",
         description = "Access information retrieved successfully",
         content = @Content(schema = @Schema(implementation = RelationsResponse.class))),
+    @APIResponse(responseCode = "304", description = "Relations unchanged since the given ETag"),
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
@@ -205,9 +779,80 @@ public class RelationResource {
               required = true,
               example = "user:alice@example.com")
           @PathParam("targetId")
-          String targetId) {
-    List<RelationTuple> relations = relationService.getTargetAccess(targetId);
-    return Response.ok(new RelationsResponse(relations)).build();
+          String targetId,
+      @Parameter(description = "Only return relations in this namespace", example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(description = "Only return relations of this type", example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition,
+      @Context Request request) {
+    List<RelationTuple> relations =
+        relationService.getTargetAccess(targetId, namespace, relationDefinition);
+    return conditionalRelationsResponse(request, relations);
+  }
+
+  /**
+   * Counts the relations a target has, optionally filtered by namespace and relation.
+   *
+   * @param targetId The target/subject identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return HTTP 200 with the number of relations or HTTP 500 on error
+   */
+  @GET
+  @Path("/target/{targetId}/count")
+  @Operation(
+      summary = "Count target access",
+      description = "Returns the number of relation tuples a target has without listing them")
+  @APIResponses({
+    @APIResponse(
+        responseCode = "200",
+        description = "Count successful",
+        content = @Content(schema = @Schema(implementation = CountResponse.class))),
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  public Response countTargetAccess(
+      @Parameter(
+              description = "Target/subject identifier",
+              required = true,
+              example = "user:alice@example.com")
+          @PathParam("targetId")
+          String targetId,
+      @Parameter(description = "Only count relations in this namespace", example = "documents")
+          @QueryParam("namespace")
+          String namespace,
+      @Parameter(description = "Only count relations of this type", example = "viewer")
+          @QueryParam("relationDefinition")
+          String relationDefinition) {
+    long count = relationService.countTargetAccess(targetId, namespace, relationDefinition);
+    return Response.ok(new CountResponse(count)).build();
+  }
+
+  /**
+   * Builds a relations response tagged with a content hash, or HTTP 304 without a body when the
+   * client's {@code If-None-Match} already matches so the relations are never serialized.
+   */
+  private static Response conditionalRelationsResponse(
+      Request request, List<RelationTuple> relations) {
+    ContentHasher hasher = new ContentHasher();
+    for (RelationTuple tuple : relations) {
+      hasher
+          .add(tuple.getResource())
+          .add(tuple.getRelationDefinition())
+          .add(tuple.getNamespace())
+          .add(tuple.getTarget())
+          .add(tuple.getExpiresAt());
+    }
+    EntityTag etag = hasher.toEntityTag();
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+    if (notModified != null) {
+      return notModified.tag(etag).build();
+    }
+    return Response.ok(new RelationsResponse(relations)).tag(etag).build();
   }
 
   /** Success response model for successful operations. */
@@ -221,6 +866,23 @@ public class RelationResource {
     }
   }
 
+  /** Response model for writes queued in the outbox. */
+  @Schema(description = "Response for a write queued in the outbox")
+  public static class PendingWriteResponse {
+    @Schema(
+        description = "Summary of the queued write",
+        example = "Queued CREATE of 2 relation tuple(s)")
+    public String message;
+
+    @Schema(description = "Token to poll for the delivery state", example = "42")
+    public String pendingToken;
+
+    public PendingWriteResponse(String message, String pendingToken) {
+      this.message = message;
+      this.pendingToken = pendingToken;
+    }
+  }
+
   /** Response model for who-can-access queries. */
   @Schema(description = "Response containing list of targets that can access a resource")
   public static class TargetsResponse {
@@ -234,6 +896,47 @@ public class RelationResource {
     }
   }
 
+  /** Response model for check queries. */
+  @Schema(description = "Response containing a permission decision")
+  public static class CheckResponse {
+    @Schema(description = "Whether the target holds the relation", example = "true")
+    public boolean allowed;
+
+    public CheckResponse(boolean allowed) {
+      this.allowed = allowed;
+    }
+  }
+
+  /** Response model for expand queries. */
+  @Schema(description = "Response containing the userset expansion of a resource relation")
+  public static class ExpandResponse {
+    @Schema(description = "Expansion tree rooted at the requested relation")
+    public ExpandNode tree;
+
+    @Schema(description = "Number of nodes in the tree", example = "12")
+    public int nodes;
+
+    @Schema(description = "False if a depth or size limit cut the expansion short")
+    public boolean complete;
+
+    public ExpandResponse(ExpandNode tree) {
+      this.tree = tree;
+      this.nodes = tree.getSize();
+      this.complete = tree.isComplete();
+    }
+  }
+
+  /** Response model for count queries. */
+  @Schema(description = "Response containing the number of matching entries")
+  public static class CountResponse {
+    @Schema(description = "Exact number of matching entries", example = "42")
+    public long count;
+
+    public CountResponse(long count) {
+      this.count = count;
+    }
+  }
+
   /** Response model for relation queries. */
   @Schema(description = "Response containing list of relation tuples")
   public static class RelationsResponse {
@@ -244,4 +947,50 @@ public class RelationResource {
       this.relations = relations;
     }
   }
+
+  /** Response model for access filter queries. */
+  @Schema(description = "Response containing the accessible candidate resources")
+  public static class FilterResponse {
+    @Schema(description = "Accessible resources, in candidate order")
+    public List<String> resources;
+
+    public FilterResponse(List<String> resources) {
+      this.resources = resources;
+    }
+  }
+
+  /** Response model for batch relation queries. */
+  @Schema(description = "Response containing the relation tuples of each requested resource")
+  public static class BatchRelationsResponse {
+    @Schema(description = "Relation tuples keyed by resource identifier, in request order")
+    public Map<String, List<RelationTuple>> relations;
+
+    public BatchRelationsResponse(Map<String, List<RelationTuple>> relations) {
+      this.relations = relations;
+    }
+  }
+
+  /** Response model for set-algebra queries. */
+  @Schema(description = "Response containing the identifiers of a set-algebra query")
+  public static class SetQueryResponse {
+    @Schema(
+        description = "Identifiers in the result, up to the requested limit",
+        example = "[\"document:123\", \"document:456\"]")
+    public List<String> ids;
+
+    @Schema(description = "Number of identifiers in the whole result", example = "2")
+    public int count;
+
+    @Schema(
+        description =
+            "Whether the result covers every relation in Descope; false while queries are evaluated over the tuples this instance wrote",
+        example = "false")
+    public boolean complete;
+
+    public SetQueryResponse(List<String> ids, int count, boolean complete) {
+      this.ids = ids;
+      this.count = count;
+      this.complete = complete;
+    }
+  }
 }
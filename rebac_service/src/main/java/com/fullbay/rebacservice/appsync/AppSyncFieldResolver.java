@@ -0,0 +1,177 @@
+package com.fullbay.rebacservice.appsync;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import com.descope.exception.DescopeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.deadline.Deadline;
+import com.fullbay.deadline.DeadlineBudget;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.deadline.DeadlineGuard;
+import com.fullbay.rebacservice.RelationResource;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.model.RelationRequest;
+import com.fullbay.rebacservice.service.RelationService;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Resolves AppSync GraphQL fields directly against {@link RelationService}, without translating
+ * the resolver event into an HTTP request and routing it through JAX-RS.
+ *
+ * <p>Failures are reported in the result with an {@code errorType} of {@code BadRequest}, {@code
+ * Timeout} or {@code InternalError}, which the resolver response templates raise as GraphQL errors.
+ */
+@ApplicationScoped
+public class AppSyncFieldResolver {
+
+  /** Read-only fields that may be resolved as part of a {@code BatchInvoke} payload. */
+  private static final Set<String> BATCHABLE_FIELDS =
+      Set.of("whoCanAccess", "getResourceRelations", "getTargetAccess");
+
+  @Inject RelationService relationService;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject DeadlineBudget deadlineBudget;
+
+  @Inject DeadlineGuard deadlineGuard;
+
+  @Inject Validator validator;
+
+  /**
+   * Decodes a direct {@code Invoke} payload, resolves it within the field's deadline and writes the
+   * result.
+   *
+   * @param payload The JSON object sent by AppSync
+   * @param output The stream receiving the JSON result
+   * @param lambdaRemainingMillis The invocation's remaining time, or null outside Lambda
+   * @throws IOException if the payload cannot be read or the result cannot be written
+   */
+  public void handle(byte[] payload, OutputStream output, Long lambdaRemainingMillis)
+      throws IOException {
+    BatchInvokeItem item = objectMapper.readValue(payload, BatchInvokeItem.class);
+    Deadline deadline = deadlineBudget.deadline(item.getField(), lambdaRemainingMillis);
+    objectMapper.writeValue(output, resolve(item, deadline));
+  }
+
+  /**
+   * Checks whether a field is read-only and can therefore be de-duplicated within a batch.
+   *
+   * @param field The GraphQL field name
+   * @return True if the field may be batch resolved
+   */
+  public boolean isBatchable(String field) {
+    return BATCHABLE_FIELDS.contains(field);
+  }
+
+  /**
+   * Resolves one field invocation under a deadline.
+   *
+   * @param item The field name and its arguments
+   * @param deadline The deadline of the field's Descope calls, or null for none
+   * @return The field data, or an error
+   */
+  public BatchInvokeResult resolve(BatchInvokeItem item, Deadline deadline) {
+    return deadlineGuard.within(deadline, () -> resolve(item));
+  }
+
+  /**
+   * Resolves one field invocation within the current request's deadline, if any.
+   *
+   * @param item The field name and its arguments
+   * @return The field data, or an error
+   */
+  public BatchInvokeResult resolve(BatchInvokeItem item) {
+    if (item == null) {
+      return BatchInvokeResult.error("Field invocation must not be null", "BadRequest");
+    }
+    Map<String, Object> args = item.getArguments() == null ? Map.of() : item.getArguments();
+    try {
+      return switch (String.valueOf(item.getField())) {
+        case "whoCanAccess" -> BatchInvokeResult.data(
+            new RelationResource.TargetsResponse(
+                relationService.whoCanAccess(
+                    argument(args, "resource"),
+                    argument(args, "relationDefinition"),
+                    argument(args, "namespace"))));
+        case "getResourceRelations" -> BatchInvokeResult.data(
+            new RelationResource.RelationsResponse(
+                relationService.getResourceRelations(
+                    argument(args, "resourceId"),
+                    optionalArgument(args, "namespace"),
+                    optionalArgument(args, "relationDefinition"))));
+        case "getTargetAccess" -> BatchInvokeResult.data(
+            new RelationResource.RelationsResponse(
+                relationService.getTargetAccess(
+                    argument(args, "targetId"),
+                    optionalArgument(args, "namespace"),
+                    optionalArgument(args, "relationDefinition"))));
+        case "createRelations" -> {
+          RelationRequest request = input(args);
+          relationService.createRelations(request.getRelations());
+          yield BatchInvokeResult.data(
+              new RelationResource.SuccessResponse(
+                  "Created " + request.getRelations().size() + " relation tuple(s)"));
+        }
+        case "deleteRelations" -> {
+          relationService.deleteRelations(input(args).getRelations());
+          // The schema declares Boolean!, which the HTTP-shaped template also answered with true
+          yield BatchInvokeResult.data(Boolean.TRUE);
+        }
+        default -> BatchInvokeResult.error(
+            "Field " + item.getField() + " is not supported", "BadRequest");
+      };
+    } catch (IllegalArgumentException | FeatureUnavailableException e) {
+      return BatchInvokeResult.error(e.getMessage(), "BadRequest");
+    } catch (DeadlineExceededException e) {
+      return BatchInvokeResult.error(e.getMessage(), "Timeout");
+    } catch (DescopeException e) {
+      Log.errorf(e, "Descope API error resolving %s: %s", item.getField(), e.getMessage());
+      return BatchInvokeResult.error("An error occurred processing your request", "InternalError");
+    } catch (RuntimeException e) {
+      // Reported like any other failure, instead of escaping as a raw Lambda error
+      Log.errorf(e, "Unexpected error resolving %s", item.getField());
+      return BatchInvokeResult.error("An unexpected error occurred", "InternalError");
+    }
+  }
+
+  /** Converts and validates the {@code input} argument of the relation mutations. */
+  private RelationRequest input(Map<String, Object> args) {
+    if (args.get("input") == null) {
+      throw new IllegalArgumentException("Argument input is required");
+    }
+    RelationRequest request = objectMapper.convertValue(args.get("input"), RelationRequest.class);
+    Set<ConstraintViolation<RelationRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Validation failed: "
+              + violations.stream()
+                  .map(cv -> cv.getPropertyPath() + ": " + cv.getMessage())
+                  .collect(Collectors.joining(", ")));
+    }
+    return request;
+  }
+
+  private static String argument(Map<String, Object> args, String name) {
+    Object value = args.get(name);
+    if (value == null || value.toString().isBlank()) {
+      throw new IllegalArgumentException("Argument " + name + " is required");
+    }
+    return value.toString();
+  }
+
+  private static String optionalArgument(Map<String, Object> args, String name) {
+    Object value = args.get(name);
+    return value == null ? null : value.toString();
+  }
+}
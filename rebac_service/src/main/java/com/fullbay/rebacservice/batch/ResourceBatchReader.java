@@ -0,0 +1,118 @@
+package com.fullbay.rebacservice.batch;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.descope.exception.DescopeException;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Reads the relations of many resources in one call.
+ *
+ * <p>Duplicate resource identifiers are read once. Resources loaded in the local index are served
+ * inline; the others are read from Descope in parallel with at most {@code
+ * rebac.batch-get.max-concurrency} calls in flight, and loaded into the index when it is enabled
+ * so later batches over the same resources are served locally.
+ */
+@ApplicationScoped
+public class ResourceBatchReader {
+
+  @ConfigProperty(name = "rebac.batch-get.max-concurrency", defaultValue = "16")
+  int maxConcurrency;
+
+  @Inject RelationService relationService;
+
+  @Inject RelationIndex relationIndex;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Reads the relations of every resource, optionally filtered.
+   *
+   * @param resources The resource identifiers
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   * @return The matching relations of each distinct resource, in request order
+   * @throws DescopeException if any listing cannot be read
+   */
+  public Map<String, List<RelationTuple>> resourceRelations(
+      Collection<String> resources, String namespace, String relationDefinition)
+      throws DescopeException {
+    Set<String> distinct = new LinkedHashSet<>(resources);
+    Map<String, List<RelationTuple>> results = new LinkedHashMap<>();
+    Map<String, Future<List<RelationTuple>>> reads = new LinkedHashMap<>();
+    Semaphore permits = new Semaphore(maxConcurrency);
+    for (String resource : distinct) {
+      if (relationIndex.resourceRelations(resource, namespace, relationDefinition).isPresent()) {
+        // Read through the service so expired tuples are filtered as for single reads
+        results.put(
+            resource,
+            relationService.getResourceRelations(resource, namespace, relationDefinition));
+        continue;
+      }
+      results.put(resource, null);
+      reads.put(
+          resource,
+          executor.submit(
+              () -> {
+                permits.acquire();
+                try {
+                  return relationService.getResourceRelations(
+                      resource, namespace, relationDefinition);
+                } finally {
+                  permits.release();
+                }
+              }));
+    }
+    Log.infof(
+        "Reading relations of %d resource(s): %d from the local index, %d from Descope",
+        distinct.size(), distinct.size() - reads.size(), reads.size());
+
+    try {
+      for (Map.Entry<String, Future<List<RelationTuple>>> read : reads.entrySet()) {
+        results.put(read.getKey(), await(read.getValue()));
+      }
+    } finally {
+      reads.values().forEach(read -> read.cancel(true));
+    }
+    return results;
+  }
+
+  private static List<RelationTuple> await(Future<List<RelationTuple>> read) {
+    try {
+      return read.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch read interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package com.fullbay.rebacservice.changelog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Change log persisted as newline-delimited JSON in a local file. Intended for local development
+ * and tests where the log must survive a restart.
+ *
+ * <p>Each append is written through one {@link FileChannel} and forced to disk before it returns,
+ * and the sequence and length only advance once it has been; a failed append is truncated away. On
+ * startup a torn final line left by a crash is truncated, since its append never returned.
+ *
+ * <p>A sparse in-memory index records the byte offset of every {@value #INDEX_STRIDE}th record, so
+ * a read seeks close to its starting sequence instead of scanning the file from the top, and
+ * {@link #replay(long, Consumer)} streams the file once. The file is append-only, so reads run
+ * outside the lock against the length that was committed when they started.
+ */
+public class FileRelationChangeLog implements RelationChangeLog {
+
+  static final int INDEX_STRIDE = 1024;
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+  private final List<Long> offsets = new ArrayList<>();
+  private long earliestSequence;
+  private long latestSequence;
+  private long length;
+  private FileChannel channel;
+
+  /**
+   * Creates a new FileRelationChangeLog, recovering sequence state from an existing file.
+   *
+   * @param file The log file, created on first append if it does not exist
+   * @param objectMapper The mapper used to encode records
+   */
+  public FileRelationChangeLog(Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+    recover();
+  }
+
+  private void recover() {
+    if (!Files.exists(file)) {
+      earliestSequence = 1;
+      return;
+    }
+    long torn = -1;
+    try (InputStream input = Files.newInputStream(file)) {
+      LineReader reader = new LineReader(input);
+      String line;
+      long offset = 0;
+      while ((line = reader.next()) != null) {
+        long lineStart = offset;
+        offset = reader.offset();
+        if (!reader.terminated()) {
+          torn = lineStart;
+          offset = lineStart;
+          break;
+        }
+        if (line.isBlank()) {
+          continue;
+        }
+        long sequence = objectMapper.readValue(line, RelationChange.class).getSequence();
+        if (earliestSequence == 0) {
+          earliestSequence = sequence;
+        }
+        latestSequence = sequence;
+        index(sequence, lineStart);
+      }
+      length = offset;
+      if (torn >= 0) {
+        // The final append never completed, so its caller was never answered
+        Log.warnf("Truncating torn record at byte %d of change log %s", torn, file);
+        try (FileChannel truncating = FileChannel.open(file, StandardOpenOption.WRITE)) {
+          truncating.truncate(torn);
+          truncating.force(false);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to recover change log from " + file, e);
+    }
+    if (earliestSequence == 0) {
+      earliestSequence = latestSequence + 1;
+    }
+  }
+
+  private void index(long sequence, long offset) {
+    if ((sequence - earliestSequence) % INDEX_STRIDE == 0) {
+      offsets.add(offset);
+    }
+  }
+
+  @Override
+  public synchronized List<RelationChange> append(
+      RelationChange.Operation operation, List<RelationTuple> tuples) {
+    List<RelationChange> appended = new ArrayList<>(tuples.size());
+    List<Long> lineOffsets = new ArrayList<>(tuples.size());
+    ByteArrayOutputStream lines = new ByteArrayOutputStream();
+    try {
+      for (RelationTuple tuple : tuples) {
+        RelationChange change =
+            new RelationChange(latestSequence + appended.size() + 1, operation, tuple);
+        lineOffsets.add(length + lines.size());
+        lines.write(objectMapper.writeValueAsBytes(change));
+        lines.write('\n');
+        appended.add(change);
+      }
+      write(ByteBuffer.wrap(lines.toByteArray()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to change log " + file, e);
+    }
+    for (int i = 0; i < appended.size(); i++) {
+      latestSequence = appended.get(i).getSequence();
+      index(latestSequence, lineOffsets.get(i));
+    }
+    length += lines.size();
+    return appended;
+  }
+
+  /** Writes and forces a batch of records, truncating a partial write so it is never read. */
+  private void write(ByteBuffer buffer) throws IOException {
+    if (channel == null) {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+    try {
+      channel.position(length);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      try {
+        channel.truncate(length);
+      } catch (IOException truncateFailure) {
+        e.addSuppressed(truncateFailure);
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public List<RelationChange> readAfter(long afterSequence, int limit) {
+    List<RelationChange> result = new ArrayList<>();
+    scan(afterSequence, limit, result::add);
+    return result;
+  }
+
+  @Override
+  public long replay(long afterSequence, Consumer<RelationChange> consumer) {
+    long cursor = afterSequence;
+    long scanned;
+    // Records appended while a pass runs are picked up by the next one
+    while ((scanned = scan(cursor, Integer.MAX_VALUE, consumer)) > cursor) {
+      cursor = scanned;
+    }
+    return cursor;
+  }
+
+  /**
+   * Streams the records after the given sequence, starting from the nearest indexed offset.
+   *
+   * @return The sequence of the last record passed to the consumer, or {@code afterSequence}
+   */
+  private long scan(long afterSequence, int limit, Consumer<RelationChange> consumer) {
+    long start;
+    long end;
+    synchronized (this) {
+      if (afterSequence >= latestSequence || offsets.isEmpty()) {
+        return afterSequence;
+      }
+      long first = Math.max(afterSequence + 1, earliestSequence);
+      start = offsets.get((int) ((first - earliestSequence) / INDEX_STRIDE));
+      end = length;
+    }
+    long cursor = afterSequence;
+    int count = 0;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      channel.position(start);
+      BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+      long remaining = end - start;
+      String line;
+      while (count < limit && remaining > 0 && (line = reader.readLine()) != null) {
+        remaining -= line.getBytes(StandardCharsets.UTF_8).length + 1;
+        if (line.isBlank()) {
+          continue;
+        }
+        RelationChange change = objectMapper.readValue(line, RelationChange.class);
+        if (change.getSequence() > afterSequence) {
+          consumer.accept(change);
+          cursor = change.getSequence();
+          count++;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read change log " + file, e);
+    }
+    return cursor;
+  }
+
+  @Override
+  public synchronized long latestSequence() {
+    return latestSequence;
+  }
+
+  @Override
+  public synchronized long earliestSequence() {
+    return latestSequence == 0 ? 1 : earliestSequence;
+  }
+
+  @Override
+  public boolean isDurable() {
+    return true;
+  }
+
+  /** Reads UTF-8 lines while tracking the byte offset after the last line returned. */
+  private static final class LineReader {
+
+    private final InputStream input;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private long offset;
+    private boolean terminated;
+
+    LineReader(InputStream input) {
+      this.input = new BufferedInputStream(input);
+    }
+
+    String next() throws IOException {
+      buffer.reset();
+      terminated = false;
+      int b;
+      while ((b = input.read()) != -1) {
+        offset++;
+        if (b == '\n') {
+          terminated = true;
+          return buffer.toString(StandardCharsets.UTF_8);
+        }
+        buffer.write(b);
+      }
+      return buffer.size() > 0 ? buffer.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    /** Whether the last line returned ended with a newline rather than the end of the file. */
+    boolean terminated() {
+      return terminated;
+    }
+
+    long offset() {
+      return offset;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.fullbay.rebacservice.changelog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * In-memory change log retaining the most recent {@code maxEntries} records. Older records are
+ * dropped in bulk once the log grows past its bound; readers detect the gap through {@link
+ * #earliestSequence()}.
+ */
+public class InMemoryRelationChangeLog implements RelationChangeLog {
+
+  private final int maxEntries;
+  private final List<RelationChange> entries = new ArrayList<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private long latestSequence;
+
+  /**
+   * Creates a new InMemoryRelationChangeLog.
+   *
+   * @param maxEntries The maximum number of records to retain
+   */
+  public InMemoryRelationChangeLog(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public List<RelationChange> append(
+      RelationChange.Operation operation, List<RelationTuple> tuples) {
+    List<RelationChange> appended = new ArrayList<>(tuples.size());
+    lock.writeLock().lock();
+    try {
+      for (RelationTuple tuple : tuples) {
+        RelationChange change = new RelationChange(++latestSequence, operation, tuple);
+        entries.add(change);
+        appended.add(change);
+      }
+      if (entries.size() > maxEntries) {
+        // Trim an extra tenth so we don't shift the backing array on every append
+        int overflow = entries.size() - maxEntries + maxEntries / 10;
+        entries.subList(0, Math.min(overflow, entries.size())).clear();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return appended;
+  }
+
+  @Override
+  public List<RelationChange> readAfter(long afterSequence, int limit) {
+    lock.readLock().lock();
+    try {
+      if (entries.isEmpty() || afterSequence >= latestSequence) {
+        return Collections.emptyList();
+      }
+      long first = entries.get(0).getSequence();
+      int from = (int) Math.max(0, afterSequence - first + 1);
+      int to = (int) Math.min(entries.size(), (long) from + limit);
+      return new ArrayList<>(entries.subList(from, to));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long latestSequence() {
+    lock.readLock().lock();
+    try {
+      return latestSequence;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long earliestSequence() {
+    lock.readLock().lock();
+    try {
+      return entries.isEmpty() ? latestSequence + 1 : entries.get(0).getSequence();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
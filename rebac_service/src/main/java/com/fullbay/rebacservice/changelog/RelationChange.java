@@ -0,0 +1,51 @@
+package com.fullbay.rebacservice.changelog;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/** A single ordered entry in the relation change log. */
+public class RelationChange {
+
+  /** The kind of mutation recorded by a change entry. */
+  public enum Operation {
+    CREATE,
+    DELETE
+  }
+
+  @JsonProperty("sequence")
+  private long sequence;
+
+  @JsonProperty("operation")
+  private Operation operation;
+
+  @JsonProperty("tuple")
+  private RelationTuple tuple;
+
+  /** Default constructor for JSON deserialization. */
+  public RelationChange() {}
+
+  /**
+   * Creates a new RelationChange.
+   *
+   * @param sequence The monotonically increasing sequence number of the change
+   * @param operation The mutation that was applied
+   * @param tuple The relation tuple that was created or deleted
+   */
+  public RelationChange(long sequence, Operation operation, RelationTuple tuple) {
+    this.sequence = sequence;
+    this.operation = operation;
+    this.tuple = tuple;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  public RelationTuple getTuple() {
+    return tuple;
+  }
+}
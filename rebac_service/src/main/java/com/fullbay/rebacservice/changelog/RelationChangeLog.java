@@ -0,0 +1,77 @@
+package com.fullbay.rebacservice.changelog;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * Append-only, ordered log of relation mutations.
+ *
+ * <p>Every successful create or delete is appended with a contiguous sequence number. Readers tail
+ * the log with {@link #readAfter(long, int)} to invalidate caches and update indexes incrementally,
+ * and {@link #replay(long, Consumer)} rolls a snapshot forward from a known sequence.
+ */
+public interface RelationChangeLog {
+
+  /**
+   * Appends one change record per tuple, in list order.
+   *
+   * @param operation The mutation that was applied to every tuple
+   * @param tuples The tuples that were created or deleted
+   * @return The appended change records with their assigned sequence numbers
+   */
+  List<RelationChange> append(RelationChange.Operation operation, List<RelationTuple> tuples);
+
+  /**
+   * Reads change records with a sequence strictly greater than the given one.
+   *
+   * @param afterSequence The last sequence the reader has already applied (0 to read from start)
+   * @param limit The maximum number of records to return
+   * @return The next records in sequence order, empty if the reader is caught up
+   */
+  List<RelationChange> readAfter(long afterSequence, int limit);
+
+  /**
+   * Gets the sequence of the most recently appended record.
+   *
+   * @return The latest sequence, or 0 if nothing has been appended
+   */
+  long latestSequence();
+
+  /**
+   * Gets the sequence of the oldest record still retained by the log. A reader whose last applied
+   * sequence is below {@code earliestSequence() - 1} has missed records and must resynchronize.
+   *
+   * @return The earliest retained sequence, or {@code latestSequence() + 1} if the log is empty
+   */
+  long earliestSequence();
+
+  /**
+   * Checks whether the log survives a restart of this instance.
+   *
+   * @return True if retained records are persisted
+   */
+  default boolean isDurable() {
+    return false;
+  }
+
+  /**
+   * Replays every retained record after the given sequence to the consumer, in order.
+   *
+   * @param afterSequence The sequence the snapshot being rolled forward was taken at
+   * @param consumer The consumer applying each record
+   * @return The sequence of the last replayed record, or {@code afterSequence} if none
+   */
+  default long replay(long afterSequence, Consumer<RelationChange> consumer) {
+    long cursor = afterSequence;
+    List<RelationChange> batch;
+    while (!(batch = readAfter(cursor, 1000)).isEmpty()) {
+      for (RelationChange change : batch) {
+        consumer.accept(change);
+        cursor = change.getSequence();
+      }
+    }
+    return cursor;
+  }
+}
@@ -0,0 +1,51 @@
+package com.fullbay.rebacservice.config;
+
+import java.nio.file.Path;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.changelog.FileRelationChangeLog;
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.logging.Log;
+
+/** Configuration class for the relation change log implementation. */
+@Singleton
+public class ChangeLogConfig {
+
+  @ConfigProperty(name = "rebac.changelog.type", defaultValue = "memory")
+  String type;
+
+  @ConfigProperty(name = "rebac.changelog.memory.max-entries", defaultValue = "100000")
+  int maxEntries;
+
+  @ConfigProperty(
+      name = "rebac.changelog.file.path",
+      defaultValue = "build/relation-changes.ndjson")
+  String filePath;
+
+  @Inject ObjectMapper objectMapper;
+
+  /**
+   * Creates the relation change log selected by {@code rebac.changelog.type}.
+   *
+   * @return A file-backed log for {@code file}, otherwise a bounded in-memory log
+   */
+  @Produces
+  @Singleton
+  @DefaultBean
+  public RelationChangeLog relationChangeLog() {
+    if ("file".equalsIgnoreCase(type)) {
+      Log.infof("Using file-backed relation change log at %s", filePath);
+      return new FileRelationChangeLog(Path.of(filePath), objectMapper);
+    }
+    return new InMemoryRelationChangeLog(maxEntries);
+  }
+}
@@ -0,0 +1,46 @@
+package com.fullbay.rebacservice.config;
+
+import java.nio.file.Path;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.job.FileJobStore;
+import com.fullbay.rebacservice.job.InMemoryJobStore;
+import com.fullbay.rebacservice.job.JobStore;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.logging.Log;
+
+/** Configuration class for the bulk job store implementation. */
+@Singleton
+public class JobStoreConfig {
+
+  @ConfigProperty(name = "rebac.jobs.store.type", defaultValue = "memory")
+  String type;
+
+  @ConfigProperty(name = "rebac.jobs.store.directory", defaultValue = "build/relation-jobs")
+  String directory;
+
+  @Inject ObjectMapper objectMapper;
+
+  /**
+   * Creates the job store selected by {@code rebac.jobs.store.type}.
+   *
+   * @return A file-backed store for {@code file}, otherwise an in-memory store
+   */
+  @Produces
+  @Singleton
+  @DefaultBean
+  public JobStore jobStore() {
+    if ("file".equalsIgnoreCase(type)) {
+      Log.infof("Using file-backed job store at %s", directory);
+      return new FileJobStore(Path.of(directory), objectMapper);
+    }
+    return new InMemoryJobStore();
+  }
+}
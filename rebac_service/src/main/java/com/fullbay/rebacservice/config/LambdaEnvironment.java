@@ -0,0 +1,29 @@
+package com.fullbay.rebacservice.config;
+
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Tells whether the service runs in an AWS Lambda sandbox. A sandbox is frozen between invocations
+ * and recycled at any time, and its local disk and memory are not shared with other sandboxes, so
+ * background work and per-instance state cannot be relied on there.
+ */
+@ApplicationScoped
+public class LambdaEnvironment {
+
+  // Set by the Lambda runtime in every sandbox
+  @ConfigProperty(name = "AWS_LAMBDA_FUNCTION_NAME")
+  Optional<String> functionName = Optional.empty();
+
+  /**
+   * Checks whether the service runs on Lambda.
+   *
+   * @return True inside a Lambda sandbox
+   */
+  public boolean isLambda() {
+    return functionName.isPresent();
+  }
+}
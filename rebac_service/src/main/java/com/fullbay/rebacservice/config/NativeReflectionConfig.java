@@ -0,0 +1,25 @@
+package com.fullbay.rebacservice.config;
+
+import com.descope.model.authz.Relation;
+import com.descope.model.authz.RelationQuery;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.job.Job;
+import com.fullbay.rebacservice.outbox.OutboxRecord;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Registers classes for reflection in native builds. Quarkus registers REST request and response
+ * types itself; this covers the Descope SDK models the SDK maps with Jackson internally and the
+ * types this service serializes to local change log, job and outbox files.
+ */
+@RegisterForReflection(
+    targets = {
+      Relation.class,
+      RelationQuery.class,
+      RelationChange.class,
+      Job.class,
+      OutboxRecord.class
+    },
+    registerFullHierarchy = true)
+public class NativeReflectionConfig {}
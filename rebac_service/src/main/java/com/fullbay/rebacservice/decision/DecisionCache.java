@@ -0,0 +1,254 @@
+package com.fullbay.rebacservice.decision;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Weighted LRU cache of permission check results.
+ *
+ * <p>Entries are spread over {@code rebac.decision-cache.segments} independently locked segments,
+ * each evicting its least recently used decisions once its share of {@code
+ * rebac.decision-cache.max-weight} (estimated bytes of key data) is exceeded. Decisions expire
+ * after {@code rebac.decision-cache.ttl.seconds}.
+ *
+ * <p>Invalidation is O(1) and lock-free: every resource and target hashes to a generation counter,
+ * each decision records the counters of its resource and target when it is looked up, and a write
+ * bumps the counters of the written tuples. Decisions whose recorded generations are behind are
+ * treated as misses. A write that changes a decision only indirectly, through a userset on another
+ * resource, is picked up when the decision expires.
+ *
+ * <p>Only writes made through this instance invalidate its decisions; a grant revoked through
+ * another instance keeps being allowed here until the decision expires. The cache is therefore off
+ * unless {@code rebac.decision-cache.enabled} is set.
+ */
+@ApplicationScoped
+public class DecisionCache {
+
+  @ConfigProperty(name = "rebac.decision-cache.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "rebac.decision-cache.max-weight", defaultValue = "16777216")
+  long maxWeight;
+
+  @ConfigProperty(name = "rebac.decision-cache.ttl.seconds", defaultValue = "10")
+  long ttlSeconds;
+
+  @ConfigProperty(name = "rebac.decision-cache.segments", defaultValue = "16")
+  int segmentCount;
+
+  @ConfigProperty(name = "rebac.decision-cache.generation-slots", defaultValue = "4096")
+  int generationSlots;
+
+  private Segment[] segments;
+  private AtomicLongArray resourceGenerations;
+  private AtomicLongArray targetGenerations;
+
+  @PostConstruct
+  void init() {
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(Math.max(1, maxWeight / segmentCount));
+    }
+    resourceGenerations = new AtomicLongArray(generationSlots);
+    targetGenerations = new AtomicLongArray(generationSlots);
+  }
+
+  /**
+   * Checks whether the cache is enabled.
+   *
+   * @return True if decisions are cached
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Looks up a cached decision.
+   *
+   * @param key The decision key
+   * @return The decision, or empty if it is not cached, has expired or was invalidated
+   */
+  public Optional<Boolean> get(DecisionKey key) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    return segment(key).get(key, stamp(key), System.currentTimeMillis());
+  }
+
+  /**
+   * Records the invalidation state of a key. Take the stamp before asking Descope so a write that
+   * races with the check invalidates the decision it produces.
+   *
+   * @param key The decision key
+   * @return The current generations of the key's resource and target
+   */
+  public Stamp stamp(DecisionKey key) {
+    return new Stamp(
+        resourceGenerations.get(slot(key.resource())), targetGenerations.get(slot(key.target())));
+  }
+
+  /**
+   * Caches a decision.
+   *
+   * @param key The decision key
+   * @param stamp The {@link #stamp(DecisionKey)} taken before the decision was computed
+   * @param allowed The decision
+   */
+  public void put(DecisionKey key, Stamp stamp, boolean allowed) {
+    if (!enabled) {
+      return;
+    }
+    long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+    segment(key).put(key, new Entry(allowed, stamp, expiresAt));
+  }
+
+  /**
+   * Invalidates every cached decision on the resources or for the targets of the given tuples.
+   *
+   * @param tuples The written tuples
+   */
+  public void invalidate(Collection<RelationTuple> tuples) {
+    for (RelationTuple tuple : tuples) {
+      invalidateResource(tuple.getResource());
+      invalidateTarget(tuple.getTarget());
+    }
+  }
+
+  /**
+   * Invalidates every cached decision on a resource.
+   *
+   * @param resource The resource identifier
+   */
+  public void invalidateResource(String resource) {
+    resourceGenerations.incrementAndGet(slot(resource));
+  }
+
+  /**
+   * Invalidates every cached decision for a target.
+   *
+   * @param target The target identifier
+   */
+  public void invalidateTarget(String target) {
+    targetGenerations.incrementAndGet(slot(target));
+  }
+
+  /** Drops every cached decision. */
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * Gets the estimated weight of all cached decisions.
+   *
+   * @return The sum of the segment weights
+   */
+  long weight() {
+    long weight = 0;
+    for (Segment segment : segments) {
+      weight += segment.weight();
+    }
+    return weight;
+  }
+
+  private Segment segment(DecisionKey key) {
+    return segments[Math.floorMod(spread(key.hashCode()), segments.length)];
+  }
+
+  private int slot(String value) {
+    return Math.floorMod(spread(value.hashCode()), generationSlots);
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Generations of a key's resource and target at a point in time.
+   *
+   * @param resourceGeneration The resource generation
+   * @param targetGeneration The target generation
+   */
+  public record Stamp(long resourceGeneration, long targetGeneration) {}
+
+  private record Entry(boolean allowed, Stamp stamp, long expiresAt) {}
+
+  /** One independently locked LRU partition of the cache. */
+  private static final class Segment {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<DecisionKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private long weight;
+
+    Segment(long maxWeight) {
+      this.maxWeight = maxWeight;
+    }
+
+    Optional<Boolean> get(DecisionKey key, Stamp current, long now) {
+      lock.lock();
+      try {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+          return Optional.empty();
+        }
+        if (entry.expiresAt() <= now || !entry.stamp().equals(current)) {
+          entries.remove(key);
+          weight -= key.weight();
+          return Optional.empty();
+        }
+        return Optional.of(entry.allowed());
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void put(DecisionKey key, Entry entry) {
+      lock.lock();
+      try {
+        if (entries.put(key, entry) == null) {
+          weight += key.weight();
+        }
+        Iterator<Map.Entry<DecisionKey, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+          weight -= eldest.next().getKey().weight();
+          eldest.remove();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        entries.clear();
+        weight = 0;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    long weight() {
+      lock.lock();
+      try {
+        return weight;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.fullbay.rebacservice.decision;
+
+/**
+ * Key of a cached permission decision.
+ *
+ * @param resource The resource identifier
+ * @param relationDefinition The relation definition
+ * @param namespace The namespace
+ * @param target The target identifier
+ */
+public record DecisionKey(
+    String resource, String relationDefinition, String namespace, String target) {
+
+  // Object header, record fields and String headers, approximately
+  private static final int OVERHEAD_BYTES = 96;
+
+  /**
+   * Estimates the memory held by this key, which dominates the size of a cached decision.
+   *
+   * @return The approximate size in bytes
+   */
+  int weight() {
+    return OVERHEAD_BYTES
+        + resource.length()
+        + relationDefinition.length()
+        + namespace.length()
+        + target.length();
+  }
+}
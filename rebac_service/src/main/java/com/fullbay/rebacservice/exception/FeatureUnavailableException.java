@@ -0,0 +1,14 @@
+package com.fullbay.rebacservice.exception;
+
+/** Exception thrown when a feature cannot work safely in the current deployment. */
+public class FeatureUnavailableException extends RuntimeException {
+
+  /**
+   * Creates a new FeatureUnavailableException.
+   *
+   * @param message The error message
+   */
+  public FeatureUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -10,6 +10,7 @@ import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 
 import com.descope.exception.DescopeException;
+import com.fullbay.deadline.DeadlineExceededException;
 import com.fullbay.rebacservice.model.ErrorResponse;
 
 import io.quarkus.logging.Log;
@@ -21,6 +22,12 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
 
   @Override
   public Response toResponse(Exception exception) {
+    if (exception instanceof JobNotFoundException e) {
+      return Response.status(Response.Status.NOT_FOUND)
+          .entity(new ErrorResponse("Job not found", e.getMessage()))
+          .build();
+    }
+
     if (exception instanceof ConstraintViolationException e) {
       String violations =
           e.getConstraintViolations().stream()
@@ -37,6 +44,38 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
           .build();
     }
 
+    if (exception instanceof JobRejectedException e) {
+      return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+          .entity(new ErrorResponse("Service unavailable", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof IdempotentRequestInProgressException e) {
+      return Response.status(Response.Status.CONFLICT)
+          .entity(new ErrorResponse("Request in progress", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof IdempotencyKeyReusedException e) {
+      // 422 Unprocessable Content has no Response.Status constant
+      return Response.status(422)
+          .entity(new ErrorResponse("Idempotency key reused", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof FeatureUnavailableException e) {
+      return Response.status(Response.Status.NOT_IMPLEMENTED)
+          .entity(new ErrorResponse("Not available", e.getMessage()))
+          .build();
+    }
+
+    if (exception instanceof DeadlineExceededException e) {
+      String title = e.isOutcomeUnknown() ? "Outcome unknown" : "Deadline exceeded";
+      return Response.status(Response.Status.GATEWAY_TIMEOUT)
+          .entity(new ErrorResponse(title, e.getMessage()))
+          .build();
+    }
+
     if (exception instanceof DescopeException e) {
       Log.errorf(e, "Descope API error: %s", e.getMessage());
       // Return generic message to client, don't expose internal details
@@ -0,0 +1,17 @@
+package com.fullbay.rebacservice.exception;
+
+/**
+ * Exception thrown when a retry waited too long for the in-flight request holding its idempotency
+ * key.
+ */
+public class IdempotentRequestInProgressException extends RuntimeException {
+
+  /**
+   * Creates a new IdempotentRequestInProgressException.
+   *
+   * @param message The error message
+   */
+  public IdempotentRequestInProgressException(String message) {
+    super(message);
+  }
+}
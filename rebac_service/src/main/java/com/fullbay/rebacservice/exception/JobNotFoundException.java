@@ -0,0 +1,26 @@
+package com.fullbay.rebacservice.exception;
+
+/** Exception thrown when a bulk relation job is not found. */
+public class JobNotFoundException extends RuntimeException {
+
+  private final String jobId;
+
+  /**
+   * Creates a new JobNotFoundException.
+   *
+   * @param jobId The job ID
+   */
+  public JobNotFoundException(String jobId) {
+    super(String.format("Job %s not found", jobId));
+    this.jobId = jobId;
+  }
+
+  /**
+   * Gets the job ID.
+   *
+   * @return The job ID
+   */
+  public String getJobId() {
+    return jobId;
+  }
+}
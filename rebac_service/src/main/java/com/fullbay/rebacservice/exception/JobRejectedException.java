@@ -0,0 +1,14 @@
+package com.fullbay.rebacservice.exception;
+
+/** Thrown when a bulk job cannot be accepted because the worker queue is full. */
+public class JobRejectedException extends RuntimeException {
+
+  /**
+   * Creates a new JobRejectedException.
+   *
+   * @param message The error message
+   */
+  public JobRejectedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,135 @@
+package com.fullbay.rebacservice.expand;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.descope.exception.DescopeException;
+import com.fullbay.rebacservice.model.ExpandNode;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Expands the userset tree behind an access decision.
+ *
+ * <p>A target of the form {@code resource#relationDefinition} is a userset: everyone holding that
+ * relation on that resource, in any namespace. Expansion walks the resource listings depth first,
+ * reading them through {@link RelationService} so loaded listings come from the local index.
+ * Usersets shared by several branches are expanded once per call and reused, usersets already
+ * being expanded higher up are reported as cycles, and the walk stops at {@code
+ * rebac.expand.max-depth} levels or {@code rebac.expand.max-nodes} nodes.
+ */
+@ApplicationScoped
+public class RelationExpander {
+
+  static final char USERSET_SEPARATOR = '#';
+
+  @ConfigProperty(name = "rebac.expand.max-depth", defaultValue = "8")
+  int maxDepth;
+
+  @ConfigProperty(name = "rebac.expand.max-nodes", defaultValue = "500")
+  int maxNodes;
+
+  @Inject RelationService relationService;
+
+  /**
+   * Expands a resource relation.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace of the root relation
+   * @return The root of the expansion tree
+   * @throws DescopeException if a listing cannot be read
+   */
+  public ExpandNode expand(String resource, String relationDefinition, String namespace)
+      throws DescopeException {
+    Expansion expansion = new Expansion();
+    ExpandNode root = expansion.expand(resource, relationDefinition, namespace, 0);
+    Log.infof(
+        "Expanded %s#%s (namespace: %s) into %d node(s) with %d listing read(s)",
+        resource, relationDefinition, namespace, root.getSize(), expansion.reads);
+    return root;
+  }
+
+  /** State of one expansion call. */
+  private final class Expansion {
+
+    private final Map<String, ExpandNode> memo = new HashMap<>();
+    private final Set<String> inProgress = new HashSet<>();
+    private int nodes;
+    private int reads;
+
+    ExpandNode expand(String resource, String relationDefinition, String namespace, int depth) {
+      String key = namespace + '\u0000' + resource + USERSET_SEPARATOR + relationDefinition;
+      ExpandNode shared = memo.get(key);
+      if (shared != null && nodes + shared.getSize() <= maxNodes) {
+        nodes += shared.getSize();
+        return shared;
+      }
+      if (shared != null || nodes >= maxNodes) {
+        return stub(resource, relationDefinition, namespace, ExpandNode.Truncation.SIZE);
+      }
+      if (depth > maxDepth) {
+        return stub(resource, relationDefinition, namespace, ExpandNode.Truncation.DEPTH);
+      }
+      if (!inProgress.add(key)) {
+        return stub(resource, relationDefinition, namespace, ExpandNode.Truncation.CYCLE);
+      }
+      nodes++;
+
+      reads++;
+      List<RelationTuple> tuples =
+          relationService.getResourceRelations(resource, namespace, relationDefinition);
+      List<String> targets = new ArrayList<>();
+      List<ExpandNode> usersets = new ArrayList<>();
+      ExpandNode.Truncation truncation = null;
+      for (RelationTuple tuple : tuples) {
+        String target = tuple.getTarget();
+        int separator = target.lastIndexOf(USERSET_SEPARATOR);
+        if (separator > 0 && separator < target.length() - 1) {
+          if (nodes >= maxNodes) {
+            // Keep listing direct targets, but stop adding usersets once the budget is spent
+            truncation = ExpandNode.Truncation.SIZE;
+            continue;
+          }
+          usersets.add(
+              expand(
+                  target.substring(0, separator),
+                  target.substring(separator + 1),
+                  null,
+                  depth + 1));
+        } else {
+          targets.add(target);
+        }
+      }
+      inProgress.remove(key);
+
+      ExpandNode node =
+          ExpandNode.expanded(
+              resource, relationDefinition, namespace, targets, usersets, truncation);
+      if (node.isComplete()) {
+        memo.put(key, node);
+      }
+      return node;
+    }
+
+    private ExpandNode stub(
+        String resource,
+        String relationDefinition,
+        String namespace,
+        ExpandNode.Truncation truncation) {
+      nodes++;
+      return ExpandNode.truncated(resource, relationDefinition, namespace, truncation);
+    }
+  }
+}
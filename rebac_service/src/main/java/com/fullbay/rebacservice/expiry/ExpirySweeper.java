@@ -0,0 +1,114 @@
+package com.fullbay.rebacservice.expiry;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Deletes relation tuples once their {@code expiresAt} has passed.
+ *
+ * <p>Every {@code rebac.expiry.tick.millis} the sweeper advances the {@link TupleExpiryService}
+ * schedule, invalidates the cached decisions of the tuples that came due and deletes every pending
+ * expired tuple from Descope in batches of {@code rebac.expiry.sweep.batch-size}; failed batches
+ * stay pending and are retried on the next tick. The sweeper only runs where schedules are durable,
+ * since nothing else can be expiring.
+ */
+@ApplicationScoped
+public class ExpirySweeper {
+
+  @ConfigProperty(name = "rebac.expiry.tick.millis", defaultValue = "1000")
+  long tickMillis;
+
+  @ConfigProperty(name = "rebac.expiry.sweep.batch-size", defaultValue = "100")
+  int batchSize;
+
+  @Inject TupleExpiryService expiry;
+
+  @Inject RelationService relationService;
+
+  @Inject DecisionCache decisionCache;
+
+  private ScheduledExecutorService scheduler;
+
+  void start(@Observes StartupEvent event) {
+    if (!expiry.isDurable()) {
+      Log.info("Tuple expiry is disabled: no durable schedule on this instance");
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "tuple-expiry");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /** Expires the tuples that came due and deletes every pending expired tuple. */
+  void tick() {
+    try {
+      sweep(System.currentTimeMillis());
+    } catch (RuntimeException e) {
+      Log.warnf("Tuple expiry sweep failed: %s", e.getMessage());
+    }
+  }
+
+  /**
+   * Advances the schedule and deletes the expired tuples from Descope.
+   *
+   * @param nowMillis The current time in epoch millis
+   * @return The number of tuples deleted
+   */
+  int sweep(long nowMillis) {
+    List<RelationTuple> due = expiry.advance(nowMillis);
+    if (!due.isEmpty()) {
+      decisionCache.invalidate(due);
+    }
+    List<RelationTuple> pending = expiry.pending();
+    if (pending.isEmpty()) {
+      return 0;
+    }
+
+    int deleted = 0;
+    for (int from = 0; from < pending.size(); from += batchSize) {
+      List<RelationTuple> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+      try {
+        // Deleting cancels the schedules, which also clears the batch from the pending set
+        relationService.deleteRelations(batch);
+        deleted += batch.size();
+      } catch (RuntimeException e) {
+        Log.warnf(
+            "Could not delete %d expired tuple(s), retrying next tick: %s",
+            pending.size() - deleted, e.getMessage());
+        break;
+      }
+    }
+    if (deleted > 0) {
+      Log.infof("Deleted %d expired relation tuple(s)", deleted);
+    }
+    return deleted;
+  }
+}
@@ -0,0 +1,181 @@
+package com.fullbay.rebacservice.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel.
+ *
+ * <p>Time advances in ticks of {@code tickMillis}. Level {@code L} has 64 slots, each spanning
+ * 64<sup>L</sup> ticks, so four levels cover 64<sup>4</sup> ticks (about 194 days at one-second
+ * ticks); later deadlines wait in an overflow list that is re-examined once per top-level slot.
+ * Scheduling and cancelling are O(1). Each tick empties one level-0 slot, and every 64<sup>L</sup>
+ * ticks one level-{@code L} slot is cascaded into the levels below, so expiring timers never
+ * requires scanning the ones that are not yet due. Not thread-safe.
+ *
+ * @param <T> The type of the scheduled items
+ */
+final class TimerWheel<T> {
+
+  static final int SLOT_BITS = 6;
+  static final int SLOTS = 1 << SLOT_BITS;
+  static final int LEVELS = 4;
+
+  private static final int SLOT_MASK = SLOTS - 1;
+
+  /** A scheduled item. */
+  static final class Timer<T> {
+
+    private final T item;
+    private final long deadlineMillis;
+    private final long expiryTick;
+    private boolean cancelled;
+
+    private Timer(T item, long deadlineMillis, long expiryTick) {
+      this.item = item;
+      this.deadlineMillis = deadlineMillis;
+      this.expiryTick = expiryTick;
+    }
+
+    T item() {
+      return item;
+    }
+
+    long deadlineMillis() {
+      return deadlineMillis;
+    }
+  }
+
+  private final long tickMillis;
+  private final List<List<ArrayDeque<Timer<T>>>> levels = new ArrayList<>(LEVELS);
+  private final ArrayDeque<Timer<T>> overflow = new ArrayDeque<>();
+  private final ArrayDeque<Timer<T>> due = new ArrayDeque<>();
+  private long currentTick;
+  private int size;
+
+  /**
+   * Creates a wheel.
+   *
+   * @param tickMillis The tick length in milliseconds
+   * @param startMillis The current time in epoch millis
+   */
+  TimerWheel(long tickMillis, long startMillis) {
+    this.tickMillis = tickMillis;
+    this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    for (int level = 0; level < LEVELS; level++) {
+      List<ArrayDeque<Timer<T>>> slots = new ArrayList<>(SLOTS);
+      for (int slot = 0; slot < SLOTS; slot++) {
+        slots.add(new ArrayDeque<>());
+      }
+      levels.add(slots);
+    }
+  }
+
+  /**
+   * Schedules an item. Items are never reported before their deadline, and at most one tick after
+   * it once {@link #advance(long)} is called.
+   *
+   * @param item The item
+   * @param deadlineMillis When the item expires, in epoch millis
+   * @return A handle for {@link #cancel(Timer)}
+   */
+  Timer<T> schedule(T item, long deadlineMillis) {
+    Timer<T> timer = new Timer<>(item, deadlineMillis, ceilDiv(deadlineMillis, tickMillis));
+    place(timer);
+    size++;
+    return timer;
+  }
+
+  /**
+   * Cancels a timer. The timer stays in its slot and is dropped when the slot is next visited.
+   *
+   * @param timer The timer returned by {@link #schedule(Object, long)}
+   */
+  void cancel(Timer<T> timer) {
+    if (!timer.cancelled) {
+      timer.cancelled = true;
+      size--;
+    }
+  }
+
+  /**
+   * Advances the wheel to the given time.
+   *
+   * @param nowMillis The current time in epoch millis
+   * @return The items whose deadline has passed, in deadline order per tick
+   */
+  List<T> advance(long nowMillis) {
+    List<T> expired = new ArrayList<>();
+    drain(due, expired);
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    while (currentTick < targetTick) {
+      currentTick++;
+      if ((currentTick & ((1L << (SLOT_BITS * (LEVELS - 1))) - 1)) == 0) {
+        ArrayDeque<Timer<T>> waiting = new ArrayDeque<>(overflow);
+        overflow.clear();
+        replace(waiting);
+      }
+      for (int level = LEVELS - 1; level > 0; level--) {
+        if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+          replace(slot(level, currentTick));
+        }
+      }
+      drain(slot(0, currentTick), expired);
+      drain(due, expired);
+    }
+    return expired;
+  }
+
+  /**
+   * Gets the number of scheduled, not yet expired or cancelled timers.
+   *
+   * @return The number of live timers
+   */
+  int size() {
+    return size;
+  }
+
+  private void place(Timer<T> timer) {
+    long delta = timer.expiryTick - currentTick;
+    if (delta <= 0) {
+      due.add(timer);
+      return;
+    }
+    for (int level = 0; level < LEVELS; level++) {
+      if (delta < 1L << (SLOT_BITS * (level + 1))) {
+        slot(level, timer.expiryTick).add(timer);
+        return;
+      }
+    }
+    overflow.add(timer);
+  }
+
+  private void replace(ArrayDeque<Timer<T>> timers) {
+    Timer<T> timer;
+    while ((timer = timers.poll()) != null) {
+      if (!timer.cancelled) {
+        place(timer);
+      }
+    }
+  }
+
+  private void drain(ArrayDeque<Timer<T>> timers, List<T> expired) {
+    Timer<T> timer;
+    while ((timer = timers.poll()) != null) {
+      if (!timer.cancelled) {
+        timer.cancelled = true;
+        size--;
+        expired.add(timer.item);
+      }
+    }
+  }
+
+  private ArrayDeque<Timer<T>> slot(int level, long tick) {
+    return levels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+  }
+
+  private static long ceilDiv(long value, long divisor) {
+    return -Math.floorDiv(-value, divisor);
+  }
+}
@@ -0,0 +1,240 @@
+package com.fullbay.rebacservice.expiry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Tracks the {@code expiresAt} of relation tuples created through this instance.
+ *
+ * <p>Descope has no notion of expiry, so every tuple created with an expiry is scheduled on a
+ * {@link TimerWheel} with a resolution of {@code rebac.expiry.tick.millis}. The {@link
+ * ExpirySweeper} advances the wheel and deletes the tuples that came due. Until a tuple is deleted,
+ * the listings served by {@code RelationService} hide it as soon as its deadline passes, and a
+ * check of the expired tuple deletes it before asking Descope, since the target may still hold the
+ * relation through another path.
+ *
+ * <p>Schedules are rebuilt from the change log on startup, so they are only as durable as the log.
+ * Tuples with an expiry are refused unless the service runs outside Lambda with a file-backed
+ * change log: a Lambda sandbox is frozen between invocations and recycled at any time, and an
+ * in-memory log loses the schedule on restart.
+ */
+@ApplicationScoped
+public class TupleExpiryService {
+
+  @ConfigProperty(name = "rebac.expiry.tick.millis", defaultValue = "1000")
+  long tickMillis;
+
+  @Inject RelationChangeLog changeLog;
+
+  @Inject LambdaEnvironment lambdaEnvironment;
+
+  private final ReentrantLock wheelLock = new ReentrantLock();
+  private final Map<RelationTuple, TimerWheel.Timer<RelationTuple>> timers =
+      new ConcurrentHashMap<>();
+  private final Set<RelationTuple> expired = ConcurrentHashMap.newKeySet();
+  private TimerWheel<RelationTuple> wheel;
+
+  @PostConstruct
+  void init() {
+    wheel = new TimerWheel<>(tickMillis, System.currentTimeMillis());
+  }
+
+  void start(@Observes StartupEvent event) {
+    if (!isDurable()) {
+      return;
+    }
+    long replayed = changeLog.replay(0, this::apply);
+    Log.infof("Rebuilt %d tuple expiry schedule(s) up to sequence %d", timers.size(), replayed);
+  }
+
+  /**
+   * Checks whether expiry schedules survive this instance, so tuples may carry an expiry.
+   *
+   * @return True outside Lambda with a durable change log
+   */
+  public boolean isDurable() {
+    return !lambdaEnvironment.isLambda() && changeLog.isDurable();
+  }
+
+  /**
+   * Refuses tuples with an expiry when their schedule would not be durable.
+   *
+   * @param tuples The tuples about to be created
+   * @throws FeatureUnavailableException if a tuple has an expiry and schedules are not durable
+   */
+  public void ensureSupported(Collection<RelationTuple> tuples) {
+    if (isDurable()) {
+      return;
+    }
+    for (RelationTuple tuple : tuples) {
+      if (tuple.getExpiresAt() != null) {
+        throw new FeatureUnavailableException(
+            "expiresAt needs a long-running instance with a file-backed change log");
+      }
+    }
+  }
+
+  /**
+   * Schedules the expiry of created tuples. A tuple created again replaces its previous schedule,
+   * and one created without an expiry no longer expires.
+   *
+   * @param tuples The created tuples
+   */
+  public void schedule(Collection<RelationTuple> tuples) {
+    wheelLock.lock();
+    try {
+      for (RelationTuple tuple : tuples) {
+        unschedule(tuple);
+        Instant expiresAt = tuple.getExpiresAt();
+        if (expiresAt != null) {
+          timers.put(tuple, wheel.schedule(tuple, expiresAt.toEpochMilli()));
+        }
+      }
+    } finally {
+      wheelLock.unlock();
+    }
+  }
+
+  /**
+   * Drops the expiry schedules of deleted tuples.
+   *
+   * @param tuples The deleted tuples
+   */
+  public void cancel(Collection<RelationTuple> tuples) {
+    wheelLock.lock();
+    try {
+      for (RelationTuple tuple : tuples) {
+        unschedule(tuple);
+      }
+    } finally {
+      wheelLock.unlock();
+    }
+  }
+
+  /**
+   * Checks whether any tuple is scheduled to expire or waiting to be deleted. When not, listings
+   * need no filtering.
+   *
+   * @return True if some tuple has an expiry
+   */
+  public boolean isTracking() {
+    return !timers.isEmpty() || !expired.isEmpty();
+  }
+
+  /**
+   * Checks whether a tuple has expired but may not have been deleted from Descope yet.
+   *
+   * @param tuple The tuple
+   * @return True if the tuple's expiry has passed
+   */
+  public boolean isExpired(RelationTuple tuple) {
+    if (expired.contains(tuple)) {
+      return true;
+    }
+    TimerWheel.Timer<RelationTuple> timer = timers.get(tuple);
+    return timer != null && timer.deadlineMillis() <= System.currentTimeMillis();
+  }
+
+  /**
+   * Removes expired tuples from a listing and fills in the expiry of the tuples scheduled here,
+   * which Descope does not return.
+   *
+   * @param tuples The listed tuples
+   * @return The live tuples, or the listing itself if no tuple has an expiry
+   */
+  public List<RelationTuple> withoutExpired(List<RelationTuple> tuples) {
+    if (!isTracking()) {
+      return tuples;
+    }
+    long now = System.currentTimeMillis();
+    List<RelationTuple> live = new ArrayList<>(tuples.size());
+    for (RelationTuple tuple : tuples) {
+      if (expired.contains(tuple)) {
+        continue;
+      }
+      TimerWheel.Timer<RelationTuple> timer = timers.get(tuple);
+      if (timer == null) {
+        live.add(tuple);
+      } else if (timer.deadlineMillis() > now) {
+        live.add(
+            tuple.getExpiresAt() != null
+                ? tuple
+                : new RelationTuple(
+                    tuple.getResource(),
+                    tuple.getRelationDefinition(),
+                    tuple.getNamespace(),
+                    tuple.getTarget(),
+                    Instant.ofEpochMilli(timer.deadlineMillis())));
+      }
+    }
+    return live;
+  }
+
+  /**
+   * Advances the wheel and moves the tuples that came due to the pending set.
+   *
+   * @param nowMillis The current time in epoch millis
+   * @return The tuples that came due
+   */
+  List<RelationTuple> advance(long nowMillis) {
+    wheelLock.lock();
+    try {
+      List<RelationTuple> due = wheel.advance(nowMillis);
+      for (RelationTuple tuple : due) {
+        timers.remove(tuple);
+        expired.add(tuple);
+      }
+      return due;
+    } finally {
+      wheelLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the expired tuples that have not been deleted yet. Deleting a tuple cancels its schedule,
+   * which also removes it from this set.
+   *
+   * @return A copy of the pending expired tuples
+   */
+  List<RelationTuple> pending() {
+    return new ArrayList<>(expired);
+  }
+
+  private void apply(RelationChange change) {
+    if (change.getOperation() == RelationChange.Operation.CREATE) {
+      schedule(List.of(change.getTuple()));
+    } else {
+      cancel(List.of(change.getTuple()));
+    }
+  }
+
+  private void unschedule(RelationTuple tuple) {
+    TimerWheel.Timer<RelationTuple> timer = timers.remove(tuple);
+    if (timer != null) {
+      wheel.cancel(timer);
+    }
+    expired.remove(tuple);
+  }
+}
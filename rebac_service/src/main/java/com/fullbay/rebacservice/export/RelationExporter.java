@@ -0,0 +1,255 @@
+package com.fullbay.rebacservice.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.descope.exception.DescopeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Exports the relations of a namespace for access reviews.
+ *
+ * <p>Descope cannot list a namespace. A complete export names its resources; otherwise the
+ * resources exported are those this instance knows of, every resource written in the retained
+ * change log and every resource in the local index, and the page is marked partial. Resources are
+ * exported in identifier order, so the last resource of a page is a cursor to resume from.
+ * Listings are read through {@link RelationService}, from the local index when loaded, with up to
+ * {@code rebac.export.max-concurrency} Descope reads in flight ahead of the writer. A page is
+ * written in full before it is sent, so a failed listing fails the response instead of truncating
+ * it; memory is bounded by the page size rather than the size of the export.
+ */
+@ApplicationScoped
+public class RelationExporter {
+
+  public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  public static final String CSV_MEDIA_TYPE = "text/csv";
+
+  /** Output format of an export. */
+  public enum Format {
+    /** One JSON relation tuple per line. */
+    NDJSON(NDJSON_MEDIA_TYPE),
+    /** A header row, then one row per tuple in the import format, including {@code expiresAt}. */
+    CSV(CSV_MEDIA_TYPE);
+
+    private final String mediaType;
+
+    Format(String mediaType) {
+      this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+      return mediaType;
+    }
+  }
+
+  /**
+   * The resources of one export response.
+   *
+   * @param resources The resources to export, in identifier order
+   * @param nextCursor The cursor of the next response, or null if this is the last one
+   * @param complete Whether the resources were named by the caller rather than only those known to
+   *     this instance
+   */
+  public record Page(List<String> resources, String nextCursor, boolean complete) {}
+
+  private static final byte[] CSV_HEADER =
+      "resource,relationDefinition,namespace,target,expiresAt\n".getBytes(StandardCharsets.UTF_8);
+
+  @ConfigProperty(name = "rebac.export.max-concurrency", defaultValue = "8")
+  int maxConcurrency;
+
+  @ConfigProperty(name = "rebac.export.max-resources", defaultValue = "1000")
+  int maxResources;
+
+  @Inject RelationService relationService;
+
+  @Inject RelationIndex relationIndex;
+
+  @Inject RelationChangeLog changeLog;
+
+  @Inject ObjectMapper objectMapper;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Selects the resources of an export response.
+   *
+   * @param namespace The namespace to export
+   * @param named The resources to export, or null or empty for those known to this instance
+   * @param after The cursor returned with the previous response, or null to start
+   * @param limit The maximum number of resources, capped at {@code rebac.export.max-resources}
+   * @return The resources to export and the cursor of the next response
+   */
+  public Page page(String namespace, List<String> named, String after, Integer limit) {
+    boolean complete = named != null && !named.isEmpty();
+    NavigableSet<String> resources = complete ? new TreeSet<>(named) : resources(namespace, null);
+    NavigableSet<String> remaining = after == null ? resources : resources.tailSet(after, false);
+
+    int size = limit == null ? maxResources : Math.max(1, Math.min(limit, maxResources));
+    List<String> selected = new ArrayList<>(Math.min(size, remaining.size()));
+    for (String resource : remaining) {
+      if (selected.size() == size) {
+        break;
+      }
+      selected.add(resource);
+    }
+    String nextCursor =
+        selected.size() < remaining.size() ? selected.get(selected.size() - 1) : null;
+    return new Page(selected, nextCursor, complete);
+  }
+
+  /**
+   * Lists the resources known in a namespace.
+   *
+   * @param namespace The namespace
+   * @param prefix Only keep resources starting with this, or null for all
+   * @return The resources in identifier order
+   */
+  public NavigableSet<String> resources(String namespace, String prefix) {
+    NavigableSet<String> resources = new TreeSet<>(relationIndex.resources(namespace));
+    changeLog.replay(
+        0,
+        change -> {
+          if (namespace.equals(change.getTuple().getNamespace())) {
+            resources.add(change.getTuple().getResource());
+          }
+        });
+    if (prefix != null) {
+      resources.removeIf(resource -> !resource.startsWith(prefix));
+    }
+    return resources;
+  }
+
+  /**
+   * Reads the relations of resources in a namespace, with the same read-ahead as an export.
+   *
+   * @param resources The resources to read
+   * @param namespace The namespace
+   * @return Their relations in the namespace, grouped by resource in the given order
+   * @throws DescopeException if a listing cannot be read
+   */
+  public List<RelationTuple> read(List<String> resources, String namespace) {
+    List<RelationTuple> tuples = new ArrayList<>();
+    Deque<Future<List<RelationTuple>>> window = new ArrayDeque<>(maxConcurrency);
+    for (String resource : resources) {
+      if (window.size() == maxConcurrency) {
+        tuples.addAll(await(window.poll()));
+      }
+      window.add(
+          executor.submit(() -> relationService.getResourceRelations(resource, namespace, null)));
+    }
+    while (!window.isEmpty()) {
+      tuples.addAll(await(window.poll()));
+    }
+    return tuples;
+  }
+
+  /**
+   * Writes the relations of a page's resources in the namespace.
+   *
+   * @param page The page returned by {@link #page(String, List, String, Integer)}
+   * @param namespace The namespace to export
+   * @param format The output format
+   * @param output The stream receiving the rows
+   * @throws IOException if the rows cannot be written
+   * @throws DescopeException if a listing cannot be read; the output is then incomplete
+   */
+  public void write(Page page, String namespace, Format format, OutputStream output)
+      throws IOException {
+    if (format == Format.CSV) {
+      output.write(CSV_HEADER);
+    }
+    Deque<Future<List<RelationTuple>>> window = new ArrayDeque<>(maxConcurrency);
+    long rows = 0;
+    for (String resource : page.resources()) {
+      if (window.size() == maxConcurrency) {
+        rows += writeRows(await(window.poll()), format, output);
+      }
+      window.add(
+          executor.submit(() -> relationService.getResourceRelations(resource, namespace, null)));
+    }
+    while (!window.isEmpty()) {
+      rows += writeRows(await(window.poll()), format, output);
+    }
+    output.flush();
+    Log.infof(
+        "Exported %d relation(s) of %d resource(s) in namespace %s",
+        rows, page.resources().size(), namespace);
+  }
+
+  private int writeRows(List<RelationTuple> tuples, Format format, OutputStream output)
+      throws IOException {
+    for (RelationTuple tuple : tuples) {
+      if (format == Format.CSV) {
+        String row =
+            csvField(tuple.getResource())
+                + ','
+                + csvField(tuple.getRelationDefinition())
+                + ','
+                + csvField(tuple.getNamespace())
+                + ','
+                + csvField(tuple.getTarget())
+                + ','
+                + (tuple.getExpiresAt() == null ? "" : tuple.getExpiresAt().toString())
+                + '\n';
+        output.write(row.getBytes(StandardCharsets.UTF_8));
+      } else {
+        output.write(objectMapper.writeValueAsBytes(tuple));
+        output.write('\n');
+      }
+    }
+    return tuples.size();
+  }
+
+  static String csvField(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return '"' + value.replace("\"", "\"\"") + '"';
+      }
+    }
+    return value;
+  }
+
+  private static List<RelationTuple> await(Future<List<RelationTuple>> listing) {
+    try {
+      return listing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Export interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,650 @@
+package com.fullbay.rebacservice.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.model.SetExpression;
+import com.fullbay.rebacservice.model.SetQueryRequest;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Compact in-memory adjacency of the relation tuples in the change log.
+ *
+ * <p>Resource, target, namespace and relation strings are dictionary-encoded to int ids, and each
+ * (namespace, relation) pair holds its edges as a {@link CsrGraph} from resources to targets and
+ * its transpose from targets to resources, so a tuple costs a few ints rather than a {@link
+ * RelationTuple} and its list and map entries. Graphs are immutable; creates and deletes land in
+ * per-relation sets of pending additions and removals which reads consult alongside the graph.
+ * Pending additions are also indexed by resource and by target, so reading a row costs its own
+ * pending additions rather than every pending addition of the relation. A background compaction
+ * merges pending changes into new graphs every {@code
+ * rebac.adjacency.compaction.interval.seconds}, and a relation is compacted as soon as it has
+ * {@code rebac.adjacency.compaction.max-delta} pending changes. Set-algebra queries combine {@link
+ * IntBitmap}s of graph rows, rebuilt from the pending changes for rows that have some.
+ *
+ * <p>The store tails the {@link RelationChangeLog} and is rebuilt from it on startup, so it holds
+ * the tuples written through this service that the log retains; tuples only ever read from Descope
+ * or written through other instances are not included, so query results are partial. The store is
+ * disabled unless {@code rebac.adjacency.enabled} is set.
+ */
+@ApplicationScoped
+public class AdjacencyStore {
+
+  private static final int CATCH_UP_BATCH = 1000;
+  private static final int RESOURCE_NODE = 0;
+  private static final int TARGET_NODE = 1;
+
+  /**
+   * Size of the store.
+   *
+   * @param relations The (namespace, relation) pairs holding at least one edge or pending change
+   * @param edges The tuples held, pending changes included
+   * @param pending The pending additions and removals not yet compacted
+   * @param strings The dictionary-encoded strings
+   * @param arrayBytes The estimated heap held by graph, pending and dictionary arrays
+   */
+  public record Stats(int relations, long edges, long pending, int strings, long arrayBytes) {}
+
+  /**
+   * Result of a set-algebra query.
+   *
+   * @param ids The identifiers of the result, up to the requested limit
+   * @param count The number of identifiers in the whole result
+   */
+  public record QueryResult(List<String> ids, int count) {}
+
+  /** What a query expression selects; literal identifier sets combine with either. */
+  private enum Selects {
+    RESOURCES,
+    TARGETS,
+    ANY
+  }
+
+  @ConfigProperty(name = "rebac.adjacency.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "rebac.adjacency.compaction.interval.seconds", defaultValue = "60")
+  long compactionIntervalSeconds;
+
+  @ConfigProperty(name = "rebac.adjacency.compaction.max-delta", defaultValue = "65536")
+  int maxDelta;
+
+  @ConfigProperty(name = "rebac.adjacency.query.max-nodes", defaultValue = "64")
+  int maxQueryNodes;
+
+  @ConfigProperty(name = "rebac.adjacency.query.max-results", defaultValue = "10000")
+  int maxQueryResults;
+
+  @Inject RelationChangeLog changeLog;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final StringDictionary dictionary = new StringDictionary();
+  private final Map<Long, Relation> relations = new HashMap<>();
+  private volatile long appliedSequence;
+  private ScheduledExecutorService scheduler;
+
+  void start(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    catchUp();
+    compact();
+    Stats stats = stats();
+    Log.infof(
+        "Rebuilt adjacency store of %d tuple(s) in %d relation(s) up to sequence %d (~%d KiB)",
+        stats.edges(), stats.relations(), appliedSequence, stats.arrayBytes() / 1024);
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "adjacency-compaction");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::compact, compactionIntervalSeconds, compactionIntervalSeconds, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Checks whether the store is enabled.
+   *
+   * @return True if the store tails the change log
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks whether a tuple is held.
+   *
+   * @param namespace The namespace
+   * @param relationDefinition The relation definition
+   * @param resource The resource identifier
+   * @param target The target identifier
+   * @return True if the tuple is held
+   */
+  public boolean contains(
+      String namespace, String relationDefinition, String resource, String target) {
+    catchUp();
+    lock.readLock().lock();
+    try {
+      Relation relation = relation(namespace, relationDefinition);
+      int resourceId = dictionary.idOf(resource);
+      int targetId = dictionary.idOf(target);
+      return relation != null
+          && resourceId >= 0
+          && targetId >= 0
+          && relation.contains(resourceId, targetId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Checks whether the store holds any tuple of a resource in a relation. The store only holds the
+   * tuples written through this instance, so a resource without any is unknown rather than known
+   * to have no targets.
+   *
+   * @param namespace The namespace
+   * @param relationDefinition The relation definition
+   * @param resource The resource identifier
+   * @return True if the resource has at least one target in the relation
+   */
+  public boolean covers(String namespace, String relationDefinition, String resource) {
+    catchUp();
+    lock.readLock().lock();
+    try {
+      Relation relation = relation(namespace, relationDefinition);
+      int resourceId = dictionary.idOf(resource);
+      return relation != null && resourceId >= 0 && relation.targets(resourceId).length > 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Lists the targets related to a resource.
+   *
+   * @param namespace The namespace
+   * @param relationDefinition The relation definition
+   * @param resource The resource identifier
+   * @return The target identifiers
+   */
+  public List<String> targets(String namespace, String relationDefinition, String resource) {
+    catchUp();
+    lock.readLock().lock();
+    try {
+      Relation relation = relation(namespace, relationDefinition);
+      int resourceId = dictionary.idOf(resource);
+      return relation == null || resourceId < 0
+          ? List.of()
+          : decode(relation.targets(resourceId));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Lists the resources a target is related to.
+   *
+   * @param namespace The namespace
+   * @param relationDefinition The relation definition
+   * @param target The target identifier
+   * @return The resource identifiers
+   */
+  public List<String> resources(String namespace, String relationDefinition, String target) {
+    catchUp();
+    lock.readLock().lock();
+    try {
+      Relation relation = relation(namespace, relationDefinition);
+      int targetId = dictionary.idOf(target);
+      return relation == null || targetId < 0
+          ? List.of()
+          : decode(relation.resources(targetId));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Evaluates a set-algebra query over the relations of a namespace. A leaf naming a target
+   * selects the resources it holds the relation on, and one naming a resource selects the targets
+   * holding the relation on it; both are served from the relation's bitmaps. Literal identifiers
+   * the store has never seen cannot be in any relation set and are dropped. Results are ordered by
+   * when the store first saw each identifier.
+   *
+   * @param namespace The namespace of every relation in the query
+   * @param expression The query
+   * @param limit The maximum number of identifiers to return, capped at {@code
+   *     rebac.adjacency.query.max-results}, or null for the cap
+   * @return The identifiers and the size of the result
+   * @throws IllegalArgumentException if the query is malformed, too large, or combines resource
+   *     and target sets
+   */
+  public QueryResult query(String namespace, SetExpression expression, Integer limit) {
+    validate(expression, new int[2]);
+    long start = System.nanoTime();
+    catchUp();
+    lock.readLock().lock();
+    IntBitmap result;
+    try {
+      result = evaluate(namespace, expression);
+    } finally {
+      lock.readLock().unlock();
+    }
+    int size = limit == null ? maxQueryResults : Math.min(limit, maxQueryResults);
+    List<String> ids = decode(result.toArray(size));
+    Log.infof(
+        "Evaluated set query in namespace %s to %d identifier(s) in %d us",
+        namespace, result.cardinality(), (System.nanoTime() - start) / 1000);
+    return new QueryResult(ids, result.cardinality());
+  }
+
+  /**
+   * Checks the shape of an expression.
+   *
+   * @param expression The expression
+   * @param counts The nodes and literal identifiers seen so far
+   * @return What the expression selects
+   */
+  private Selects validate(SetExpression expression, int[] counts) {
+    if (expression == null) {
+      throw new IllegalArgumentException("query operands must not be null");
+    }
+    if (++counts[0] > maxQueryNodes) {
+      throw new IllegalArgumentException("query must not exceed " + maxQueryNodes + " nodes");
+    }
+    boolean hasTarget = expression.getTarget() != null;
+    boolean hasResource = expression.getResource() != null;
+    boolean hasIds = expression.getIds() != null;
+    if (expression.getOp() != null) {
+      List<SetExpression> operands = expression.getOperands();
+      if (hasTarget || hasResource || hasIds || operands == null || operands.isEmpty()) {
+        throw new IllegalArgumentException(
+            "an operator node needs operands and no target, resource or ids");
+      }
+      Selects selects = Selects.ANY;
+      for (SetExpression operand : operands) {
+        Selects operandSelects = validate(operand, counts);
+        if (selects == Selects.ANY) {
+          selects = operandSelects;
+        } else if (operandSelects != Selects.ANY && operandSelects != selects) {
+          throw new IllegalArgumentException("query must not combine resource and target sets");
+        }
+      }
+      return selects;
+    }
+    if ((hasTarget ? 1 : 0) + (hasResource ? 1 : 0) + (hasIds ? 1 : 0) != 1) {
+      throw new IllegalArgumentException("a leaf needs exactly one of target, resource or ids");
+    }
+    if (hasIds) {
+      counts[1] += expression.getIds().size();
+      if (counts[1] > SetQueryRequest.MAX_IDS) {
+        throw new IllegalArgumentException(
+            "query must not list more than " + SetQueryRequest.MAX_IDS + " ids");
+      }
+      return Selects.ANY;
+    }
+    if (expression.getRelationDefinition() == null
+        || expression.getRelationDefinition().isBlank()) {
+      throw new IllegalArgumentException("a target or resource leaf needs a relationDefinition");
+    }
+    return hasTarget ? Selects.RESOURCES : Selects.TARGETS;
+  }
+
+  /** Evaluates a validated expression. Callers hold the read lock. */
+  private IntBitmap evaluate(String namespace, SetExpression expression) {
+    SetExpression.Operator op = expression.getOp();
+    if (op != null) {
+      List<SetExpression> operands = expression.getOperands();
+      IntBitmap result = evaluate(namespace, operands.get(0));
+      for (int i = 1; i < operands.size(); i++) {
+        if (result.isEmpty() && op != SetExpression.Operator.OR) {
+          break;
+        }
+        IntBitmap operand = evaluate(namespace, operands.get(i));
+        result =
+            switch (op) {
+              case AND -> result.and(operand);
+              case OR -> result.or(operand);
+              case ANDNOT -> result.andNot(operand);
+            };
+      }
+      return result;
+    }
+    if (expression.getIds() != null) {
+      int[] ids = new int[expression.getIds().size()];
+      int count = 0;
+      for (String value : expression.getIds()) {
+        int id = value == null ? -1 : dictionary.idOf(value);
+        if (id >= 0) {
+          ids[count++] = id;
+        }
+      }
+      Arrays.sort(ids, 0, count);
+      int unique = 0;
+      for (int i = 0; i < count; i++) {
+        if (unique == 0 || ids[unique - 1] != ids[i]) {
+          ids[unique++] = ids[i];
+        }
+      }
+      return IntBitmap.of(ids, unique);
+    }
+    Relation relation = relation(namespace, expression.getRelationDefinition());
+    if (relation == null) {
+      return IntBitmap.EMPTY;
+    }
+    if (expression.getTarget() != null) {
+      int target = dictionary.idOf(expression.getTarget());
+      return target < 0 ? IntBitmap.EMPTY : relation.resourceBitmap(target);
+    }
+    int resource = dictionary.idOf(expression.getResource());
+    return resource < 0 ? IntBitmap.EMPTY : relation.targetBitmap(resource);
+  }
+
+  /**
+   * Measures the store.
+   *
+   * @return The current size
+   */
+  public Stats stats() {
+    catchUp();
+    lock.readLock().lock();
+    try {
+      long edges = 0;
+      long pending = 0;
+      long bytes = dictionary.arrayBytes();
+      for (Relation relation : relations.values()) {
+        edges += relation.size();
+        pending += relation.pending();
+        bytes += relation.arrayBytes();
+      }
+      return new Stats(relations.size(), edges, pending, dictionary.size(), bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Merges the pending changes of every relation into new graphs. Graphs are rebuilt under the read
+   * lock, so reads proceed while a relation is compacted; the write lock is only taken to install
+   * them, and a rebuild that raced with a write is discarded until the next compaction.
+   */
+  public void compact() {
+    catchUp();
+    List<Long> keys;
+    lock.readLock().lock();
+    try {
+      keys = new ArrayList<>(relations.keySet());
+    } finally {
+      lock.readLock().unlock();
+    }
+    for (Long key : keys) {
+      Relation relation;
+      long version;
+      CsrGraph forward;
+      lock.readLock().lock();
+      try {
+        relation = relations.get(key);
+        if (relation == null || relation.pending() == 0) {
+          continue;
+        }
+        version = relation.version;
+        forward = relation.merged();
+      } finally {
+        lock.readLock().unlock();
+      }
+      CsrGraph reverse = forward.transpose();
+      lock.writeLock().lock();
+      try {
+        if (relation.version == version) {
+          relation.install(forward, reverse);
+          if (relation.size() == 0) {
+            relations.remove(key, relation);
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Applies every change-log record this store has not seen yet. If the log has dropped records
+   * the store missed, it is rebuilt from the records still retained.
+   */
+  void catchUp() {
+    if (appliedSequence >= changeLog.latestSequence()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (appliedSequence < changeLog.earliestSequence() - 1) {
+        Log.warnf(
+            "Adjacency store fell behind the change log (applied %d, earliest %d), rebuilding",
+            appliedSequence, changeLog.earliestSequence());
+        relations.clear();
+        appliedSequence = changeLog.earliestSequence() - 1;
+      }
+      List<RelationChange> changes;
+      while (!(changes = changeLog.readAfter(appliedSequence, CATCH_UP_BATCH)).isEmpty()) {
+        for (RelationChange change : changes) {
+          apply(change);
+          appliedSequence = change.getSequence();
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Applies one change record. Callers hold the write lock. */
+  void apply(RelationChange change) {
+    RelationTuple tuple = change.getTuple();
+    long key =
+        CsrGraph.pack(
+            dictionary.intern(tuple.getNamespace()),
+            dictionary.intern(tuple.getRelationDefinition()));
+    Relation relation = relations.computeIfAbsent(key, k -> new Relation());
+    int resourceId = dictionary.intern(tuple.getResource());
+    int targetId = dictionary.intern(tuple.getTarget());
+    if (change.getOperation() == RelationChange.Operation.CREATE) {
+      relation.insert(resourceId, targetId);
+    } else {
+      relation.delete(resourceId, targetId);
+    }
+    if (relation.pending() >= maxDelta) {
+      relation.compact();
+    }
+  }
+
+  private Relation relation(String namespace, String relationDefinition) {
+    int namespaceId = dictionary.idOf(namespace);
+    int relationId = dictionary.idOf(relationDefinition);
+    if (namespaceId < 0 || relationId < 0) {
+      return null;
+    }
+    return relations.get(CsrGraph.pack(namespaceId, relationId));
+  }
+
+  private List<String> decode(int[] ids) {
+    List<String> values = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      values.add(dictionary.valueOf(id));
+    }
+    return values;
+  }
+
+  /**
+   * Edges of one (namespace, relation) pair: the compacted graphs plus pending changes, both keyed
+   * by packed resource-to-target edges. An edge is held if it is pending addition, or is in the
+   * graph and not pending removal.
+   */
+  private static final class Relation {
+
+    private CsrGraph forward = CsrGraph.EMPTY;
+    private CsrGraph reverse = CsrGraph.EMPTY;
+    private final LongHashSet added = new LongHashSet();
+    private final LongHashSet removed = new LongHashSet();
+    // Pending additions indexed by row, so a read only visits the additions of its own row
+    private final Map<Integer, LongHashSet> addedTargets = new HashMap<>();
+    private final Map<Integer, LongHashSet> addedResources = new HashMap<>();
+    // Resources and targets with pending changes, whose graph bitmaps are out of date
+    private final LongHashSet touched = new LongHashSet();
+    private long version;
+
+    void insert(int resource, int target) {
+      long edge = CsrGraph.pack(resource, target);
+      if (!removed.remove(edge) && !forward.contains(resource, target) && added.add(edge)) {
+        addedTargets.computeIfAbsent(resource, r -> new LongHashSet()).add(target);
+        addedResources.computeIfAbsent(target, t -> new LongHashSet()).add(resource);
+      }
+      touch(resource, target);
+    }
+
+    void delete(int resource, int target) {
+      long edge = CsrGraph.pack(resource, target);
+      if (added.remove(edge)) {
+        unindex(addedTargets, resource, target);
+        unindex(addedResources, target, resource);
+      } else if (forward.contains(resource, target)) {
+        removed.add(edge);
+      }
+      touch(resource, target);
+    }
+
+    private static void unindex(Map<Integer, LongHashSet> index, int row, int id) {
+      LongHashSet ids = index.get(row);
+      if (ids != null && ids.remove(id) && ids.isEmpty()) {
+        index.remove(row);
+      }
+    }
+
+    private void touch(int resource, int target) {
+      touched.add(CsrGraph.pack(RESOURCE_NODE, resource));
+      touched.add(CsrGraph.pack(TARGET_NODE, target));
+      version++;
+    }
+
+    boolean contains(int resource, int target) {
+      long edge = CsrGraph.pack(resource, target);
+      return added.contains(edge)
+          || (forward.contains(resource, target) && !removed.contains(edge));
+    }
+
+    int[] targets(int resource) {
+      int[] targets = forward.neighbors(resource);
+      int count = 0;
+      for (int target : targets) {
+        if (removed.isEmpty() || !removed.contains(CsrGraph.pack(resource, target))) {
+          targets[count++] = target;
+        }
+      }
+      return withPending(targets, count, resource, true);
+    }
+
+    IntBitmap targetBitmap(int resource) {
+      return touched.contains(CsrGraph.pack(RESOURCE_NODE, resource))
+          ? IntBitmap.of(targets(resource))
+          : forward.bitmap(resource);
+    }
+
+    IntBitmap resourceBitmap(int target) {
+      return touched.contains(CsrGraph.pack(TARGET_NODE, target))
+          ? IntBitmap.of(resources(target))
+          : reverse.bitmap(target);
+    }
+
+    int[] resources(int target) {
+      int[] resources = reverse.neighbors(target);
+      int count = 0;
+      for (int resource : resources) {
+        if (removed.isEmpty() || !removed.contains(CsrGraph.pack(resource, target))) {
+          resources[count++] = resource;
+        }
+      }
+      return withPending(resources, count, target, false);
+    }
+
+    private int[] withPending(int[] ids, int count, int node, boolean fromResource) {
+      LongHashSet pending = (fromResource ? addedTargets : addedResources).get(node);
+      if (pending == null) {
+        return Arrays.copyOf(ids, count);
+      }
+      int[] merged = Arrays.copyOf(ids, count + pending.size());
+      int[] size = {count};
+      pending.forEach(id -> merged[size[0]++] = (int) id);
+      Arrays.sort(merged);
+      return merged;
+    }
+
+    CsrGraph merged() {
+      return forward.merge(added, removed);
+    }
+
+    void install(CsrGraph forward, CsrGraph reverse) {
+      this.forward = forward;
+      this.reverse = reverse;
+      added.clear();
+      addedTargets.clear();
+      addedResources.clear();
+      removed.clear();
+      touched.clear();
+      version++;
+    }
+
+    void compact() {
+      CsrGraph merged = merged();
+      install(merged, merged.transpose());
+    }
+
+    long size() {
+      return (long) forward.edgeCount() - removed.size() + added.size();
+    }
+
+    int pending() {
+      return added.size() + removed.size();
+    }
+
+    long arrayBytes() {
+      long bytes =
+          forward.arrayBytes()
+              + reverse.arrayBytes()
+              + added.arrayBytes()
+              + removed.arrayBytes()
+              + touched.arrayBytes();
+      for (LongHashSet ids : addedTargets.values()) {
+        bytes += ids.arrayBytes();
+      }
+      for (LongHashSet ids : addedResources.values()) {
+        bytes += ids.arrayBytes();
+      }
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.fullbay.rebacservice.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed sparse row adjacency of one relation in one direction.
+ *
+ * <p>Only nodes with at least one edge have a row: {@code rows} holds their ids in ascending order,
+ * and the neighbors of {@code rows[i]} are {@code columns[offsets[i]]} up to {@code
+ * columns[offsets[i + 1]]}, also ascending. A graph of {@code E} edges over {@code R} rows
+ * therefore takes {@code 4 * (2R + E + 1)} bytes in three arrays, and lookups are binary searches.
+ * Edges are exchanged with other graphs packed into a long as {@code source << 32 | destination}.
+ *
+ * <p>Rows of at least {@value #CACHED_BITMAP_DEGREE} neighbors keep an {@link IntBitmap} of them
+ * once first requested, so set algebra over large rows does not rebuild it on every query.
+ */
+final class CsrGraph {
+
+  static final CsrGraph EMPTY = new CsrGraph(new int[0], new int[] {0}, new int[0]);
+
+  static final int CACHED_BITMAP_DEGREE = 256;
+
+  private final int[] rows;
+  private final int[] offsets;
+  private final int[] columns;
+  // Filled lazily by concurrent readers; bitmaps are immutable, so a racy publish is harmless
+  private final IntBitmap[] bitmaps;
+
+  private CsrGraph(int[] rows, int[] offsets, int[] columns) {
+    this.rows = rows;
+    this.offsets = offsets;
+    this.columns = columns;
+    this.bitmaps = new IntBitmap[rows.length];
+  }
+
+  static long pack(int source, int destination) {
+    return ((long) source << 32) | destination;
+  }
+
+  static int source(long edge) {
+    return (int) (edge >>> 32);
+  }
+
+  static int destination(long edge) {
+    return (int) edge;
+  }
+
+  /**
+   * Builds a graph from packed edges.
+   *
+   * @param edges Packed edges in ascending order without duplicates
+   * @param count The number of leading elements of {@code edges} to use
+   * @return The graph
+   */
+  static CsrGraph of(long[] edges, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+    int rowCount = 0;
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || source(edges[i]) != source(edges[i - 1])) {
+        rowCount++;
+      }
+    }
+    int[] rows = new int[rowCount];
+    int[] offsets = new int[rowCount + 1];
+    int[] columns = new int[count];
+    int row = -1;
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || source(edges[i]) != source(edges[i - 1])) {
+        rows[++row] = source(edges[i]);
+        offsets[row] = i;
+      }
+      columns[i] = destination(edges[i]);
+    }
+    offsets[rowCount] = count;
+    return new CsrGraph(rows, offsets, columns);
+  }
+
+  /**
+   * Builds the graph holding this graph's edges with pending changes applied.
+   *
+   * @param added Packed edges to add, absent from this graph
+   * @param removed Packed edges to drop, present in this graph
+   * @return The merged graph
+   */
+  CsrGraph merge(LongHashSet added, LongHashSet removed) {
+    long[] additions = added.toSortedArray();
+    long[] edges = new long[edgeCount() - removed.size() + additions.length];
+    int count = 0;
+    int next = 0;
+    for (int row = 0; row < rows.length; row++) {
+      for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+        long edge = pack(rows[row], columns[i]);
+        while (next < additions.length && additions[next] < edge) {
+          edges[count++] = additions[next++];
+        }
+        if (!removed.contains(edge)) {
+          edges[count++] = edge;
+        }
+      }
+    }
+    while (next < additions.length) {
+      edges[count++] = additions[next++];
+    }
+    return of(edges, count);
+  }
+
+  /**
+   * Builds the graph with every edge reversed.
+   *
+   * @return The transposed graph
+   */
+  CsrGraph transpose() {
+    long[] edges = new long[edgeCount()];
+    int count = 0;
+    for (int row = 0; row < rows.length; row++) {
+      for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+        edges[count++] = pack(columns[i], rows[row]);
+      }
+    }
+    Arrays.sort(edges);
+    return of(edges, count);
+  }
+
+  boolean contains(int source, int destination) {
+    int row = Arrays.binarySearch(rows, source);
+    return row >= 0
+        && Arrays.binarySearch(columns, offsets[row], offsets[row + 1], destination) >= 0;
+  }
+
+  /**
+   * Copies the neighbors of a node.
+   *
+   * @param source The node id
+   * @return Its neighbors in ascending order, empty if it has none
+   */
+  int[] neighbors(int source) {
+    int row = Arrays.binarySearch(rows, source);
+    return row < 0 ? new int[0] : Arrays.copyOfRange(columns, offsets[row], offsets[row + 1]);
+  }
+
+  /**
+   * Gets the neighbors of a node as a bitmap.
+   *
+   * @param source The node id
+   * @return Its neighbors, empty if it has none
+   */
+  IntBitmap bitmap(int source) {
+    int row = Arrays.binarySearch(rows, source);
+    if (row < 0) {
+      return IntBitmap.EMPTY;
+    }
+    IntBitmap bitmap = bitmaps[row];
+    if (bitmap == null) {
+      bitmap = IntBitmap.of(Arrays.copyOfRange(columns, offsets[row], offsets[row + 1]));
+      if (offsets[row + 1] - offsets[row] >= CACHED_BITMAP_DEGREE) {
+        bitmaps[row] = bitmap;
+      }
+    }
+    return bitmap;
+  }
+
+  int edgeCount() {
+    return columns.length;
+  }
+
+  int rowCount() {
+    return rows.length;
+  }
+
+  long arrayBytes() {
+    return 4L * (rows.length + offsets.length + columns.length + bitmaps.length);
+  }
+}
@@ -0,0 +1,354 @@
+package com.fullbay.rebacservice.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed bitmap of non-negative ints in the layout of a roaring bitmap.
+ *
+ * <p>Values are split by their high 16 bits into chunks of up to 65536. A chunk holding at most
+ * {@value #MAX_ARRAY} values is a sorted {@code char[]} of their low 16 bits; a denser chunk is a
+ * 1024-word bitset. Set operations walk the chunk keys of both operands in step and combine
+ * matching chunks container by container, so an intersection costs time in proportion to the
+ * chunks the operands share rather than to their cardinality.
+ */
+final class IntBitmap {
+
+  static final IntBitmap EMPTY = new IntBitmap(new char[0], new Object[0], 0);
+
+  private static final int MAX_ARRAY = 4096;
+  private static final int WORDS = 1024;
+
+  private final char[] keys;
+  // Each container is either a char[] of sorted low bits or a long[WORDS] bitset
+  private final Object[] containers;
+  private final int cardinality;
+
+  private IntBitmap(char[] keys, Object[] containers, int cardinality) {
+    this.keys = keys;
+    this.containers = containers;
+    this.cardinality = cardinality;
+  }
+
+  /**
+   * Builds a bitmap from values.
+   *
+   * @param values Non-negative values in ascending order without duplicates
+   * @param count The number of leading elements of {@code values} to use
+   * @return The bitmap
+   */
+  static IntBitmap of(int[] values, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+    Builder builder = new Builder();
+    int start = 0;
+    while (start < count) {
+      char key = (char) (values[start] >>> 16);
+      int end = start;
+      while (end < count && values[end] >>> 16 == key) {
+        end++;
+      }
+      if (end - start <= MAX_ARRAY) {
+        char[] low = new char[end - start];
+        for (int i = start; i < end; i++) {
+          low[i - start] = (char) values[i];
+        }
+        builder.add(key, low);
+      } else {
+        long[] words = new long[WORDS];
+        for (int i = start; i < end; i++) {
+          words[(values[i] & 0xFFFF) >>> 6] |= 1L << values[i];
+        }
+        builder.add(key, words);
+      }
+      start = end;
+    }
+    return builder.build();
+  }
+
+  static IntBitmap of(int[] values) {
+    return of(values, values.length);
+  }
+
+  int cardinality() {
+    return cardinality;
+  }
+
+  boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  boolean contains(int value) {
+    int chunk = Arrays.binarySearch(keys, (char) (value >>> 16));
+    if (chunk < 0) {
+      return false;
+    }
+    char low = (char) value;
+    return containers[chunk] instanceof char[] array
+        ? Arrays.binarySearch(array, low) >= 0
+        : (((long[]) containers[chunk])[low >>> 6] & (1L << low)) != 0;
+  }
+
+  /**
+   * Copies the smallest values.
+   *
+   * @param limit The maximum number of values to copy
+   * @return Up to {@code limit} values in ascending order
+   */
+  int[] toArray(int limit) {
+    int[] values = new int[Math.min(limit, cardinality)];
+    int count = 0;
+    for (int chunk = 0; chunk < keys.length && count < values.length; chunk++) {
+      int high = keys[chunk] << 16;
+      if (containers[chunk] instanceof char[] array) {
+        for (int i = 0; i < array.length && count < values.length; i++) {
+          values[count++] = high | array[i];
+        }
+      } else {
+        long[] words = (long[]) containers[chunk];
+        for (int w = 0; w < WORDS && count < values.length; w++) {
+          long word = words[w];
+          while (word != 0 && count < values.length) {
+            values[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+          }
+        }
+      }
+    }
+    return values;
+  }
+
+  IntBitmap and(IntBitmap other) {
+    Builder builder = new Builder();
+    int i = 0;
+    int j = 0;
+    while (i < keys.length && j < other.keys.length) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        builder.add(keys[i], and(containers[i++], other.containers[j++]));
+      }
+    }
+    return builder.build();
+  }
+
+  IntBitmap or(IntBitmap other) {
+    Builder builder = new Builder();
+    int i = 0;
+    int j = 0;
+    while (i < keys.length || j < other.keys.length) {
+      if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+        builder.add(keys[i], containers[i++]);
+      } else if (i == keys.length || keys[i] > other.keys[j]) {
+        builder.add(other.keys[j], other.containers[j++]);
+      } else {
+        builder.add(keys[i], or(containers[i++], other.containers[j++]));
+      }
+    }
+    return builder.build();
+  }
+
+  IntBitmap andNot(IntBitmap other) {
+    Builder builder = new Builder();
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      while (j < other.keys.length && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.keys.length && other.keys[j] == keys[i]) {
+        builder.add(keys[i], andNot(containers[i], other.containers[j]));
+      } else {
+        builder.add(keys[i], containers[i]);
+      }
+    }
+    return builder.build();
+  }
+
+  private static Object and(Object left, Object right) {
+    if (left instanceof char[] a && right instanceof char[] b) {
+      char[] result = new char[Math.min(a.length, b.length)];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < a.length && j < b.length) {
+        if (a[i] < b[j]) {
+          i++;
+        } else if (a[i] > b[j]) {
+          j++;
+        } else {
+          result[count++] = a[i];
+          i++;
+          j++;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+    if (left instanceof char[] a) {
+      return filter(a, (long[]) right, true);
+    }
+    if (right instanceof char[] b) {
+      return filter(b, (long[]) left, true);
+    }
+    long[] a = (long[]) left;
+    long[] b = (long[]) right;
+    long[] words = new long[WORDS];
+    for (int w = 0; w < WORDS; w++) {
+      words[w] = a[w] & b[w];
+    }
+    return compact(words);
+  }
+
+  private static Object or(Object left, Object right) {
+    if (left instanceof char[] a && right instanceof char[] b) {
+      char[] result = new char[a.length + b.length];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < a.length || j < b.length) {
+        if (j == b.length || (i < a.length && a[i] < b[j])) {
+          result[count++] = a[i++];
+        } else if (i == a.length || a[i] > b[j]) {
+          result[count++] = b[j++];
+        } else {
+          result[count++] = a[i];
+          i++;
+          j++;
+        }
+      }
+      return count <= MAX_ARRAY ? Arrays.copyOf(result, count) : toWords(result, count);
+    }
+    long[] words;
+    if (left instanceof char[] a) {
+      words = ((long[]) right).clone();
+      set(words, a);
+    } else if (right instanceof char[] b) {
+      words = ((long[]) left).clone();
+      set(words, b);
+    } else {
+      long[] a = (long[]) left;
+      long[] b = (long[]) right;
+      words = new long[WORDS];
+      for (int w = 0; w < WORDS; w++) {
+        words[w] = a[w] | b[w];
+      }
+    }
+    return words;
+  }
+
+  private static Object andNot(Object left, Object right) {
+    if (left instanceof char[] a && right instanceof char[] b) {
+      char[] result = new char[a.length];
+      int count = 0;
+      int j = 0;
+      for (char value : a) {
+        while (j < b.length && b[j] < value) {
+          j++;
+        }
+        if (j == b.length || b[j] != value) {
+          result[count++] = value;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+    if (left instanceof char[] a) {
+      return filter(a, (long[]) right, false);
+    }
+    long[] words = ((long[]) left).clone();
+    if (right instanceof char[] b) {
+      for (char value : b) {
+        words[value >>> 6] &= ~(1L << value);
+      }
+    } else {
+      long[] b = (long[]) right;
+      for (int w = 0; w < WORDS; w++) {
+        words[w] &= ~b[w];
+      }
+    }
+    return compact(words);
+  }
+
+  /** Keeps the array values that are set, or clear, in the bitset. */
+  private static char[] filter(char[] values, long[] words, boolean set) {
+    char[] result = new char[values.length];
+    int count = 0;
+    for (char value : values) {
+      if (((words[value >>> 6] & (1L << value)) != 0) == set) {
+        result[count++] = value;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static void set(long[] words, char[] values) {
+    for (char value : values) {
+      words[value >>> 6] |= 1L << value;
+    }
+  }
+
+  private static long[] toWords(char[] values, int count) {
+    long[] words = new long[WORDS];
+    set(words, Arrays.copyOf(values, count));
+    return words;
+  }
+
+  /** Converts a bitset holding few enough values back to an array container. */
+  private static Object compact(long[] words) {
+    int cardinality = cardinality(words);
+    if (cardinality > MAX_ARRAY) {
+      return words;
+    }
+    char[] values = new char[cardinality];
+    int count = 0;
+    for (int w = 0; w < WORDS; w++) {
+      long word = words[w];
+      while (word != 0) {
+        values[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return values;
+  }
+
+  private static int cardinality(Object container) {
+    if (container instanceof char[] array) {
+      return array.length;
+    }
+    int cardinality = 0;
+    for (long word : (long[]) container) {
+      cardinality += Long.bitCount(word);
+    }
+    return cardinality;
+  }
+
+  /** Collects non-empty containers in ascending key order. */
+  private static final class Builder {
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];
+    private int size;
+    private int cardinality;
+
+    void add(char key, Object container) {
+      int containerCardinality = cardinality(container);
+      if (containerCardinality == 0) {
+        return;
+      }
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        containers = Arrays.copyOf(containers, size * 2);
+      }
+      keys[size] = key;
+      containers[size++] = container;
+      cardinality += containerCardinality;
+    }
+
+    IntBitmap build() {
+      return size == 0
+          ? EMPTY
+          : new IntBitmap(
+              Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), cardinality);
+    }
+  }
+}
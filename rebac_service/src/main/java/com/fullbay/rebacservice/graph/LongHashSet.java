@@ -0,0 +1,148 @@
+package com.fullbay.rebacservice.graph;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing set of non-negative longs with linear probing and backward-shift deletion, so
+ * packed edges are held without boxing and removals leave no tombstones behind. Not thread-safe.
+ */
+final class LongHashSet {
+
+  private static final long EMPTY = -1L;
+
+  private long[] table = newTable(16);
+  private int size;
+
+  /**
+   * Adds a value.
+   *
+   * @param value A non-negative value
+   * @return True if the value was not already present
+   */
+  boolean add(long value) {
+    int slot = slotOf(value);
+    if (table[slot] == value) {
+      return false;
+    }
+    table[slot] = value;
+    if (++size * 2 > table.length) {
+      rehash(table.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Removes a value.
+   *
+   * @param value The value
+   * @return True if the value was present
+   */
+  boolean remove(long value) {
+    int slot = slotOf(value);
+    if (table[slot] != value) {
+      return false;
+    }
+    int mask = table.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (table[next] != EMPTY) {
+      int home = mix(table[next]) & mask;
+      // Shift the entry back into the hole unless its home slot lies cyclically in (hole, next].
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        table[hole] = table[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    table[hole] = EMPTY;
+    size--;
+    return true;
+  }
+
+  boolean contains(long value) {
+    return table[slotOf(value)] == value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    table = newTable(16);
+    size = 0;
+  }
+
+  void forEach(LongConsumer action) {
+    for (long value : table) {
+      if (value != EMPTY) {
+        action.accept(value);
+      }
+    }
+  }
+
+  /**
+   * Copies the values into a sorted array.
+   *
+   * @return The values in ascending order
+   */
+  long[] toSortedArray() {
+    long[] values = new long[size];
+    int i = 0;
+    for (long value : table) {
+      if (value != EMPTY) {
+        values[i++] = value;
+      }
+    }
+    Arrays.sort(values);
+    return values;
+  }
+
+  /**
+   * Estimates the heap held by the table.
+   *
+   * @return The estimated bytes
+   */
+  long arrayBytes() {
+    return 8L * table.length;
+  }
+
+  private int slotOf(long value) {
+    int mask = table.length - 1;
+    int slot = mix(value) & mask;
+    while (table[slot] != EMPTY && table[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    long[] old = table;
+    table = newTable(capacity);
+    int mask = capacity - 1;
+    for (long value : old) {
+      if (value != EMPTY) {
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+      }
+    }
+  }
+
+  private static long[] newTable(int capacity) {
+    long[] table = new long[capacity];
+    Arrays.fill(table, EMPTY);
+    return table;
+  }
+
+  private static int mix(long value) {
+    long h = value * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
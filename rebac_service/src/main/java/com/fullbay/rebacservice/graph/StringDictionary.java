@@ -0,0 +1,105 @@
+package com.fullbay.rebacservice.graph;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids to strings so adjacency arrays hold four bytes per node reference instead
+ * of a pointer to a {@link String}. Ids are assigned from 0 in first-seen order and never reused.
+ * The lookup table is an open-addressing array of ids probed linearly, so interning allocates
+ * nothing beyond the string itself. Not thread-safe; {@link AdjacencyStore} guards access.
+ */
+final class StringDictionary {
+
+  private static final int ABSENT = -1;
+
+  private String[] values = new String[16];
+  private int[] table = newTable(32);
+  private int size;
+
+  /**
+   * Gets the id of a string, assigning the next id if it has none yet.
+   *
+   * @param value The string
+   * @return Its id
+   */
+  int intern(String value) {
+    int slot = slotOf(value);
+    if (table[slot] != ABSENT) {
+      return table[slot];
+    }
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size] = value;
+    table[slot] = size;
+    if (++size * 2 > table.length) {
+      rehash(table.length * 2);
+    }
+    return size - 1;
+  }
+
+  /**
+   * Gets the id of a string without assigning one.
+   *
+   * @param value The string
+   * @return Its id, or -1 if it was never interned
+   */
+  int idOf(String value) {
+    return table[slotOf(value)];
+  }
+
+  /**
+   * Gets the string of an id.
+   *
+   * @param id An id returned by {@link #intern(String)}
+   * @return The string
+   */
+  String valueOf(int id) {
+    return values[id];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Estimates the heap held by the id arrays, excluding the strings themselves.
+   *
+   * @return The estimated bytes
+   */
+  long arrayBytes() {
+    return 4L * table.length + 4L * values.length;
+  }
+
+  private int slotOf(String value) {
+    int mask = table.length - 1;
+    int slot = mix(value.hashCode()) & mask;
+    while (table[slot] != ABSENT && !values[table[slot]].equals(value)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    table = newTable(capacity);
+    int mask = capacity - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = mix(values[id].hashCode()) & mask;
+      while (table[slot] != ABSENT) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id;
+    }
+  }
+
+  private static int[] newTable(int capacity) {
+    int[] table = new int[capacity];
+    Arrays.fill(table, ABSENT);
+    return table;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,82 @@
+package com.fullbay.rebacservice.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Builds a strong entity tag from response content without serializing it. Values are fed straight
+ * into a SHA-256 digest with a length prefix each, so adjacent values cannot run together.
+ */
+public final class ContentHasher {
+
+  private final MessageDigest digest;
+  private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Long.BYTES);
+
+  /** Creates a new ContentHasher. */
+  public ContentHasher() {
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Adds a string value; null and empty strings hash differently.
+   *
+   * @param value The value to add
+   * @return This hasher
+   */
+  public ContentHasher add(String value) {
+    if (value == null) {
+      return add(-1L);
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    add(bytes.length);
+    digest.update(bytes);
+    return this;
+  }
+
+  /**
+   * Adds a numeric value.
+   *
+   * @param value The value to add
+   * @return This hasher
+   */
+  public ContentHasher add(long value) {
+    lengthBuffer.clear();
+    lengthBuffer.putLong(value);
+    digest.update(lengthBuffer.array());
+    return this;
+  }
+
+  /**
+   * Adds an instant; null and the epoch hash differently.
+   *
+   * @param value The value to add
+   * @return This hasher
+   */
+  public ContentHasher add(Instant value) {
+    if (value == null) {
+      return add(-1L);
+    }
+    return add(1L).add(value.getEpochSecond()).add(value.getNano());
+  }
+
+  /**
+   * Finishes the digest and returns it as a strong entity tag.
+   *
+   * @return The entity tag for the added content
+   */
+  public EntityTag toEntityTag() {
+    String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    // ~128 bits is plenty to tell two representations of the same resource apart
+    return new EntityTag(encoded.substring(0, 22));
+  }
+}
@@ -0,0 +1,313 @@
+package com.fullbay.rebacservice.index;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Local, namespace-partitioned index of relation listings keyed by resource and by target.
+ *
+ * <p>Listings are loaded read-through from Descope and are complete for their key. The index tails
+ * the {@link RelationChangeLog} so this instance's own writes are reflected immediately, and every
+ * entry expires after {@code rebac.index.ttl.seconds} to bound staleness from writes made through
+ * other instances. The index is disabled unless {@code rebac.index.enabled} is set.
+ *
+ * <p>Loads and change-log catch-up share one lock, so a load replays exactly the records between
+ * its read and the index's position and no later record can be missed. Reads only take the lock
+ * when the log has moved on. Once a key space holds {@code rebac.index.max-keys} listings, the
+ * longest-loaded one is evicted for each new load.
+ */
+@ApplicationScoped
+public class RelationIndex {
+
+  private static final int CATCH_UP_BATCH = 1000;
+
+  @ConfigProperty(name = "rebac.index.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "rebac.index.ttl.seconds", defaultValue = "30")
+  long ttlSeconds;
+
+  @ConfigProperty(name = "rebac.index.max-keys", defaultValue = "10000")
+  int maxKeys;
+
+  @Inject RelationChangeLog changeLog;
+
+  private final Map<String, TuplePartition> byResource = new ConcurrentHashMap<>();
+  private final Map<String, TuplePartition> byTarget = new ConcurrentHashMap<>();
+
+  // Guarded by this; load order of each key space, possibly holding superseded loads
+  private final ArrayDeque<Loaded> resourceLoads = new ArrayDeque<>();
+  private final ArrayDeque<Loaded> targetLoads = new ArrayDeque<>();
+
+  // Written under this, read without it by the catch-up fast path
+  private volatile long appliedSequence;
+
+  private record Loaded(String key, TuplePartition partition) {}
+
+  /**
+   * Checks whether the index is enabled.
+   *
+   * @return True if listings are served from and loaded into the index
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Looks up the relations of a resource.
+   *
+   * @param resourceId The resource identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return The matching tuples, or empty if the resource is not loaded or has expired
+   */
+  public Optional<List<RelationTuple>> resourceRelations(
+      String resourceId, String namespace, String relationDefinition) {
+    return partition(byResource, resourceId).map(p -> p.select(namespace, relationDefinition));
+  }
+
+  /**
+   * Looks up the relations of a target.
+   *
+   * @param targetId The target identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return The matching tuples, or empty if the target is not loaded or has expired
+   */
+  public Optional<List<RelationTuple>> targetRelations(
+      String targetId, String namespace, String relationDefinition) {
+    return partition(byTarget, targetId).map(p -> p.select(namespace, relationDefinition));
+  }
+
+  /**
+   * Counts the relations of a resource without copying them.
+   *
+   * @param resourceId The resource identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return The exact count, or empty if the resource is not loaded or has expired
+   */
+  public OptionalInt countResourceRelations(
+      String resourceId, String namespace, String relationDefinition) {
+    return partition(byResource, resourceId)
+        .map(p -> OptionalInt.of(p.count(namespace, relationDefinition)))
+        .orElse(OptionalInt.empty());
+  }
+
+  /**
+   * Counts the relations of a target without copying them.
+   *
+   * @param targetId The target identifier
+   * @param namespace Optional namespace filter
+   * @param relationDefinition Optional relation definition filter
+   * @return The exact count, or empty if the target is not loaded or has expired
+   */
+  public OptionalInt countTargetRelations(
+      String targetId, String namespace, String relationDefinition) {
+    return partition(byTarget, targetId)
+        .map(p -> OptionalInt.of(p.count(namespace, relationDefinition)))
+        .orElse(OptionalInt.empty());
+  }
+
+  /**
+   * Gets the change-log position to pass to a subsequent load. Taking it before reading from
+   * Descope lets the load re-apply writes that raced with the read.
+   *
+   * @return The latest change-log sequence
+   */
+  public long readSequence() {
+    return changeLog.latestSequence();
+  }
+
+  /**
+   * Loads the complete relation listing of a resource.
+   *
+   * @param resourceId The resource identifier
+   * @param tuples Every tuple of the resource
+   * @param readSequence The {@link #readSequence()} taken before the listing was read
+   */
+  public void loadResource(String resourceId, List<RelationTuple> tuples, long readSequence) {
+    load(byResource, resourceLoads, resourceId, tuples, readSequence, RelationTuple::getResource);
+  }
+
+  /**
+   * Loads the complete relation listing of a target.
+   *
+   * @param targetId The target identifier
+   * @param tuples Every tuple of the target
+   * @param readSequence The {@link #readSequence()} taken before the listing was read
+   */
+  public void loadTarget(String targetId, List<RelationTuple> tuples, long readSequence) {
+    load(byTarget, targetLoads, targetId, tuples, readSequence, RelationTuple::getTarget);
+  }
+
+  /**
+   * Collects the resources with at least one relation in a namespace among the loaded resource and
+   * target listings.
+   *
+   * @param namespace The namespace
+   * @return The resource identifiers, empty if the index is disabled
+   */
+  public Set<String> resources(String namespace) {
+    Set<String> resources = new HashSet<>();
+    if (!enabled) {
+      return resources;
+    }
+    catchUp();
+    byResource.forEach(
+        (resource, partition) -> {
+          if (partition.count(namespace, null) > 0) {
+            resources.add(resource);
+          }
+        });
+    for (TuplePartition partition : byTarget.values()) {
+      for (RelationTuple tuple : partition.select(namespace, null)) {
+        resources.add(tuple.getResource());
+      }
+    }
+    return resources;
+  }
+
+  /** Drops every loaded listing. */
+  public synchronized void clear() {
+    byResource.clear();
+    byTarget.clear();
+    resourceLoads.clear();
+    targetLoads.clear();
+  }
+
+  Optional<TuplePartition> partition(Map<String, TuplePartition> index, String key) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    catchUp();
+    TuplePartition partition = index.get(key);
+    if (partition == null) {
+      return Optional.empty();
+    }
+    if (isExpired(partition, System.currentTimeMillis())) {
+      index.remove(key, partition);
+      return Optional.empty();
+    }
+    return Optional.of(partition);
+  }
+
+  private synchronized void load(
+      Map<String, TuplePartition> index,
+      ArrayDeque<Loaded> loads,
+      String key,
+      List<RelationTuple> tuples,
+      long readSequence,
+      Function<RelationTuple, String> keyOf) {
+    if (!enabled) {
+      return;
+    }
+    catchUp();
+    long now = System.currentTimeMillis();
+    TuplePartition partition = TuplePartition.of(tuples, now);
+    // Records up to appliedSequence were applied while the key was absent; later ones will find it
+    long cursor = readSequence;
+    List<RelationChange> changes;
+    while (cursor < appliedSequence
+        && !(changes = changeLog.readAfter(cursor, CATCH_UP_BATCH)).isEmpty()) {
+      for (RelationChange change : changes) {
+        if (change.getSequence() > appliedSequence) {
+          break;
+        }
+        if (key.equals(keyOf.apply(change.getTuple()))) {
+          applyTo(partition, change);
+        }
+        cursor = change.getSequence();
+      }
+    }
+    if (index.put(key, partition) == null) {
+      evict(index, loads, now);
+    }
+    loads.addLast(new Loaded(key, partition));
+    if (loads.size() > 2 * maxKeys) {
+      loads.removeIf(loaded -> index.get(loaded.key()) != loaded.partition());
+    }
+  }
+
+  private void evict(Map<String, TuplePartition> index, ArrayDeque<Loaded> loads, long now) {
+    if (index.size() <= maxKeys) {
+      return;
+    }
+    index.values().removeIf(p -> isExpired(p, now));
+    while (index.size() > maxKeys && !loads.isEmpty()) {
+      Loaded oldest = loads.pollFirst();
+      if (index.remove(oldest.key(), oldest.partition())) {
+        Log.debugf("Relation index reached %d keys, evicted %s", maxKeys, oldest.key());
+      }
+    }
+  }
+
+  private boolean isExpired(TuplePartition partition, long now) {
+    return now - partition.loadedAt() >= ttlSeconds * 1000;
+  }
+
+  /**
+   * Applies every change-log record this index has not seen yet to the loaded listings. If the log
+   * has dropped records the index missed, every listing is discarded instead.
+   */
+  void catchUp() {
+    if (appliedSequence == changeLog.latestSequence()) {
+      return;
+    }
+    synchronized (this) {
+      if (appliedSequence < changeLog.earliestSequence() - 1) {
+        Log.warnf(
+            "Relation index fell behind the change log (applied %d, earliest %d), resetting",
+            appliedSequence, changeLog.earliestSequence());
+        clear();
+        appliedSequence = changeLog.latestSequence();
+        return;
+      }
+      List<RelationChange> changes;
+      while (!(changes = changeLog.readAfter(appliedSequence, CATCH_UP_BATCH)).isEmpty()) {
+        for (RelationChange change : changes) {
+          apply(change);
+          appliedSequence = change.getSequence();
+        }
+      }
+    }
+  }
+
+  private void apply(RelationChange change) {
+    RelationTuple tuple = change.getTuple();
+    TuplePartition resource = byResource.get(tuple.getResource());
+    if (resource != null) {
+      applyTo(resource, change);
+    }
+    TuplePartition target = byTarget.get(tuple.getTarget());
+    if (target != null) {
+      applyTo(target, change);
+    }
+  }
+
+  private static void applyTo(TuplePartition partition, RelationChange change) {
+    if (change.getOperation() == RelationChange.Operation.CREATE) {
+      partition.add(change.getTuple());
+    } else {
+      partition.remove(change.getTuple());
+    }
+  }
+}
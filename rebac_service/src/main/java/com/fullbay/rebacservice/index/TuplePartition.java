@@ -0,0 +1,174 @@
+package com.fullbay.rebacservice.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * The tuples held for one resource or one target, partitioned by namespace and then by relation
+ * definition so filtered reads touch only the matching tuples. Each relation keeps its tuples in an
+ * insertion-ordered hash map, so applying a change is constant time however large the listing is.
+ * Reads copy the matching tuples under a read lock.
+ */
+final class TuplePartition {
+
+  // Tuples map to themselves; equality ignores expiry, so a re-created tuple replaces the value
+  private final Map<String, Map<String, Map<RelationTuple, RelationTuple>>> byNamespace =
+      new LinkedHashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final long loadedAt;
+  private int size;
+
+  private TuplePartition(long loadedAt) {
+    this.loadedAt = loadedAt;
+  }
+
+  /**
+   * Builds a partition from a complete tuple listing.
+   *
+   * @param tuples Every tuple of the resource or target
+   * @param loadedAt When the listing was fetched, in epoch millis
+   * @return The partition
+   */
+  static TuplePartition of(List<RelationTuple> tuples, long loadedAt) {
+    TuplePartition partition = new TuplePartition(loadedAt);
+    tuples.forEach(partition::add);
+    return partition;
+  }
+
+  /**
+   * Selects the tuples matching the optional filters.
+   *
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   * @return The matching tuples
+   */
+  List<RelationTuple> select(String namespace, String relationDefinition) {
+    lock.readLock().lock();
+    try {
+      Collection<Map<String, Map<RelationTuple, RelationTuple>>> namespaces;
+      if (namespace == null) {
+        namespaces = byNamespace.values();
+      } else if (byNamespace.containsKey(namespace)) {
+        namespaces = List.of(byNamespace.get(namespace));
+      } else {
+        return Collections.emptyList();
+      }
+      List<RelationTuple> result = new ArrayList<>(relationDefinition == null ? size : 16);
+      for (Map<String, Map<RelationTuple, RelationTuple>> byRelation : namespaces) {
+        if (relationDefinition == null) {
+          byRelation.values().forEach(tuples -> result.addAll(tuples.values()));
+        } else {
+          Map<RelationTuple, RelationTuple> tuples = byRelation.get(relationDefinition);
+          if (tuples != null) {
+            result.addAll(tuples.values());
+          }
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the tuples matching the optional filters without copying them.
+   *
+   * @param namespace The namespace to count, or null for all
+   * @param relationDefinition The relation definition to count, or null for all
+   * @return The number of matching tuples
+   */
+  int count(String namespace, String relationDefinition) {
+    lock.readLock().lock();
+    try {
+      if (namespace == null && relationDefinition == null) {
+        return size;
+      }
+      int count = 0;
+      for (Map.Entry<String, Map<String, Map<RelationTuple, RelationTuple>>> ns :
+          byNamespace.entrySet()) {
+        if (namespace != null && !namespace.equals(ns.getKey())) {
+          continue;
+        }
+        for (Map.Entry<String, Map<RelationTuple, RelationTuple>> rel :
+            ns.getValue().entrySet()) {
+          if (relationDefinition == null || relationDefinition.equals(rel.getKey())) {
+            count += rel.getValue().size();
+          }
+        }
+      }
+      return count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the tuple. A tuple created again with a different expiry replaces the one held.
+   *
+   * @param tuple The tuple to add
+   */
+  void add(RelationTuple tuple) {
+    lock.writeLock().lock();
+    try {
+      Map<RelationTuple, RelationTuple> tuples =
+          byNamespace
+              .computeIfAbsent(tuple.getNamespace(), ns -> new LinkedHashMap<>())
+              .computeIfAbsent(tuple.getRelationDefinition(), rel -> new LinkedHashMap<>());
+      if (tuples.put(tuple, tuple) == null) {
+        size++;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the tuple if present.
+   *
+   * @param tuple The tuple to remove
+   */
+  void remove(RelationTuple tuple) {
+    lock.writeLock().lock();
+    try {
+      Map<String, Map<RelationTuple, RelationTuple>> byRelation =
+          byNamespace.get(tuple.getNamespace());
+      if (byRelation == null) {
+        return;
+      }
+      Map<RelationTuple, RelationTuple> tuples = byRelation.get(tuple.getRelationDefinition());
+      if (tuples == null || tuples.remove(tuple) == null) {
+        return;
+      }
+      size--;
+      if (tuples.isEmpty()) {
+        byRelation.remove(tuple.getRelationDefinition());
+        if (byRelation.isEmpty()) {
+          byNamespace.remove(tuple.getNamespace());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long loadedAt() {
+    return loadedAt;
+  }
+}
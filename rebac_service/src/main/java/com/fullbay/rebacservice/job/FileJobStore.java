@@ -0,0 +1,211 @@
+package com.fullbay.rebacservice.job;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * Job store persisting one JSON file per job in a local directory, so queued and running jobs can
+ * be resumed from their last checkpoint after a restart. Required by namespace sweeps; the files
+ * are local, so a job can only be polled on the instance that accepted it.
+ *
+ * <p>A job's tuples go to a {@code <id>.relations.ndjson} file next to it, one tuple per line,
+ * appended and fsynced before the checkpoint that covers them is saved. The job file itself stays
+ * small, so checkpoints and status polls cost the same however many tuples the job has.
+ */
+public class FileJobStore implements JobStore {
+
+  private static final String RELATIONS_SUFFIX = ".relations.ndjson";
+
+  private final Path directory;
+  private final ObjectMapper objectMapper;
+
+  // Tuple count and byte length of each relations file written since startup, so appending at
+  // the end does not rescan the file
+  private final Map<String, long[]> relationEnds = new HashMap<>();
+
+  /**
+   * Creates a new FileJobStore.
+   *
+   * @param directory The directory holding the job files, created if missing
+   * @param objectMapper The mapper used to encode jobs
+   */
+  public FileJobStore(Path directory, ObjectMapper objectMapper) {
+    this.directory = directory;
+    this.objectMapper = objectMapper;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create job store directory " + directory, e);
+    }
+  }
+
+  @Override
+  public boolean isDurable() {
+    return true;
+  }
+
+  @Override
+  public synchronized void save(Job job) {
+    Path file = directory.resolve(job.getId() + ".json");
+    Path temp = directory.resolve(job.getId() + ".json.tmp");
+    try {
+      // Write then rename so a crash never leaves a half-written checkpoint behind
+      objectMapper.writeValue(temp.toFile(), job);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to save job " + job.getId(), e);
+    }
+  }
+
+  @Override
+  public synchronized Optional<Job> find(String id) {
+    Path file = directory.resolve(id + ".json");
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    return Optional.of(read(file));
+  }
+
+  @Override
+  public synchronized List<Job> findUnfinished() {
+    List<Job> unfinished = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files
+          .filter(f -> f.getFileName().toString().endsWith(".json"))
+          .map(this::read)
+          .filter(Job::isUnfinished)
+          .forEach(unfinished::add);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to list jobs in " + directory, e);
+    }
+    return unfinished;
+  }
+
+  @Override
+  public synchronized void writeRelations(String jobId, int offset, List<RelationTuple> tuples) {
+    Path file = relationsFile(jobId);
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      long position = positionOf(jobId, file, offset);
+      ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+      for (RelationTuple tuple : tuples) {
+        encoded.write(objectMapper.writeValueAsBytes(tuple));
+        encoded.write('\n');
+      }
+      channel.truncate(position);
+      ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+      long end = position;
+      while (buffer.hasRemaining()) {
+        end += channel.write(buffer, end);
+      }
+      // Durable before any checkpoint counting these tuples is saved
+      channel.force(false);
+      relationEnds.put(jobId, new long[] {offset + tuples.size(), end});
+    } catch (IOException e) {
+      relationEnds.remove(jobId);
+      throw new UncheckedIOException("Failed to store relations of job " + jobId, e);
+    }
+  }
+
+  @Override
+  public synchronized Stream<RelationTuple> readRelations(String jobId, int offset) {
+    Path file = relationsFile(jobId);
+    if (!Files.exists(file)) {
+      return Stream.empty();
+    }
+    try {
+      BufferedReader reader = Files.newBufferedReader(file);
+      return reader
+          .lines()
+          .skip(offset)
+          .map(this::parseTuple)
+          .onClose(
+              () -> {
+                try {
+                  reader.close();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read relations of job " + jobId, e);
+    }
+  }
+
+  @Override
+  public synchronized void discardRelations(String jobId) {
+    relationEnds.remove(jobId);
+    try {
+      Files.deleteIfExists(relationsFile(jobId));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to delete relations of job " + jobId, e);
+    }
+  }
+
+  private Path relationsFile(String jobId) {
+    return directory.resolve(jobId + RELATIONS_SUFFIX);
+  }
+
+  /** Finds the byte position where the tuple at {@code offset} starts. */
+  private long positionOf(String jobId, Path file, int offset) throws IOException {
+    long[] end = relationEnds.get(jobId);
+    if (end != null && end[0] == offset) {
+      return end[1];
+    }
+    if (offset == 0) {
+      return 0;
+    }
+    long position = 0;
+    int lines = 0;
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      int b;
+      while (lines < offset && (b = in.read()) != -1) {
+        position++;
+        if (b == '\n') {
+          lines++;
+        }
+      }
+    }
+    if (lines < offset) {
+      throw new IllegalStateException(
+          "Job " + jobId + " has " + lines + " stored relations, expected at least " + offset);
+    }
+    return position;
+  }
+
+  private RelationTuple parseTuple(String line) {
+    try {
+      return objectMapper.readValue(line, RelationTuple.class);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException("Failed to parse stored relation", e);
+    }
+  }
+
+  private Job read(Path file) {
+    try {
+      return objectMapper.readValue(file.toFile(), Job.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read job " + file, e);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.fullbay.rebacservice.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/** Job store that keeps jobs for the lifetime of the instance. */
+public class InMemoryJobStore implements JobStore {
+
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  private final Map<String, List<RelationTuple>> relations = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(Job job) {
+    jobs.put(job.getId(), job);
+  }
+
+  @Override
+  public Optional<Job> find(String id) {
+    return Optional.ofNullable(jobs.get(id));
+  }
+
+  @Override
+  public List<Job> findUnfinished() {
+    return jobs.values().stream().filter(Job::isUnfinished).collect(Collectors.toList());
+  }
+
+  @Override
+  public void writeRelations(String jobId, int offset, List<RelationTuple> tuples) {
+    List<RelationTuple> stored = relations.computeIfAbsent(jobId, id -> new ArrayList<>());
+    synchronized (stored) {
+      stored.subList(Math.min(offset, stored.size()), stored.size()).clear();
+      stored.addAll(tuples);
+    }
+  }
+
+  @Override
+  public Stream<RelationTuple> readRelations(String jobId, int offset) {
+    List<RelationTuple> stored = relations.getOrDefault(jobId, List.of());
+    synchronized (stored) {
+      return List.copyOf(stored.subList(Math.min(offset, stored.size()), stored.size())).stream();
+    }
+  }
+
+  @Override
+  public void discardRelations(String jobId) {
+    relations.remove(jobId);
+  }
+}
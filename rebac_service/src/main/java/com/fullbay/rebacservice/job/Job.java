@@ -0,0 +1,259 @@
+package com.fullbay.rebacservice.job;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fullbay.rebacservice.changelog.RelationChange;
+
+/**
+ * A bulk relation operation executed in the background. The job only holds its state and
+ * checkpoint; its tuples are written once to the {@link JobStore} next to it and streamed back
+ * when it runs. The {@code processed} count is the checkpoint: a resumed job continues from the
+ * first unprocessed tuple.
+ *
+ * <p>A namespace sweep starts without relations; they are enumerated when the job first runs and
+ * appended to its stored tuples slice by slice, with {@code resourcesScanned} and {@code total} as
+ * the checkpoint, so a resumed sweep picks up enumeration where it stopped and then deletes the
+ * same tuples rather than enumerating again. Descope
+ * cannot list a namespace, so a sweep is only complete when the caller names its resources;
+ * otherwise it covers the resources known to the instance and ends {@link Status#PARTIAL}.
+ */
+public class Job {
+
+  /** Lifecycle state of a job. */
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    /** Every relation found was deleted, but the sweep could only cover known resources. */
+    PARTIAL,
+    FAILED
+  }
+
+  static final int MAX_ERRORS = 20;
+
+  @JsonProperty("id")
+  private String id;
+
+  @JsonProperty("operation")
+  private RelationChange.Operation operation;
+
+  @JsonProperty("status")
+  private volatile Status status;
+
+  @JsonProperty("total")
+  private volatile int total;
+
+  @JsonProperty("enumerated")
+  private volatile boolean enumerated;
+
+  @JsonProperty("namespace")
+  private String namespace;
+
+  @JsonProperty("resourcePrefix")
+  private String resourcePrefix;
+
+  @JsonProperty("resources")
+  private List<String> resources;
+
+  @JsonProperty("resourcesScanned")
+  private volatile int resourcesScanned;
+
+  @JsonProperty("processed")
+  private volatile int processed;
+
+  @JsonProperty("errors")
+  private List<String> errors = new ArrayList<>();
+
+  @JsonProperty("createdAt")
+  private Instant createdAt;
+
+  @JsonProperty("startedAt")
+  private volatile Instant startedAt;
+
+  @JsonProperty("finishedAt")
+  private volatile Instant finishedAt;
+
+  /** Default constructor for JSON deserialization. */
+  public Job() {}
+
+  /**
+   * Creates a new queued Job.
+   *
+   * @param id The job identifier
+   * @param operation The mutation to apply to every tuple
+   * @param total The number of tuples stored for the job
+   */
+  public Job(String id, RelationChange.Operation operation, int total) {
+    this.id = id;
+    this.operation = operation;
+    this.total = total;
+    this.status = Status.QUEUED;
+    this.createdAt = Instant.now();
+  }
+
+  /**
+   * Creates a new queued sweep deleting every relation of a namespace.
+   *
+   * @param id The job identifier
+   * @param namespace The namespace to empty
+   * @param resourcePrefix Only delete the relations of resources starting with this, or null
+   * @param resources The resources to sweep, or null or empty for those known to the instance
+   */
+  public Job(String id, String namespace, String resourcePrefix, List<String> resources) {
+    this(id, RelationChange.Operation.DELETE, 0);
+    this.namespace = namespace;
+    this.resourcePrefix = resourcePrefix;
+    this.resources = resources == null || resources.isEmpty() ? null : List.copyOf(resources);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public RelationChange.Operation getOperation() {
+    return operation;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * Checks whether a namespace sweep has finished storing the relations it deletes. Jobs of listed
+   * tuples store them when submitted.
+   *
+   * @return True once the job's tuples are all stored
+   */
+  public boolean isEnumerated() {
+    return !isNamespaceSweep() || enumerated;
+  }
+
+  public void setEnumerated(boolean enumerated) {
+    this.enumerated = enumerated;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public String getResourcePrefix() {
+    return resourcePrefix;
+  }
+
+  public List<String> getResources() {
+    return resources;
+  }
+
+  /**
+   * Checks whether the job covers every tuple it was asked to. A namespace sweep only does when the
+   * caller named its resources rather than leaving them to what this instance knows of.
+   *
+   * @return True unless the job is a sweep of unnamed resources
+   */
+  @JsonIgnore
+  public boolean isComplete() {
+    return !isNamespaceSweep() || resources != null;
+  }
+
+  public int getResourcesScanned() {
+    return resourcesScanned;
+  }
+
+  public void setResourcesScanned(int resourcesScanned) {
+    this.resourcesScanned = resourcesScanned;
+  }
+
+  /**
+   * Checks whether the job deletes a namespace rather than listed tuples.
+   *
+   * @return True for a namespace sweep
+   */
+  @JsonIgnore
+  public boolean isNamespaceSweep() {
+    return namespace != null;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public void setTotal(int total) {
+    this.total = total;
+  }
+
+  public int getProcessed() {
+    return processed;
+  }
+
+  public void setProcessed(int processed) {
+    this.processed = processed;
+  }
+
+  public synchronized List<String> getErrors() {
+    return new ArrayList<>(errors);
+  }
+
+  /**
+   * Records an error message, keeping only the first {@value #MAX_ERRORS}.
+   *
+   * @param message The error message
+   */
+  public synchronized void addError(String message) {
+    if (errors.size() < MAX_ERRORS) {
+      errors.add(message);
+    }
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(Instant finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  /**
+   * Calculates the processing throughput since the job started.
+   *
+   * @return Tuples processed per second, or 0 if the job has not started
+   */
+  @JsonIgnore
+  public double getThroughput() {
+    if (startedAt == null) {
+      return 0;
+    }
+    Instant end = finishedAt != null ? finishedAt : Instant.now();
+    long millis = Math.max(1, end.toEpochMilli() - startedAt.toEpochMilli());
+    return processed * 1000.0 / millis;
+  }
+
+  /**
+   * Checks whether the job still has work to do.
+   *
+   * @return True if the job is queued or running
+   */
+  @JsonIgnore
+  public boolean isUnfinished() {
+    return status == Status.QUEUED || status == Status.RUNNING;
+  }
+}
@@ -0,0 +1,508 @@
+package com.fullbay.rebacservice.job;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.exception.JobNotFoundException;
+import com.fullbay.rebacservice.exception.JobRejectedException;
+import com.fullbay.rebacservice.expiry.TupleExpiryService;
+import com.fullbay.rebacservice.export.RelationExporter;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Runs bulk relation writes in the background on a bounded worker pool.
+ *
+ * <p>A job's tuples are stored once in the {@link JobStore} when it is submitted, and streamed back
+ * in chunks of {@code rebac.jobs.chunk-size} tuples that are written to Descope. Only the job's
+ * processed count is checkpointed after every chunk, so unfinished jobs are resumed from their last
+ * checkpoint on startup instead of rewriting tuples already applied.
+ *
+ * <p>A namespace sweep first enumerates the relations of its resources through the {@link
+ * RelationExporter}, reading slices of {@code rebac.jobs.chunk-size} resources with up to {@code
+ * rebac.jobs.sweep.concurrency} slices in flight and streaming them to the job store, then deletes
+ * them with as many chunks in flight. Its checkpoint advances past a slice or chunk only once every
+ * earlier one has been stored or deleted too. The resources are those named by the caller, read
+ * from Descope in full; otherwise they are the ones this instance knows of, and the sweep ends
+ * {@link Job.Status#PARTIAL} rather than succeeded. Sweeps run for long enough that they need a
+ * durable job store to be resumed and polled.
+ *
+ * <p>Jobs are refused on Lambda: a sandbox is frozen as soon as it has answered, so the work would
+ * stall, and its job store is not visible to the sandbox answering the next status poll. The
+ * Lambda build leaves the job endpoints out altogether (see {@code rebac.jobs.enabled}).
+ */
+@ApplicationScoped
+public class JobService {
+
+  @ConfigProperty(name = "rebac.jobs.workers", defaultValue = "2")
+  int workers;
+
+  @ConfigProperty(name = "rebac.jobs.queue-capacity", defaultValue = "100")
+  int queueCapacity;
+
+  @ConfigProperty(name = "rebac.jobs.chunk-size", defaultValue = "100")
+  int chunkSize;
+
+  @ConfigProperty(name = "rebac.jobs.max-attempts", defaultValue = "3")
+  int maxAttempts;
+
+  @ConfigProperty(name = "rebac.jobs.retry-backoff.millis", defaultValue = "200")
+  long retryBackoffMillis;
+
+  @ConfigProperty(name = "rebac.jobs.sweep.concurrency", defaultValue = "4")
+  int sweepConcurrency;
+
+  @Inject JobStore jobStore;
+
+  @Inject RelationService relationService;
+
+  @Inject RelationExporter relationExporter;
+
+  @Inject LambdaEnvironment lambdaEnvironment;
+
+  @Inject TupleExpiryService expiry;
+
+  private ThreadPoolExecutor executor;
+
+  private final ExecutorService chunkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "relation-job-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+    chunkExecutor.shutdownNow();
+  }
+
+  void resumeOnStartup(@Observes StartupEvent event) {
+    if (lambdaEnvironment.isLambda()) {
+      return;
+    }
+    for (Job job : jobStore.findUnfinished()) {
+      Log.infof(
+          "Resuming relation job %s at %d/%d", job.getId(), job.getProcessed(), job.getTotal());
+      try {
+        enqueue(job);
+      } catch (JobRejectedException e) {
+        Log.warnf("Could not resume relation job %s: %s", job.getId(), e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Submits a bulk relation write for background processing.
+   *
+   * @param operation Whether to create or delete the tuples
+   * @param tuples The tuples to write
+   * @return The queued job
+   * @throws JobRejectedException if the job queue is full
+   * @throws FeatureUnavailableException on Lambda, or if a tuple has an expiry this instance
+   *     cannot honor
+   */
+  public Job submit(RelationChange.Operation operation, List<RelationTuple> tuples) {
+    return submit(stage(operation, sink -> sink.accept(tuples)));
+  }
+
+  /**
+   * Stores the tuples of a bulk relation write as they are produced, without queueing it yet. The
+   * tuples are discarded again if the producer fails.
+   *
+   * @param operation Whether to create or delete the tuples
+   * @param producer Called with a sink that stores each chunk of tuples it is given, in order
+   * @return The staged job, to pass to {@link #submit(Job)} or {@link #discard(Job)}
+   * @throws FeatureUnavailableException on Lambda, or if a tuple has an expiry this instance
+   *     cannot honor
+   */
+  public Job stage(
+      RelationChange.Operation operation, Consumer<Consumer<List<RelationTuple>>> producer) {
+    ensureAvailable();
+    Job job = new Job(UUID.randomUUID().toString(), operation, 0);
+    try {
+      producer.accept(
+          chunk -> {
+            if (operation == RelationChange.Operation.CREATE) {
+              expiry.ensureSupported(chunk);
+            }
+            jobStore.writeRelations(job.getId(), job.getTotal(), chunk);
+            job.setTotal(job.getTotal() + chunk.size());
+          });
+    } catch (RuntimeException e) {
+      discard(job);
+      throw e;
+    }
+    return job;
+  }
+
+  /**
+   * Submits a staged bulk relation write for background processing.
+   *
+   * @param job The job returned by {@link #stage(RelationChange.Operation, Consumer)}
+   * @return The queued job
+   * @throws JobRejectedException if the job queue is full
+   */
+  public Job submit(Job job) {
+    jobStore.save(job);
+    Log.infof(
+        "Submitted %s job %s with %d tuple(s)", job.getOperation(), job.getId(), job.getTotal());
+    enqueue(job);
+    return job;
+  }
+
+  /**
+   * Drops a staged job that will not be submitted, along with its stored tuples.
+   *
+   * @param job The job returned by {@link #stage(RelationChange.Operation, Consumer)}
+   */
+  public void discard(Job job) {
+    jobStore.discardRelations(job.getId());
+  }
+
+  /**
+   * Submits the deletion of every relation in a namespace for background processing.
+   *
+   * @param namespace The namespace to empty
+   * @param resourcePrefix Only delete the relations of resources starting with this, or null
+   * @param resources The resources to sweep, or null or empty for those known to this instance
+   * @return The queued job
+   * @throws JobRejectedException if the job queue is full
+   * @throws FeatureUnavailableException on Lambda, or without a durable job store
+   */
+  public Job submitNamespaceDeletion(
+      String namespace, String resourcePrefix, List<String> resources) {
+    ensureAvailable();
+    if (!jobStore.isDurable()) {
+      throw new FeatureUnavailableException(
+          "Namespace deletion needs a durable job store, set rebac.jobs.store.type=file");
+    }
+    Job job = new Job(UUID.randomUUID().toString(), namespace, resourcePrefix, resources);
+    jobStore.save(job);
+    Log.infof(
+        "Submitted %s deletion job %s for namespace %s (resource prefix: %s)",
+        job.isComplete() ? "complete" : "partial", job.getId(), namespace, resourcePrefix);
+    enqueue(job);
+    return job;
+  }
+
+  /**
+   * Checks that the job queue can take another job, so large uploads are turned away before they
+   * are parsed rather than after.
+   *
+   * @throws JobRejectedException if the job queue is full
+   * @throws FeatureUnavailableException on Lambda
+   */
+  public void ensureCapacity() {
+    ensureAvailable();
+    if (executor.getQueue().remainingCapacity() == 0) {
+      throw new JobRejectedException("Job queue is full, retry later");
+    }
+  }
+
+  /**
+   * Gets a job by ID.
+   *
+   * @param jobId The job identifier
+   * @return The job
+   * @throws JobNotFoundException if no job has this ID
+   */
+  public Job getJob(String jobId) {
+    return jobStore.find(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+  }
+
+  private void ensureAvailable() {
+    if (lambdaEnvironment.isLambda()) {
+      throw new FeatureUnavailableException(
+          "Bulk jobs need a long-running instance and are not available on Lambda");
+    }
+  }
+
+  private void enqueue(Job job) {
+    try {
+      executor.execute(() -> run(job));
+    } catch (RejectedExecutionException e) {
+      job.addError("Job queue is full");
+      finish(job, Job.Status.FAILED);
+      throw new JobRejectedException("Job queue is full, retry later");
+    }
+  }
+
+  /**
+   * Processes a job from its checkpoint to completion, or until a chunk exhausts its retries.
+   *
+   * @param job The job to process
+   */
+  void run(Job job) {
+    job.setStatus(Job.Status.RUNNING);
+    if (job.getStartedAt() == null) {
+      job.setStartedAt(Instant.now());
+    }
+    jobStore.save(job);
+
+    try {
+      if (job.isNamespaceSweep()) {
+        if (!job.isEnumerated() && !enumerate(job)) {
+          finish(job, Job.Status.FAILED);
+          return;
+        }
+        if (!deleteConcurrently(job)) {
+          finish(job, Job.Status.FAILED);
+        } else {
+          finish(job, job.isComplete() ? Job.Status.SUCCEEDED : Job.Status.PARTIAL);
+        }
+        return;
+      }
+
+      try (Stream<RelationTuple> stored = storedRelations(job)) {
+        Iterator<RelationTuple> tuples = stored.iterator();
+        while (tuples.hasNext()) {
+          int from = job.getProcessed();
+          List<RelationTuple> chunk = nextChunk(tuples);
+          if (!writeChunk(job, from, chunk)) {
+            finish(job, Job.Status.FAILED);
+            return;
+          }
+          job.setProcessed(from + chunk.size());
+          jobStore.save(job);
+        }
+      }
+      finish(job, Job.Status.SUCCEEDED);
+    } catch (UncheckedIOException e) {
+      Log.errorf(e, "Relation job %s could not use its job store", job.getId());
+      job.addError("Job store failed: " + e.getMessage());
+      finish(job, Job.Status.FAILED);
+    }
+  }
+
+  /** Streams the job's stored tuples from its checkpoint up to its total. */
+  private Stream<RelationTuple> storedRelations(Job job) {
+    return jobStore
+        .readRelations(job.getId(), job.getProcessed())
+        .limit(Math.max(0, job.getTotal() - job.getProcessed()));
+  }
+
+  private List<RelationTuple> nextChunk(Iterator<RelationTuple> tuples) {
+    List<RelationTuple> chunk = new ArrayList<>(chunkSize);
+    while (chunk.size() < chunkSize && tuples.hasNext()) {
+      chunk.add(tuples.next());
+    }
+    return chunk;
+  }
+
+  /**
+   * Lists the relations a namespace sweep deletes and streams them to the job store. Slices of
+   * resources are read with up to {@code rebac.jobs.sweep.concurrency} in flight and appended in
+   * order; the checkpoint is the number of resources scanned and tuples stored, so a resumed sweep
+   * continues after the last slice stored and overwrites anything appended past it.
+   */
+  private boolean enumerate(Job job) {
+    List<String> resources;
+    if (job.isComplete()) {
+      String prefix = job.getResourcePrefix();
+      resources =
+          new ArrayList<>(
+              new TreeSet<>(
+                  job.getResources().stream()
+                      .filter(resource -> prefix == null || resource.startsWith(prefix))
+                      .toList()));
+    } else {
+      resources =
+          new ArrayList<>(relationExporter.resources(job.getNamespace(), job.getResourcePrefix()));
+    }
+    Deque<Future<List<RelationTuple>>> window = new ArrayDeque<>(sweepConcurrency);
+    Deque<Integer> sliceEnds = new ArrayDeque<>(sweepConcurrency);
+    int next = Math.min(job.getResourcesScanned(), resources.size());
+    boolean succeeded = true;
+    try {
+      while (succeeded && (next < resources.size() || !window.isEmpty())) {
+        if (next < resources.size() && window.size() < sweepConcurrency) {
+          int from = next;
+          List<String> slice =
+              resources.subList(from, Math.min(from + chunkSize, resources.size()));
+          window.add(chunkExecutor.submit(() -> readSlice(job, from, slice)));
+          next = from + slice.size();
+          sliceEnds.add(next);
+          continue;
+        }
+        List<RelationTuple> tuples = await(window.poll());
+        int end = sliceEnds.poll();
+        succeeded = tuples != null;
+        if (succeeded) {
+          jobStore.writeRelations(job.getId(), job.getTotal(), tuples);
+          job.setTotal(job.getTotal() + tuples.size());
+          job.setResourcesScanned(end);
+          jobStore.save(job);
+        }
+      }
+    } finally {
+      while (!window.isEmpty()) {
+        await(window.poll());
+      }
+    }
+    if (!succeeded) {
+      return false;
+    }
+    job.setEnumerated(true);
+    jobStore.save(job);
+    Log.infof(
+        "Deletion job %s found %d relation(s) on %d resource(s) in namespace %s",
+        job.getId(), job.getTotal(), resources.size(), job.getNamespace());
+    return true;
+  }
+
+  /** Reads the relations of a slice of a sweep's resources, or null once its retries run out. */
+  private List<RelationTuple> readSlice(Job job, int offset, List<String> slice) {
+    List<RelationTuple> tuples = new ArrayList<>();
+    boolean read =
+        attempt(
+            job,
+            "Reading resources at offset " + offset,
+            () -> {
+              tuples.clear();
+              tuples.addAll(relationExporter.read(slice, job.getNamespace()));
+            });
+    return read ? tuples : null;
+  }
+
+  /**
+   * Deletes a sweep's relations with several chunks in flight. The checkpoint only advances over
+   * a contiguous run of deleted chunks, so a resumed sweep may delete a few tuples twice but never
+   * skips one.
+   */
+  private boolean deleteConcurrently(Job job) {
+    Deque<Future<Boolean>> window = new ArrayDeque<>(sweepConcurrency);
+    Deque<Integer> chunkEnds = new ArrayDeque<>(sweepConcurrency);
+    int next = job.getProcessed();
+    boolean succeeded = true;
+    try (Stream<RelationTuple> stored = storedRelations(job)) {
+      Iterator<RelationTuple> tuples = stored.iterator();
+      while (succeeded && (tuples.hasNext() || !window.isEmpty())) {
+        if (tuples.hasNext() && window.size() < sweepConcurrency) {
+          int from = next;
+          List<RelationTuple> chunk = nextChunk(tuples);
+          window.add(chunkExecutor.submit(() -> writeChunk(job, from, chunk)));
+          next = from + chunk.size();
+          chunkEnds.add(next);
+          continue;
+        }
+        succeeded = Boolean.TRUE.equals(await(window.poll()));
+        int end = chunkEnds.poll();
+        if (succeeded) {
+          job.setProcessed(end);
+          jobStore.save(job);
+        }
+      }
+    } finally {
+      // Let chunks already in flight finish so nothing is written after the job is reported done
+      while (!window.isEmpty()) {
+        await(window.poll());
+      }
+    }
+    return succeeded;
+  }
+
+  /** Waits for a chunk or slice, returning null if it was interrupted or threw. */
+  private static <T> T await(Future<T> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+
+  private boolean writeChunk(Job job, int offset, List<RelationTuple> chunk) {
+    return attempt(
+        job,
+        "Chunk at offset " + offset,
+        () -> {
+          if (job.getOperation() == RelationChange.Operation.DELETE) {
+            relationService.deleteRelations(chunk);
+          } else {
+            relationService.createRelations(chunk);
+          }
+        });
+  }
+
+  /** Runs a step of a job, retrying failures up to {@code rebac.jobs.max-attempts} times. */
+  private boolean attempt(Job job, String step, Runnable action) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        action.run();
+        return true;
+      } catch (RuntimeException e) {
+        Log.warnf(
+            "Relation job %s: %s failed (attempt %d/%d): %s",
+            job.getId(), step, attempt, maxAttempts, e.getMessage());
+        if (attempt >= maxAttempts) {
+          job.addError(step + " failed: " + e.getMessage());
+          return false;
+        }
+        try {
+          Thread.sleep(retryBackoffMillis * attempt);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          job.addError(step + " interrupted");
+          return false;
+        }
+      }
+    }
+  }
+
+  private void finish(Job job, Job.Status status) {
+    job.setStatus(status);
+    job.setFinishedAt(Instant.now());
+    jobStore.save(job);
+    jobStore.discardRelations(job.getId());
+    Log.infof(
+        "Relation job %s %s after %d/%d tuple(s) at %.1f tuples/s",
+        job.getId(), status, job.getProcessed(), job.getTotal(), job.getThroughput());
+  }
+}
@@ -0,0 +1,71 @@
+package com.fullbay.rebacservice.job;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * Persistence for bulk jobs and their checkpoints. A job's tuples are stored apart from the job, so
+ * checkpointing a job and polling its status never rewrite or re-read them.
+ */
+public interface JobStore {
+
+  /**
+   * Saves the current state of a job, replacing any previous state.
+   *
+   * @param job The job to save
+   */
+  void save(Job job);
+
+  /**
+   * Finds a job by ID.
+   *
+   * @param id The job identifier
+   * @return The job, or empty if unknown
+   */
+  Optional<Job> find(String id);
+
+  /**
+   * Finds every job that is still queued or running, e.g. to resume after a restart.
+   *
+   * @return The unfinished jobs
+   */
+  List<Job> findUnfinished();
+
+  /**
+   * Stores tuples of a job after the first {@code offset} already stored. Tuples stored past the
+   * offset, by an attempt that never reached its checkpoint, are discarded first.
+   *
+   * @param jobId The job identifier
+   * @param offset The number of stored tuples to keep
+   * @param tuples The tuples to append
+   */
+  void writeRelations(String jobId, int offset, List<RelationTuple> tuples);
+
+  /**
+   * Reads the stored tuples of a job in order. The stream must be closed.
+   *
+   * @param jobId The job identifier
+   * @param offset The number of leading tuples to skip
+   * @return The tuples from the offset on, empty if none are stored
+   */
+  Stream<RelationTuple> readRelations(String jobId, int offset);
+
+  /**
+   * Drops the stored tuples of a finished job, keeping the job itself for status polls.
+   *
+   * @param jobId The job identifier
+   */
+  void discardRelations(String jobId);
+
+  /**
+   * Checks whether saved jobs survive a restart, so long-running jobs can be resumed and polled.
+   *
+   * @return True if jobs are persisted outside the process
+   */
+  default boolean isDurable() {
+    return false;
+  }
+}
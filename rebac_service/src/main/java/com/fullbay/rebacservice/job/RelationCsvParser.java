@@ -0,0 +1,336 @@
+package com.fullbay.rebacservice.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.validation.RelationTupleChecks;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Parses CSV or TSV relation exports into de-duplicated tuples.
+ *
+ * <p>Each row is {@code resource, relationDefinition, namespace, target} with an optional fifth
+ * {@code expiresAt} column; a header row naming the columns is skipped. Fields may be enclosed in
+ * double quotes, but rows may not span lines. The input is read as a stream and cut at line
+ * boundaries into ranges of about {@code rebac.jobs.import.split-bytes} bytes. Up to {@code
+ * rebac.jobs.import.parallelism} ranges are parsed and validated at once on a fork-join pool of as
+ * many threads, and handed on in input order with duplicate rows dropped, so memory is bounded by
+ * the ranges in flight and the unique tuples seen rather than by the size of the input.
+ */
+@ApplicationScoped
+public class RelationCsvParser {
+
+  static final String EXPIRES_AT_INVALID = "Expiry must be an ISO-8601 instant";
+
+  private static final String[] HEADER = {"resource", "relationDefinition", "namespace", "target"};
+
+  @ConfigProperty(name = "rebac.jobs.import.parallelism", defaultValue = "4")
+  int parallelism;
+
+  @ConfigProperty(name = "rebac.jobs.import.split-bytes", defaultValue = "65536")
+  int splitBytes;
+
+  @ConfigProperty(name = "rebac.validation.max-violations", defaultValue = "100")
+  int maxViolations;
+
+  private ForkJoinPool pool;
+
+  @PostConstruct
+  void init() {
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Parses and validates an export as it is read, handing each range's new tuples to a sink. The
+   * sink is called on the calling thread in input order, and reading waits for it once {@code
+   * rebac.jobs.import.parallelism} ranges are in flight. Once a row is rejected the sink is not
+   * called again; the rest of the input is only read to report further rejected rows.
+   *
+   * @param body The UTF-8 encoded export
+   * @param delimiter The field delimiter, {@code ','} or {@code '\t'}
+   * @param sink Receives the tuples not seen before, range by range
+   * @return The number of unique tuples
+   * @throws IllegalArgumentException if a row is malformed or fails validation
+   * @throws UncheckedIOException if the export cannot be read
+   */
+  public int parse(InputStream body, char delimiter, Consumer<List<RelationTuple>> sink) {
+    long start = System.nanoTime();
+    RangeReader reader = new RangeReader(body, splitBytes);
+    Deque<ForkJoinTask<Range>> window = new ArrayDeque<>(parallelism);
+    Set<RelationTuple> seen = new HashSet<>();
+    List<String> errors = new ArrayList<>();
+    int rows = 0;
+    int lines = 0;
+    try {
+      boolean reading = true;
+      boolean first = true;
+      while (reading || !window.isEmpty()) {
+        if (reading && window.size() < parallelism) {
+          byte[] range = reader.next();
+          if (range == null) {
+            reading = false;
+          } else {
+            window.add(pool.submit(new ParseTask(range, 0, range.length, delimiter, first)));
+            first = false;
+          }
+          continue;
+        }
+        Range parsed = window.poll().join();
+        for (RowError error : parsed.errors()) {
+          if (errors.size() < maxViolations) {
+            errors.add("line " + (lines + error.line()) + " " + error.message());
+          }
+        }
+        lines += parsed.lines();
+        rows += parsed.tuples().size();
+        reading &= errors.size() < maxViolations;
+        if (errors.isEmpty()) {
+          List<RelationTuple> unique = new ArrayList<>(parsed.tuples().size());
+          for (RelationTuple tuple : parsed.tuples()) {
+            if (seen.add(tuple)) {
+              unique.add(tuple);
+            }
+          }
+          if (!unique.isEmpty()) {
+            sink.accept(unique);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the import", e);
+    } finally {
+      window.forEach(task -> task.cancel(false));
+    }
+    if (!errors.isEmpty()) {
+      throw new IllegalArgumentException("Validation failed: " + String.join(", ", errors));
+    }
+
+    long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    Log.infof(
+        "Parsed %d row(s) into %d unique tuple(s) in %d ms (%.0f rows/s)",
+        rows, seen.size(), millis, rows * 1000.0 / millis);
+    return seen.size();
+  }
+
+  /** Reads an input in ranges of about {@code splitBytes} bytes that end at a line boundary. */
+  private static final class RangeReader {
+
+    private final InputStream input;
+    private byte[] buffer;
+    private int filled;
+    private boolean eof;
+
+    RangeReader(InputStream input, int splitBytes) {
+      this.input = input;
+      this.buffer = new byte[Math.max(1, splitBytes)];
+    }
+
+    /** Returns the next range, longer than the split size only for a longer line, or null. */
+    byte[] next() throws IOException {
+      while (true) {
+        while (!eof && filled < buffer.length) {
+          int read = input.read(buffer, filled, buffer.length - filled);
+          if (read < 0) {
+            eof = true;
+          } else {
+            filled += read;
+          }
+        }
+        int end = filled;
+        while (end > 0 && buffer[end - 1] != '\n') {
+          end--;
+        }
+        if (end == 0 && !eof) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          continue;
+        }
+        if (end == 0) {
+          end = filled;
+        }
+        if (end == 0) {
+          return null;
+        }
+        byte[] range = Arrays.copyOf(buffer, end);
+        System.arraycopy(buffer, end, buffer, 0, filled - end);
+        filled -= end;
+        return range;
+      }
+    }
+  }
+
+  /** A rejected row, numbered from 1 within its range. */
+  private record RowError(int line, String message) {}
+
+  /** Tuples and errors of a byte range, which holds {@code lines} lines. */
+  private record Range(List<RelationTuple> tuples, List<RowError> errors, int lines) {}
+
+  /** Splits a byte range at a line boundary until it is small enough to parse directly. */
+  private final class ParseTask extends RecursiveTask<Range> {
+
+    private final byte[] body;
+    private final int from;
+    private final int to;
+    private final char delimiter;
+    private final boolean first;
+
+    ParseTask(byte[] body, int from, int to, char delimiter, boolean first) {
+      this.body = body;
+      this.from = from;
+      this.to = to;
+      this.delimiter = delimiter;
+      this.first = first;
+    }
+
+    @Override
+    protected Range compute() {
+      if (to - from > splitBytes) {
+        int split = from + (to - from) / 2;
+        while (split < to && body[split - 1] != '\n') {
+          split++;
+        }
+        if (split < to) {
+          ParseTask left = new ParseTask(body, from, split, delimiter, first);
+          ParseTask right = new ParseTask(body, split, to, delimiter, false);
+          right.fork();
+          return merge(left.compute(), right.join());
+        }
+      }
+      return parseLines();
+    }
+
+    private Range merge(Range left, Range right) {
+      List<RelationTuple> tuples = new ArrayList<>(left.tuples().size() + right.tuples().size());
+      tuples.addAll(left.tuples());
+      tuples.addAll(right.tuples());
+      List<RowError> errors = left.errors();
+      if (!right.errors().isEmpty() && errors.size() < maxViolations) {
+        errors = new ArrayList<>(left.errors());
+        for (RowError error : right.errors()) {
+          errors.add(new RowError(error.line() + left.lines(), error.message()));
+        }
+      }
+      return new Range(tuples, errors, left.lines() + right.lines());
+    }
+
+    private Range parseLines() {
+      List<RelationTuple> tuples = new ArrayList<>();
+      List<Integer> tupleLines = new ArrayList<>();
+      List<RowError> errors = new ArrayList<>();
+      String text = new String(body, from, to - from, StandardCharsets.UTF_8);
+      int lines = 0;
+      int start = 0;
+      while (start < text.length()) {
+        int end = text.indexOf('\n', start);
+        if (end < 0) {
+          end = text.length();
+        }
+        lines++;
+        int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+        String line = text.substring(start, lineEnd);
+        start = end + 1;
+        if (line.isBlank() || (first && from == 0 && lines == 1 && isHeader(line))) {
+          continue;
+        }
+        List<String> fields = split(line, delimiter);
+        if (fields.size() != 4 && fields.size() != 5) {
+          if (errors.size() < maxViolations) {
+            errors.add(new RowError(lines, "expected 4 or 5 fields but found " + fields.size()));
+          }
+          continue;
+        }
+        Instant expiresAt = null;
+        if (fields.size() == 5 && !fields.get(4).isEmpty()) {
+          try {
+            expiresAt = Instant.parse(fields.get(4));
+          } catch (DateTimeParseException e) {
+            if (errors.size() < maxViolations) {
+              errors.add(new RowError(lines, "expiresAt: " + EXPIRES_AT_INVALID));
+            }
+            continue;
+          }
+        }
+        tuples.add(
+            new RelationTuple(
+                fields.get(0), fields.get(1), fields.get(2), fields.get(3), expiresAt));
+        tupleLines.add(lines);
+      }
+      RelationTupleChecks.check(
+          tuples,
+          maxViolations - errors.size(),
+          (i, field, message) ->
+              errors.add(new RowError(tupleLines.get(i), field + ": " + message)));
+      return new Range(tuples, errors, lines);
+    }
+
+    private boolean isHeader(String line) {
+      List<String> fields = split(line, delimiter);
+      for (int i = 0; i < HEADER.length; i++) {
+        if (fields.size() <= i || !HEADER[i].equalsIgnoreCase(fields.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Splits a row into trimmed fields. A field enclosed in double quotes may contain the delimiter,
+   * and a doubled quote inside it stands for one quote.
+   */
+  static List<String> split(String line, char delimiter) {
+    List<String> fields = new ArrayList<>(5);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"' && field.toString().isBlank()) {
+        field.setLength(0);
+        quoted = true;
+      } else if (c == delimiter) {
+        fields.add(field.toString().strip());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString().strip());
+    return fields;
+  }
+}
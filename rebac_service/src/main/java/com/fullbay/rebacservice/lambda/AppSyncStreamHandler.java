@@ -0,0 +1,100 @@
+package com.fullbay.rebacservice.lambda;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fullbay.rebacservice.appsync.AppSyncBatchHandler;
+import com.fullbay.rebacservice.appsync.AppSyncFieldResolver;
+
+import io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler;
+import io.quarkus.arc.Arc;
+
+/**
+ * Lambda entry point that resolves AppSync events directly and passes every other event to the
+ * Quarkus REST handler.
+ *
+ * <p>A {@code BatchInvoke} payload arrives as a JSON array and goes to {@link AppSyncBatchHandler};
+ * a direct {@code Invoke} payload is a JSON object with a top-level {@code field} and goes to
+ * {@link AppSyncFieldResolver}. Neither is translated into an HTTP request or routed through
+ * JAX-RS. ALB events never carry a top-level {@code field}.
+ */
+public class AppSyncStreamHandler implements RequestStreamHandler {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  // Creating the Quarkus handler boots the application
+  private final QuarkusStreamHandler restHandler = new QuarkusStreamHandler();
+
+  @Override
+  public void handleRequest(InputStream input, OutputStream output, Context context)
+      throws IOException {
+    byte[] payload = input.readAllBytes();
+    if (isBatch(payload)) {
+      Arc.container()
+          .instance(AppSyncBatchHandler.class)
+          .get()
+          .handle(payload, output, remainingMillis(context));
+      return;
+    }
+    if (isDirectInvoke(payload)) {
+      Arc.container()
+          .instance(AppSyncFieldResolver.class)
+          .get()
+          .handle(payload, output, remainingMillis(context));
+      return;
+    }
+    restHandler.handleRequest(new ByteArrayInputStream(payload), output, context);
+  }
+
+  private static Long remainingMillis(Context context) {
+    return context == null ? null : (long) context.getRemainingTimeInMillis();
+  }
+
+  /**
+   * Checks whether a Lambda payload is a batch, i.e. a top-level JSON array.
+   *
+   * @param payload The raw event
+   * @return True if the first non-whitespace character is {@code [}
+   */
+  static boolean isBatch(byte[] payload) {
+    for (byte b : payload) {
+      if (!Character.isWhitespace(b)) {
+        return b == '[';
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether a Lambda payload is a direct AppSync field invocation. Only top-level keys are
+   * read; nested values are skipped without being parsed into objects.
+   *
+   * @param payload The raw event
+   * @return True if the payload is a JSON object with a top-level {@code field} key
+   */
+  static boolean isDirectInvoke(byte[] payload) {
+    try (JsonParser parser = JSON.createParser(payload)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return false;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        if ("field".equals(parser.currentName())) {
+          return true;
+        }
+        parser.nextToken();
+        parser.skipChildren();
+      }
+      return false;
+    } catch (IOException e) {
+      // Malformed events are left to the REST handler to reject
+      return false;
+    }
+  }
+}
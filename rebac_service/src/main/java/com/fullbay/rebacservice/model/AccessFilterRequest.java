@@ -0,0 +1,93 @@
+package com.fullbay.rebacservice.model;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/** Request model for filtering candidate resources down to those a target can access. */
+@Schema(description = "Request payload for filtering resources by a target's access")
+public class AccessFilterRequest {
+
+  public static final int MAX_RESOURCES = 10000;
+
+  @JsonProperty("target")
+  @NotBlank(message = RelationTuple.TARGET_REQUIRED)
+  @Schema(description = "Target whose access is checked", example = "user:alice@example.com")
+  private String target;
+
+  @JsonProperty("relationDefinition")
+  @NotBlank(message = RelationTuple.RELATION_DEFINITION_REQUIRED)
+  @Schema(description = "Relation the target must hold", example = "viewer")
+  private String relationDefinition;
+
+  @JsonProperty("namespace")
+  @NotBlank(message = RelationTuple.NAMESPACE_REQUIRED)
+  @Schema(description = "Namespace of the candidate resources", example = "documents")
+  private String namespace;
+
+  @JsonProperty("resources")
+  @NotNull(message = "Resources list is required")
+  @Size(max = MAX_RESOURCES, message = "Resources list must not exceed 10000 entries")
+  @Schema(
+      description = "Candidate resource identifiers",
+      required = true,
+      example = "[\"document:123\", \"document:456\"]")
+  private List<String> resources;
+
+  /** Default constructor for JSON deserialization. */
+  public AccessFilterRequest() {}
+
+  /**
+   * Creates a new AccessFilterRequest.
+   *
+   * @param target The target identifier
+   * @param relationDefinition The relation the target must hold
+   * @param namespace The namespace of the candidates
+   * @param resources The candidate resource identifiers
+   */
+  public AccessFilterRequest(
+      String target, String relationDefinition, String namespace, List<String> resources) {
+    this.target = target;
+    this.relationDefinition = relationDefinition;
+    this.namespace = namespace;
+    this.resources = resources;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public void setTarget(String target) {
+    this.target = target;
+  }
+
+  public String getRelationDefinition() {
+    return relationDefinition;
+  }
+
+  public void setRelationDefinition(String relationDefinition) {
+    this.relationDefinition = relationDefinition;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public void setNamespace(String namespace) {
+    this.namespace = namespace;
+  }
+
+  public List<String> getResources() {
+    return resources;
+  }
+
+  public void setResources(List<String> resources) {
+    this.resources = resources;
+  }
+}
@@ -0,0 +1,154 @@
+package com.fullbay.rebacservice.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * One node of a userset expansion: the direct targets of a (resource, relation definition) pair
+ * and the expansions of the usersets among its targets.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Userset expansion of a resource relation")
+public class ExpandNode {
+
+  /** Why a node was not expanded further. */
+  public enum Truncation {
+    /** The maximum expansion depth was reached. */
+    DEPTH,
+    /** The maximum number of nodes was reached. */
+    SIZE,
+    /** The userset is already being expanded higher up the tree. */
+    CYCLE
+  }
+
+  @JsonProperty("resource")
+  @Schema(description = "Resource identifier", example = "document:123")
+  private final String resource;
+
+  @JsonProperty("relationDefinition")
+  @Schema(description = "Relation definition", example = "viewer")
+  private final String relationDefinition;
+
+  @JsonProperty("namespace")
+  @Schema(description = "Namespace, absent for usersets which match any namespace")
+  private final String namespace;
+
+  @JsonProperty("targets")
+  @Schema(description = "Targets holding the relation directly")
+  private final List<String> targets;
+
+  @JsonProperty("usersets")
+  @Schema(description = "Expansions of the userset targets (resource#relation)")
+  private final List<ExpandNode> usersets;
+
+  @JsonProperty("truncated")
+  @Schema(description = "Set when the node, or some of its usersets, were not expanded")
+  private final Truncation truncated;
+
+  private final int size;
+  private final boolean complete;
+
+  private ExpandNode(
+      String resource,
+      String relationDefinition,
+      String namespace,
+      List<String> targets,
+      List<ExpandNode> usersets,
+      Truncation truncated) {
+    this.resource = resource;
+    this.relationDefinition = relationDefinition;
+    this.namespace = namespace;
+    this.targets = targets;
+    this.usersets = usersets;
+    this.truncated = truncated;
+    this.size = 1 + usersets.stream().mapToInt(ExpandNode::getSize).sum();
+    this.complete =
+        (truncated == null || truncated == Truncation.CYCLE)
+            && usersets.stream().allMatch(ExpandNode::isComplete);
+  }
+
+  /**
+   * Creates an expanded node.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace, or null for any
+   * @param targets The direct targets
+   * @param usersets The expanded userset targets
+   * @param truncated Set if some usersets were left out, otherwise null
+   * @return The node
+   */
+  public static ExpandNode expanded(
+      String resource,
+      String relationDefinition,
+      String namespace,
+      List<String> targets,
+      List<ExpandNode> usersets,
+      Truncation truncated) {
+    return new ExpandNode(resource, relationDefinition, namespace, targets, usersets, truncated);
+  }
+
+  /**
+   * Creates a node that was not expanded.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace, or null for any
+   * @param truncated Why the node was not expanded
+   * @return The node
+   */
+  public static ExpandNode truncated(
+      String resource, String relationDefinition, String namespace, Truncation truncated) {
+    return new ExpandNode(resource, relationDefinition, namespace, List.of(), List.of(), truncated);
+  }
+
+  public String getResource() {
+    return resource;
+  }
+
+  public String getRelationDefinition() {
+    return relationDefinition;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public List<String> getTargets() {
+    return targets;
+  }
+
+  public List<ExpandNode> getUsersets() {
+    return usersets;
+  }
+
+  public Truncation getTruncated() {
+    return truncated;
+  }
+
+  /**
+   * Gets the number of nodes in this subtree.
+   *
+   * @return The node count, including this node
+   */
+  @JsonIgnore
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Checks whether this subtree was expanded without hitting a depth or size limit. Cycles do not
+   * make a subtree incomplete, since the repeated userset is expanded elsewhere in the tree.
+   *
+   * @return True if no node below was cut off by a limit
+   */
+  @JsonIgnore
+  public boolean isComplete() {
+    return complete;
+  }
+}
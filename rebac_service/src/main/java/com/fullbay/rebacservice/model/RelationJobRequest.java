@@ -0,0 +1,58 @@
+package com.fullbay.rebacservice.model;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.validation.ValidRelationTuples;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/** Request model for submitting a bulk relation job. */
+@Schema(description = "Request payload for submitting a background bulk relation job")
+public class RelationJobRequest {
+
+  @JsonProperty("operation")
+  @NotNull(message = "Operation is required")
+  @Schema(description = "Whether to create or delete the tuples", required = true)
+  private RelationChange.Operation operation;
+
+  @JsonProperty("relations")
+  @NotEmpty(message = "Relations list cannot be empty")
+  @ValidRelationTuples
+  @Schema(description = "List of relation tuples to write", required = true)
+  private List<RelationTuple> relations;
+
+  /** Default constructor for JSON deserialization. */
+  public RelationJobRequest() {}
+
+  /**
+   * Creates a new RelationJobRequest.
+   *
+   * @param operation The operation to apply
+   * @param relations The list of relation tuples
+   */
+  public RelationJobRequest(RelationChange.Operation operation, List<RelationTuple> relations) {
+    this.operation = operation;
+    this.relations = relations;
+  }
+
+  public RelationChange.Operation getOperation() {
+    return operation;
+  }
+
+  public void setOperation(RelationChange.Operation operation) {
+    this.operation = operation;
+  }
+
+  public List<RelationTuple> getRelations() {
+    return relations;
+  }
+
+  public void setRelations(List<RelationTuple> relations) {
+    this.relations = relations;
+  }
+}
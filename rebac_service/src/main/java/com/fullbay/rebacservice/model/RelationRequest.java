@@ -2,10 +2,10 @@ package com.fullbay.rebacservice.model;
 
 import java.util.List;
 
-import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fullbay.rebacservice.validation.ValidRelationTuples;
 
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
@@ -15,7 +15,7 @@ public class RelationRequest {
 
   @JsonProperty("relations")
   @NotEmpty(message = "Relations list cannot be empty")
-  @Valid
+  @ValidRelationTuples
   @Schema(description = "List of relation tuples to create or delete", required = true)
   private List<RelationTuple> relations;
 
@@ -1,8 +1,13 @@
 package com.fullbay.rebacservice.model;
 
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -11,33 +16,57 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 @Schema(description = "Authorization relation tuple defining a subject's access to a resource")
 public class RelationTuple {
 
+  public static final int MAX_RESOURCE_LENGTH = 500;
+  public static final int MAX_RELATION_DEFINITION_LENGTH = 100;
+  public static final int MAX_NAMESPACE_LENGTH = 100;
+  public static final int MAX_TARGET_LENGTH = 500;
+
+  public static final String RESOURCE_REQUIRED = "Resource is required";
+  public static final String RESOURCE_TOO_LONG = "Resource must not exceed 500 characters";
+  public static final String RELATION_DEFINITION_REQUIRED = "Relation definition is required";
+  public static final String RELATION_DEFINITION_TOO_LONG =
+      "Relation definition must not exceed 100 characters";
+  public static final String NAMESPACE_REQUIRED = "Namespace is required";
+  public static final String NAMESPACE_TOO_LONG = "Namespace must not exceed 100 characters";
+  public static final String TARGET_REQUIRED = "Target is required";
+  public static final String TARGET_TOO_LONG = "Target must not exceed 500 characters";
+  public static final String EXPIRES_AT_NOT_FUTURE = "Expiry must be in the future";
+
   @JsonProperty("resource")
-  @NotBlank(message = "Resource is required")
-  @Size(max = 500, message = "Resource must not exceed 500 characters")
+  @NotBlank(message = RESOURCE_REQUIRED)
+  @Size(max = MAX_RESOURCE_LENGTH, message = RESOURCE_TOO_LONG)
   @Schema(description = "Resource identifier", required = true, example = "document:123")
   private String resource;
 
   @JsonProperty("relationDefinition")
-  @NotBlank(message = "Relation definition is required")
-  @Size(max = 100, message = "Relation definition must not exceed 100 characters")
+  @NotBlank(message = RELATION_DEFINITION_REQUIRED)
+  @Size(max = MAX_RELATION_DEFINITION_LENGTH, message = RELATION_DEFINITION_TOO_LONG)
   @Schema(description = "Relation type/definition", required = true, example = "viewer")
   private String relationDefinition;
 
   @JsonProperty("namespace")
-  @NotBlank(message = "Namespace is required")
-  @Size(max = 100, message = "Namespace must not exceed 100 characters")
+  @NotBlank(message = NAMESPACE_REQUIRED)
+  @Size(max = MAX_NAMESPACE_LENGTH, message = NAMESPACE_TOO_LONG)
   @Schema(description = "Namespace for the resource", required = true, example = "documents")
   private String namespace;
 
   @JsonProperty("target")
-  @NotBlank(message = "Target is required")
-  @Size(max = 500, message = "Target must not exceed 500 characters")
+  @NotBlank(message = TARGET_REQUIRED)
+  @Size(max = MAX_TARGET_LENGTH, message = TARGET_TOO_LONG)
   @Schema(
       description = "Target/subject identifier",
       required = true,
       example = "user:alice@example.com")
   private String target;
 
+  @JsonProperty("expiresAt")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Future(message = EXPIRES_AT_NOT_FUTURE)
+  @Schema(
+      description = "Optional time after which the tuple is removed automatically",
+      example = "2030-01-01T00:00:00Z")
+  private Instant expiresAt;
+
   /** Default constructor for JSON deserialization. */
   public RelationTuple() {}
 
@@ -57,6 +86,25 @@ public class RelationTuple {
     this.target = target;
   }
 
+  /**
+   * Creates a new RelationTuple that expires.
+   *
+   * @param resource The resource identifier (e.g., "document:123")
+   * @param relationDefinition The relation type (e.g., "owner", "viewer")
+   * @param namespace The namespace for the resource
+   * @param target The target/subject identifier (e.g., "user:alice@example.com")
+   * @param expiresAt When the tuple is removed, or null if it never expires
+   */
+  public RelationTuple(
+      String resource,
+      String relationDefinition,
+      String namespace,
+      String target,
+      Instant expiresAt) {
+    this(resource, relationDefinition, namespace, target);
+    this.expiresAt = expiresAt;
+  }
+
   public String getResource() {
     return resource;
   }
@@ -88,4 +136,35 @@ public class RelationTuple {
   public void setTarget(String target) {
     this.target = target;
   }
+
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * Two tuples are equal when they grant the same relation on the same resource to a target. The
+   * expiry is not part of the tuple's identity.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RelationTuple other)) {
+      return false;
+    }
+    return Objects.equals(resource, other.resource)
+        && Objects.equals(relationDefinition, other.relationDefinition)
+        && Objects.equals(namespace, other.namespace)
+        && Objects.equals(target, other.target);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(resource, relationDefinition, namespace, target);
+  }
 }
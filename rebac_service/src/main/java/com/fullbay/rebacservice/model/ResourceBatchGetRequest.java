@@ -0,0 +1,76 @@
+package com.fullbay.rebacservice.model;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/** Request model for reading the relations of many resources at once. */
+@Schema(description = "Request payload for reading the relations of many resources")
+public class ResourceBatchGetRequest {
+
+  public static final int MAX_RESOURCES = 5000;
+
+  @JsonProperty("resources")
+  @NotEmpty(message = "Resources list cannot be empty")
+  @Size(max = MAX_RESOURCES, message = "Resources list must not exceed 5000 entries")
+  @Schema(
+      description = "Resource identifiers to read; duplicates are read once",
+      required = true,
+      example = "[\"document:123\", \"document:456\"]")
+  private List<@NotBlank(message = "Resource is required") String> resources;
+
+  @JsonProperty("namespace")
+  @Schema(description = "Only return relations in this namespace", example = "documents")
+  private String namespace;
+
+  @JsonProperty("relationDefinition")
+  @Schema(description = "Only return relations of this type", example = "viewer")
+  private String relationDefinition;
+
+  /** Default constructor for JSON deserialization. */
+  public ResourceBatchGetRequest() {}
+
+  /**
+   * Creates a new ResourceBatchGetRequest.
+   *
+   * @param resources The resource identifiers
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   */
+  public ResourceBatchGetRequest(
+      List<String> resources, String namespace, String relationDefinition) {
+    this.resources = resources;
+    this.namespace = namespace;
+    this.relationDefinition = relationDefinition;
+  }
+
+  public List<String> getResources() {
+    return resources;
+  }
+
+  public void setResources(List<String> resources) {
+    this.resources = resources;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public void setNamespace(String namespace) {
+    this.namespace = namespace;
+  }
+
+  public String getRelationDefinition() {
+    return relationDefinition;
+  }
+
+  public void setRelationDefinition(String relationDefinition) {
+    this.relationDefinition = relationDefinition;
+  }
+}
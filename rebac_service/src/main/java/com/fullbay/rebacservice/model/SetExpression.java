@@ -0,0 +1,163 @@
+package com.fullbay.rebacservice.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * One node of a set-algebra query. An operator node combines its operands; a leaf selects the
+ * resources a target holds a relation on, the targets holding a relation on a resource, or a
+ * literal list of identifiers.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Set-algebra expression over relation sets")
+public class SetExpression {
+
+  /** How an operator node combines its operands. */
+  public enum Operator {
+    /** Identifiers in every operand. */
+    AND,
+    /** Identifiers in any operand. */
+    OR,
+    /** Identifiers in the first operand and in none of the others. */
+    ANDNOT
+  }
+
+  @JsonProperty("op")
+  @Schema(description = "Operator combining the operands; absent for a leaf", example = "AND")
+  private Operator op;
+
+  @JsonProperty("operands")
+  @Schema(description = "Operands of the operator")
+  private List<SetExpression> operands;
+
+  @JsonProperty("target")
+  @Schema(
+      description = "Leaf: the resources this target holds the relation on",
+      example = "user:alice@example.com")
+  private String target;
+
+  @JsonProperty("resource")
+  @Schema(
+      description = "Leaf: the targets holding the relation on this resource",
+      example = "document:123")
+  private String resource;
+
+  @JsonProperty("relationDefinition")
+  @Schema(description = "Relation of a target or resource leaf", example = "viewer")
+  private String relationDefinition;
+
+  @JsonProperty("ids")
+  @Schema(
+      description = "Leaf: a literal set of identifiers, such as search results",
+      example = "[\"document:123\", \"document:456\"]")
+  private List<String> ids;
+
+  /** Default constructor for JSON deserialization. */
+  public SetExpression() {}
+
+  /**
+   * Creates an operator node.
+   *
+   * @param op The operator
+   * @param operands The operands
+   * @return The node
+   */
+  public static SetExpression of(Operator op, List<SetExpression> operands) {
+    SetExpression expression = new SetExpression();
+    expression.op = op;
+    expression.operands = operands;
+    return expression;
+  }
+
+  /**
+   * Creates a leaf selecting the resources a target holds a relation on.
+   *
+   * @param target The target identifier
+   * @param relationDefinition The relation
+   * @return The leaf
+   */
+  public static SetExpression target(String target, String relationDefinition) {
+    SetExpression expression = new SetExpression();
+    expression.target = target;
+    expression.relationDefinition = relationDefinition;
+    return expression;
+  }
+
+  /**
+   * Creates a leaf selecting the targets holding a relation on a resource.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation
+   * @return The leaf
+   */
+  public static SetExpression resource(String resource, String relationDefinition) {
+    SetExpression expression = new SetExpression();
+    expression.resource = resource;
+    expression.relationDefinition = relationDefinition;
+    return expression;
+  }
+
+  /**
+   * Creates a leaf holding literal identifiers.
+   *
+   * @param ids The identifiers
+   * @return The leaf
+   */
+  public static SetExpression ids(List<String> ids) {
+    SetExpression expression = new SetExpression();
+    expression.ids = ids;
+    return expression;
+  }
+
+  public Operator getOp() {
+    return op;
+  }
+
+  public void setOp(Operator op) {
+    this.op = op;
+  }
+
+  public List<SetExpression> getOperands() {
+    return operands;
+  }
+
+  public void setOperands(List<SetExpression> operands) {
+    this.operands = operands;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public void setTarget(String target) {
+    this.target = target;
+  }
+
+  public String getResource() {
+    return resource;
+  }
+
+  public void setResource(String resource) {
+    this.resource = resource;
+  }
+
+  public String getRelationDefinition() {
+    return relationDefinition;
+  }
+
+  public void setRelationDefinition(String relationDefinition) {
+    this.relationDefinition = relationDefinition;
+  }
+
+  public List<String> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<String> ids) {
+    this.ids = ids;
+  }
+}
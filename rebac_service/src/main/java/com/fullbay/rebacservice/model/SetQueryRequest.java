@@ -0,0 +1,71 @@
+package com.fullbay.rebacservice.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/** Request model for set-algebra queries over the adjacency store. */
+@Schema(description = "Request payload for a set-algebra query")
+public class SetQueryRequest {
+
+  public static final int MAX_IDS = 10000;
+
+  @JsonProperty("namespace")
+  @NotBlank(message = RelationTuple.NAMESPACE_REQUIRED)
+  @Schema(description = "Namespace of every relation in the query", example = "documents")
+  private String namespace;
+
+  @JsonProperty("query")
+  @NotNull(message = "Query is required")
+  @Schema(description = "The expression to evaluate", required = true)
+  private SetExpression query;
+
+  @JsonProperty("limit")
+  @Min(value = 1, message = "Limit must be positive")
+  @Schema(description = "Maximum number of identifiers returned", example = "1000")
+  private Integer limit;
+
+  /** Default constructor for JSON deserialization. */
+  public SetQueryRequest() {}
+
+  /**
+   * Creates a new SetQueryRequest.
+   *
+   * @param namespace The namespace of every relation in the query
+   * @param query The expression to evaluate
+   * @param limit The maximum number of identifiers returned, or null for the default
+   */
+  public SetQueryRequest(String namespace, SetExpression query, Integer limit) {
+    this.namespace = namespace;
+    this.query = query;
+    this.limit = limit;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public void setNamespace(String namespace) {
+    this.namespace = namespace;
+  }
+
+  public SetExpression getQuery() {
+    return query;
+  }
+
+  public void setQuery(SetExpression query) {
+    this.query = query;
+  }
+
+  public Integer getLimit() {
+    return limit;
+  }
+
+  public void setLimit(Integer limit) {
+    this.limit = limit;
+  }
+}
@@ -0,0 +1,134 @@
+package com.fullbay.rebacservice.outbox;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * A line of an outbox segment: either an accepted mutation, the outcome of delivering an earlier
+ * one to Descope, or the withdrawal of one that could not be made durable.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OutboxRecord {
+
+  /** The kind of record. */
+  public enum Type {
+    ENTRY,
+    APPLIED,
+    FAILED,
+    DISCARDED
+  }
+
+  @JsonProperty("type")
+  private Type type;
+
+  @JsonProperty("sequence")
+  private long sequence;
+
+  @JsonProperty("operation")
+  private RelationChange.Operation operation;
+
+  @JsonProperty("relations")
+  private List<RelationTuple> relations;
+
+  @JsonProperty("createdAt")
+  private Instant createdAt;
+
+  @JsonProperty("error")
+  private String error;
+
+  /** Default constructor for JSON deserialization. */
+  public OutboxRecord() {}
+
+  private OutboxRecord(
+      Type type,
+      long sequence,
+      RelationChange.Operation operation,
+      List<RelationTuple> relations,
+      Instant createdAt,
+      String error) {
+    this.type = type;
+    this.sequence = sequence;
+    this.operation = operation;
+    this.relations = relations;
+    this.createdAt = createdAt;
+    this.error = error;
+  }
+
+  /**
+   * Creates the record of an accepted mutation.
+   *
+   * @param sequence The sequence number of the mutation
+   * @param operation Whether to create or delete the tuples
+   * @param relations The tuples
+   * @param createdAt When the mutation was accepted
+   * @return The record
+   */
+  public static OutboxRecord entry(
+      long sequence,
+      RelationChange.Operation operation,
+      List<RelationTuple> relations,
+      Instant createdAt) {
+    return new OutboxRecord(Type.ENTRY, sequence, operation, relations, createdAt, null);
+  }
+
+  /**
+   * Creates the record of a mutation Descope has applied.
+   *
+   * @param sequence The sequence number of the mutation
+   * @return The record
+   */
+  public static OutboxRecord applied(long sequence) {
+    return new OutboxRecord(Type.APPLIED, sequence, null, null, null, null);
+  }
+
+  /**
+   * Creates the record of a mutation given up on.
+   *
+   * @param sequence The sequence number of the mutation
+   * @param error The last delivery error
+   * @return The record
+   */
+  public static OutboxRecord failed(long sequence, String error) {
+    return new OutboxRecord(Type.FAILED, sequence, null, null, null, error);
+  }
+
+  /**
+   * Creates the record of a mutation withdrawn because it could not be made durable. Its caller was
+   * answered with an error, so it must not be delivered after a restart.
+   *
+   * @param sequence The sequence number of the mutation
+   * @return The record
+   */
+  public static OutboxRecord discarded(long sequence) {
+    return new OutboxRecord(Type.DISCARDED, sequence, null, null, null, null);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public RelationChange.Operation getOperation() {
+    return operation;
+  }
+
+  public List<RelationTuple> getRelations() {
+    return relations;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,144 @@
+package com.fullbay.rebacservice.outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Durable record of the most recent delivery outcomes of the outbox, so pending tokens report
+ * {@code APPLIED} or {@code FAILED} across restarts and after their segment is deleted.
+ *
+ * <p>Outcomes are appended to one NDJSON file and fsynced before they count as recorded. The last
+ * {@code maxOutcomes} are kept in memory; once the file holds twice that many records it is
+ * rewritten with the retained ones and atomically swapped in, so both memory and disk stay bounded.
+ * Unreadable lines, such as a torn final record, are skipped when the file is loaded.
+ */
+final class OutcomeLog {
+
+  static final String FILE_NAME = "outcomes.ndjson";
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+  private final int maxOutcomes;
+  private final Map<Long, OutboxRecord> outcomes;
+  private FileChannel channel;
+  private int records;
+
+  OutcomeLog(Path directory, ObjectMapper objectMapper, int maxOutcomes) {
+    this.file = directory.resolve(FILE_NAME);
+    this.objectMapper = objectMapper;
+    this.maxOutcomes = Math.max(1, maxOutcomes);
+    this.outcomes =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, OutboxRecord> eldest) {
+            return size() > OutcomeLog.this.maxOutcomes;
+          }
+        };
+  }
+
+  /**
+   * Loads the retained outcomes and rewrites the file with them.
+   *
+   * @throws IOException if the file cannot be read or rewritten
+   */
+  synchronized void open() throws IOException {
+    if (Files.exists(file)) {
+      byte[] bytes = Files.readAllBytes(file);
+      int start = 0;
+      for (int i = 0; i <= bytes.length; i++) {
+        if (i < bytes.length && bytes[i] != '\n') {
+          continue;
+        }
+        if (i > start) {
+          try {
+            OutboxRecord outcome =
+                objectMapper.readValue(bytes, start, i - start, OutboxRecord.class);
+            outcomes.put(outcome.getSequence(), outcome);
+          } catch (IOException e) {
+            Log.warnf(
+                "Skipping unreadable outcome at byte %d of %s: %s", start, file, e.getMessage());
+          }
+        }
+        start = i + 1;
+      }
+    }
+    compact();
+  }
+
+  /**
+   * Records an outcome and forces it to disk. The outcome is kept in memory even if it cannot be
+   * written, so it is reported until the next restart.
+   *
+   * @param outcome The applied or failed record
+   * @throws IOException if the outcome could not be made durable
+   */
+  synchronized void record(OutboxRecord outcome) throws IOException {
+    outcomes.put(outcome.getSequence(), outcome);
+    if (channel == null) {
+      throw new IOException("Outcome log " + file + " is closed");
+    }
+    writeLine(channel, outcome);
+    channel.force(false);
+    if (++records >= 2 * maxOutcomes) {
+      compact();
+    }
+  }
+
+  /**
+   * Looks up a retained outcome.
+   *
+   * @param sequence The sequence number of the mutation
+   * @return The outcome, or null if none is retained
+   */
+  synchronized OutboxRecord get(long sequence) {
+    return outcomes.get(sequence);
+  }
+
+  synchronized void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  /** Rewrites the file with the retained outcomes and swaps it in atomically. */
+  private void compact() throws IOException {
+    Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+    try (FileChannel out =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (OutboxRecord outcome : outcomes.values()) {
+        writeLine(out, outcome);
+      }
+      out.force(false);
+    }
+    close();
+    Files.move(
+        temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    records = outcomes.size();
+  }
+
+  private void writeLine(FileChannel target, OutboxRecord outcome) throws IOException {
+    byte[] json = objectMapper.writeValueAsBytes(outcome);
+    ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+    buffer.put(json).put((byte) '\n').flip();
+    while (buffer.hasRemaining()) {
+      target.write(buffer);
+    }
+  }
+}
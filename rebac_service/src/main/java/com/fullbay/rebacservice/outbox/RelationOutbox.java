@@ -0,0 +1,751 @@
+package com.fullbay.rebacservice.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import com.descope.exception.DescopeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Durable write-behind queue of relation mutations.
+ *
+ * <p>When {@code rebac.outbox.enabled} is set, accepted creates and deletes are appended as
+ * newline-delimited JSON to segment files under {@code rebac.outbox.directory} and fsynced before
+ * the caller is answered with a pending token. Concurrent appends share an fsync where they can. A
+ * dispatcher hands entries to {@code rebac.outbox.workers} threads that apply them through {@link
+ * RelationService}, so the decision cache, expiry wheel and change log are updated on delivery
+ * rather than on acceptance. An entry is only handed out once every earlier entry touching one of
+ * its resources has been resolved, which keeps writes to a resource in acceptance order while
+ * unrelated resources drain in parallel. Transient delivery failures are retried with exponential
+ * backoff; a failure that cannot succeed on retry, or the {@code rebac.outbox.max-attempts}th
+ * attempt, marks the entry failed and unblocks the resource.
+ *
+ * <p>Outcomes are recorded durably in an {@link OutcomeLog} retaining the last {@code
+ * rebac.outbox.max-outcomes}, which token lookups read, and as markers in the active segment
+ * without an fsync. A crash can therefore redeliver an entry that was applied: delivery is at least
+ * once. An entry whose fsync failed was refused to its caller, so it is withdrawn with a marker. A
+ * segment is deleted once it and every older segment hold no unresolved entries. On startup the
+ * segments are replayed, a torn final line left by a crash is truncated, unreadable records are
+ * skipped, and unresolved entries resume draining.
+ *
+ * <p>The outbox is never enabled on Lambda, whose local disk does not outlive the sandbox.
+ */
+@ApplicationScoped
+public class RelationOutbox {
+
+  static final String SEGMENT_PREFIX = "segment-";
+  static final String SEGMENT_SUFFIX = ".ndjson";
+
+  // Descope's bad request, missing and invalid argument errors
+  static final String REQUEST_ERROR_CODE_PREFIX = "E01";
+
+  /** Delivery state of an accepted mutation. */
+  public enum State {
+    PENDING,
+    APPLIED,
+    FAILED,
+    /** The outcome is no longer retained, or the mutation was never accepted. */
+    UNKNOWN
+  }
+
+  /**
+   * The delivery state of a pending token.
+   *
+   * @param token The token returned when the mutation was accepted
+   * @param state Whether the mutation is still queued, applied, given up on or no longer known
+   * @param attempts Failed delivery attempts of a pending mutation
+   * @param lastError The last delivery error, or null if none
+   */
+  public record PendingWrite(String token, State state, int attempts, String lastError) {}
+
+  /**
+   * Outbox counters.
+   *
+   * @param enabled Whether writes are accepted into the outbox
+   * @param pending Entries not yet applied or given up on
+   * @param inFlight Entries being delivered
+   * @param applied Entries applied since startup
+   * @param failed Entries given up on since startup
+   * @param segments Segment files on disk
+   * @param oldestPendingAgeMillis Age of the oldest pending entry, or 0 if none
+   */
+  public record Stats(
+      boolean enabled,
+      int pending,
+      int inFlight,
+      long applied,
+      long failed,
+      int segments,
+      long oldestPendingAgeMillis) {}
+
+  @ConfigProperty(name = "rebac.outbox.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "rebac.outbox.directory", defaultValue = "build/outbox")
+  String directory;
+
+  @ConfigProperty(name = "rebac.outbox.segment-bytes", defaultValue = "67108864")
+  long segmentBytes;
+
+  @ConfigProperty(name = "rebac.outbox.workers", defaultValue = "4")
+  int workers;
+
+  @ConfigProperty(name = "rebac.outbox.poll-interval.millis", defaultValue = "200")
+  long pollIntervalMillis;
+
+  @ConfigProperty(name = "rebac.outbox.max-attempts", defaultValue = "100")
+  int maxAttempts;
+
+  @ConfigProperty(name = "rebac.outbox.retry-backoff.millis", defaultValue = "500")
+  long retryBackoffMillis;
+
+  @ConfigProperty(name = "rebac.outbox.retry-backoff.max-millis", defaultValue = "60000")
+  long maxRetryBackoffMillis;
+
+  @ConfigProperty(name = "rebac.outbox.max-outcomes", defaultValue = "100000")
+  int maxOutcomes;
+
+  @Inject RelationService relationService;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject LambdaEnvironment lambdaEnvironment;
+
+  // Guarded by this
+  private final TreeMap<Long, Entry> pending = new TreeMap<>();
+  private final Map<String, ArrayDeque<Long>> resourceQueues = new HashMap<>();
+  private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+  private OutcomeLog outcomes;
+  private FileChannel active;
+  private long latestSequence;
+  private long writtenBytes;
+  private int inFlight;
+  private long applied;
+  private long failed;
+
+  // Guarded by syncLock; lets one fsync cover every append written before it started
+  private final Object syncLock = new Object();
+  private long syncedBytes;
+
+  private ScheduledExecutorService dispatcher;
+  private ExecutorService deliveryPool;
+
+  void start(@Observes StartupEvent event) {
+    if (enabled && lambdaEnvironment.isLambda()) {
+      Log.error("Ignoring rebac.outbox.enabled on Lambda, whose disk does not outlive the sandbox");
+    }
+    if (!isEnabled()) {
+      return;
+    }
+    open();
+    AtomicInteger threadCount = new AtomicInteger();
+    deliveryPool =
+        Executors.newFixedThreadPool(
+            workers,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "relation-outbox-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    dispatcher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "relation-outbox-dispatch");
+              thread.setDaemon(true);
+              return thread;
+            });
+    dispatcher.scheduleWithFixedDelay(
+        this::dispatchSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (dispatcher != null) {
+      dispatcher.shutdownNow();
+      deliveryPool.shutdownNow();
+    }
+    synchronized (this) {
+      try {
+        if (active != null) {
+          active.close();
+        }
+        if (outcomes != null) {
+          outcomes.close();
+        }
+      } catch (IOException e) {
+        Log.warnf("Failed to close relation outbox: %s", e.getMessage());
+      }
+      active = null;
+    }
+  }
+
+  /**
+   * Checks whether the outbox is enabled.
+   *
+   * @return True if relation writes should be accepted into the outbox
+   */
+  public boolean isEnabled() {
+    return enabled && !lambdaEnvironment.isLambda();
+  }
+
+  /**
+   * Replays the segments on disk, so entries accepted before a restart resume draining.
+   *
+   * @throws UncheckedIOException if the segments cannot be read
+   */
+  synchronized void open() {
+    Path root = Path.of(directory);
+    List<Path> files;
+    try {
+      Files.createDirectories(root);
+      try (Stream<Path> listing = Files.list(root)) {
+        files =
+            listing
+                .filter(
+                    f -> {
+                      String name = f.getFileName().toString();
+                      return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                .sorted()
+                .toList();
+      }
+      outcomes = new OutcomeLog(root, objectMapper, maxOutcomes);
+      outcomes.open();
+      for (Path file : files) {
+        replay(file);
+      }
+      if (!segments.isEmpty()) {
+        active = FileChannel.open(segments.peekLast().path, StandardOpenOption.APPEND);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to recover relation outbox from " + root, e);
+    }
+    // An outcome recorded before a crash may lack its segment marker
+    pending
+        .values()
+        .removeIf(
+            entry -> {
+              if (outcomes.get(entry.sequence) == null) {
+                return false;
+              }
+              entry.segment.unresolved--;
+              return true;
+            });
+    for (Entry entry : pending.values()) {
+      track(entry);
+    }
+    deleteResolvedSegments();
+    Log.infof(
+        "Recovered relation outbox with %d pending entr(ies) in %d segment(s) at %s",
+        pending.size(), segments.size(), root);
+  }
+
+  private void replay(Path file) throws IOException {
+    String name = file.getFileName().toString();
+    long firstSequence =
+        Long.parseLong(
+            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    Segment segment = new Segment(file, firstSequence);
+    byte[] bytes = Files.readAllBytes(file);
+    int end = bytes.length;
+    while (end > 0 && bytes[end - 1] != '\n') {
+      end--;
+    }
+    if (end < bytes.length) {
+      // The final append never completed, so its caller was never answered
+      Log.warnf("Truncating %d byte(s) of torn record from %s", bytes.length - end, file);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(end);
+        channel.force(false);
+      }
+    }
+    int start = 0;
+    for (int i = 0; i < end; i++) {
+      if (bytes[i] != '\n') {
+        continue;
+      }
+      if (i > start) {
+        OutboxRecord record;
+        try {
+          record = objectMapper.readValue(bytes, start, i - start, OutboxRecord.class);
+        } catch (IOException e) {
+          Log.errorf(
+              "Skipping unreadable outbox record at byte %d of %s: %s",
+              start, file, e.getMessage());
+          start = i + 1;
+          continue;
+        }
+        apply(record, segment);
+      }
+      start = i + 1;
+    }
+    segment.bytes = end;
+    latestSequence = Math.max(latestSequence, firstSequence - 1);
+    segments.add(segment);
+  }
+
+  private void apply(OutboxRecord record, Segment segment) {
+    long sequence = record.getSequence();
+    if (record.getType() == OutboxRecord.Type.ENTRY) {
+      Entry entry =
+          new Entry(
+              sequence,
+              record.getOperation(),
+              record.getRelations(),
+              record.getCreatedAt(),
+              segment);
+      entry.durable = true;
+      pending.put(sequence, entry);
+      segment.unresolved++;
+      latestSequence = Math.max(latestSequence, sequence);
+      return;
+    }
+    Entry entry = pending.remove(sequence);
+    if (entry != null) {
+      entry.segment.unresolved--;
+    }
+  }
+
+  /**
+   * Accepts a mutation, returning once it is durable on local disk.
+   *
+   * @param operation Whether to create or delete the tuples
+   * @param tuples The tuples
+   * @return The pending token of the mutation
+   * @throws UncheckedIOException if the mutation could not be written
+   */
+  public String append(RelationChange.Operation operation, List<RelationTuple> tuples) {
+    Entry entry;
+    long position;
+    synchronized (this) {
+      long sequence = latestSequence + 1;
+      Instant now = Instant.now();
+      List<RelationTuple> relations = List.copyOf(tuples);
+      try {
+        if (active == null || segments.peekLast().bytes >= segmentBytes) {
+          roll(sequence);
+        }
+        position = write(OutboxRecord.entry(sequence, operation, relations, now));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to append to relation outbox", e);
+      }
+      latestSequence = sequence;
+      entry = new Entry(sequence, operation, relations, now, segments.peekLast());
+      pending.put(sequence, entry);
+      entry.segment.unresolved++;
+      // Tracked before the fsync so later writes to the same resources queue behind it
+      track(entry);
+    }
+    try {
+      sync(position);
+    } catch (IOException e) {
+      synchronized (this) {
+        withdraw(entry);
+      }
+      throw new UncheckedIOException("Failed to sync relation outbox", e);
+    }
+    entry.durable = true;
+    wake();
+    return Long.toString(entry.sequence);
+  }
+
+  /**
+   * Looks up the delivery state of a pending token.
+   *
+   * @param token The token returned by {@link #append}
+   * @return The state, or empty if the token was never issued
+   */
+  public synchronized Optional<PendingWrite> status(String token) {
+    long sequence;
+    try {
+      sequence = Long.parseLong(token);
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+    if (sequence < 1 || sequence > latestSequence) {
+      return Optional.empty();
+    }
+    Entry entry = pending.get(sequence);
+    if (entry != null) {
+      return Optional.of(
+          new PendingWrite(token, State.PENDING, entry.attempts, entry.lastError));
+    }
+    OutboxRecord outcome = outcomes.get(sequence);
+    if (outcome == null) {
+      return Optional.of(new PendingWrite(token, State.UNKNOWN, 0, null));
+    }
+    return Optional.of(
+        outcome.getType() == OutboxRecord.Type.FAILED
+            ? new PendingWrite(token, State.FAILED, 0, outcome.getError())
+            : new PendingWrite(token, State.APPLIED, 0, null));
+  }
+
+  /**
+   * Reports the outbox counters.
+   *
+   * @return The current counters
+   */
+  public synchronized Stats stats() {
+    long oldestAge =
+        pending.isEmpty()
+            ? 0
+            : Duration.between(pending.firstEntry().getValue().createdAt, Instant.now())
+                .toMillis();
+    return new Stats(
+        enabled, pending.size(), inFlight, applied, failed, segments.size(), oldestAge);
+  }
+
+  private void dispatchSafely() {
+    try {
+      dispatch(deliveryPool);
+    } catch (RuntimeException e) {
+      Log.warnf("Relation outbox dispatch failed: %s", e.getMessage());
+    }
+  }
+
+  private void wake() {
+    if (dispatcher != null) {
+      try {
+        dispatcher.execute(this::dispatchSafely);
+      } catch (RejectedExecutionException e) {
+        // Shutting down; entries resume draining on the next start
+      }
+    }
+  }
+
+  /**
+   * Hands out every entry that is due and heads the queue of each of its resources, up to the
+   * worker limit.
+   *
+   * @param executor The executor delivering the entries
+   */
+  void dispatch(Executor executor) {
+    List<Entry> ready = new ArrayList<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      for (Entry entry : pending.values()) {
+        if (inFlight + ready.size() >= workers) {
+          break;
+        }
+        if (entry.durable && !entry.inFlight && now - entry.retryAt >= 0 && isHead(entry)) {
+          entry.inFlight = true;
+          ready.add(entry);
+        }
+      }
+      inFlight += ready.size();
+    }
+    for (Entry entry : ready) {
+      executor.execute(() -> deliver(entry));
+    }
+  }
+
+  private void deliver(Entry entry) {
+    try {
+      if (entry.operation == RelationChange.Operation.DELETE) {
+        relationService.deleteRelations(entry.relations);
+      } else {
+        relationService.createRelations(entry.relations);
+      }
+    } catch (RuntimeException e) {
+      retry(entry, e);
+      return;
+    }
+    OutboxRecord outcome = OutboxRecord.applied(entry.sequence);
+    record(outcome);
+    synchronized (this) {
+      resolve(entry, outcome);
+      applied++;
+    }
+    wake();
+  }
+
+  private void retry(Entry entry, RuntimeException e) {
+    boolean transientFailure = isTransient(e);
+    synchronized (this) {
+      entry.attempts++;
+      entry.lastError = e.getMessage();
+      if (transientFailure && entry.attempts < maxAttempts) {
+        long backoff =
+            Math.min(
+                retryBackoffMillis << Math.min(entry.attempts - 1, 20), maxRetryBackoffMillis);
+        Log.warnf(
+            "Relation outbox entry %d failed (attempt %d/%d), retrying in %d ms: %s",
+            entry.sequence, entry.attempts, maxAttempts, backoff, e.getMessage());
+        entry.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        entry.inFlight = false;
+        inFlight--;
+        return;
+      }
+    }
+    Log.errorf(
+        "Giving up on relation outbox entry %d after %d attempt(s) (%s), %s of %d tuple(s): %s",
+        entry.sequence,
+        entry.attempts,
+        transientFailure ? "retries exhausted" : "not retryable",
+        entry.operation,
+        entry.relations.size(),
+        e.getMessage());
+    OutboxRecord outcome = OutboxRecord.failed(entry.sequence, e.getMessage());
+    record(outcome);
+    synchronized (this) {
+      resolve(entry, outcome);
+      failed++;
+    }
+  }
+
+  /**
+   * Tells whether a delivery failure may succeed on retry: timeouts, I/O errors, and Descope errors
+   * other than request errors, whose codes start with {@value #REQUEST_ERROR_CODE_PREFIX}. A
+   * request Descope rejected, or one that failed validation, would fail the same way every time
+   * while holding up every later write to its resources.
+   */
+  static boolean isTransient(RuntimeException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof IOException
+          || cause instanceof TimeoutException
+          || cause instanceof DeadlineExceededException) {
+        return true;
+      }
+    }
+    if (e instanceof DescopeException descope) {
+      String code = descope.getCode();
+      return code == null || !code.startsWith(REQUEST_ERROR_CODE_PREFIX);
+    }
+    return false;
+  }
+
+  /** Records an outcome durably before its entry is resolved, outside the outbox lock. */
+  private void record(OutboxRecord outcome) {
+    try {
+      outcomes.record(outcome);
+    } catch (IOException e) {
+      // Still reported until restart; afterwards the segment marker or a redelivery resolves it
+      Log.warnf(
+          "Failed to record outcome of relation outbox entry %d durably: %s",
+          outcome.getSequence(), e.getMessage());
+    }
+  }
+
+  /** Records the outcome of a delivered entry and releases its resources. */
+  private void resolve(Entry entry, OutboxRecord outcome) {
+    if (active != null) {
+      try {
+        write(outcome);
+      } catch (IOException e) {
+        // The entry is redelivered after a restart, which delivery tolerates
+        Log.warnf(
+            "Failed to record outcome of relation outbox entry %d: %s",
+            entry.sequence, e.getMessage());
+      }
+    }
+    inFlight--;
+    discard(entry);
+  }
+
+  private void discard(Entry entry) {
+    pending.remove(entry.sequence);
+    entry.segment.unresolved--;
+    for (String resource : entry.resources) {
+      ArrayDeque<Long> queue = resourceQueues.get(resource);
+      queue.remove(entry.sequence);
+      if (queue.isEmpty()) {
+        resourceQueues.remove(resource);
+      }
+    }
+    deleteResolvedSegments();
+  }
+
+  /** Withdraws an entry whose fsync failed, so a recovery does not deliver a refused mutation. */
+  private void withdraw(Entry entry) {
+    discard(entry);
+    if (active == null) {
+      return;
+    }
+    try {
+      write(OutboxRecord.discarded(entry.sequence));
+      active.force(false);
+    } catch (IOException e) {
+      Log.errorf(
+          "Failed to withdraw relation outbox entry %d, it may be delivered after a restart: %s",
+          entry.sequence, e.getMessage());
+    }
+  }
+
+  private void track(Entry entry) {
+    for (String resource : entry.resources) {
+      resourceQueues.computeIfAbsent(resource, r -> new ArrayDeque<>()).add(entry.sequence);
+    }
+  }
+
+  private boolean isHead(Entry entry) {
+    for (String resource : entry.resources) {
+      if (resourceQueues.get(resource).peekFirst() != entry.sequence) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void deleteResolvedSegments() {
+    // Outcome markers may live in newer segments than their entries, so only a prefix goes
+    while (segments.size() > 1 && segments.peekFirst().unresolved == 0) {
+      Segment segment = segments.pollFirst();
+      try {
+        Files.deleteIfExists(segment.path);
+      } catch (IOException e) {
+        Log.warnf("Failed to delete relation outbox segment %s: %s", segment.path, e.getMessage());
+      }
+    }
+  }
+
+  private void roll(long firstSequence) throws IOException {
+    if (active != null) {
+      active.force(false);
+      active.close();
+    }
+    Path root = Path.of(directory);
+    Files.createDirectories(root);
+    Path file =
+        root.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    active =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    segments.add(new Segment(file, firstSequence));
+    try (FileChannel dir = FileChannel.open(root, StandardOpenOption.READ)) {
+      // Makes the new file's directory entry durable where the platform allows it
+      dir.force(true);
+    } catch (IOException e) {
+      Log.debugf("Could not sync outbox directory %s: %s", root, e.getMessage());
+    }
+  }
+
+  /** Writes a record to the active segment and returns the total bytes written after it. */
+  private long write(OutboxRecord record) throws IOException {
+    byte[] json = objectMapper.writeValueAsBytes(record);
+    ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+    buffer.put(json).put((byte) '\n').flip();
+    while (buffer.hasRemaining()) {
+      active.write(buffer);
+    }
+    segments.peekLast().bytes += json.length + 1;
+    writtenBytes += json.length + 1;
+    return writtenBytes;
+  }
+
+  /** Forces the active segment to disk unless an fsync since {@code position} already has. */
+  private void sync(long position) throws IOException {
+    synchronized (syncLock) {
+      while (syncedBytes < position) {
+        FileChannel channel;
+        long target;
+        synchronized (this) {
+          channel = active;
+          target = writtenBytes;
+        }
+        if (channel == null) {
+          throw new ClosedChannelException();
+        }
+        try {
+          channel.force(false);
+          syncedBytes = target;
+        } catch (ClosedChannelException e) {
+          // Rolled over, which forced the old segment; sync the new one
+          synchronized (this) {
+            if (active == channel) {
+              throw e;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** A segment file and the number of its entries not yet resolved. */
+  private static final class Segment {
+
+    final Path path;
+    final long firstSequence;
+    long bytes;
+    int unresolved;
+
+    Segment(Path path, long firstSequence) {
+      this.path = path;
+      this.firstSequence = firstSequence;
+    }
+  }
+
+  /** An accepted mutation awaiting delivery. */
+  private static final class Entry {
+
+    final long sequence;
+    final RelationChange.Operation operation;
+    final List<RelationTuple> relations;
+    final Instant createdAt;
+    final Segment segment;
+    final Set<String> resources = new LinkedHashSet<>();
+    // Set once the entry has been fsynced; entries are never delivered before
+    volatile boolean durable;
+    boolean inFlight;
+    int attempts;
+    String lastError;
+    long retryAt = System.nanoTime();
+
+    Entry(
+        long sequence,
+        RelationChange.Operation operation,
+        List<RelationTuple> relations,
+        Instant createdAt,
+        Segment segment) {
+      this.sequence = sequence;
+      this.operation = operation;
+      this.relations = relations;
+      this.createdAt = createdAt;
+      this.segment = segment;
+      for (RelationTuple tuple : relations) {
+        resources.add(tuple.getResource());
+      }
+    }
+  }
+}
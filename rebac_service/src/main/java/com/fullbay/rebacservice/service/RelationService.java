@@ -1,7 +1,12 @@
 package com.fullbay.rebacservice.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -9,8 +14,18 @@ import jakarta.inject.Inject;
 import com.descope.client.DescopeClient;
 import com.descope.exception.DescopeException;
 import com.descope.model.authz.Relation;
+import com.descope.model.authz.RelationQuery;
 import com.descope.sdk.mgmt.AuthzService;
+import com.fullbay.deadline.DeadlineGuard;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.decision.DecisionKey;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.expiry.TupleExpiryService;
+import com.fullbay.rebacservice.index.RelationIndex;
 import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.shadow.ShadowEvaluator;
 
 import io.quarkus.logging.Log;
 
@@ -20,6 +35,18 @@ public class RelationService {
 
   @Inject DescopeClient descopeClient;
 
+  @Inject RelationChangeLog changeLog;
+
+  @Inject RelationIndex relationIndex;
+
+  @Inject DeadlineGuard deadlineGuard;
+
+  @Inject DecisionCache decisionCache;
+
+  @Inject TupleExpiryService expiry;
+
+  @Inject ShadowEvaluator shadow;
+
   /**
    * Converts a list of RelationTuples to Descope Relation objects.
    *
@@ -46,8 +73,29 @@ public class RelationService {
    * @return List of RelationTuple objects
    */
   private List<RelationTuple> convertRelationsToTuples(List<Relation> relations) {
+    return convertRelationsToTuples(relations, null, null);
+  }
+
+  /**
+   * Converts the Descope Relation objects matching the optional filters to RelationTuples.
+   * Relations that don't match are skipped before any tuple is allocated for them.
+   *
+   * @param relations The list of Descope Relation objects to convert
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   * @return List of RelationTuple objects
+   */
+  private List<RelationTuple> convertRelationsToTuples(
+      List<Relation> relations, String namespace, String relationDefinition) {
     List<RelationTuple> tuples = new ArrayList<>();
     for (Relation relation : relations) {
+      if (!matches(
+          relation.getNamespace(),
+          relation.getRelationDefinition(),
+          namespace,
+          relationDefinition)) {
+        continue;
+      }
       tuples.add(
           new RelationTuple(
               relation.getResource(),
@@ -58,24 +106,58 @@ public class RelationService {
     return tuples;
   }
 
+  private static List<RelationTuple> filterTuples(
+      List<RelationTuple> tuples, String namespace, String relationDefinition) {
+    if (namespace == null && relationDefinition == null) {
+      return tuples;
+    }
+    List<RelationTuple> filtered = new ArrayList<>();
+    for (RelationTuple tuple : tuples) {
+      if (matches(
+          tuple.getNamespace(), tuple.getRelationDefinition(), namespace, relationDefinition)) {
+        filtered.add(tuple);
+      }
+    }
+    return filtered;
+  }
+
+  private static boolean matches(
+      String tupleNamespace,
+      String tupleRelationDefinition,
+      String namespace,
+      String relationDefinition) {
+    return (namespace == null || namespace.equals(tupleNamespace))
+        && (relationDefinition == null || relationDefinition.equals(tupleRelationDefinition));
+  }
+
   /**
-   * Creates one or more FGA relation tuples.
+   * Creates one or more FGA relation tuples and records them in the change log.
    *
    * @param tuples The list of relation tuples to create
+   * @throws FeatureUnavailableException if a tuple has an expiry this instance cannot honor
    * @throws DescopeException if the operation fails
    */
   public void createRelations(List<RelationTuple> tuples) throws DescopeException {
+    expiry.ensureSupported(tuples);
     Log.infof("Creating %d relation tuple(s)", tuples.size());
 
     AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
     List<Relation> relations = convertTuplesToRelations(tuples);
 
-    authzService.createRelations(relations);
+    // The bookkeeping runs with the write, so it still happens if the deadline cuts the wait short
+    deadlineGuard.runMutation(
+        "createRelations",
+        () -> authzService.createRelations(relations),
+        () -> {
+          decisionCache.invalidate(tuples);
+          expiry.schedule(tuples);
+          changeLog.append(RelationChange.Operation.CREATE, tuples);
+        });
     Log.infof("Successfully created %d relation tuple(s)", tuples.size());
   }
 
   /**
-   * Deletes one or more FGA relation tuples.
+   * Deletes one or more FGA relation tuples and records them in the change log.
    *
    * @param tuples The list of relation tuples to delete
    * @throws DescopeException if the operation fails
@@ -86,7 +168,14 @@ public class RelationService {
     AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
     List<Relation> relations = convertTuplesToRelations(tuples);
 
-    authzService.deleteRelations(relations);
+    deadlineGuard.runMutation(
+        "deleteRelations",
+        () -> authzService.deleteRelations(relations),
+        () -> {
+          decisionCache.invalidate(tuples);
+          expiry.cancel(tuples);
+          changeLog.append(RelationChange.Operation.DELETE, tuples);
+        });
     Log.infof("Successfully deleted %d relation tuple(s)", tuples.size());
   }
 
@@ -105,13 +194,85 @@ public class RelationService {
         "Querying who can access resource: %s with relation: %s in namespace: %s",
         resource, relationDefinition, namespace);
 
+    Optional<ShadowEvaluator.Local<List<String>>> local =
+        shadow.sample()
+            ? shadow.whoCanAccess(resource, relationDefinition, namespace)
+            : Optional.empty();
+    long start = System.nanoTime();
     AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
-    List<String> targets = authzService.whoCanAccess(resource, relationDefinition, namespace);
+    List<String> targets =
+        deadlineGuard.call(
+            "whoCanAccess",
+            () -> authzService.whoCanAccess(resource, relationDefinition, namespace));
+    long remoteNanos = System.nanoTime() - start;
+    if (local.isPresent()) {
+      ShadowEvaluator.Local<List<String>> answer = local.get();
+      shadow.compareWhoCanAccess(
+          resource, relationDefinition, namespace, answer, targets, remoteNanos);
+    }
 
     Log.infof("Found %d target(s) that can access the resource", targets.size());
     return targets;
   }
 
+  /**
+   * Checks whether a target holds a relation on a resource, directly or through the schema.
+   * Decisions are served from the decision cache when present, except for checks sampled by the
+   * {@link ShadowEvaluator}, which always ask Descope. A direct tuple whose expiry has passed but
+   * that the sweep has not deleted yet is deleted first, so it stops granting access immediately
+   * while other paths to the relation still count.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation type
+   * @param namespace The namespace
+   * @param target The target/subject identifier
+   * @return True if the target has the relation
+   * @throws DescopeException if the operation fails
+   */
+  public boolean check(String resource, String relationDefinition, String namespace, String target)
+      throws DescopeException {
+    DecisionKey key = new DecisionKey(resource, relationDefinition, namespace, target);
+    RelationTuple direct = new RelationTuple(resource, relationDefinition, namespace, target);
+    if (expiry.isExpired(direct)) {
+      // Deleting also invalidates the cached decision and cancels the schedule
+      deleteRelations(List.of(direct));
+    }
+    if (shadow.sample()) {
+      // Shadowed checks always ask Descope, so a cached decision is compared rather than served
+      Optional<ShadowEvaluator.Local<Boolean>> local = shadow.check(key);
+      long start = System.nanoTime();
+      boolean allowed = remoteCheck(key);
+      long remoteNanos = System.nanoTime() - start;
+      local.ifPresent(answer -> shadow.compareCheck(key, answer, allowed, remoteNanos));
+      return allowed;
+    }
+    Optional<Boolean> cached = decisionCache.get(key);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    return remoteCheck(key);
+  }
+
+  /** Asks Descope for a decision and caches it. */
+  private boolean remoteCheck(DecisionKey key) throws DescopeException {
+    Log.infof(
+        "Checking relation %s on resource: %s in namespace: %s for target: %s",
+        key.relationDefinition(), key.resource(), key.namespace(), key.target());
+    DecisionCache.Stamp stamp = decisionCache.stamp(key);
+    RelationQuery query = new RelationQuery();
+    query.setResource(key.resource());
+    query.setRelationDefinition(key.relationDefinition());
+    query.setNamespace(key.namespace());
+    query.setTarget(key.target());
+    AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
+    List<RelationQuery> results =
+        deadlineGuard.call("hasRelations", () -> authzService.hasRelations(List.of(query)));
+    boolean allowed = !results.isEmpty() && results.get(0).isHasRelation();
+
+    decisionCache.put(key, stamp, allowed);
+    return allowed;
+  }
+
   /**
    * Gets all relations for a specific resource.
    *
@@ -120,11 +281,46 @@ public class RelationService {
    * @throws DescopeException if the operation fails
    */
   public List<RelationTuple> getResourceRelations(String resourceId) throws DescopeException {
-    Log.infof("Getting relations for resource: %s", resourceId);
+    return getResourceRelations(resourceId, null, null);
+  }
 
+  /**
+   * Gets the relations for a specific resource, optionally filtered by namespace and relation
+   * definition. Served from the local index when the resource is loaded there.
+   *
+   * @param resourceId The resource identifier
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   * @return List of matching relation tuples for the resource
+   * @throws DescopeException if the operation fails
+   */
+  public List<RelationTuple> getResourceRelations(
+      String resourceId, String namespace, String relationDefinition) throws DescopeException {
+    Log.infof(
+        "Getting relations for resource: %s (namespace: %s, relation: %s)",
+        resourceId, namespace, relationDefinition);
+
+    Optional<List<RelationTuple>> indexed =
+        relationIndex.resourceRelations(resourceId, namespace, relationDefinition);
+    if (indexed.isPresent()) {
+      List<RelationTuple> live = expiry.withoutExpired(indexed.get());
+      Log.infof("Found %d relation(s) for resource in local index", live.size());
+      return live;
+    }
+
+    long readSequence = relationIndex.readSequence();
     AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
-    List<Relation> relations = authzService.resourceRelations(resourceId);
-    List<RelationTuple> tuples = convertRelationsToTuples(relations);
+    List<Relation> relations =
+        deadlineGuard.call("resourceRelations", () -> authzService.resourceRelations(resourceId));
+    List<RelationTuple> tuples;
+    if (relationIndex.isEnabled()) {
+      List<RelationTuple> all = convertRelationsToTuples(relations);
+      relationIndex.loadResource(resourceId, all, readSequence);
+      tuples = filterTuples(all, namespace, relationDefinition);
+    } else {
+      tuples = convertRelationsToTuples(relations, namespace, relationDefinition);
+    }
+    tuples = expiry.withoutExpired(tuples);
 
     Log.infof("Found %d relation(s) for resource", tuples.size());
     return tuples;
@@ -138,13 +334,205 @@ public class RelationService {
    * @throws DescopeException if the operation fails
    */
   public List<RelationTuple> getTargetAccess(String targetId) throws DescopeException {
-    Log.infof("Getting access for target: %s", targetId);
+    return getTargetAccess(targetId, null, null);
+  }
+
+  /**
+   * Queries what resources a target can access, optionally filtered by namespace and relation
+   * definition. Served from the local index when the target is loaded there.
+   *
+   * @param targetId The target/subject identifier
+   * @param namespace The namespace to keep, or null for all
+   * @param relationDefinition The relation definition to keep, or null for all
+   * @return List of matching relation tuples showing what the target can access
+   * @throws DescopeException if the operation fails
+   */
+  public List<RelationTuple> getTargetAccess(
+      String targetId, String namespace, String relationDefinition) throws DescopeException {
+    Log.infof(
+        "Getting access for target: %s (namespace: %s, relation: %s)",
+        targetId, namespace, relationDefinition);
 
+    Optional<List<RelationTuple>> indexed =
+        relationIndex.targetRelations(targetId, namespace, relationDefinition);
+    if (indexed.isPresent()) {
+      List<RelationTuple> live = expiry.withoutExpired(indexed.get());
+      Log.infof("Found %d relation(s) for target in local index", live.size());
+      return live;
+    }
+
+    long readSequence = relationIndex.readSequence();
     AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
-    List<Relation> relations = authzService.whatCanTargetAccess(targetId);
-    List<RelationTuple> tuples = convertRelationsToTuples(relations);
+    List<Relation> relations =
+        deadlineGuard.call("whatCanTargetAccess", () -> authzService.whatCanTargetAccess(targetId));
+    List<RelationTuple> tuples;
+    if (relationIndex.isEnabled()) {
+      List<RelationTuple> all = convertRelationsToTuples(relations);
+      relationIndex.loadTarget(targetId, all, readSequence);
+      tuples = filterTuples(all, namespace, relationDefinition);
+    } else {
+      tuples = convertRelationsToTuples(relations, namespace, relationDefinition);
+    }
+    tuples = expiry.withoutExpired(tuples);
 
     Log.infof("Found %d relation(s) for target", tuples.size());
     return tuples;
   }
+
+  /**
+   * Filters candidate resources down to those a target holds a relation on.
+   *
+   * <p>The target's relations are read once, from the local index when loaded, and joined with the
+   * candidates by hashing whichever side is smaller and probing it with the other. The result keeps
+   * the candidates' order, without duplicates.
+   *
+   * @param target The target/subject identifier
+   * @param relationDefinition The relation the target must hold
+   * @param namespace The namespace of the candidates
+   * @param resources The candidate resource identifiers
+   * @return The accessible candidates
+   * @throws DescopeException if the operation fails
+   */
+  public List<String> filterAccessible(
+      String target, String relationDefinition, String namespace, List<String> resources)
+      throws DescopeException {
+    if (resources.isEmpty()) {
+      return List.of();
+    }
+    List<RelationTuple> granted = getTargetAccess(target, namespace, relationDefinition);
+
+    Set<String> accessible;
+    if (granted.size() <= resources.size()) {
+      Set<String> grantedResources = new HashSet<>();
+      for (RelationTuple tuple : granted) {
+        grantedResources.add(tuple.getResource());
+      }
+      accessible = new LinkedHashSet<>();
+      for (String resource : resources) {
+        if (grantedResources.contains(resource)) {
+          accessible.add(resource);
+        }
+      }
+    } else {
+      Set<String> candidates = new HashSet<>(resources);
+      Set<String> matched = new HashSet<>();
+      for (RelationTuple tuple : granted) {
+        if (candidates.contains(tuple.getResource())) {
+          matched.add(tuple.getResource());
+        }
+      }
+      accessible = new LinkedHashSet<>();
+      for (String resource : resources) {
+        if (matched.contains(resource)) {
+          accessible.add(resource);
+        }
+      }
+    }
+
+    Log.infof(
+        "Target %s can access %d of %d candidate resource(s) with relation %s",
+        target, accessible.size(), resources.size(), relationDefinition);
+    return new ArrayList<>(accessible);
+  }
+
+  /**
+   * Counts the targets that can access a resource with a given relation without returning them.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation type
+   * @param namespace The namespace
+   * @return The exact number of targets
+   * @throws DescopeException if the operation fails
+   */
+  public long countWhoCanAccess(String resource, String relationDefinition, String namespace)
+      throws DescopeException {
+    Log.infof(
+        "Counting who can access resource: %s with relation: %s in namespace: %s",
+        resource, relationDefinition, namespace);
+    AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
+    return deadlineGuard
+        .call(
+            "whoCanAccess",
+            () -> authzService.whoCanAccess(resource, relationDefinition, namespace))
+        .size();
+  }
+
+  /**
+   * Counts the relations of a resource, optionally filtered, without converting them to tuples.
+   *
+   * @param resourceId The resource identifier
+   * @param namespace The namespace to count, or null for all
+   * @param relationDefinition The relation definition to count, or null for all
+   * @return The exact number of matching relations
+   * @throws DescopeException if the operation fails
+   */
+  public long countResourceRelations(
+      String resourceId, String namespace, String relationDefinition) throws DescopeException {
+    if (expiry.isTracking()) {
+      // Expired tuples are only hidden from listings until the sweep deletes them
+      return getResourceRelations(resourceId, namespace, relationDefinition).size();
+    }
+    OptionalInt indexed =
+        relationIndex.countResourceRelations(resourceId, namespace, relationDefinition);
+    if (indexed.isPresent()) {
+      return indexed.getAsInt();
+    }
+    if (relationIndex.isEnabled()) {
+      // Loading the listing lets subsequent counts and reads skip Descope
+      return getResourceRelations(resourceId, namespace, relationDefinition).size();
+    }
+
+    Log.infof("Counting relations for resource: %s", resourceId);
+    AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
+    List<Relation> relations =
+        deadlineGuard.call("resourceRelations", () -> authzService.resourceRelations(resourceId));
+    return countMatching(relations, namespace, relationDefinition);
+  }
+
+  /**
+   * Counts the relations of a target, optionally filtered, without converting them to tuples.
+   *
+   * @param targetId The target/subject identifier
+   * @param namespace The namespace to count, or null for all
+   * @param relationDefinition The relation definition to count, or null for all
+   * @return The exact number of matching relations
+   * @throws DescopeException if the operation fails
+   */
+  public long countTargetAccess(String targetId, String namespace, String relationDefinition)
+      throws DescopeException {
+    if (expiry.isTracking()) {
+      // Expired tuples are only hidden from listings until the sweep deletes them
+      return getTargetAccess(targetId, namespace, relationDefinition).size();
+    }
+    OptionalInt indexed =
+        relationIndex.countTargetRelations(targetId, namespace, relationDefinition);
+    if (indexed.isPresent()) {
+      return indexed.getAsInt();
+    }
+    if (relationIndex.isEnabled()) {
+      // Loading the listing lets subsequent counts and reads skip Descope
+      return getTargetAccess(targetId, namespace, relationDefinition).size();
+    }
+
+    Log.infof("Counting access for target: %s", targetId);
+    AuthzService authzService = descopeClient.getManagementServices().getAuthzService();
+    List<Relation> relations =
+        deadlineGuard.call("whatCanTargetAccess", () -> authzService.whatCanTargetAccess(targetId));
+    return countMatching(relations, namespace, relationDefinition);
+  }
+
+  private static long countMatching(
+      List<Relation> relations, String namespace, String relationDefinition) {
+    long count = 0;
+    for (Relation relation : relations) {
+      if (matches(
+          relation.getNamespace(),
+          relation.getRelationDefinition(),
+          namespace,
+          relationDefinition)) {
+        count++;
+      }
+    }
+    return count;
+  }
 }
@@ -0,0 +1,360 @@
+package com.fullbay.rebacservice.shadow;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.decision.DecisionKey;
+import com.fullbay.rebacservice.graph.AdjacencyStore;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Compares local answers with Descope's on a sample of requests.
+ *
+ * <p>When {@code rebac.shadow.enabled} is set, a fraction {@code rebac.shadow.sample-rate} of
+ * check and who-can-access requests are answered from local state as well as by Descope. A check
+ * is answered from the decision cache, then the adjacency store, then a loaded index listing;
+ * who-can-access from the adjacency store, then a loaded index listing. The adjacency store only
+ * answers for resources it holds tuples of, since it only sees this instance's writes. Local
+ * sources only hold direct tuples, so access derived through the schema shows up as disagreement.
+ * Descope's answer is always the one returned. Agreement and latency of both paths are counted per
+ * operation, and the last {@code rebac.shadow.max-mismatches} disagreements are kept with their
+ * full request; 0 keeps none.
+ */
+@ApplicationScoped
+public class ShadowEvaluator {
+
+  static final String CHECK = "check";
+  static final String WHO_CAN_ACCESS = "whoCanAccess";
+
+  static final String DECISION_CACHE = "decision-cache";
+  static final String ADJACENCY_STORE = "adjacency-store";
+  static final String RELATION_INDEX = "relation-index";
+
+  /**
+   * A local answer.
+   *
+   * @param answer The answer
+   * @param source Where it was read from
+   * @param nanos How long it took
+   */
+  public record Local<T>(T answer, String source, long nanos) {}
+
+  /**
+   * A disagreement between a local answer and Descope.
+   *
+   * @param operation check or whoCanAccess
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace
+   * @param target The target identifier, null for whoCanAccess
+   * @param source Where the local answer was read from
+   * @param local The local answer
+   * @param remote Descope's answer
+   * @param localMicros Latency of the local path
+   * @param remoteMicros Latency of the Descope path
+   * @param observedAt When the disagreement was recorded
+   */
+  public record Mismatch(
+      String operation,
+      String resource,
+      String relationDefinition,
+      String namespace,
+      String target,
+      String source,
+      Object local,
+      Object remote,
+      long localMicros,
+      long remoteMicros,
+      Instant observedAt) {}
+
+  /**
+   * Shadow counters of one operation.
+   *
+   * @param samples Requests sampled for comparison
+   * @param unanswered Sampled requests no local source could answer
+   * @param agreements Compared requests where both paths agreed
+   * @param mismatches Compared requests where they disagreed
+   * @param agreementRate Agreements over compared requests, or 1 if none were compared
+   * @param meanLocalMicros Mean latency of the local path
+   * @param meanRemoteMicros Mean latency of the Descope path
+   * @param meanLatencyDeltaMicros Mean of Descope latency minus local latency
+   */
+  public record OperationStats(
+      long samples,
+      long unanswered,
+      long agreements,
+      long mismatches,
+      double agreementRate,
+      double meanLocalMicros,
+      double meanRemoteMicros,
+      double meanLatencyDeltaMicros) {}
+
+  /**
+   * Shadow counters and recent disagreements.
+   *
+   * @param enabled Whether requests are being sampled
+   * @param sampleRate The fraction of requests sampled
+   * @param check Counters of check requests
+   * @param whoCanAccess Counters of who-can-access requests
+   * @param recentMismatches The most recent disagreements, oldest first
+   */
+  public record Report(
+      boolean enabled,
+      double sampleRate,
+      OperationStats check,
+      OperationStats whoCanAccess,
+      List<Mismatch> recentMismatches) {}
+
+  @ConfigProperty(name = "rebac.shadow.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "rebac.shadow.sample-rate", defaultValue = "0.01")
+  double sampleRate;
+
+  @ConfigProperty(name = "rebac.shadow.max-mismatches", defaultValue = "100")
+  int maxMismatches;
+
+  @Inject DecisionCache decisionCache;
+
+  @Inject AdjacencyStore adjacencyStore;
+
+  @Inject RelationIndex relationIndex;
+
+  private final Counters checks = new Counters();
+  private final Counters whoCanAccess = new Counters();
+  private final Deque<Mismatch> mismatches = new ArrayDeque<>();
+
+  /**
+   * Decides whether to shadow the current request.
+   *
+   * @return True if the request should also be answered locally
+   */
+  public boolean sample() {
+    return enabled && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  /**
+   * Answers a sampled check locally.
+   *
+   * @param key The check
+   * @return The local answer, or empty if no local source holds the resource's relations
+   */
+  public Optional<Local<Boolean>> check(DecisionKey key) {
+    checks.samples.increment();
+    long start = System.nanoTime();
+    Optional<Boolean> cached = decisionCache.get(key);
+    if (cached.isPresent()) {
+      return Optional.of(new Local<>(cached.get(), DECISION_CACHE, System.nanoTime() - start));
+    }
+    if (adjacencyStore.isEnabled()
+        && adjacencyStore.covers(key.namespace(), key.relationDefinition(), key.resource())) {
+      boolean allowed =
+          adjacencyStore.contains(
+              key.namespace(), key.relationDefinition(), key.resource(), key.target());
+      return Optional.of(new Local<>(allowed, ADJACENCY_STORE, System.nanoTime() - start));
+    }
+    Optional<List<RelationTuple>> listing =
+        relationIndex.resourceRelations(key.resource(), key.namespace(), key.relationDefinition());
+    if (listing.isPresent()) {
+      boolean allowed =
+          listing.get().stream().anyMatch(tuple -> key.target().equals(tuple.getTarget()));
+      return Optional.of(new Local<>(allowed, RELATION_INDEX, System.nanoTime() - start));
+    }
+    checks.unanswered.increment();
+    return Optional.empty();
+  }
+
+  /**
+   * Answers a sampled who-can-access request locally.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace
+   * @return The local answer, or empty if no local source holds the resource's relations
+   */
+  public Optional<Local<List<String>>> whoCanAccess(
+      String resource, String relationDefinition, String namespace) {
+    whoCanAccess.samples.increment();
+    long start = System.nanoTime();
+    if (adjacencyStore.isEnabled()) {
+      List<String> targets = adjacencyStore.targets(namespace, relationDefinition, resource);
+      // No targets means the store never saw the resource, not that nobody can access it
+      if (!targets.isEmpty()) {
+        return Optional.of(new Local<>(targets, ADJACENCY_STORE, System.nanoTime() - start));
+      }
+    }
+    Optional<List<RelationTuple>> listing =
+        relationIndex.resourceRelations(resource, namespace, relationDefinition);
+    if (listing.isPresent()) {
+      List<String> targets = new ArrayList<>(listing.get().size());
+      for (RelationTuple tuple : listing.get()) {
+        targets.add(tuple.getTarget());
+      }
+      return Optional.of(new Local<>(targets, RELATION_INDEX, System.nanoTime() - start));
+    }
+    whoCanAccess.unanswered.increment();
+    return Optional.empty();
+  }
+
+  /**
+   * Records the outcome of a sampled check.
+   *
+   * @param key The check
+   * @param local The local answer
+   * @param remote Descope's answer
+   * @param remoteNanos How long Descope took
+   */
+  public void compareCheck(
+      DecisionKey key, Local<Boolean> local, boolean remote, long remoteNanos) {
+    boolean agreed = local.answer() == remote;
+    checks.record(agreed, local.nanos(), remoteNanos);
+    if (!agreed) {
+      mismatch(
+          CHECK,
+          key.resource(),
+          key.relationDefinition(),
+          key.namespace(),
+          key.target(),
+          local,
+          remote,
+          remoteNanos);
+    }
+  }
+
+  /**
+   * Records the outcome of a sampled who-can-access request. Targets are compared as sets.
+   *
+   * @param resource The resource identifier
+   * @param relationDefinition The relation definition
+   * @param namespace The namespace
+   * @param local The local answer
+   * @param remote Descope's answer
+   * @param remoteNanos How long Descope took
+   */
+  public void compareWhoCanAccess(
+      String resource,
+      String relationDefinition,
+      String namespace,
+      Local<List<String>> local,
+      List<String> remote,
+      long remoteNanos) {
+    boolean agreed = new HashSet<>(local.answer()).equals(new HashSet<>(remote));
+    whoCanAccess.record(agreed, local.nanos(), remoteNanos);
+    if (!agreed) {
+      mismatch(
+          WHO_CAN_ACCESS,
+          resource,
+          relationDefinition,
+          namespace,
+          null,
+          local,
+          remote,
+          remoteNanos);
+    }
+  }
+
+  /**
+   * Reports the shadow counters.
+   *
+   * @return The counters of both operations and the recent disagreements
+   */
+  public Report report() {
+    List<Mismatch> recent;
+    synchronized (mismatches) {
+      recent = new ArrayList<>(mismatches);
+    }
+    return new Report(enabled, sampleRate, checks.stats(), whoCanAccess.stats(), recent);
+  }
+
+  private void mismatch(
+      String operation,
+      String resource,
+      String relationDefinition,
+      String namespace,
+      String target,
+      Local<?> local,
+      Object remote,
+      long remoteNanos) {
+    Mismatch mismatch =
+        new Mismatch(
+            operation,
+            resource,
+            relationDefinition,
+            namespace,
+            target,
+            local.source(),
+            local.answer(),
+            remote,
+            local.nanos() / 1000,
+            remoteNanos / 1000,
+            Instant.now());
+    Log.warnf(
+        "Shadow %s mismatch on %s#%s (namespace: %s, target: %s): %s answered %s, Descope %s",
+        operation,
+        resource,
+        relationDefinition,
+        namespace,
+        target,
+        local.source(),
+        local.answer(),
+        remote);
+    if (maxMismatches <= 0) {
+      return;
+    }
+    synchronized (mismatches) {
+      while (mismatches.size() >= maxMismatches) {
+        mismatches.poll();
+      }
+      mismatches.add(mismatch);
+    }
+  }
+
+  /** Counters of one operation. */
+  private static final class Counters {
+
+    final LongAdder samples = new LongAdder();
+    final LongAdder unanswered = new LongAdder();
+    final LongAdder agreements = new LongAdder();
+    final LongAdder mismatches = new LongAdder();
+    final LongAdder localNanos = new LongAdder();
+    final LongAdder remoteNanos = new LongAdder();
+
+    void record(boolean agreed, long local, long remote) {
+      (agreed ? agreements : mismatches).increment();
+      localNanos.add(local);
+      remoteNanos.add(remote);
+    }
+
+    OperationStats stats() {
+      long agreed = agreements.sum();
+      long compared = agreed + mismatches.sum();
+      double meanLocal = compared == 0 ? 0 : localNanos.sum() / 1000.0 / compared;
+      double meanRemote = compared == 0 ? 0 : remoteNanos.sum() / 1000.0 / compared;
+      return new OperationStats(
+          samples.sum(),
+          unanswered.sum(),
+          agreed,
+          compared - agreed,
+          compared == 0 ? 1 : (double) agreed / compared,
+          meanLocal,
+          meanRemote,
+          meanRemote - meanLocal);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.fullbay.rebacservice.snapstart;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.validation.Validator;
+
+import com.descope.client.DescopeClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.RelationResource;
+import com.fullbay.rebacservice.http.ContentHasher;
+import com.fullbay.rebacservice.model.ErrorResponse;
+import com.fullbay.rebacservice.model.RelationRequest;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Primes the instance before a SnapStart snapshot is taken.
+ *
+ * <p>Before the checkpoint, the Descope client is built and the JSON, validation and ETag paths
+ * are exercised with synthetic relation payloads so class loading, validator metadata and JIT
+ * compilation are captured in the snapshot. No connection is opened before the checkpoint, so the
+ * snapshot holds no live TLS session. After restore, one cheap read-only call through the Descope
+ * client makes the SDK's own HTTP client resolve DNS and complete its TLS handshake before the
+ * first request needs it.
+ */
+@Singleton
+public class SnapStartPriming implements Resource {
+
+  // Looked up after restore only to open a connection; it is not expected to exist
+  static final String PROBE_ID = "snapstart-priming";
+
+  @ConfigProperty(name = "snapstart.priming.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "snapstart.priming.iterations", defaultValue = "200")
+  int iterations;
+
+  @ConfigProperty(name = "snapstart.priming.restore-timeout.millis", defaultValue = "2000")
+  long restoreTimeoutMillis;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject Validator validator;
+
+  @Inject DescopeClient descopeClient;
+
+  void register(@Observes StartupEvent event) {
+    if (enabled) {
+      Core.getGlobalContext().register(this);
+    }
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+    long start = System.nanoTime();
+    if (descopeClient != null) {
+      descopeClient.getManagementServices().getAuthzService();
+    }
+    primeCodePaths();
+    Log.infof("SnapStart priming completed in %d ms", (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context) {
+    warmDescopeTransport();
+  }
+
+  /**
+   * Round-trips synthetic relation payloads through Jackson, bean validation and the ETag hasher.
+   *
+   * @return The number of relation tuples processed
+   * @throws JsonProcessingException if a synthetic payload cannot be serialized
+   */
+  int primeCodePaths() throws JsonProcessingException {
+    List<RelationTuple> tuples = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      tuples.add(new RelationTuple("document:" + i, "viewer", "documents", "user:" + i));
+    }
+    RelationRequest request = new RelationRequest(tuples);
+    int processed = 0;
+    for (int i = 0; i < iterations; i++) {
+      String json = objectMapper.writeValueAsString(request);
+      RelationRequest parsed = objectMapper.readValue(json, RelationRequest.class);
+      validator.validate(parsed);
+      validator.validate(new RelationRequest(List.of()));
+      ContentHasher hasher = new ContentHasher();
+      for (RelationTuple tuple : parsed.getRelations()) {
+        hasher
+            .add(tuple.getResource())
+            .add(tuple.getRelationDefinition())
+            .add(tuple.getNamespace())
+            .add(tuple.getTarget())
+            .add(tuple.getExpiresAt());
+      }
+      hasher.toEntityTag();
+      objectMapper.writeValueAsString(new RelationResource.RelationsResponse(tuples));
+      objectMapper.writeValueAsString(new ErrorResponse("Validation failed", json));
+      processed += parsed.getRelations().size();
+    }
+    return processed;
+  }
+
+  /**
+   * Makes one read-only Descope call on a virtual thread and waits at most {@code
+   * snapstart.priming.restore-timeout.millis} for it. Its answer, or error, is ignored: only the
+   * connection it leaves in the SDK's pool matters.
+   */
+  void warmDescopeTransport() {
+    if (descopeClient == null) {
+      return;
+    }
+    Thread probe =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  try {
+                    descopeClient
+                        .getManagementServices()
+                        .getAuthzService()
+                        .resourceRelations(PROBE_ID);
+                  } catch (RuntimeException e) {
+                    // Best effort: a not-found answer still warmed the connection
+                    Log.debugf("Descope warm-up call failed: %s", e.getMessage());
+                  }
+                });
+    try {
+      if (!probe.join(Duration.ofMillis(restoreTimeoutMillis))) {
+        Log.debugf("Descope warm-up call still running after %d ms", restoreTimeoutMillis);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
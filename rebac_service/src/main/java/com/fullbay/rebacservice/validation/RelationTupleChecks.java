@@ -0,0 +1,133 @@
+package com.fullbay.rebacservice.validation;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * Allocation-light checks mirroring the {@code @NotBlank}/{@code @Size}/{@code @Future}
+ * constraints on {@link RelationTuple}. All fields of every tuple are checked in one pass without
+ * building property paths, and only the first violations are reported.
+ */
+public final class RelationTupleChecks {
+
+  /** Receives one violation at a time. */
+  @FunctionalInterface
+  public interface ViolationSink {
+
+    /**
+     * Accepts a violation.
+     *
+     * @param index The index of the offending tuple in the checked list
+     * @param field The JSON name of the offending field
+     * @param message The constraint message, identical to the bean validation message
+     */
+    void accept(int index, String field, String message);
+  }
+
+  private RelationTupleChecks() {}
+
+  /**
+   * Checks every tuple and reports at most {@code maxViolations} violations to the sink.
+   *
+   * @param tuples The tuples to check; null elements are skipped like a {@code @Valid} cascade
+   * @param maxViolations The maximum number of violations to report
+   * @param sink The sink receiving violations in tuple order
+   * @return The number of violations reported
+   */
+  public static int check(List<RelationTuple> tuples, int maxViolations, ViolationSink sink) {
+    int reported = 0;
+    int size = tuples.size();
+    Instant now = Instant.now();
+    for (int i = 0; i < size && reported < maxViolations; i++) {
+      RelationTuple tuple = tuples.get(i);
+      if (tuple == null) {
+        continue;
+      }
+      reported +=
+          checkField(
+              tuple.getResource(),
+              RelationTuple.MAX_RESOURCE_LENGTH,
+              i,
+              "resource",
+              RelationTuple.RESOURCE_REQUIRED,
+              RelationTuple.RESOURCE_TOO_LONG,
+              maxViolations - reported,
+              sink);
+      reported +=
+          checkField(
+              tuple.getRelationDefinition(),
+              RelationTuple.MAX_RELATION_DEFINITION_LENGTH,
+              i,
+              "relationDefinition",
+              RelationTuple.RELATION_DEFINITION_REQUIRED,
+              RelationTuple.RELATION_DEFINITION_TOO_LONG,
+              maxViolations - reported,
+              sink);
+      reported +=
+          checkField(
+              tuple.getNamespace(),
+              RelationTuple.MAX_NAMESPACE_LENGTH,
+              i,
+              "namespace",
+              RelationTuple.NAMESPACE_REQUIRED,
+              RelationTuple.NAMESPACE_TOO_LONG,
+              maxViolations - reported,
+              sink);
+      reported +=
+          checkField(
+              tuple.getTarget(),
+              RelationTuple.MAX_TARGET_LENGTH,
+              i,
+              "target",
+              RelationTuple.TARGET_REQUIRED,
+              RelationTuple.TARGET_TOO_LONG,
+              maxViolations - reported,
+              sink);
+      Instant expiresAt = tuple.getExpiresAt();
+      if (reported < maxViolations && expiresAt != null && !expiresAt.isAfter(now)) {
+        sink.accept(i, "expiresAt", RelationTuple.EXPIRES_AT_NOT_FUTURE);
+        reported++;
+      }
+    }
+    return reported;
+  }
+
+  private static int checkField(
+      String value,
+      int maxLength,
+      int index,
+      String field,
+      String requiredMessage,
+      String tooLongMessage,
+      int remaining,
+      ViolationSink sink) {
+    int reported = 0;
+    if (remaining > reported && isBlank(value)) {
+      sink.accept(index, field, requiredMessage);
+      reported++;
+    }
+    if (remaining > reported && value != null && value.length() > maxLength) {
+      sink.accept(index, field, tooLongMessage);
+      reported++;
+    }
+    return reported;
+  }
+
+  /**
+   * Matches Hibernate Validator's {@code @NotBlank} semantics (blank after {@code trim()}) without
+   * allocating a trimmed copy.
+   */
+  static boolean isBlank(String value) {
+    if (value == null) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
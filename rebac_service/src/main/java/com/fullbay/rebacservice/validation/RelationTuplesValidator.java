@@ -0,0 +1,82 @@
+package com.fullbay.rebacservice.validation;
+
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Validates relation tuple lists. Lists below {@code rebac.validation.fast-path-threshold} are
+ * cascaded through the bean validator; larger lists use {@link RelationTupleChecks}, which checks
+ * all four fields in one pass and stops after {@code rebac.validation.max-violations} violations.
+ * Both paths report the same messages under the same {@code relations[i].field} property paths.
+ */
+@ApplicationScoped
+public class RelationTuplesValidator
+    implements ConstraintValidator<ValidRelationTuples, List<RelationTuple>> {
+
+  @Inject Validator validator;
+
+  @ConfigProperty(name = "rebac.validation.fast-path-threshold", defaultValue = "1000")
+  int fastPathThreshold;
+
+  @ConfigProperty(name = "rebac.validation.max-violations", defaultValue = "100")
+  int maxViolations;
+
+  @Override
+  public boolean isValid(List<RelationTuple> tuples, ConstraintValidatorContext context) {
+    if (tuples == null || tuples.isEmpty()) {
+      // Emptiness is reported by @NotEmpty
+      return true;
+    }
+    context.disableDefaultConstraintViolation();
+
+    if (tuples.size() >= fastPathThreshold) {
+      return RelationTupleChecks.check(
+              tuples,
+              maxViolations,
+              (index, field, message) -> addViolation(context, index, field, message))
+          == 0;
+    }
+
+    boolean valid = true;
+    for (int i = 0; i < tuples.size(); i++) {
+      RelationTuple tuple = tuples.get(i);
+      if (tuple == null) {
+        continue;
+      }
+      for (ConstraintViolation<RelationTuple> violation : validator.validate(tuple)) {
+        addViolation(context, i, violation.getPropertyPath().toString(), violation.getMessage());
+        valid = false;
+      }
+    }
+    return valid;
+  }
+
+  private static void addViolation(
+      ConstraintValidatorContext context, int index, String field, String message) {
+    context
+        .buildConstraintViolationWithTemplate(escape(message))
+        .addPropertyNode(field)
+        .inIterable()
+        .atIndex(index)
+        .addConstraintViolation();
+  }
+
+  /** Messages are already interpolated, so keep them from being interpolated a second time. */
+  private static String escape(String message) {
+    return message
+        .replace("\\", "\\\\")
+        .replace("{", "\\{")
+        .replace("}", "\\}")
+        .replace("$", "\\$");
+  }
+}
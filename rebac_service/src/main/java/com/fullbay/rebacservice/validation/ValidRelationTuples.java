@@ -0,0 +1,29 @@
+package com.fullbay.rebacservice.validation;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+/**
+ * Validates every tuple in a relation list. Replaces a {@code @Valid} cascade so that large bulk
+ * payloads can be checked on a fast path; violations keep the {@code relations[i].field} path.
+ */
+@Documented
+@Constraint(validatedBy = RelationTuplesValidator.class)
+@Target({FIELD, PARAMETER})
+@Retention(RUNTIME)
+public @interface ValidRelationTuples {
+
+  String message() default "Invalid relation tuples";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
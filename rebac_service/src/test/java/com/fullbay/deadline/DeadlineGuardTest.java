@@ -0,0 +1,166 @@
+package com.fullbay.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class DeadlineGuardTest {
+
+  @Inject DeadlineGuard deadlineGuard;
+
+  @Inject RequestDeadline requestDeadline;
+
+  @Test
+  @DisplayName("call - no deadline - should return result")
+  void call_noDeadline_shouldReturnResult() {
+    // Arrange
+    requestDeadline.set(null);
+
+    // Act
+    String result = deadlineGuard.call("whoCanAccess", () -> "ok");
+
+    // Assert
+    assertThat(result).isEqualTo("ok");
+  }
+
+  @Test
+  @DisplayName("call - slow call past deadline - should cancel and throw")
+  void call_slowCallPastDeadline_shouldThrow() {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(50));
+    long start = System.nanoTime();
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                deadlineGuard.call(
+                    "whoCanAccess",
+                    () -> {
+                      try {
+                        Thread.sleep(5000);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return "late";
+                    }))
+        .isInstanceOf(DeadlineExceededException.class)
+        .hasMessageContaining("whoCanAccess");
+    assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+  }
+
+  @Test
+  @DisplayName("call - deadline already passed - should throw without calling")
+  void call_deadlinePassed_shouldThrowWithoutCalling() {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(-1));
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                deadlineGuard.call(
+                    "resourceRelations",
+                    () -> {
+                      throw new AssertionError("should not be called");
+                    }))
+        .isInstanceOf(DeadlineExceededException.class);
+  }
+
+  @Test
+  @DisplayName("call - call fails within deadline - should rethrow original exception")
+  void call_callFailsWithinDeadline_shouldRethrow() {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(5000));
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                deadlineGuard.call(
+                    "createRelations",
+                    () -> {
+                      throw new IllegalArgumentException("bad relation");
+                    }))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("bad relation");
+  }
+
+  @Test
+  @DisplayName("runMutation - deadline already passed - should throw without calling")
+  void runMutation_deadlinePassed_shouldThrowWithoutCalling() {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(-1));
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                deadlineGuard.runMutation(
+                    "createRelations",
+                    () -> {
+                      throw new AssertionError("should not be called");
+                    }))
+        .isInstanceOf(DeadlineExceededException.class)
+        .hasMessageContaining("createRelations");
+  }
+
+  @Test
+  @DisplayName("callMutation - mutation outlives deadline - should throw outcome unknown")
+  void callMutation_mutationOutlivesDeadline_shouldThrowOutcomeUnknown() throws Exception {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(50));
+    CountDownLatch applied = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                deadlineGuard.callMutation(
+                    "createRelations",
+                    () -> {
+                      try {
+                        Thread.sleep(200);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return "applied";
+                    },
+                    applied::countDown))
+        .isInstanceOf(DeadlineExceededException.class)
+        .satisfies(e -> assertThat(((DeadlineExceededException) e).isOutcomeUnknown()).isTrue());
+    assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(200);
+    // The mutation is not cancelled, and its follow-up work still runs once it completes
+    assertThat(applied.await(2, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("callMutation - mutation within deadline - should return result after follow-up")
+  void callMutation_withinDeadline_shouldReturnResult() {
+    // Arrange
+    requestDeadline.set(Deadline.afterMillis(5000));
+    List<String> events = new ArrayList<>();
+
+    // Act
+    String result =
+        deadlineGuard.callMutation(
+            "createRelations",
+            () -> {
+              events.add("mutation");
+              return "applied";
+            },
+            () -> events.add("onApplied"));
+
+    // Assert
+    assertThat(result).isEqualTo("applied");
+    assertThat(events).containsExactly("mutation", "onApplied");
+  }
+}
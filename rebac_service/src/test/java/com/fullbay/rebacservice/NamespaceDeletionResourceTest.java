@@ -0,0 +1,120 @@
+package com.fullbay.rebacservice;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.job.Job;
+import com.fullbay.rebacservice.job.JobService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class NamespaceDeletionResourceTest {
+
+  @InjectMock JobService jobService;
+
+  @Test
+  @DisplayName("DELETE /relations/namespace/{namespace} - with prefix - should return 202 job")
+  void deleteNamespace_withPrefix_shouldReturn202WithJobLocation() {
+    // Arrange
+    when(jobService.submitNamespaceDeletion("documents", "tenant-a/", List.of()))
+        .thenReturn(new Job("job-9", "documents", "tenant-a/", null));
+
+    // Act & Assert
+    given()
+        .queryParam("resourcePrefix", "tenant-a/")
+        .when()
+        .delete("/relations/namespace/documents")
+        .then()
+        .statusCode(202)
+        .header("Location", containsString("/relations/jobs/job-9"))
+        .body("operation", equalTo("DELETE"))
+        .body("namespace", equalTo("documents"))
+        .body("resourcePrefix", equalTo("tenant-a/"))
+        .body("complete", equalTo(false))
+        .body("status", equalTo("QUEUED"));
+  }
+
+  @Test
+  @DisplayName("DELETE /relations/namespace/{namespace} - named resources - should queue complete")
+  void deleteNamespace_namedResources_shouldQueueCompleteJob() {
+    // Arrange
+    List<String> resources = List.of("document:1", "document:2");
+    when(jobService.submitNamespaceDeletion("documents", null, resources))
+        .thenReturn(new Job("job-11", "documents", null, resources));
+
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:1", "document:2")
+        .when()
+        .delete("/relations/namespace/documents")
+        .then()
+        .statusCode(202)
+        .body("complete", equalTo(true));
+  }
+
+  @Test
+  @DisplayName("DELETE /relations/namespace/{namespace} - in-memory job store - should return 501")
+  void deleteNamespace_noDurableJobStore_shouldReturn501() {
+    // Arrange
+    when(jobService.submitNamespaceDeletion("documents", null, List.of()))
+        .thenThrow(new FeatureUnavailableException("Needs a durable job store"));
+
+    // Act & Assert
+    given().when().delete("/relations/namespace/documents").then().statusCode(501);
+  }
+
+  @Test
+  @DisplayName("DELETE /relations/namespace/{namespace} - replayed key - should keep Location")
+  void deleteNamespace_replayedKey_shouldKeepLocationHeader() {
+    // Arrange
+    when(jobService.submitNamespaceDeletion("documents", null, List.of()))
+        .thenReturn(new Job("job-10", "documents", null, null));
+    given()
+        .header("Idempotency-Key", "namespace-replay-1")
+        .when()
+        .delete("/relations/namespace/documents")
+        .then()
+        .statusCode(202);
+
+    // Act & Assert
+    given()
+        .header("Idempotency-Key", "namespace-replay-1")
+        .when()
+        .delete("/relations/namespace/documents")
+        .then()
+        .statusCode(202)
+        .header("Idempotent-Replayed", "true")
+        .header("Location", containsString("/relations/jobs/job-10"));
+
+    verify(jobService, times(1)).submitNamespaceDeletion("documents", null, List.of());
+  }
+
+  @Test
+  @DisplayName("DELETE /relations/namespace/{namespace} - namespace too long - should return 400")
+  void deleteNamespace_namespaceTooLong_shouldReturn400() {
+    // Act & Assert
+    given()
+        .when()
+        .delete("/relations/namespace/" + "n".repeat(101))
+        .then()
+        .statusCode(400)
+        .body("error", equalTo("Invalid request"));
+
+    verify(jobService, never()).submitNamespaceDeletion(anyString(), any(), any());
+  }
+}
@@ -0,0 +1,217 @@
+package com.fullbay.rebacservice;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.exception.JobNotFoundException;
+import com.fullbay.rebacservice.exception.JobRejectedException;
+import com.fullbay.rebacservice.job.Job;
+import com.fullbay.rebacservice.job.JobService;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+class RelationJobResourceTest {
+
+  private static final String JOB_BODY =
+      "{\"operation\":\"CREATE\",\"relations\":[{\"resource\":\"document:123\","
+          + "\"relationDefinition\":\"owner\",\"namespace\":\"documents\","
+          + "\"target\":\"user:alice@example.com\"}]}";
+
+  @InjectMock JobService jobService;
+
+  private static Job job() {
+    return new Job("job-123", RelationChange.Operation.CREATE, 1);
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs - valid request - should return 202 with location")
+  void submitJob_validRequest_shouldReturn202() {
+    // Arrange
+    when(jobService.submit(eq(RelationChange.Operation.CREATE), anyList())).thenReturn(job());
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(JOB_BODY)
+        .when()
+        .post("/relations/jobs")
+        .then()
+        .statusCode(202)
+        .header("Location", containsString("/relations/jobs/job-123"))
+        .body("id", equalTo("job-123"))
+        .body("status", equalTo("QUEUED"))
+        .body("total", equalTo(1))
+        .body("processed", equalTo(0));
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs - missing operation - should return 400")
+  void submitJob_missingOperation_shouldReturn400() {
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(JOB_BODY.replace("\"operation\":\"CREATE\",", ""))
+        .when()
+        .post("/relations/jobs")
+        .then()
+        .statusCode(400);
+
+    verify(jobService, never()).submit(eq(RelationChange.Operation.CREATE), anyList());
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs - queue full - should return 503")
+  void submitJob_queueFull_shouldReturn503() {
+    // Arrange
+    when(jobService.submit(eq(RelationChange.Operation.CREATE), anyList()))
+        .thenThrow(new JobRejectedException("Job queue is full, retry later"));
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(JOB_BODY)
+        .when()
+        .post("/relations/jobs")
+        .then()
+        .statusCode(503)
+        .body("error", equalTo("Service unavailable"));
+  }
+
+  /** Stubs staging to collect the tuples streamed into the job store. */
+  private List<RelationTuple> givenStagedImport() {
+    List<RelationTuple> staged = new ArrayList<>();
+    when(jobService.stage(eq(RelationChange.Operation.CREATE), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<Consumer<List<RelationTuple>>> producer = invocation.getArgument(1);
+              producer.accept(staged::addAll);
+              return new Job("job-123", RelationChange.Operation.CREATE, staged.size());
+            });
+    when(jobService.submit(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    return staged;
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs/import - CSV export - should queue unique tuples")
+  void importRelations_csvExport_shouldQueueUniqueTuples() {
+    // Arrange
+    List<RelationTuple> staged = givenStagedImport();
+    String csv =
+        "resource,relationDefinition,namespace,target\n"
+            + "document:123,owner,documents,user:alice@example.com\n"
+            + "document:123,owner,documents,user:alice@example.com\n"
+            + "document:456,viewer,documents,user:bob@example.com\n";
+
+    // Act & Assert
+    given()
+        .contentType("text/csv")
+        .body(csv)
+        .when()
+        .post("/relations/jobs/import")
+        .then()
+        .statusCode(202)
+        .header("Location", containsString("/relations/jobs/job-123"))
+        .body("total", equalTo(2));
+
+    assertThat(staged)
+        .containsExactly(
+            new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"),
+            new RelationTuple("document:456", "viewer", "documents", "user:bob@example.com"));
+    verify(jobService).submit(any(Job.class));
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs/import - malformed TSV row - should return 400 with line")
+  void importRelations_malformedRow_shouldReturn400() {
+    // Arrange
+    givenStagedImport();
+
+    // Act & Assert
+    given()
+        .contentType("text/tab-separated-values")
+        .body("document:123\towner\tdocuments\tuser:alice\ndocument:456\tviewer\n")
+        .when()
+        .post("/relations/jobs/import")
+        .then()
+        .statusCode(400)
+        .body("message", containsString("line 2"));
+
+    verify(jobService, never()).submit(any(Job.class));
+  }
+
+  @Test
+  @DisplayName("POST /relations/jobs/import - queue full - should return 503 before submitting")
+  void importRelations_queueFull_shouldReturn503() {
+    // Arrange
+    doThrow(new JobRejectedException("Job queue is full, retry later"))
+        .when(jobService)
+        .ensureCapacity();
+
+    // Act & Assert
+    given()
+        .contentType("text/csv")
+        .body("document:123,owner,documents,user:alice@example.com\n")
+        .when()
+        .post("/relations/jobs/import")
+        .then()
+        .statusCode(503);
+
+    verify(jobService, never()).stage(eq(RelationChange.Operation.CREATE), any());
+  }
+
+  @Test
+  @DisplayName("GET /relations/jobs/{jobId} - running job - should return progress")
+  void getJob_runningJob_shouldReturnProgress() {
+    // Arrange
+    Job job = job();
+    job.setStatus(Job.Status.RUNNING);
+    job.setProcessed(1);
+    when(jobService.getJob("job-123")).thenReturn(job);
+
+    // Act & Assert
+    given()
+        .when()
+        .get("/relations/jobs/job-123")
+        .then()
+        .statusCode(200)
+        .body("status", equalTo("RUNNING"))
+        .body("processed", equalTo(1))
+        .body("operation", equalTo("CREATE"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/jobs/{jobId} - unknown job - should return 404")
+  void getJob_unknownJob_shouldReturn404() {
+    // Arrange
+    when(jobService.getJob("missing")).thenThrow(new JobNotFoundException("missing"));
+
+    // Act & Assert
+    given()
+        .when()
+        .get("/relations/jobs/missing")
+        .then()
+        .statusCode(404)
+        .body("error", equalTo("Job not found"));
+  }
+}
@@ -4,18 +4,32 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import com.descope.exception.ServerCommonException;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.graph.AdjacencyStore;
 import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.model.SetExpression;
+import com.fullbay.rebacservice.outbox.RelationOutbox;
 import com.fullbay.rebacservice.service.RelationService;
 
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +44,10 @@ class RelationResourceTest {
 
   @InjectMock RelationService relationService;
 
+  @InjectMock AdjacencyStore adjacencyStore;
+
+  @InjectMock RelationOutbox relationOutbox;
+
   @Test
   @DisplayName("POST /relations - valid request - should return 201")
   void createRelations_validRequest_shouldReturn201() throws Exception {
@@ -48,6 +66,112 @@ class RelationResourceTest {
     verify(relationService).createRelations(anyList());
   }
 
+  @Test
+  @DisplayName("POST /relations - repeated idempotency key - should replay without rewriting")
+  void createRelations_repeatedIdempotencyKey_shouldReplayRecordedResponse() throws Exception {
+    // Arrange
+    String body =
+        "{\"relations\":[{\"resource\":\"document:123\",\"relationDefinition\":\"owner\","
+            + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"}]}";
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "create-replay-1")
+        .body(body)
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(201);
+
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "create-replay-1")
+        .body(body)
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(201)
+        .header("Idempotent-Replayed", "true")
+        .body("message", equalTo("Created 1 relation tuple(s)"));
+
+    verify(relationService, times(1)).createRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("POST /relations - idempotency key reused with other body - should return 422")
+  void createRelations_idempotencyKeyReusedWithOtherBody_shouldReturn422() throws Exception {
+    // Arrange
+    String body =
+        "{\"relations\":[{\"resource\":\"document:123\",\"relationDefinition\":\"owner\","
+            + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"}]}";
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "create-reuse-1")
+        .body(body)
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(201);
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "create-reuse-1")
+        .body(body.replace("alice", "bob"))
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(422)
+        .body("error", equalTo("Idempotency key reused"));
+
+    verify(relationService, times(1)).createRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("POST /relations - outbox enabled - should queue and return 202 with token")
+  void createRelations_outboxEnabled_shouldQueueAndReturn202() throws Exception {
+    // Arrange
+    when(relationOutbox.isEnabled()).thenReturn(true);
+    when(relationOutbox.append(eq(RelationChange.Operation.CREATE), anyList())).thenReturn("7");
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"relations\":[{\"resource\":\"document:123\",\"relationDefinition\":\"owner\","
+                + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"}]}")
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(202)
+        .body("pendingToken", equalTo("7"))
+        .body("message", equalTo("Queued CREATE of 1 relation tuple(s)"));
+
+    verify(relationService, never()).createRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("POST /relations - expiry with in-memory change log - should return 501")
+  void createRelations_expiryWithoutDurableSchedule_shouldReturn501() throws Exception {
+    // Arrange
+    when(relationOutbox.isEnabled()).thenReturn(true);
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"relations\":[{\"resource\":\"document:123\",\"relationDefinition\":\"owner\","
+                + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\","
+                + "\"expiresAt\":\"2031-01-01T00:00:00Z\"}]}")
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(501);
+
+    verify(relationOutbox, never()).append(any(), anyList());
+  }
+
   @Test
   @DisplayName("POST /relations - empty relations list - should return 400")
   void createRelations_emptyList_shouldReturn400() {
@@ -63,6 +187,28 @@ class RelationResourceTest {
         .body("message", containsString("Relations list cannot be empty"));
   }
 
+  @Test
+  @DisplayName("POST /relations - invalid tuple in bulk payload - should return 400 with index")
+  void createRelations_invalidTupleInBulkPayload_shouldReturn400WithIndex() {
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"relations\":["
+                + "{\"resource\":\"document:1\",\"relationDefinition\":\"owner\","
+                + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"},"
+                + "{\"resource\":\"document:2\",\"relationDefinition\":\"owner\","
+                + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"},"
+                + "{\"resource\":\"document:3\",\"relationDefinition\":\"owner\","
+                + "\"namespace\":\"documents\",\"target\":\"\"}]}")
+        .when()
+        .post("/relations")
+        .then()
+        .statusCode(400)
+        .body("error", equalTo("Validation failed"))
+        .body("message", containsString("relations[2].target: Target is required"));
+  }
+
   @Test
   @DisplayName("POST /relations - service throws exception - should return 500")
   void createRelations_serviceException_shouldReturn500() throws Exception {
@@ -101,6 +247,40 @@ class RelationResourceTest {
     verify(relationService).deleteRelations(anyList());
   }
 
+  @Test
+  @DisplayName("DELETE /relations - failed request with idempotency key - should allow retry")
+  void deleteRelations_failedWithIdempotencyKey_shouldAllowRetry() throws Exception {
+    // Arrange
+    String body =
+        "{\"relations\":[{\"resource\":\"document:123\",\"relationDefinition\":\"owner\","
+            + "\"namespace\":\"documents\",\"target\":\"user:alice@example.com\"}]}";
+    doThrow(ServerCommonException.invalidArgument("relation"))
+        .doNothing()
+        .when(relationService)
+        .deleteRelations(anyList());
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "delete-retry-1")
+        .body(body)
+        .when()
+        .delete("/relations")
+        .then()
+        .statusCode(500);
+
+    given()
+        .contentType(ContentType.JSON)
+        .header("Idempotency-Key", "delete-retry-1")
+        .body(body)
+        .when()
+        .delete("/relations")
+        .then()
+        .statusCode(204);
+
+    verify(relationService, times(2)).deleteRelations(anyList());
+  }
+
   @Test
   @DisplayName("DELETE /relations - empty relations list - should return 400")
   void deleteRelations_emptyList_shouldReturn400() {
@@ -190,6 +370,378 @@ class RelationResourceTest {
         .body("error", equalTo("Service error"));
   }
 
+  @Test
+  @DisplayName("GET /relations/who-can-access - deadline exceeded - should return 504")
+  void whoCanAccess_deadlineExceeded_shouldReturn504() throws Exception {
+    // Arrange
+    when(relationService.whoCanAccess(anyString(), anyString(), anyString()))
+        .thenThrow(new DeadlineExceededException("whoCanAccess"));
+
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .queryParam("relationDefinition", "viewer")
+        .queryParam("namespace", "documents")
+        .when()
+        .get("/relations/who-can-access")
+        .then()
+        .statusCode(504)
+        .body("error", equalTo("Deadline exceeded"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/check - valid request - should return the decision")
+  void check_validRequest_shouldReturn200() throws Exception {
+    // Arrange
+    when(relationService.check("document:123", "viewer", "documents", "user:alice"))
+        .thenReturn(true);
+
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .queryParam("relationDefinition", "viewer")
+        .queryParam("namespace", "documents")
+        .queryParam("target", "user:alice")
+        .when()
+        .get("/relations/check")
+        .then()
+        .statusCode(200)
+        .body("allowed", equalTo(true));
+  }
+
+  @Test
+  @DisplayName("GET /relations/check - missing target - should return 400")
+  void check_missingTarget_shouldReturn400() {
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .queryParam("relationDefinition", "viewer")
+        .queryParam("namespace", "documents")
+        .when()
+        .get("/relations/check")
+        .then()
+        .statusCode(400)
+        .body("error", equalTo("Invalid request"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/expand - userset target - should return the expansion tree")
+  void expand_usersetTarget_shouldReturn200WithTree() throws Exception {
+    // Arrange
+    when(relationService.getResourceRelations("document:123", "documents", "viewer"))
+        .thenReturn(
+            List.of(
+                new RelationTuple("document:123", "viewer", "documents", "user:alice"),
+                new RelationTuple("document:123", "viewer", "documents", "group:eng#member")));
+    when(relationService.getResourceRelations("group:eng", null, "member"))
+        .thenReturn(List.of(new RelationTuple("group:eng", "member", "groups", "user:bob")));
+
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .queryParam("relationDefinition", "viewer")
+        .queryParam("namespace", "documents")
+        .when()
+        .get("/relations/expand")
+        .then()
+        .statusCode(200)
+        .body("nodes", equalTo(2))
+        .body("complete", equalTo(true))
+        .body("tree.targets", hasSize(1))
+        .body("tree.targets[0]", equalTo("user:alice"))
+        .body("tree.usersets[0].resource", equalTo("group:eng"))
+        .body("tree.usersets[0].targets[0]", equalTo("user:bob"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/expand - missing params - should return 400")
+  void expand_missingParams_shouldReturn400() {
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .when()
+        .get("/relations/expand")
+        .then()
+        .statusCode(400)
+        .body("error", equalTo("Invalid request"));
+  }
+
+  @Test
+  @DisplayName("POST /relations/resources:batchGet - valid request - should return map")
+  void batchGetResourceRelations_validRequest_shouldReturnMap() throws Exception {
+    // Arrange
+    when(relationService.getResourceRelations("document:1", "documents", null))
+        .thenReturn(
+            Collections.singletonList(
+                new RelationTuple("document:1", "owner", "documents", "user:alice")));
+    when(relationService.getResourceRelations("document:2", "documents", null))
+        .thenReturn(Collections.emptyList());
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"resources\":[\"document:1\",\"document:2\",\"document:1\"],"
+                + "\"namespace\":\"documents\"}")
+        .when()
+        .post("/relations/resources:batchGet")
+        .then()
+        .statusCode(200)
+        .body("relations.size()", equalTo(2))
+        .body("relations.'document:1'[0].target", equalTo("user:alice"))
+        .body("relations.'document:2'", hasSize(0));
+  }
+
+  @Test
+  @DisplayName("POST /relations/resources:batchGet - empty resources - should return 400")
+  void batchGetResourceRelations_emptyResources_shouldReturn400() {
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"resources\":[]}")
+        .when()
+        .post("/relations/resources:batchGet")
+        .then()
+        .statusCode(400)
+        .body("message", containsString("Resources list cannot be empty"));
+  }
+
+  @Test
+  @DisplayName("POST /relations/filter - valid request - should return accessible resources")
+  void filterAccessible_validRequest_shouldReturnAccessibleResources() throws Exception {
+    // Arrange
+    when(relationService.filterAccessible(
+            "user:alice", "viewer", "documents", Arrays.asList("document:1", "document:2")))
+        .thenReturn(Collections.singletonList("document:2"));
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"target\":\"user:alice\",\"relationDefinition\":\"viewer\","
+                + "\"namespace\":\"documents\",\"resources\":[\"document:1\",\"document:2\"]}")
+        .when()
+        .post("/relations/filter")
+        .then()
+        .statusCode(200)
+        .body("resources", hasSize(1))
+        .body("resources[0]", equalTo("document:2"));
+  }
+
+  @Test
+  @DisplayName("POST /relations/filter - missing target - should return 400")
+  void filterAccessible_missingTarget_shouldReturn400() {
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"relationDefinition\":\"viewer\",\"namespace\":\"documents\","
+                + "\"resources\":[\"document:1\"]}")
+        .when()
+        .post("/relations/filter")
+        .then()
+        .statusCode(400)
+        .body("message", containsString("Target is required"));
+  }
+
+  @Test
+  @DisplayName("POST /relations/query - store enabled - should return ids, count and coverage")
+  void query_storeEnabled_shouldReturnIdsAndCount() {
+    // Arrange
+    when(adjacencyStore.isEnabled()).thenReturn(true);
+    when(adjacencyStore.query(eq("documents"), any(SetExpression.class), isNull()))
+        .thenReturn(new AdjacencyStore.QueryResult(List.of("document:2"), 1));
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"namespace\":\"documents\",\"query\":{\"op\":\"AND\",\"operands\":["
+                + "{\"target\":\"user:alice\",\"relationDefinition\":\"viewer\"},"
+                + "{\"target\":\"user:bob\",\"relationDefinition\":\"viewer\"}]}}")
+        .when()
+        .post("/relations/query")
+        .then()
+        .statusCode(200)
+        .body("ids", hasSize(1))
+        .body("ids[0]", equalTo("document:2"))
+        .body("count", equalTo(1))
+        .body("complete", equalTo(false));
+  }
+
+  @Test
+  @DisplayName("POST /relations/query - malformed query - should return 400")
+  void query_malformedQuery_shouldReturn400() {
+    // Arrange
+    when(adjacencyStore.isEnabled()).thenReturn(true);
+    when(adjacencyStore.query(eq("documents"), any(SetExpression.class), isNull()))
+        .thenThrow(new IllegalArgumentException("query must not combine resource and target sets"));
+
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"namespace\":\"documents\",\"query\":{\"op\":\"OR\",\"operands\":[]}}")
+        .when()
+        .post("/relations/query")
+        .then()
+        .statusCode(400)
+        .body("error", equalTo("Invalid request"));
+  }
+
+  @Test
+  @DisplayName("POST /relations/query - store disabled - should return 503")
+  void query_storeDisabled_shouldReturn503() {
+    // Act & Assert
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"namespace\":\"documents\",\"query\":{\"ids\":[\"document:1\"]}}")
+        .when()
+        .post("/relations/query")
+        .then()
+        .statusCode(503);
+  }
+
+  @Test
+  @DisplayName("GET /relations/outbox/{token} - known token - should return delivery state")
+  void pendingWrite_knownToken_shouldReturnState() {
+    // Arrange
+    when(relationOutbox.status("7"))
+        .thenReturn(
+            Optional.of(
+                new RelationOutbox.PendingWrite(
+                    "7", RelationOutbox.State.PENDING, 2, "Descope unavailable")));
+
+    // Act & Assert
+    given()
+        .when()
+        .get("/relations/outbox/7")
+        .then()
+        .statusCode(200)
+        .body("state", equalTo("PENDING"))
+        .body("attempts", equalTo(2));
+  }
+
+  @Test
+  @DisplayName("GET /relations/outbox/{token} - unknown token - should return 404")
+  void pendingWrite_unknownToken_shouldReturn404() {
+    // Arrange
+    when(relationOutbox.status("99")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    given().when().get("/relations/outbox/99").then().statusCode(404);
+  }
+
+  @Test
+  @DisplayName("GET /relations/shadow - shadow mode disabled - should report empty counters")
+  void shadowReport_shadowModeDisabled_shouldReportEmptyCounters() {
+    // Act & Assert
+    given()
+        .when()
+        .get("/relations/shadow")
+        .then()
+        .statusCode(200)
+        .body("enabled", equalTo(false))
+        .body("check.samples", equalTo(0))
+        .body("whoCanAccess.agreementRate", equalTo(1.0f))
+        .body("recentMismatches", hasSize(0));
+  }
+
+  @Test
+  @DisplayName("GET /relations/export - missing namespace - should return 400")
+  void export_missingNamespace_shouldReturn400() {
+    // Act & Assert
+    given()
+        .when()
+        .get("/relations/export")
+        .then()
+        .statusCode(400)
+        .body("message", equalTo("namespace is required"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/export - unknown format - should return 400")
+  void export_unknownFormat_shouldReturn400() {
+    // Act & Assert
+    given()
+        .queryParam("namespace", "documents")
+        .queryParam("format", "xml")
+        .when()
+        .get("/relations/export")
+        .then()
+        .statusCode(400)
+        .body("message", equalTo("format must be ndjson or csv"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/export - CSV format - should stream header as text/csv")
+  void export_csvFormat_shouldStreamCsv() {
+    // Act & Assert
+    given()
+        .queryParam("namespace", "export-test")
+        .queryParam("format", "csv")
+        .when()
+        .get("/relations/export")
+        .then()
+        .statusCode(200)
+        .contentType(containsString("text/csv"))
+        .header("Export-Coverage", "partial")
+        .body(startsWith("resource,relationDefinition,namespace,target,expiresAt"));
+  }
+
+  @Test
+  @DisplayName("GET /relations/export - listing fails - should return 500 instead of a cut body")
+  void export_listingFails_shouldReturn500() throws Exception {
+    // Arrange
+    when(relationService.getResourceRelations("doc:1", "export-test", null))
+        .thenThrow(ServerCommonException.invalidArgument("resource"));
+
+    // Act & Assert
+    given()
+        .queryParam("namespace", "export-test")
+        .queryParam("resource", "doc:1")
+        .when()
+        .get("/relations/export")
+        .then()
+        .statusCode(500)
+        .header("Export-Next-Cursor", nullValue());
+  }
+
+  @Test
+  @DisplayName("GET /relations/who-can-access/count - valid request - should return count")
+  void countWhoCanAccess_validRequest_shouldReturnCount() throws Exception {
+    // Arrange
+    when(relationService.countWhoCanAccess("document:123", "viewer", "documents")).thenReturn(2L);
+
+    // Act & Assert
+    given()
+        .queryParam("resource", "document:123")
+        .queryParam("relationDefinition", "viewer")
+        .queryParam("namespace", "documents")
+        .when()
+        .get("/relations/who-can-access/count")
+        .then()
+        .statusCode(200)
+        .body("count", equalTo(2));
+  }
+
+  @Test
+  @DisplayName("GET /relations/target/{targetId}/count - with filters - should return count")
+  void countTargetAccess_withFilters_shouldReturnCount() throws Exception {
+    // Arrange
+    when(relationService.countTargetAccess("user:alice@example.com", "documents", "viewer"))
+        .thenReturn(7L);
+
+    // Act & Assert
+    given()
+        .queryParam("namespace", "documents")
+        .queryParam("relationDefinition", "viewer")
+        .when()
+        .get("/relations/target/user:alice@example.com/count")
+        .then()
+        .statusCode(200)
+        .body("count", equalTo(7));
+  }
+
   @Test
   @DisplayName("GET /relations/resource/{resourceId} - valid request - should return 200")
   void getResourceRelations_validRequest_shouldReturn200() throws Exception {
@@ -198,7 +750,8 @@ class RelationResourceTest {
         Arrays.asList(
             new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"),
             new RelationTuple("document:123", "viewer", "documents", "user:bob@example.com"));
-    when(relationService.getResourceRelations(anyString())).thenReturn(relations);
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenReturn(relations);
 
     // Act & Assert
     given()
@@ -212,11 +765,82 @@ class RelationResourceTest {
         .body("relations[1].relationDefinition", equalTo("viewer"));
   }
 
+  @Test
+  @DisplayName("GET /relations/resource/{resourceId} - matching If-None-Match - should return 304")
+  void getResourceRelations_matchingIfNoneMatch_shouldReturn304() throws Exception {
+    // Arrange
+    List<RelationTuple> relations =
+        Arrays.asList(
+            new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"));
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenReturn(relations);
+
+    String etag =
+        given()
+            .when()
+            .get("/relations/resource/document:123")
+            .then()
+            .statusCode(200)
+            .extract()
+            .header("ETag");
+
+    // Act & Assert
+    given()
+        .header("If-None-Match", etag)
+        .when()
+        .get("/relations/resource/document:123")
+        .then()
+        .statusCode(304)
+        .header("ETag", equalTo(etag));
+  }
+
+  @Test
+  @DisplayName("GET /relations/resource/{resourceId} - expiry changed - should return 200 not 304")
+  void getResourceRelations_expiryChanged_shouldReturn200() throws Exception {
+    // Arrange
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenReturn(
+            List.of(
+                new RelationTuple(
+                    "document:123",
+                    "viewer",
+                    "documents",
+                    "user:alice@example.com",
+                    Instant.parse("2030-01-01T00:00:00Z"))))
+        .thenReturn(
+            List.of(
+                new RelationTuple(
+                    "document:123",
+                    "viewer",
+                    "documents",
+                    "user:alice@example.com",
+                    Instant.parse("2031-01-01T00:00:00Z"))));
+
+    String etag =
+        given()
+            .when()
+            .get("/relations/resource/document:123")
+            .then()
+            .statusCode(200)
+            .extract()
+            .header("ETag");
+
+    // Act & Assert
+    given()
+        .header("If-None-Match", etag)
+        .when()
+        .get("/relations/resource/document:123")
+        .then()
+        .statusCode(200)
+        .body("relations[0].expiresAt", startsWith("2031-01-01"));
+  }
+
   @Test
   @DisplayName("GET /relations/resource/{resourceId} - no relations - should return empty list")
   void getResourceRelations_noRelations_shouldReturnEmptyList() throws Exception {
     // Arrange
-    when(relationService.getResourceRelations(anyString())).thenReturn(Collections.emptyList());
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenReturn(Collections.emptyList());
 
     // Act & Assert
     given()
@@ -232,7 +856,7 @@ class RelationResourceTest {
       "GET /relations/resource/{resourceId} - service throws exception - should return 500")
   void getResourceRelations_serviceException_shouldReturn500() throws Exception {
     // Arrange
-    when(relationService.getResourceRelations(anyString()))
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
         .thenThrow(ServerCommonException.invalidArgument("resource"));
 
     // Act & Assert
@@ -252,7 +876,7 @@ class RelationResourceTest {
         Arrays.asList(
             new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"),
             new RelationTuple("document:456", "viewer", "documents", "user:alice@example.com"));
-    when(relationService.getTargetAccess(anyString())).thenReturn(relations);
+    when(relationService.getTargetAccess(anyString(), isNull(), isNull())).thenReturn(relations);
 
     // Act & Assert
     given()
@@ -267,11 +891,35 @@ class RelationResourceTest {
         .body("relations[1].resource", equalTo("document:456"));
   }
 
+  @Test
+  @DisplayName("GET /relations/target/{targetId} - with filters - should pass them to the service")
+  void getTargetAccess_withFilters_shouldPassFiltersToService() throws Exception {
+    // Arrange
+    List<RelationTuple> relations =
+        Arrays.asList(
+            new RelationTuple("document:456", "viewer", "documents", "user:alice@example.com"));
+    when(relationService.getTargetAccess(
+            eq("user:alice@example.com"), eq("documents"), eq("viewer")))
+        .thenReturn(relations);
+
+    // Act & Assert
+    given()
+        .queryParam("namespace", "documents")
+        .queryParam("relationDefinition", "viewer")
+        .when()
+        .get("/relations/target/user:alice@example.com")
+        .then()
+        .statusCode(200)
+        .body("relations", hasSize(1))
+        .body("relations[0].relationDefinition", equalTo("viewer"));
+  }
+
   @Test
   @DisplayName("GET /relations/target/{targetId} - no relations - should return empty list")
   void getTargetAccess_noRelations_shouldReturnEmptyList() throws Exception {
     // Arrange
-    when(relationService.getTargetAccess(anyString())).thenReturn(Collections.emptyList());
+    when(relationService.getTargetAccess(anyString(), isNull(), isNull()))
+        .thenReturn(Collections.emptyList());
 
     // Act & Assert
     given()
@@ -286,7 +934,7 @@ class RelationResourceTest {
   @DisplayName("GET /relations/target/{targetId} - service throws exception - should return 500")
   void getTargetAccess_serviceException_shouldReturn500() throws Exception {
     // Arrange
-    when(relationService.getTargetAccess(anyString()))
+    when(relationService.getTargetAccess(anyString(), isNull(), isNull()))
         .thenThrow(ServerCommonException.invalidArgument("target"));
 
     // Act & Assert
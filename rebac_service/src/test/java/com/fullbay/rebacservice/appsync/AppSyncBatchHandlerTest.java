@@ -0,0 +1,148 @@
+package com.fullbay.rebacservice.appsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import com.descope.exception.ServerCommonException;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.rebacservice.RelationResource;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class AppSyncBatchHandlerTest {
+
+  @InjectMock RelationService relationService;
+
+  @Inject AppSyncBatchHandler batchHandler;
+
+  @Test
+  @DisplayName("resolve - duplicate items - should call Descope once per distinct item")
+  void resolve_duplicateItems_shouldDeduplicateCalls() throws Exception {
+    // Arrange
+    List<RelationTuple> relations =
+        List.of(new RelationTuple("document:1", "owner", "documents", "user:alice"));
+    when(relationService.getResourceRelations("document:1", null, null)).thenReturn(relations);
+    when(relationService.whoCanAccess("document:1", "viewer", "documents"))
+        .thenReturn(List.of("user:bob"));
+    BatchInvokeItem relationsItem =
+        new BatchInvokeItem("getResourceRelations", Map.of("resourceId", "document:1"));
+    BatchInvokeItem accessItem =
+        new BatchInvokeItem(
+            "whoCanAccess",
+            Map.of(
+                "resource",
+                "document:1",
+                "relationDefinition",
+                "viewer",
+                "namespace",
+                "documents"));
+
+    // Act
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(List.of(relationsItem, accessItem, relationsItem));
+
+    // Assert
+    assertThat(results).hasSize(3);
+    assertThat(((RelationResource.RelationsResponse) results.get(0).getData()).relations)
+        .isEqualTo(relations);
+    assertThat(((RelationResource.TargetsResponse) results.get(1).getData()).targets)
+        .containsExactly("user:bob");
+    assertThat(results.get(2).getData()).isSameAs(results.get(0).getData());
+    verify(relationService, times(1)).getResourceRelations("document:1", null, null);
+    verify(relationService, times(1)).whoCanAccess("document:1", "viewer", "documents");
+  }
+
+  @Test
+  @DisplayName("resolve - argument order differs - should treat items as identical")
+  void resolve_reorderedArguments_shouldDeduplicateCalls() throws Exception {
+    // Arrange
+    when(relationService.getTargetAccess("user:alice", "documents", "owner"))
+        .thenReturn(List.of());
+
+    // Act
+    batchHandler.resolve(
+        List.of(
+            new BatchInvokeItem(
+                "getTargetAccess",
+                Map.of(
+                    "targetId",
+                    "user:alice",
+                    "namespace",
+                    "documents",
+                    "relationDefinition",
+                    "owner")),
+            new BatchInvokeItem(
+                "getTargetAccess",
+                Map.of(
+                    "relationDefinition",
+                    "owner",
+                    "namespace",
+                    "documents",
+                    "targetId",
+                    "user:alice"))));
+
+    // Assert
+    verify(relationService, times(1)).getTargetAccess("user:alice", "documents", "owner");
+  }
+
+  @Test
+  @DisplayName("resolve - failing items - should return per-item errors without failing the batch")
+  void resolve_failingItems_shouldReturnErrors() throws Exception {
+    // Arrange
+    when(relationService.getTargetAccess("user:alice", null, null))
+        .thenThrow(ServerCommonException.invalidArgument("Failed to load relations"));
+    when(relationService.getTargetAccess("user:bob", null, null))
+        .thenThrow(new DeadlineExceededException("getTargetAccess"));
+    when(relationService.getTargetAccess("user:carol", null, null)).thenReturn(List.of());
+
+    // Act
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            List.of(
+                new BatchInvokeItem("getTargetAccess", Map.of("targetId", "user:alice")),
+                new BatchInvokeItem("getTargetAccess", Map.of("targetId", "user:bob")),
+                new BatchInvokeItem("whoCanAccess", Map.of("resource", "document:1")),
+                new BatchInvokeItem("createRelations", Map.of()),
+                new BatchInvokeItem("getTargetAccess", Map.of("targetId", "user:carol"))));
+
+    // Assert
+    assertThat(results)
+        .extracting(BatchInvokeResult::getErrorType)
+        .containsExactly("InternalError", "Timeout", "BadRequest", "BadRequest", null);
+  }
+
+  @Test
+  @DisplayName("resolve - null item and null arguments - should return per-item errors")
+  void resolve_nullItemAndArguments_shouldReturnErrors() throws Exception {
+    // Arrange
+    when(relationService.getTargetAccess("user:carol", null, null)).thenReturn(List.of());
+
+    // Act
+    List<BatchInvokeResult> results =
+        batchHandler.resolve(
+            Arrays.asList(
+                null,
+                new BatchInvokeItem("getTargetAccess", null),
+                new BatchInvokeItem("getTargetAccess", Map.of("targetId", "user:carol"))));
+
+    // Assert
+    assertThat(results)
+        .extracting(BatchInvokeResult::getErrorType)
+        .containsExactly("BadRequest", "BadRequest", null);
+  }
+}
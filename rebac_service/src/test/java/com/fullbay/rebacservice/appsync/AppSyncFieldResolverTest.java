@@ -0,0 +1,157 @@
+package com.fullbay.rebacservice.appsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import com.fullbay.deadline.Deadline;
+import com.fullbay.deadline.DeadlineGuard;
+import com.fullbay.rebacservice.RelationResource;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class AppSyncFieldResolverTest {
+
+  @InjectMock RelationService relationService;
+
+  @Inject AppSyncFieldResolver fieldResolver;
+
+  @Inject DeadlineGuard deadlineGuard;
+
+  @Test
+  @DisplayName("resolve - createRelations with valid input - should create and return a message")
+  void resolve_createRelations_shouldCreateTuples() throws Exception {
+    // Arrange
+    Map<String, Object> tuple =
+        Map.of(
+            "resource",
+            "document:1",
+            "relationDefinition",
+            "owner",
+            "namespace",
+            "documents",
+            "target",
+            "user:alice");
+    BatchInvokeItem item =
+        new BatchInvokeItem(
+            "createRelations", Map.of("input", Map.of("relations", List.of(tuple))));
+
+    // Act
+    BatchInvokeResult result = fieldResolver.resolve(item);
+
+    // Assert
+    assertThat(result.getErrorType()).isNull();
+    assertThat(((RelationResource.SuccessResponse) result.getData()).message)
+        .isEqualTo("Created 1 relation tuple(s)");
+    verify(relationService)
+        .createRelations(
+            List.of(new RelationTuple("document:1", "owner", "documents", "user:alice")));
+  }
+
+  @Test
+  @DisplayName("resolve - createRelations with invalid input - should return BadRequest")
+  void resolve_createRelationsInvalid_shouldReturnBadRequest() throws Exception {
+    // Arrange
+    BatchInvokeItem item =
+        new BatchInvokeItem("createRelations", Map.of("input", Map.of("relations", List.of())));
+
+    // Act
+    BatchInvokeResult result = fieldResolver.resolve(item);
+
+    // Assert
+    assertThat(result.getErrorType()).isEqualTo("BadRequest");
+    assertThat(result.getErrorMessage()).startsWith("Validation failed");
+    verify(relationService, never()).createRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("handle - direct deleteRelations payload - should delete and write true")
+  void handle_deleteRelations_shouldWriteTrue() throws Exception {
+    // Arrange
+    String payload =
+        "{\"field\":\"deleteRelations\",\"arguments\":{\"input\":{\"relations\":[{"
+            + "\"resource\":\"document:1\",\"relationDefinition\":\"owner\","
+            + "\"namespace\":\"documents\",\"target\":\"user:alice\"}]}}}";
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // Act
+    fieldResolver.handle(payload.getBytes(StandardCharsets.UTF_8), output, null);
+
+    // Assert
+    assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("{\"data\":true}");
+    verify(relationService).deleteRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("resolve - deadline already passed - should return Timeout")
+  void resolve_deadlinePassed_shouldReturnTimeout() {
+    // Arrange
+    when(relationService.whoCanAccess("document:1", "viewer", "documents"))
+        .thenAnswer(
+            invocation -> deadlineGuard.call("whoCanAccess", () -> List.of("user:alice")));
+    BatchInvokeItem item =
+        new BatchInvokeItem(
+            "whoCanAccess",
+            Map.of(
+                "resource",
+                "document:1",
+                "relationDefinition",
+                "viewer",
+                "namespace",
+                "documents"));
+
+    // Act
+    BatchInvokeResult result = fieldResolver.resolve(item, Deadline.afterMillis(-1));
+
+    // Assert
+    assertThat(result.getErrorType()).isEqualTo("Timeout");
+    assertThat(result.getErrorMessage()).contains("whoCanAccess");
+  }
+
+  @Test
+  @DisplayName("handle - payload with null arguments - should write a BadRequest error")
+  void handle_nullArguments_shouldWriteBadRequest() throws Exception {
+    // Arrange
+    String payload = "{\"field\":\"whoCanAccess\",\"arguments\":null}";
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // Act
+    fieldResolver.handle(payload.getBytes(StandardCharsets.UTF_8), output, null);
+
+    // Assert
+    assertThat(output.toString(StandardCharsets.UTF_8)).contains("\"errorType\":\"BadRequest\"");
+  }
+
+  @Test
+  @DisplayName("resolve - unexpected runtime exception - should return InternalError")
+  void resolve_unexpectedException_shouldReturnInternalError() {
+    // Arrange
+    when(relationService.getTargetAccess("user:alice", null, null))
+        .thenThrow(new IllegalStateException("index closed"));
+
+    // Act
+    BatchInvokeResult result =
+        fieldResolver.resolve(
+            new BatchInvokeItem("getTargetAccess", Map.of("targetId", "user:alice")));
+
+    // Assert
+    assertThat(result.getErrorType()).isEqualTo("InternalError");
+    assertThat(result.getErrorMessage()).doesNotContain("index closed");
+  }
+}
@@ -0,0 +1,106 @@
+package com.fullbay.rebacservice.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import com.descope.exception.ServerCommonException;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ResourceBatchReaderTest {
+
+  private ResourceBatchReader reader;
+  private RelationService relationService;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    reader = new ResourceBatchReader();
+    reader.maxConcurrency = 2;
+    reader.relationService = relationService;
+    reader.relationIndex = new RelationIndex();
+  }
+
+  @AfterEach
+  void tearDown() {
+    reader.shutdown();
+  }
+
+  private static List<RelationTuple> tuples(String resource) {
+    return List.of(new RelationTuple(resource, "viewer", "documents", "user:alice"));
+  }
+
+  @Test
+  @DisplayName("resourceRelations - duplicate resources - should read each once in request order")
+  void resourceRelations_duplicateResources_shouldReadOnceInOrder() {
+    // Arrange
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenAnswer(invocation -> tuples(invocation.getArgument(0)));
+
+    // Act
+    Map<String, List<RelationTuple>> relations =
+        reader.resourceRelations(
+            List.of("document:3", "document:1", "document:3", "document:2"), null, null);
+
+    // Assert
+    assertThat(relations.keySet()).containsExactly("document:3", "document:1", "document:2");
+    assertThat(relations.get("document:1")).isEqualTo(tuples("document:1"));
+    verify(relationService, times(1)).getResourceRelations("document:3", null, null);
+  }
+
+  @Test
+  @DisplayName("resourceRelations - many resources - should bound concurrent reads")
+  void resourceRelations_manyResources_shouldBoundConcurrency() {
+    // Arrange
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenAnswer(
+            invocation -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(5);
+              inFlight.decrementAndGet();
+              return tuples(invocation.getArgument(0));
+            });
+    List<String> resources = IntStream.range(0, 20).mapToObj(i -> "document:" + i).toList();
+
+    // Act
+    Map<String, List<RelationTuple>> relations = reader.resourceRelations(resources, null, null);
+
+    // Assert
+    assertThat(relations).hasSize(20);
+    assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("resourceRelations - one read fails - should propagate the Descope error")
+  void resourceRelations_readFails_shouldPropagate() {
+    // Arrange
+    when(relationService.getResourceRelations(anyString(), isNull(), isNull()))
+        .thenAnswer(invocation -> tuples(invocation.getArgument(0)));
+    when(relationService.getResourceRelations("document:bad", null, null))
+        .thenThrow(ServerCommonException.invalidArgument("resource"));
+
+    // Act & Assert
+    assertThatThrownBy(
+            () -> reader.resourceRelations(List.of("document:1", "document:bad"), null, null))
+        .isInstanceOf(ServerCommonException.class);
+  }
+}
@@ -0,0 +1,100 @@
+package com.fullbay.rebacservice.changelog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileRelationChangeLogTest {
+
+  @TempDir Path directory;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static List<RelationTuple> tuples(int count) {
+    List<RelationTuple> tuples = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      tuples.add(new RelationTuple("document:" + i, "viewer", "documents", "user:ü" + i));
+    }
+    return tuples;
+  }
+
+  @Test
+  @DisplayName("readAfter - sequence past several index strides - should seek to that sequence")
+  void readAfter_sequencePastIndexStrides_shouldSeekToSequence() {
+    // Arrange
+    int total = FileRelationChangeLog.INDEX_STRIDE * 3 + 10;
+    FileRelationChangeLog log =
+        new FileRelationChangeLog(directory.resolve("changes.ndjson"), objectMapper);
+    log.append(RelationChange.Operation.CREATE, tuples(total));
+    long after = FileRelationChangeLog.INDEX_STRIDE * 2L + 5;
+
+    // Act
+    List<RelationChange> result = log.readAfter(after, 3);
+
+    // Assert
+    assertThat(result)
+        .extracting(RelationChange::getSequence)
+        .containsExactly(after + 1, after + 2, after + 3);
+    assertThat(result.get(0).getTuple().getResource()).isEqualTo("document:" + after);
+    assertThat(log.readAfter(total, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("replay - after restart - should stream every record once in order")
+  void replay_afterRestart_shouldStreamEveryRecordInOrder() {
+    // Arrange
+    Path file = directory.resolve("changes.ndjson");
+    int total = FileRelationChangeLog.INDEX_STRIDE + 7;
+    new FileRelationChangeLog(file, objectMapper)
+        .append(RelationChange.Operation.CREATE, tuples(total));
+    FileRelationChangeLog log = new FileRelationChangeLog(file, objectMapper);
+    log.append(RelationChange.Operation.DELETE, tuples(1));
+    List<Long> replayed = new ArrayList<>();
+
+    // Act
+    long last = log.replay(0, change -> replayed.add(change.getSequence()));
+
+    // Assert
+    assertThat(last).isEqualTo(total + 1L);
+    assertThat(replayed).hasSize(total + 1);
+    assertThat(replayed).isSorted();
+    assertThat(log.readAfter(total, 10).get(0).getOperation())
+        .isEqualTo(RelationChange.Operation.DELETE);
+  }
+
+  @Test
+  @DisplayName("constructor - torn final line - should truncate it and keep appending after it")
+  void constructor_tornFinalLine_shouldTruncateAndKeepAppending() throws Exception {
+    // Arrange
+    Path file = directory.resolve("changes.ndjson");
+    new FileRelationChangeLog(file, objectMapper)
+        .append(RelationChange.Operation.CREATE, tuples(2));
+    long intact = Files.size(file);
+    Files.write(
+        file, "{\"sequence\":3,\"oper".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    // Act
+    FileRelationChangeLog log = new FileRelationChangeLog(file, objectMapper);
+
+    // Assert
+    assertThat(Files.size(file)).isEqualTo(intact);
+    assertThat(log.latestSequence()).isEqualTo(2);
+    log.append(RelationChange.Operation.DELETE, tuples(1));
+    assertThat(new FileRelationChangeLog(file, objectMapper).readAfter(2, 10))
+        .singleElement()
+        .extracting(RelationChange::getOperation)
+        .isEqualTo(RelationChange.Operation.DELETE);
+  }
+}
@@ -0,0 +1,90 @@
+package com.fullbay.rebacservice.changelog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRelationChangeLogTest {
+
+  private static RelationTuple tuple(String resource) {
+    return new RelationTuple(resource, "viewer", "documents", "user:alice@example.com");
+  }
+
+  @Test
+  @DisplayName("append - multiple tuples - should assign contiguous sequences")
+  void append_multipleTuples_shouldAssignContiguousSequences() {
+    // Arrange
+    InMemoryRelationChangeLog log = new InMemoryRelationChangeLog(100);
+
+    // Act
+    List<RelationChange> first =
+        log.append(RelationChange.Operation.CREATE, Arrays.asList(tuple("a"), tuple("b")));
+    List<RelationChange> second =
+        log.append(RelationChange.Operation.DELETE, Arrays.asList(tuple("a")));
+
+    // Assert
+    assertThat(first).extracting(RelationChange::getSequence).containsExactly(1L, 2L);
+    assertThat(second.get(0).getSequence()).isEqualTo(3L);
+    assertThat(second.get(0).getOperation()).isEqualTo(RelationChange.Operation.DELETE);
+    assertThat(log.latestSequence()).isEqualTo(3L);
+    assertThat(log.earliestSequence()).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("readAfter - reader behind - should return next records up to limit")
+  void readAfter_readerBehind_shouldReturnNextRecords() {
+    // Arrange
+    InMemoryRelationChangeLog log = new InMemoryRelationChangeLog(100);
+    log.append(
+        RelationChange.Operation.CREATE, Arrays.asList(tuple("a"), tuple("b"), tuple("c")));
+
+    // Act
+    List<RelationChange> result = log.readAfter(1, 1);
+
+    // Assert
+    assertThat(result).hasSize(1);
+    assertThat(result.get(0).getTuple().getResource()).isEqualTo("b");
+    assertThat(log.readAfter(3, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("replay - from snapshot sequence - should apply remaining records in order")
+  void replay_fromSnapshotSequence_shouldApplyInOrder() {
+    // Arrange
+    InMemoryRelationChangeLog log = new InMemoryRelationChangeLog(100);
+    log.append(
+        RelationChange.Operation.CREATE, Arrays.asList(tuple("a"), tuple("b"), tuple("c")));
+    List<String> applied = new ArrayList<>();
+
+    // Act
+    long last = log.replay(1, change -> applied.add(change.getTuple().getResource()));
+
+    // Assert
+    assertThat(applied).containsExactly("b", "c");
+    assertThat(last).isEqualTo(3L);
+  }
+
+  @Test
+  @DisplayName("append - exceeds retention - should drop oldest records")
+  void append_exceedsRetention_shouldDropOldestRecords() {
+    // Arrange
+    InMemoryRelationChangeLog log = new InMemoryRelationChangeLog(10);
+
+    // Act
+    for (int i = 0; i < 11; i++) {
+      log.append(RelationChange.Operation.CREATE, Arrays.asList(tuple("r" + i)));
+    }
+
+    // Assert
+    assertThat(log.latestSequence()).isEqualTo(11L);
+    assertThat(log.earliestSequence()).isGreaterThan(1L);
+    assertThat(log.readAfter(0, 100).get(0).getSequence()).isEqualTo(log.earliestSequence());
+  }
+}
@@ -0,0 +1,130 @@
+package com.fullbay.rebacservice.decision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DecisionCacheTest {
+
+  private static final DecisionKey KEY =
+      new DecisionKey("document:1", "viewer", "documents", "user:alice");
+
+  private DecisionCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = newCache(16, 1 << 20, 60);
+  }
+
+  private static DecisionCache newCache(int segments, long maxWeight, long ttlSeconds) {
+    DecisionCache cache = new DecisionCache();
+    cache.enabled = true;
+    cache.segmentCount = segments;
+    cache.maxWeight = maxWeight;
+    cache.ttlSeconds = ttlSeconds;
+    cache.generationSlots = 64;
+    cache.init();
+    return cache;
+  }
+
+  @Test
+  @DisplayName("get - cached decision - should return it")
+  void get_cachedDecision_shouldReturnIt() {
+    // Act
+    cache.put(KEY, cache.stamp(KEY), true);
+
+    // Assert
+    assertThat(cache.get(KEY)).contains(true);
+    assertThat(cache.get(new DecisionKey("document:1", "viewer", "documents", "user:bob")))
+        .isEmpty();
+  }
+
+  @Test
+  @DisplayName("get - expired decision - should miss")
+  void get_expiredDecision_shouldMiss() {
+    // Arrange
+    cache = newCache(16, 1 << 20, 0);
+
+    // Act
+    cache.put(KEY, cache.stamp(KEY), true);
+
+    // Assert
+    assertThat(cache.get(KEY)).isEmpty();
+    assertThat(cache.weight()).isZero();
+  }
+
+  @Test
+  @DisplayName("invalidate - write on resource or target - should drop matching decisions")
+  void invalidate_resourceOrTarget_shouldMiss() {
+    // Arrange
+    DecisionKey other = new DecisionKey("document:2", "viewer", "documents", "user:bob");
+    cache.put(KEY, cache.stamp(KEY), true);
+    cache.put(other, cache.stamp(other), false);
+
+    // Act
+    cache.invalidate(List.of(new RelationTuple("document:1", "owner", "documents", "user:carol")));
+
+    // Assert
+    assertThat(cache.get(KEY)).isEmpty();
+    assertThat(cache.get(other)).contains(false);
+
+    cache.put(KEY, cache.stamp(KEY), true);
+    cache.invalidateTarget("user:alice");
+    assertThat(cache.get(KEY)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("put - write raced with the check - should not serve the stale decision")
+  void put_invalidatedDuringCheck_shouldMiss() {
+    // Arrange
+    DecisionCache.Stamp stamp = cache.stamp(KEY);
+    cache.invalidateResource("document:1");
+
+    // Act
+    cache.put(KEY, stamp, false);
+
+    // Assert
+    assertThat(cache.get(KEY)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("put - weight limit reached - should evict least recently used decisions")
+  void put_overWeight_shouldEvictLeastRecentlyUsed() {
+    // Arrange
+    DecisionKey first = new DecisionKey("document:1", "viewer", "documents", "user:a");
+    DecisionKey second = new DecisionKey("document:2", "viewer", "documents", "user:b");
+    DecisionKey third = new DecisionKey("document:3", "viewer", "documents", "user:c");
+    cache = newCache(1, first.weight() * 2L, 60);
+    cache.put(first, cache.stamp(first), true);
+    cache.put(second, cache.stamp(second), true);
+    cache.get(first);
+
+    // Act
+    cache.put(third, cache.stamp(third), true);
+
+    // Assert
+    assertThat(cache.get(first)).contains(true);
+    assertThat(cache.get(second)).isEmpty();
+    assertThat(cache.get(third)).contains(true);
+    assertThat(cache.weight()).isLessThanOrEqualTo(first.weight() * 2L);
+  }
+
+  @Test
+  @DisplayName("get - cache disabled - should never return a decision")
+  void get_disabled_shouldMiss() {
+    // Arrange
+    cache.enabled = false;
+
+    // Act
+    cache.put(KEY, cache.stamp(KEY), true);
+
+    // Assert
+    assertThat(cache.get(KEY)).isEmpty();
+  }
+}
@@ -0,0 +1,138 @@
+package com.fullbay.rebacservice.expand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fullbay.rebacservice.model.ExpandNode;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RelationExpanderTest {
+
+  private RelationExpander expander;
+  private RelationService relationService;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    expander = new RelationExpander();
+    expander.maxDepth = 8;
+    expander.maxNodes = 500;
+    expander.relationService = relationService;
+  }
+
+  private void given(String resource, String relation, String namespace, String... targets) {
+    List<RelationTuple> tuples =
+        Arrays.stream(targets)
+            .map(t -> new RelationTuple(resource, relation, namespace, t))
+            .toList();
+    when(relationService.getResourceRelations(resource, namespace, relation)).thenReturn(tuples);
+  }
+
+  @Test
+  @DisplayName("expand - nested usersets - should return targets and userset subtrees")
+  void expand_nestedUsersets_shouldBuildTree() {
+    // Arrange
+    given("document:1", "viewer", "documents", "user:alice", "group:eng#member");
+    given("group:eng", "member", null, "user:bob", "group:infra#member");
+    given("group:infra", "member", null, "user:carol");
+
+    // Act
+    ExpandNode root = expander.expand("document:1", "viewer", "documents");
+
+    // Assert
+    assertThat(root.getTargets()).containsExactly("user:alice");
+    ExpandNode eng = root.getUsersets().get(0);
+    assertThat(eng.getResource()).isEqualTo("group:eng");
+    assertThat(eng.getNamespace()).isNull();
+    assertThat(eng.getTargets()).containsExactly("user:bob");
+    assertThat(eng.getUsersets().get(0).getTargets()).containsExactly("user:carol");
+    assertThat(root.getSize()).isEqualTo(3);
+    assertThat(root.isComplete()).isTrue();
+  }
+
+  @Test
+  @DisplayName("expand - shared userset - should read its listing once")
+  void expand_sharedUserset_shouldMemoize() {
+    // Arrange
+    given("document:1", "viewer", "documents", "group:a#member", "group:b#member");
+    given("group:a", "member", null, "group:shared#member");
+    given("group:b", "member", null, "group:shared#member");
+    given("group:shared", "member", null, "user:alice");
+
+    // Act
+    ExpandNode root = expander.expand("document:1", "viewer", "documents");
+
+    // Assert
+    assertThat(root.getUsersets().get(0).getUsersets().get(0))
+        .isSameAs(root.getUsersets().get(1).getUsersets().get(0));
+    assertThat(root.getSize()).isEqualTo(5);
+    verify(relationService, times(1)).getResourceRelations("group:shared", null, "member");
+  }
+
+  @Test
+  @DisplayName("expand - cyclic usersets - should stop at the repeated userset")
+  void expand_cycle_shouldMarkCycle() {
+    // Arrange
+    given("document:1", "viewer", "documents", "group:a#member");
+    given("group:a", "member", null, "group:b#member");
+    given("group:b", "member", null, "group:a#member", "user:alice");
+
+    // Act
+    ExpandNode root = expander.expand("document:1", "viewer", "documents");
+
+    // Assert
+    ExpandNode b = root.getUsersets().get(0).getUsersets().get(0);
+    assertThat(b.getTargets()).containsExactly("user:alice");
+    assertThat(b.getUsersets().get(0).getTruncated()).isEqualTo(ExpandNode.Truncation.CYCLE);
+    assertThat(root.isComplete()).isTrue();
+    verify(relationService, times(1)).getResourceRelations("group:a", null, "member");
+  }
+
+  @Test
+  @DisplayName("expand - deeper than the limit - should truncate without reading further")
+  void expand_depthLimit_shouldTruncate() {
+    // Arrange
+    expander.maxDepth = 1;
+    given("document:1", "viewer", "documents", "group:a#member");
+    given("group:a", "member", null, "group:b#member");
+
+    // Act
+    ExpandNode root = expander.expand("document:1", "viewer", "documents");
+
+    // Assert
+    ExpandNode b = root.getUsersets().get(0).getUsersets().get(0);
+    assertThat(b.getTruncated()).isEqualTo(ExpandNode.Truncation.DEPTH);
+    assertThat(root.isComplete()).isFalse();
+    verify(relationService, never()).getResourceRelations("group:b", null, "member");
+  }
+
+  @Test
+  @DisplayName("expand - more usersets than the node limit - should keep targets and truncate")
+  void expand_sizeLimit_shouldTruncate() {
+    // Arrange
+    expander.maxNodes = 2;
+    given("document:1", "viewer", "documents", "group:a#member", "group:b#member", "user:alice");
+    given("group:a", "member", null, "user:bob");
+
+    // Act
+    ExpandNode root = expander.expand("document:1", "viewer", "documents");
+
+    // Assert
+    assertThat(root.getTargets()).containsExactly("user:alice");
+    assertThat(root.getUsersets()).hasSize(1);
+    assertThat(root.getTruncated()).isEqualTo(ExpandNode.Truncation.SIZE);
+    assertThat(root.isComplete()).isFalse();
+  }
+}
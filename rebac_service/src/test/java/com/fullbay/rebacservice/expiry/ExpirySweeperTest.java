@@ -0,0 +1,141 @@
+package com.fullbay.rebacservice.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ExpirySweeperTest {
+
+  private ExpirySweeper sweeper;
+  private TupleExpiryService expiry;
+  private RelationService relationService;
+  private DecisionCache decisionCache;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    decisionCache = mock(DecisionCache.class);
+    expiry = new TupleExpiryService();
+    expiry.tickMillis = 1000;
+    expiry.changeLog = new InMemoryRelationChangeLog(1000);
+    expiry.lambdaEnvironment = new LambdaEnvironment();
+    expiry.init();
+    sweeper = new ExpirySweeper();
+    sweeper.tickMillis = 1000;
+    sweeper.batchSize = 2;
+    sweeper.expiry = expiry;
+    sweeper.relationService = relationService;
+    sweeper.decisionCache = decisionCache;
+    // Deleting through the service cancels the schedules, as RelationService does
+    doAnswer(
+            invocation -> {
+              expiry.cancel(invocation.getArgument(0));
+              return null;
+            })
+        .when(relationService)
+        .deleteRelations(anyList());
+  }
+
+  private static RelationTuple tuple(String target, Instant expiresAt) {
+    return new RelationTuple("document:123", "viewer", "documents", target, expiresAt);
+  }
+
+  @Test
+  @DisplayName("sweep - tuples come due - should invalidate and delete them in batches")
+  void sweep_tuplesComeDue_shouldInvalidateAndDeleteInBatches() {
+    // Arrange
+    long now = System.currentTimeMillis();
+    Instant soon = Instant.ofEpochMilli(now + 2000);
+    expiry.schedule(
+        List.of(
+            tuple("user:a", soon),
+            tuple("user:b", soon),
+            tuple("user:c", soon),
+            tuple("user:later", Instant.ofEpochMilli(now + 3_600_000))));
+
+    // Act
+    int early = sweeper.sweep(now + 1000);
+    int deleted = sweeper.sweep(now + 5000);
+
+    // Assert
+    assertThat(early).isZero();
+    assertThat(deleted).isEqualTo(3);
+    verify(decisionCache).invalidate(anyList());
+    verify(relationService, times(2)).deleteRelations(anyList());
+    assertThat(expiry.isTracking()).isTrue();
+  }
+
+  @Test
+  @DisplayName("sweep - delete fails - should keep tuples pending and retry")
+  void sweep_deleteFails_shouldRetryNextTick() {
+    // Arrange
+    long now = System.currentTimeMillis();
+    RelationTuple expiring = tuple("user:a", Instant.ofEpochMilli(now + 1000));
+    expiry.schedule(List.of(expiring));
+    doThrow(new RuntimeException("Descope unavailable"))
+        .doAnswer(
+            invocation -> {
+              expiry.cancel(invocation.getArgument(0));
+              return null;
+            })
+        .when(relationService)
+        .deleteRelations(anyList());
+
+    // Act
+    int failed = sweeper.sweep(now + 2000);
+    boolean pending = expiry.isExpired(expiring);
+    int retried = sweeper.sweep(now + 3000);
+
+    // Assert
+    assertThat(failed).isZero();
+    assertThat(pending).isTrue();
+    assertThat(retried).isEqualTo(1);
+    assertThat(expiry.isTracking()).isFalse();
+  }
+
+  @Test
+  @DisplayName("schedule - tuple created again without expiry - should no longer expire")
+  void schedule_recreatedWithoutExpiry_shouldNotExpire() {
+    // Arrange
+    long now = System.currentTimeMillis();
+    expiry.schedule(List.of(tuple("user:a", Instant.ofEpochMilli(now + 1000))));
+
+    // Act
+    expiry.schedule(List.of(tuple("user:a", null)));
+    int deleted = sweeper.sweep(now + 5000);
+
+    // Assert
+    assertThat(deleted).isZero();
+    assertThat(expiry.isTracking()).isFalse();
+    verify(relationService, never()).deleteRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("start - schedule not durable - should not start the sweep")
+  void start_scheduleNotDurable_shouldNotSweep() {
+    // Act
+    sweeper.start(null);
+    sweeper.shutdown();
+
+    // Assert
+    verify(relationService, never()).deleteRelations(anyList());
+  }
+}
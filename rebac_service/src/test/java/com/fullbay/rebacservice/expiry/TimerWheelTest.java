@@ -0,0 +1,97 @@
+package com.fullbay.rebacservice.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+  private static final long START = 1_000_000L;
+
+  @Test
+  @DisplayName("advance - deadline reached - should report item once")
+  void advance_deadlineReached_shouldReportOnce() {
+    // Arrange
+    TimerWheel<String> wheel = new TimerWheel<>(10, START);
+    wheel.schedule("a", START + 25);
+
+    // Act & Assert
+    assertThat(wheel.advance(START + 20)).isEmpty();
+    assertThat(wheel.advance(START + 30)).containsExactly("a");
+    assertThat(wheel.advance(START + 100)).isEmpty();
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("advance - deadlines across levels - should report each in its tick")
+  void advance_deadlinesAcrossLevels_shouldReportEachInItsTick() {
+    // Arrange
+    TimerWheel<Long> wheel = new TimerWheel<>(1, START);
+    long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_000};
+    for (long delay : delays) {
+      wheel.schedule(delay, START + delay);
+    }
+
+    // Act
+    List<Long> seen = new ArrayList<>();
+    for (long now = START; now <= START + 300_000; now++) {
+      for (Long delay : wheel.advance(now)) {
+        assertThat(START + delay).isEqualTo(now);
+        seen.add(delay);
+      }
+    }
+
+    // Assert
+    assertThat(seen)
+        .containsExactly(
+            1L, 63L, 64L, 65L, 4095L, 4096L, 4097L, 262_143L, 262_144L, 300_000L);
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("advance - deadline beyond wheel span - should report from overflow")
+  void advance_beyondWheelSpan_shouldReportFromOverflow() {
+    // Arrange
+    TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+    long span = 1L << (TimerWheel.SLOT_BITS * TimerWheel.LEVELS);
+    wheel.schedule("far", span + 5);
+
+    // Act & Assert
+    assertThat(wheel.advance(span + 4)).isEmpty();
+    assertThat(wheel.advance(span + 5)).containsExactly("far");
+  }
+
+  @Test
+  @DisplayName("cancel - scheduled item - should never report it")
+  void cancel_scheduledItem_shouldNeverReport() {
+    // Arrange
+    TimerWheel<String> wheel = new TimerWheel<>(10, START);
+    TimerWheel.Timer<String> timer = wheel.schedule("a", START + 5000);
+    wheel.schedule("b", START + 5000);
+
+    // Act
+    wheel.cancel(timer);
+    wheel.cancel(timer);
+
+    // Assert
+    assertThat(wheel.size()).isEqualTo(1);
+    assertThat(wheel.advance(START + 10_000)).containsExactly("b");
+  }
+
+  @Test
+  @DisplayName("schedule - deadline already passed - should report on next advance")
+  void schedule_deadlinePassed_shouldReportOnNextAdvance() {
+    // Arrange
+    TimerWheel<String> wheel = new TimerWheel<>(1000, START);
+
+    // Act
+    wheel.schedule("late", START - 5000);
+
+    // Assert
+    assertThat(wheel.advance(START)).containsExactly("late");
+  }
+}
@@ -0,0 +1,114 @@
+package com.fullbay.rebacservice.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.changelog.FileRelationChangeLog;
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TupleExpiryServiceTest {
+
+  @TempDir Path directory;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private TupleExpiryService expiry;
+  private RelationChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    changeLog = new FileRelationChangeLog(directory.resolve("changes.ndjson"), objectMapper);
+    expiry = new TupleExpiryService();
+    expiry.tickMillis = 1000;
+    expiry.changeLog = changeLog;
+    expiry.lambdaEnvironment = new LambdaEnvironment();
+    expiry.init();
+  }
+
+  private static RelationTuple tuple(String target, Instant expiresAt) {
+    return new RelationTuple("document:123", "viewer", "documents", target, expiresAt);
+  }
+
+  @Test
+  @DisplayName("withoutExpired - mixed listing - should hide expired and fill in expiry")
+  void withoutExpired_mixedListing_shouldHideExpiredAndFillInExpiry() {
+    // Arrange
+    Instant later = Instant.now().plusSeconds(3600);
+    expiry.schedule(
+        List.of(
+            tuple("user:gone", Instant.now().minusSeconds(1)), tuple("user:expiring", later)));
+    List<RelationTuple> listed =
+        List.of(tuple("user:gone", null), tuple("user:expiring", null), tuple("user:kept", null));
+
+    // Act
+    List<RelationTuple> live = expiry.withoutExpired(listed);
+
+    // Assert
+    assertThat(live)
+        .extracting(RelationTuple::getTarget)
+        .containsExactly("user:expiring", "user:kept");
+    assertThat(live.get(0).getExpiresAt()).isEqualTo(later);
+    assertThat(live.get(1).getExpiresAt()).isNull();
+  }
+
+  @Test
+  @DisplayName("start - change log with expiring tuples - should rebuild schedules")
+  void start_changeLogWithExpiringTuples_shouldRebuildSchedules() {
+    // Arrange
+    Instant past = Instant.now().minusSeconds(1);
+    changeLog.append(
+        RelationChange.Operation.CREATE, List.of(tuple("user:a", past), tuple("user:b", past)));
+    changeLog.append(RelationChange.Operation.DELETE, List.of(tuple("user:b", null)));
+
+    // Act
+    expiry.start(null);
+
+    // Assert
+    assertThat(expiry.isExpired(tuple("user:a", null))).isTrue();
+    assertThat(expiry.isExpired(tuple("user:b", null))).isFalse();
+  }
+
+  @Test
+  @DisplayName("ensureSupported - on Lambda - should refuse tuples with an expiry")
+  void ensureSupported_onLambda_shouldRefuseExpiringTuples() {
+    // Arrange
+    expiry.lambdaEnvironment = mock(LambdaEnvironment.class);
+    when(expiry.lambdaEnvironment.isLambda()).thenReturn(true);
+    List<RelationTuple> expiring = List.of(tuple("user:a", Instant.now().plusSeconds(60)));
+
+    // Act & Assert
+    assertThatThrownBy(() -> expiry.ensureSupported(expiring))
+        .isInstanceOf(FeatureUnavailableException.class);
+    expiry.ensureSupported(List.of(tuple("user:a", null)));
+  }
+
+  @Test
+  @DisplayName("ensureSupported - in-memory change log - should refuse tuples with an expiry")
+  void ensureSupported_inMemoryChangeLog_shouldRefuseExpiringTuples() {
+    // Arrange
+    expiry.changeLog = new InMemoryRelationChangeLog(1000);
+    List<RelationTuple> expiring = List.of(tuple("user:a", Instant.now().plusSeconds(60)));
+
+    // Act & Assert
+    assertThat(expiry.isDurable()).isFalse();
+    assertThatThrownBy(() -> expiry.ensureSupported(expiring))
+        .isInstanceOf(FeatureUnavailableException.class);
+  }
+}
@@ -0,0 +1,186 @@
+package com.fullbay.rebacservice.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RelationExporterTest {
+
+  private RelationExporter exporter;
+  private RelationService relationService;
+  private InMemoryRelationChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    changeLog = new InMemoryRelationChangeLog(1000);
+    exporter = new RelationExporter();
+    exporter.maxConcurrency = 2;
+    exporter.maxResources = 100;
+    exporter.relationService = relationService;
+    exporter.relationIndex = new RelationIndex();
+    exporter.changeLog = changeLog;
+    exporter.objectMapper = new ObjectMapper();
+  }
+
+  @AfterEach
+  void tearDown() {
+    exporter.shutdown();
+  }
+
+  private void given(String resource, String... targets) {
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(new RelationTuple(resource, "viewer", "documents", targets[0])));
+    when(relationService.getResourceRelations(resource, "documents", null))
+        .thenReturn(
+            List.of(targets).stream()
+                .map(t -> new RelationTuple(resource, "viewer", "documents", t))
+                .toList());
+  }
+
+  private String write(RelationExporter.Page page, RelationExporter.Format format)
+      throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    exporter.write(page, "documents", format, output);
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  @DisplayName("page - limit below known resources - should return sorted slice and cursor")
+  void page_limitBelowKnownResources_shouldReturnSliceAndCursor() {
+    // Arrange
+    given("document:3", "user:c");
+    given("document:1", "user:a");
+    given("document:2", "user:b");
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(new RelationTuple("folder:9", "viewer", "folders", "user:z")));
+
+    // Act
+    RelationExporter.Page first = exporter.page("documents", null, null, 2);
+    RelationExporter.Page second = exporter.page("documents", null, first.nextCursor(), 2);
+
+    // Assert
+    assertThat(first.resources()).containsExactly("document:1", "document:2");
+    assertThat(first.nextCursor()).isEqualTo("document:2");
+    assertThat(second.resources()).containsExactly("document:3");
+    assertThat(second.nextCursor()).isNull();
+    assertThat(first.complete()).isFalse();
+  }
+
+  @Test
+  @DisplayName("page - named resources - should page them in order and mark the page complete")
+  void page_namedResources_shouldPageThemAndMarkComplete() {
+    // Arrange
+    given("document:1", "user:a");
+
+    // Act
+    RelationExporter.Page page =
+        exporter.page("documents", List.of("document:9", "document:5", "document:7"), null, 2);
+
+    // Assert
+    assertThat(page.resources()).containsExactly("document:5", "document:7");
+    assertThat(page.nextCursor()).isEqualTo("document:7");
+    assertThat(page.complete()).isTrue();
+  }
+
+  @Test
+  @DisplayName("resources then read - resource prefix - should read only matching resources")
+  void resourcesThenRead_resourcePrefix_shouldReadOnlyMatchingResources() {
+    // Arrange
+    given("tenant-a/document:1", "user:a", "user:b");
+    given("tenant-a/document:2", "user:c");
+    given("tenant-b/document:1", "user:d");
+
+    // Act
+    List<String> resources = List.copyOf(exporter.resources("documents", "tenant-a/"));
+    List<RelationTuple> tuples = exporter.read(resources, "documents");
+
+    // Assert
+    assertThat(resources).containsExactly("tenant-a/document:1", "tenant-a/document:2");
+    assertThat(tuples)
+        .extracting(RelationTuple::getTarget)
+        .containsExactly("user:a", "user:b", "user:c");
+  }
+
+  @Test
+  @DisplayName("write - CSV format - should write header and rows in resource order")
+  void write_csvFormat_shouldWriteRowsInResourceOrder() throws IOException {
+    // Arrange
+    given("document:1", "user:a", "user:\"quoted\",b");
+    given("document:2", "user:b");
+    given("document:3", "user:c");
+
+    // Act
+    String csv = write(exporter.page("documents", null, null, null), RelationExporter.Format.CSV);
+
+    // Assert
+    assertThat(csv)
+        .isEqualTo(
+            "resource,relationDefinition,namespace,target,expiresAt\n"
+                + "document:1,viewer,documents,user:a,\n"
+                + "document:1,viewer,documents,\"user:\"\"quoted\"\",b\",\n"
+                + "document:2,viewer,documents,user:b,\n"
+                + "document:3,viewer,documents,user:c,\n");
+  }
+
+  @Test
+  @DisplayName("write - CSV format with expiring tuple - should write expiresAt for import")
+  void write_csvWithExpiringTuple_shouldWriteExpiresAt() throws IOException {
+    // Arrange
+    Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+    when(relationService.getResourceRelations("document:1", "documents", null))
+        .thenReturn(
+            List.of(new RelationTuple("document:1", "viewer", "documents", "user:a", expiresAt)));
+
+    // Act
+    String csv =
+        write(
+            exporter.page("documents", List.of("document:1"), null, null),
+            RelationExporter.Format.CSV);
+
+    // Assert
+    assertThat(csv.split("\n"))
+        .containsExactly(
+            "resource,relationDefinition,namespace,target,expiresAt",
+            "document:1,viewer,documents,user:a,2030-01-01T00:00:00Z");
+  }
+
+  @Test
+  @DisplayName("write - NDJSON format - should write one tuple per line")
+  void write_ndjsonFormat_shouldWriteOneTuplePerLine() throws IOException {
+    // Arrange
+    given("document:1", "user:a", "user:b");
+
+    // Act
+    String ndjson =
+        write(exporter.page("documents", null, null, null), RelationExporter.Format.NDJSON);
+
+    // Assert
+    assertThat(ndjson.split("\n"))
+        .containsExactly(
+            "{\"resource\":\"document:1\",\"relationDefinition\":\"viewer\","
+                + "\"namespace\":\"documents\",\"target\":\"user:a\"}",
+            "{\"resource\":\"document:1\",\"relationDefinition\":\"viewer\","
+                + "\"namespace\":\"documents\",\"target\":\"user:b\"}");
+  }
+}
@@ -0,0 +1,149 @@
+package com.fullbay.rebacservice.graph;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+/**
+ * Compares the heap and GC cost of {@link AdjacencyStore} with a boxed baseline holding the same
+ * tuples in {@code Map<String, List<RelationTuple>>} indexes by resource and by target.
+ *
+ * <p>Run with {@code ./gradlew adjacencyBenchmark [-Ptuples=N]}. For each structure it reports
+ * the heap retained after a full collection, the collector time spent while loading, the time of
+ * a full collection with the structure live, and the average lookup latency. Not part of the test
+ * suite.
+ */
+public final class AdjacencyStoreBenchmark {
+
+  private static final int LOOKUPS = 200_000;
+
+  private static Object retained;
+
+  private AdjacencyStoreBenchmark() {}
+
+  public static void main(String[] args) throws InterruptedException {
+    int tuples = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int resources = Math.max(1, tuples / 20);
+    int targets = Math.max(1, tuples / 50);
+    System.out.printf(
+        "%,d tuples over %,d resources and %,d targets in 4 relations%n",
+        tuples, resources, targets);
+    System.out.printf(
+        "%-10s %12s %14s %14s %14s%n",
+        "structure", "heap MiB", "load GC ms", "full GC ms", "lookup ns");
+    run("boxed", tuples, resources, targets, false);
+    run("csr", tuples, resources, targets, true);
+  }
+
+  private static void run(String name, int tuples, int resources, int targets, boolean csr)
+      throws InterruptedException {
+    long baseline = settledHeap();
+    long gcBefore = gcMillis();
+    Lookup lookup =
+        csr ? loadStore(tuples, resources, targets) : loadBoxed(tuples, resources, targets);
+    long loadGc = gcMillis() - gcBefore;
+    long heap = settledHeap() - baseline;
+
+    long fullGcStart = System.nanoTime();
+    System.gc();
+    long fullGc = (System.nanoTime() - fullGcStart) / 1_000_000;
+
+    Random random = new Random(7);
+    long found = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++) {
+      found += lookup.resources(relation(i), "user:" + random.nextInt(targets));
+    }
+    long lookupNanos = (System.nanoTime() - start) / LOOKUPS;
+
+    System.out.printf(
+        "%-10s %12.1f %14d %14d %14d%n",
+        name, heap / (1024.0 * 1024.0), loadGc, fullGc, lookupNanos);
+    if (found < 0) {
+      System.out.println(found);
+    }
+    retained = null;
+  }
+
+  /** Counts the resources a target holds a relation on. */
+  private interface Lookup {
+    int resources(String relationDefinition, String target);
+  }
+
+  private static Lookup loadStore(int tuples, int resources, int targets) {
+    AdjacencyStore store = new AdjacencyStore();
+    store.enabled = true;
+    store.maxDelta = 65536;
+    // Tuples are applied directly rather than through the log, which stays empty
+    store.changeLog = new InMemoryRelationChangeLog(1);
+    for (int i = 0; i < tuples; i++) {
+      RelationTuple tuple = tuple(i, resources, targets);
+      store.apply(new RelationChange(i + 1, RelationChange.Operation.CREATE, tuple));
+    }
+    store.compact();
+    retained = store;
+    return (relation, target) -> store.resources("documents", relation, target).size();
+  }
+
+  private static Lookup loadBoxed(int tuples, int resources, int targets) {
+    Map<String, List<RelationTuple>> byResource = new HashMap<>();
+    Map<String, List<RelationTuple>> byTarget = new HashMap<>();
+    for (int i = 0; i < tuples; i++) {
+      RelationTuple tuple = tuple(i, resources, targets);
+      byResource.computeIfAbsent(tuple.getResource(), k -> new ArrayList<>()).add(tuple);
+      byTarget.computeIfAbsent(tuple.getTarget(), k -> new ArrayList<>()).add(tuple);
+    }
+    retained = List.of(byResource, byTarget);
+    return (relation, target) -> {
+      int count = 0;
+      for (RelationTuple tuple : byTarget.getOrDefault(target, List.of())) {
+        if (relation.equals(tuple.getRelationDefinition())) {
+          count++;
+        }
+      }
+      return count;
+    };
+  }
+
+  private static RelationTuple tuple(int i, int resources, int targets) {
+    // The k-th tuple of a resource points at the k-th target after it, so none repeats
+    int resource = i % resources;
+    int k = i / resources;
+    return new RelationTuple(
+        "document:" + resource, relation(k), "documents", "user:" + ((resource + k) % targets));
+  }
+
+  private static String relation(int i) {
+    return switch (i & 3) {
+      case 0 -> "viewer";
+      case 1 -> "editor";
+      case 2 -> "commenter";
+      default -> "owner";
+    };
+  }
+
+  private static long settledHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long gcMillis() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total += Math.max(0, bean.getCollectionTime());
+    }
+    return total;
+  }
+}
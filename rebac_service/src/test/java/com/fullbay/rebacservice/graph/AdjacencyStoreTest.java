@@ -0,0 +1,259 @@
+package com.fullbay.rebacservice.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.model.SetExpression;
+import com.fullbay.rebacservice.model.SetExpression.Operator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdjacencyStoreTest {
+
+  private AdjacencyStore store;
+  private InMemoryRelationChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    changeLog = new InMemoryRelationChangeLog(1000);
+    store = new AdjacencyStore();
+    store.enabled = true;
+    store.maxDelta = 1000;
+    store.maxQueryNodes = 8;
+    store.maxQueryResults = 100;
+    store.changeLog = changeLog;
+  }
+
+  private static RelationTuple viewer(String resource, String target) {
+    return new RelationTuple(resource, "viewer", "documents", target);
+  }
+
+  @Test
+  @DisplayName("contains - tuples created and deleted - should follow the change log")
+  void contains_tuplesCreatedAndDeleted_shouldFollowChangeLog() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(viewer("document:1", "user:alice"), viewer("document:1", "user:bob")));
+    changeLog.append(RelationChange.Operation.DELETE, List.of(viewer("document:1", "user:bob")));
+
+    // Act
+    boolean alice = store.contains("documents", "viewer", "document:1", "user:alice");
+    boolean bob = store.contains("documents", "viewer", "document:1", "user:bob");
+    boolean otherRelation = store.contains("documents", "owner", "document:1", "user:alice");
+
+    // Assert
+    assertThat(alice).isTrue();
+    assertThat(bob).isFalse();
+    assertThat(otherRelation).isFalse();
+  }
+
+  @Test
+  @DisplayName("covers - resources with and without held tuples - should only cover held ones")
+  void covers_resourcesWithAndWithoutTuples_shouldOnlyCoverHeldOnes() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(viewer("document:1", "user:alice"), viewer("document:2", "user:bob")));
+    changeLog.append(RelationChange.Operation.DELETE, List.of(viewer("document:2", "user:bob")));
+
+    // Act & Assert
+    assertThat(store.covers("documents", "viewer", "document:1")).isTrue();
+    assertThat(store.covers("documents", "viewer", "document:2")).isFalse();
+    assertThat(store.covers("documents", "viewer", "document:3")).isFalse();
+    assertThat(store.covers("documents", "owner", "document:1")).isFalse();
+  }
+
+  @Test
+  @DisplayName("targets and resources - pending and compacted edges - should list both directions")
+  void targetsAndResources_pendingAndCompactedEdges_shouldListBothDirections() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(
+            viewer("document:1", "user:carol"),
+            viewer("document:1", "user:alice"),
+            viewer("document:2", "user:alice")));
+    store.compact();
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(viewer("document:1", "user:bob"), viewer("document:3", "user:alice")));
+    changeLog.append(RelationChange.Operation.DELETE, List.of(viewer("document:2", "user:alice")));
+
+    // Act
+    List<String> targets = store.targets("documents", "viewer", "document:1");
+    List<String> resources = store.resources("documents", "viewer", "user:alice");
+
+    // Assert
+    assertThat(targets).containsExactlyInAnyOrder("user:alice", "user:bob", "user:carol");
+    assertThat(resources).containsExactlyInAnyOrder("document:1", "document:3");
+    assertThat(store.stats().pending()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("targets - pending addition deleted before compaction - should drop it from its row")
+  void targets_pendingAdditionDeleted_shouldDropFromRow() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(
+            viewer("document:1", "user:alice"),
+            viewer("document:1", "user:bob"),
+            viewer("document:2", "user:bob")));
+    changeLog.append(RelationChange.Operation.DELETE, List.of(viewer("document:1", "user:bob")));
+
+    // Act
+    List<String> first = store.targets("documents", "viewer", "document:1");
+    List<String> second = store.targets("documents", "viewer", "document:2");
+    List<String> bob = store.resources("documents", "viewer", "user:bob");
+
+    // Assert
+    assertThat(first).containsExactly("user:alice");
+    assertThat(second).containsExactly("user:bob");
+    assertThat(bob).containsExactly("document:2");
+  }
+
+  @Test
+  @DisplayName("compact - pending changes - should merge them without changing reads")
+  void compact_pendingChanges_shouldMergeWithoutChangingReads() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(viewer("document:1", "user:alice"), viewer("document:2", "user:alice")));
+    store.compact();
+    changeLog.append(RelationChange.Operation.DELETE, List.of(viewer("document:1", "user:alice")));
+    changeLog.append(RelationChange.Operation.CREATE, List.of(viewer("document:4", "user:alice")));
+
+    // Act
+    store.compact();
+
+    // Assert
+    AdjacencyStore.Stats stats = store.stats();
+    assertThat(stats.pending()).isZero();
+    assertThat(stats.edges()).isEqualTo(2);
+    assertThat(store.resources("documents", "viewer", "user:alice"))
+        .containsExactly("document:2", "document:4");
+  }
+
+  @Test
+  @DisplayName("apply - relation reaches max delta - should compact it immediately")
+  void apply_relationReachesMaxDelta_shouldCompactImmediately() {
+    // Arrange
+    store.maxDelta = 2;
+
+    // Act
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(
+            viewer("document:1", "user:alice"),
+            viewer("document:2", "user:alice"),
+            viewer("document:3", "user:alice")));
+
+    // Assert
+    AdjacencyStore.Stats stats = store.stats();
+    assertThat(stats.edges()).isEqualTo(3);
+    assertThat(stats.pending()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("catchUp - change log dropped unseen records - should rebuild from retained ones")
+  void catchUp_changeLogDroppedUnseenRecords_shouldRebuildFromRetainedOnes() {
+    // Arrange
+    InMemoryRelationChangeLog small = new InMemoryRelationChangeLog(2);
+    store.changeLog = small;
+    small.append(RelationChange.Operation.CREATE, List.of(viewer("document:1", "user:alice")));
+    store.stats();
+    for (int i = 2; i <= 5; i++) {
+      small.append(
+          RelationChange.Operation.CREATE, List.of(viewer("document:" + i, "user:alice")));
+    }
+
+    // Act
+    List<String> resources = store.resources("documents", "viewer", "user:alice");
+
+    // Assert
+    assertThat(resources).doesNotContain("document:1").contains("document:5");
+  }
+
+  @Test
+  @DisplayName("query - AND then ANDNOT across targets - should combine their resource sets")
+  void query_andThenAndNotAcrossTargets_shouldCombineResourceSets() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(
+            viewer("document:1", "user:alice"),
+            viewer("document:2", "user:alice"),
+            viewer("document:3", "user:alice"),
+            viewer("document:2", "user:bob"),
+            viewer("document:3", "user:bob"),
+            viewer("document:3", "user:carol")));
+    store.compact();
+    changeLog.append(RelationChange.Operation.CREATE, List.of(viewer("document:1", "user:bob")));
+    SetExpression both =
+        SetExpression.of(
+            Operator.AND,
+            List.of(
+                SetExpression.target("user:alice", "viewer"),
+                SetExpression.target("user:bob", "viewer")));
+    SetExpression query =
+        SetExpression.of(
+            Operator.ANDNOT, List.of(both, SetExpression.target("user:carol", "viewer")));
+
+    // Act
+    AdjacencyStore.QueryResult result = store.query("documents", query, null);
+
+    // Assert
+    assertThat(result.ids()).containsExactly("document:1", "document:2");
+    assertThat(result.count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("query - literal ids and a limit - should intersect and truncate")
+  void query_literalIdsAndLimit_shouldIntersectAndTruncate() {
+    // Arrange
+    changeLog.append(
+        RelationChange.Operation.CREATE,
+        List.of(
+            viewer("document:1", "user:alice"),
+            viewer("document:2", "user:alice"),
+            viewer("document:3", "user:alice")));
+    SetExpression query =
+        SetExpression.of(
+            Operator.AND,
+            List.of(
+                SetExpression.target("user:alice", "viewer"),
+                SetExpression.ids(List.of("document:3", "document:2", "document:9"))));
+
+    // Act
+    AdjacencyStore.QueryResult result = store.query("documents", query, 1);
+
+    // Assert
+    assertThat(result.ids()).containsExactly("document:2");
+    assertThat(result.count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("query - resource and target sets combined - should throw")
+  void query_resourceAndTargetSetsCombined_shouldThrow() {
+    // Arrange
+    SetExpression query =
+        SetExpression.of(
+            Operator.OR,
+            List.of(
+                SetExpression.target("user:alice", "viewer"),
+                SetExpression.resource("document:1", "viewer")));
+
+    // Act & Assert
+    assertThatThrownBy(() -> store.query("documents", query, null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("must not combine resource and target sets");
+  }
+}
@@ -0,0 +1,73 @@
+package com.fullbay.rebacservice.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntBitmapTest {
+
+  private static int[] randomValues(Random random, int count, int universe) {
+    BitSet values = new BitSet();
+    while (values.cardinality() < count) {
+      values.set(random.nextInt(universe));
+    }
+    return values.stream().toArray();
+  }
+
+  private static BitSet bitSet(int[] values) {
+    BitSet bits = new BitSet();
+    for (int value : values) {
+      bits.set(value);
+    }
+    return bits;
+  }
+
+  @Test
+  @DisplayName("and, or, andNot - sparse and dense chunks - should match BitSet")
+  void setOperations_sparseAndDenseChunks_shouldMatchBitSet() {
+    // Arrange
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      int universe = 1 << (12 + random.nextInt(8));
+      int[] left = randomValues(random, random.nextInt(Math.min(universe, 50_000)), universe);
+      int[] right = randomValues(random, random.nextInt(Math.min(universe, 50_000)), universe);
+      BitSet and = bitSet(left);
+      and.and(bitSet(right));
+      BitSet or = bitSet(left);
+      or.or(bitSet(right));
+      BitSet andNot = bitSet(left);
+      andNot.andNot(bitSet(right));
+
+      // Act
+      IntBitmap a = IntBitmap.of(left);
+      IntBitmap b = IntBitmap.of(right);
+
+      // Assert
+      assertThat(a.and(b).toArray(Integer.MAX_VALUE)).containsExactly(and.stream().toArray());
+      assertThat(a.or(b).toArray(Integer.MAX_VALUE)).containsExactly(or.stream().toArray());
+      assertThat(a.andNot(b).toArray(Integer.MAX_VALUE))
+          .containsExactly(andNot.stream().toArray());
+      assertThat(a.and(b).cardinality()).isEqualTo(and.cardinality());
+    }
+  }
+
+  @Test
+  @DisplayName("toArray - limit below cardinality - should return the smallest values")
+  void toArray_limitBelowCardinality_shouldReturnSmallestValues() {
+    // Arrange
+    IntBitmap bitmap = IntBitmap.of(new int[] {3, 70_000, 70_001, 140_000});
+
+    // Act
+    int[] values = bitmap.toArray(3);
+
+    // Assert
+    assertThat(values).containsExactly(3, 70_000, 70_001);
+    assertThat(bitmap.cardinality()).isEqualTo(4);
+    assertThat(bitmap.contains(70_001)).isTrue();
+    assertThat(bitmap.contains(70_002)).isFalse();
+  }
+}
@@ -0,0 +1,40 @@
+package com.fullbay.rebacservice.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTest {
+
+  @Test
+  @DisplayName("add and remove - random operations - should match a boxed set")
+  void addAndRemove_randomOperations_shouldMatchBoxedSet() {
+    // Arrange
+    LongHashSet set = new LongHashSet();
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(42);
+
+    // Act
+    for (int i = 0; i < 20_000; i++) {
+      long value = random.nextInt(2_000);
+      if (random.nextBoolean()) {
+        assertThat(set.add(value)).isEqualTo(expected.add(value));
+      } else {
+        assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+      }
+    }
+
+    // Assert
+    assertThat(set.size()).isEqualTo(expected.size());
+    for (long value = 0; value < 2_000; value++) {
+      assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+    }
+    long[] sorted = expected.stream().sorted().mapToLong(Long::longValue).toArray();
+    assertThat(set.toSortedArray()).containsExactly(sorted);
+  }
+}
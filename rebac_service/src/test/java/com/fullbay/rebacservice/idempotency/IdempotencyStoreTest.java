@@ -0,0 +1,83 @@
+package com.fullbay.rebacservice.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.Response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.exception.IdempotentRequestInProgressException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyStoreTest {
+
+  private IdempotencyStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new IdempotencyStore();
+    store.maxEntries = 10;
+    store.ttlSeconds = 60;
+    store.inProgressWaitMillis = 50;
+    store.objectMapper = new ObjectMapper();
+  }
+
+  @Test
+  @DisplayName("execute - repeated key - should replay recorded response")
+  void testExecuteRepeatedKey() {
+    // Arrange
+    Map<String, String> request = Map.of("resource", "doc:1");
+    store.execute("create", "key-1", request, () -> Response.status(201).entity("first").build());
+
+    // Act
+    Response replayed =
+        store.execute(
+            "create", "key-1", request, () -> Response.status(201).entity("second").build());
+
+    // Assert
+    assertThat(replayed.getStatus()).isEqualTo(201);
+    assertThat(replayed.getEntity()).isEqualTo("first");
+  }
+
+  @Test
+  @DisplayName("execute - first request still running past the wait - should throw in progress")
+  void testExecuteInFlightTimeout() throws Exception {
+    // Arrange
+    Map<String, String> request = Map.of("resource", "doc:1");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Response> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                store.execute(
+                    "create",
+                    "key-1",
+                    request,
+                    () -> {
+                      started.countDown();
+                      try {
+                        release.await();
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return Response.status(201).build();
+                    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // Act & Assert
+    assertThatThrownBy(
+            () -> store.execute("create", "key-1", request, () -> Response.status(201).build()))
+        .isInstanceOf(IdempotentRequestInProgressException.class);
+
+    release.countDown();
+    assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+  }
+}
@@ -0,0 +1,122 @@
+package com.fullbay.rebacservice.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fullbay.rebacservice.changelog.InMemoryRelationChangeLog;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RelationIndexTest {
+
+  private RelationIndex index;
+  private InMemoryRelationChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    changeLog = new InMemoryRelationChangeLog(1000);
+    index = new RelationIndex();
+    index.enabled = true;
+    index.ttlSeconds = 60;
+    index.maxKeys = 100;
+    index.changeLog = changeLog;
+  }
+
+  private static List<RelationTuple> documentTuples() {
+    return Arrays.asList(
+        new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"),
+        new RelationTuple("document:123", "viewer", "documents", "user:bob@example.com"),
+        new RelationTuple("document:123", "viewer", "archive", "user:carol@example.com"));
+  }
+
+  @Test
+  @DisplayName("resourceRelations - loaded resource - should apply namespace and relation filters")
+  void resourceRelations_loadedResource_shouldApplyFilters() {
+    // Arrange
+    index.loadResource("document:123", documentTuples(), index.readSequence());
+
+    // Act & Assert
+    assertThat(index.resourceRelations("document:123", null, null).orElseThrow()).hasSize(3);
+    assertThat(index.resourceRelations("document:123", "documents", null).orElseThrow())
+        .hasSize(2);
+    assertThat(index.resourceRelations("document:123", null, "viewer").orElseThrow()).hasSize(2);
+    assertThat(index.resourceRelations("document:123", "documents", "viewer").orElseThrow())
+        .extracting(RelationTuple::getTarget)
+        .containsExactly("user:bob@example.com");
+    assertThat(index.resourceRelations("document:999", null, null)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("resourceRelations - writes after load - should reflect change log")
+  void resourceRelations_writesAfterLoad_shouldReflectChangeLog() {
+    // Arrange
+    index.loadResource("document:123", documentTuples(), index.readSequence());
+    RelationTuple added =
+        new RelationTuple("document:123", "editor", "documents", "user:dave@example.com");
+
+    // Act
+    changeLog.append(RelationChange.Operation.CREATE, Arrays.asList(added));
+    changeLog.append(RelationChange.Operation.DELETE, Arrays.asList(documentTuples().get(0)));
+
+    // Assert
+    assertThat(index.resourceRelations("document:123", "documents", null).orElseThrow())
+        .extracting(RelationTuple::getTarget)
+        .containsExactlyInAnyOrder("user:bob@example.com", "user:dave@example.com");
+  }
+
+  @Test
+  @DisplayName("loadResource - write raced with the read - should re-apply the write")
+  void loadResource_writeRacedWithRead_shouldReapplyWrite() {
+    // Arrange
+    long readSequence = index.readSequence();
+    RelationTuple added =
+        new RelationTuple("document:123", "editor", "documents", "user:dave@example.com");
+    index.catchUp();
+    changeLog.append(RelationChange.Operation.CREATE, Arrays.asList(added));
+    index.catchUp();
+
+    // Act
+    index.loadResource("document:123", documentTuples(), readSequence);
+
+    // Assert
+    assertThat(index.resourceRelations("document:123", null, "editor").orElseThrow())
+        .containsExactly(added);
+  }
+
+  @Test
+  @DisplayName("loadResource - max keys reached - should evict only the oldest listing")
+  void loadResource_maxKeysReached_shouldEvictOldestListing() {
+    // Arrange
+    index.maxKeys = 2;
+    index.loadResource("document:1", documentTuples(), index.readSequence());
+    index.loadResource("document:2", documentTuples(), index.readSequence());
+    index.loadResource("document:1", documentTuples(), index.readSequence());
+
+    // Act
+    index.loadResource("document:3", documentTuples(), index.readSequence());
+
+    // Assert
+    assertThat(index.resourceRelations("document:1", null, null)).isPresent();
+    assertThat(index.resourceRelations("document:2", null, null)).isEmpty();
+    assertThat(index.resourceRelations("document:3", null, null)).isPresent();
+  }
+
+  @Test
+  @DisplayName("resourceRelations - index disabled - should never serve listings")
+  void resourceRelations_indexDisabled_shouldNeverServeListings() {
+    // Arrange
+    index.enabled = false;
+
+    // Act
+    index.loadResource("document:123", documentTuples(), index.readSequence());
+
+    // Assert
+    assertThat(index.resourceRelations("document:123", null, null)).isEmpty();
+  }
+}
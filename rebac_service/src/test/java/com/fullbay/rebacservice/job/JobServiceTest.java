@@ -0,0 +1,337 @@
+package com.fullbay.rebacservice.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import com.descope.exception.ServerCommonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.expiry.TupleExpiryService;
+import com.fullbay.rebacservice.exception.FeatureUnavailableException;
+import com.fullbay.rebacservice.exception.JobNotFoundException;
+import com.fullbay.rebacservice.export.RelationExporter;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class JobServiceTest {
+
+  private JobService jobService;
+  private RelationService relationService;
+  private RelationExporter relationExporter;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    relationExporter = mock(RelationExporter.class);
+    jobService = new JobService();
+    jobService.workers = 1;
+    jobService.queueCapacity = 10;
+    jobService.chunkSize = 2;
+    jobService.maxAttempts = 2;
+    jobService.retryBackoffMillis = 0;
+    jobService.sweepConcurrency = 3;
+    jobService.jobStore = new InMemoryJobStore();
+    jobService.relationService = relationService;
+    jobService.relationExporter = relationExporter;
+    jobService.lambdaEnvironment = new LambdaEnvironment();
+    jobService.expiry = mock(TupleExpiryService.class);
+    jobService.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobService.shutdown();
+  }
+
+  private static List<RelationTuple> tuples(int count) {
+    List<RelationTuple> tuples = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      tuples.add(
+          new RelationTuple("document:" + i, "viewer", "documents", "user:alice@example.com"));
+    }
+    return tuples;
+  }
+
+  @Test
+  @DisplayName("run - create job - should write in chunks and checkpoint progress")
+  void run_createJob_shouldWriteInChunks() {
+    // Arrange
+    Job job = stored("job-1", RelationChange.Operation.CREATE, tuples(5));
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationService, times(3)).createRelations(anyList());
+    assertThat(job.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+    assertThat(job.getProcessed()).isEqualTo(5);
+    assertThat(job.getFinishedAt()).isNotNull();
+    assertThat(jobService.getJob("job-1").getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+  }
+
+  @Test
+  @DisplayName("run - chunk keeps failing - should fail job at last checkpoint")
+  void run_chunkKeepsFailing_shouldFailAtCheckpoint() {
+    // Arrange
+    List<RelationTuple> tuples = tuples(4);
+    Job job = stored("job-2", RelationChange.Operation.DELETE, tuples);
+    doThrow(ServerCommonException.invalidArgument("Descope unavailable"))
+        .doThrow(ServerCommonException.invalidArgument("Descope unavailable"))
+        .when(relationService)
+        .deleteRelations(tuples.subList(2, 4));
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationService, times(3)).deleteRelations(anyList());
+    assertThat(job.getStatus()).isEqualTo(Job.Status.FAILED);
+    assertThat(job.getProcessed()).isEqualTo(2);
+    assertThat(job.getErrors()).singleElement().asString().contains("offset 2");
+  }
+
+  @Test
+  @DisplayName("run - job resumed from file store - should skip checkpointed tuples")
+  void run_resumedFromFileStore_shouldSkipCheckpointedTuples(@TempDir Path directory)
+      throws Exception {
+    // Arrange
+    FileJobStore store = new FileJobStore(directory, new ObjectMapper().findAndRegisterModules());
+    List<RelationTuple> tuples = tuples(4);
+    store.writeRelations("job-3", 0, tuples);
+    Job interrupted = new Job("job-3", RelationChange.Operation.CREATE, tuples.size());
+    interrupted.setStatus(Job.Status.RUNNING);
+    interrupted.setProcessed(2);
+    store.save(interrupted);
+    jobService.jobStore = store;
+
+    // Act
+    Job resumed = store.findUnfinished().get(0);
+    // The checkpoint holds the progress only, never the tuples
+    String checkpoint = Files.readString(directory.resolve("job-3.json"));
+    jobService.run(resumed);
+
+    // Assert
+    assertThat(checkpoint).doesNotContain("document:");
+    verify(relationService, times(1)).createRelations(anyList());
+    verify(relationService).createRelations(tuples.subList(2, 4));
+    assertThat(store.find("job-3").orElseThrow().getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+    assertThat(store.findUnfinished()).isEmpty();
+    assertThat(directory.resolve("job-3.relations.ndjson")).doesNotExist();
+  }
+
+  @Test
+  @DisplayName("writeRelations - tuples stored past the offset - should replace them")
+  void writeRelations_tuplesPastOffset_shouldReplaceThem(@TempDir Path directory) {
+    // Arrange
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    List<RelationTuple> tuples = tuples(5);
+    new FileJobStore(directory, objectMapper).writeRelations("job-7", 0, tuples.subList(0, 4));
+    // A new store has no cached end, so it has to find the offset in the file
+    FileJobStore store = new FileJobStore(directory, objectMapper);
+
+    // Act
+    store.writeRelations("job-7", 2, List.of(tuples.get(4)));
+
+    // Assert
+    try (Stream<RelationTuple> stored = store.readRelations("job-7", 1)) {
+      assertThat(stored.toList()).containsExactly(tuples.get(1), tuples.get(4));
+    }
+  }
+
+  private Job stored(String id, RelationChange.Operation operation, List<RelationTuple> tuples) {
+    jobService.jobStore.writeRelations(id, 0, tuples);
+    Job job = new Job(id, operation, tuples.size());
+    jobService.jobStore.save(job);
+    return job;
+  }
+
+  private void givenNamespace(List<RelationTuple> tuples) {
+    List<String> resources = tuples.stream().map(RelationTuple::getResource).toList();
+    when(relationExporter.resources("documents", "document:")).thenReturn(new TreeSet<>(resources));
+    when(relationExporter.read(anyList(), eq("documents")))
+        .thenAnswer(
+            invocation -> {
+              List<String> slice = invocation.getArgument(0);
+              return tuples.stream().filter(t -> slice.contains(t.getResource())).toList();
+            });
+  }
+
+  @Test
+  @DisplayName("run - namespace sweep of known resources - should delete every chunk, end partial")
+  void run_namespaceSweep_shouldEnumerateThenDeleteEveryChunk() {
+    // Arrange
+    List<RelationTuple> tuples = tuples(5);
+    givenNamespace(tuples);
+    Job job = new Job("job-4", "documents", "document:", null);
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationExporter, times(3)).read(anyList(), eq("documents"));
+    verify(relationService, times(3)).deleteRelations(anyList());
+    assertThat(job.getStatus()).isEqualTo(Job.Status.PARTIAL);
+    assertThat(job.isComplete()).isFalse();
+    assertThat(job.getResourcesScanned()).isEqualTo(5);
+    assertThat(job.getTotal()).isEqualTo(5);
+    verify(relationService).deleteRelations(tuples.subList(4, 5));
+    assertThat(job.getProcessed()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("run - sweep resumed mid-enumeration - should read remaining slices only")
+  void run_sweepResumedMidEnumeration_shouldReadRemainingSlicesOnly() {
+    // Arrange
+    List<RelationTuple> tuples = tuples(5);
+    givenNamespace(tuples);
+    Job job = new Job("job-7", "documents", "document:", null);
+    job.setResourcesScanned(2);
+    job.setTotal(2);
+    jobService.jobStore.writeRelations("job-7", 0, tuples.subList(0, 3));
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationExporter).read(List.of("document:2", "document:3"), "documents");
+    verify(relationExporter).read(List.of("document:4"), "documents");
+    verify(relationExporter, times(2)).read(anyList(), eq("documents"));
+    verify(relationService).deleteRelations(tuples.subList(0, 2));
+    verify(relationService).deleteRelations(tuples.subList(2, 4));
+    verify(relationService).deleteRelations(tuples.subList(4, 5));
+    assertThat(job.getStatus()).isEqualTo(Job.Status.PARTIAL);
+    assertThat(job.getTotal()).isEqualTo(5);
+    assertThat(job.getProcessed()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("run - namespace sweep chunk keeps failing - should stop at contiguous checkpoint")
+  void run_namespaceSweepChunkKeepsFailing_shouldStopAtContiguousCheckpoint() {
+    // Arrange
+    List<RelationTuple> tuples = tuples(6);
+    givenNamespace(tuples);
+    doThrow(ServerCommonException.invalidArgument("Descope unavailable"))
+        .when(relationService)
+        .deleteRelations(tuples.subList(2, 4));
+    Job job = new Job("job-5", "documents", "document:", null);
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationService).deleteRelations(tuples.subList(4, 6));
+    assertThat(job.getStatus()).isEqualTo(Job.Status.FAILED);
+    assertThat(job.getProcessed()).isEqualTo(2);
+    assertThat(job.getErrors()).singleElement().asString().contains("offset 2");
+  }
+
+  @Test
+  @DisplayName("run - namespace sweep of named resources - should read only those and succeed")
+  void run_namespaceSweepOfNamedResources_shouldReadOnlyThoseAndSucceed() {
+    // Arrange
+    List<RelationTuple> tuples = tuples(3);
+    givenNamespace(tuples);
+    Job job =
+        new Job(
+            "job-6",
+            "documents",
+            "document:",
+            List.of("document:2", "document:0", "document:1", "document:0", "other:1"));
+
+    // Act
+    jobService.run(job);
+
+    // Assert
+    verify(relationExporter, never()).resources(anyString(), any());
+    verify(relationExporter).read(List.of("document:0", "document:1"), "documents");
+    verify(relationExporter).read(List.of("document:2"), "documents");
+    assertThat(job.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+    assertThat(job.isComplete()).isTrue();
+    assertThat(job.getResourcesScanned()).isEqualTo(3);
+    assertThat(job.getProcessed()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("submitNamespaceDeletion - in-memory job store - should refuse the job")
+  void submitNamespaceDeletion_inMemoryJobStore_shouldRefuseJob() {
+    // Act & Assert
+    assertThatThrownBy(() -> jobService.submitNamespaceDeletion("documents", null, null))
+        .isInstanceOf(FeatureUnavailableException.class)
+        .hasMessageContaining("rebac.jobs.store.type=file");
+    assertThat(jobService.jobStore.findUnfinished()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("getJob - unknown ID - should throw JobNotFoundException")
+  void getJob_unknownId_shouldThrow() {
+    // Act & Assert
+    assertThatThrownBy(() -> jobService.getJob("missing"))
+        .isInstanceOf(JobNotFoundException.class)
+        .hasMessageContaining("missing");
+  }
+
+  @Test
+  @DisplayName("submit - on Lambda - should refuse the job without saving it")
+  void submit_onLambda_shouldRefuseJob() {
+    // Arrange
+    jobService.lambdaEnvironment = mock(LambdaEnvironment.class);
+    when(jobService.lambdaEnvironment.isLambda()).thenReturn(true);
+
+    // Act & Assert
+    assertThatThrownBy(() -> jobService.submit(RelationChange.Operation.CREATE, tuples(1)))
+        .isInstanceOf(FeatureUnavailableException.class);
+    assertThatThrownBy(() -> jobService.submitNamespaceDeletion("documents", null, null))
+        .isInstanceOf(FeatureUnavailableException.class);
+    assertThat(jobService.jobStore.findUnfinished()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("stage - producer fails after some chunks - should discard the stored tuples")
+  void stage_producerFails_shouldDiscardStoredTuples() {
+    // Arrange
+    JobStore store = spy(new InMemoryJobStore());
+    jobService.jobStore = store;
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                jobService.stage(
+                    RelationChange.Operation.CREATE,
+                    sink -> {
+                      sink.accept(tuples(2));
+                      throw new IllegalArgumentException("Validation failed: line 3");
+                    }))
+        .isInstanceOf(IllegalArgumentException.class);
+    ArgumentCaptor<String> jobId = ArgumentCaptor.forClass(String.class);
+    verify(store).writeRelations(jobId.capture(), eq(0), anyList());
+    verify(store).discardRelations(jobId.getValue());
+    assertThat(store.readRelations(jobId.getValue(), 0)).isEmpty();
+    verify(store, never()).save(any());
+  }
+}
@@ -0,0 +1,174 @@
+package com.fullbay.rebacservice.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RelationCsvParserTest {
+
+  private RelationCsvParser parser;
+
+  @BeforeEach
+  void setUp() {
+    parser = new RelationCsvParser();
+    parser.parallelism = 4;
+    parser.splitBytes = 64;
+    parser.maxViolations = 100;
+    parser.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    parser.shutdown();
+  }
+
+  private List<RelationTuple> parse(String text, char delimiter) {
+    List<RelationTuple> tuples = new ArrayList<>();
+    parser.parse(
+        new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), delimiter, tuples::addAll);
+    return tuples;
+  }
+
+  @Test
+  @DisplayName("parse - input split into ranges - should keep order and drop duplicates")
+  void parse_splitInput_shouldKeepOrderAndDropDuplicates() {
+    // Arrange
+    StringBuilder csv = new StringBuilder("resource,relationDefinition,namespace,target\r\n");
+    for (int i = 0; i < 500; i++) {
+      csv.append("document:").append(i).append(",viewer,documents,user:").append(i).append("\r\n");
+      if (i % 10 == 0) {
+        csv.append("document:0,viewer,documents,user:0\r\n");
+      }
+    }
+
+    // Act
+    List<RelationTuple> tuples = parse(csv.toString(), ',');
+
+    // Assert
+    assertThat(tuples).hasSize(500);
+    for (int i = 0; i < 500; i++) {
+      assertThat(tuples.get(i).getResource()).isEqualTo("document:" + i);
+    }
+  }
+
+  @Test
+  @DisplayName("parse - TSV with quotes and expiry - should unquote fields and read expiry")
+  void parse_tsvWithQuotesAndExpiry_shouldUnquoteAndReadExpiry() {
+    // Act
+    List<RelationTuple> tuples =
+        parse(
+            "\"document:1\"\tviewer\tdocuments\t\"user:\"\"a\"\"\"\t2030-01-01T00:00:00Z\n"
+                + "document:2\tviewer\tdocuments\tuser:b\t\n",
+            '\t');
+
+    // Assert
+    assertThat(tuples)
+        .extracting(RelationTuple::getTarget)
+        .containsExactly("user:\"a\"", "user:b");
+    assertThat(tuples.get(0).getExpiresAt()).isEqualTo(Instant.parse("2030-01-01T00:00:00Z"));
+    assertThat(tuples.get(1).getExpiresAt()).isNull();
+  }
+
+  @Test
+  @DisplayName("parse - invalid rows across ranges - should report absolute line numbers")
+  void parse_invalidRowsAcrossRanges_shouldReportAbsoluteLines() {
+    // Arrange
+    StringBuilder csv = new StringBuilder();
+    for (int i = 1; i <= 40; i++) {
+      if (i == 3) {
+        csv.append("document:3,viewer\n");
+      } else if (i == 37) {
+        csv.append("document:37,viewer,documents,  \n");
+      } else {
+        csv.append("document:").append(i).append(",viewer,documents,user:x\n");
+      }
+    }
+
+    // Act & Assert
+    assertThatThrownBy(() -> parse(csv.toString(), ','))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Validation failed: line 3 expected 4 or 5 fields but found 2, line 37 target: "
+                + RelationTuple.TARGET_REQUIRED);
+  }
+
+  @Test
+  @DisplayName("parse - rows longer than a range - should stream them to the sink in order")
+  void parse_rowsLongerThanRange_shouldStreamInOrder() {
+    // Arrange
+    String target = "user:" + "x".repeat(150);
+    String csv =
+        "document:1,viewer,documents,user:a\n"
+            + "document:2,viewer,documents,"
+            + target
+            + "\n"
+            + "document:3,viewer,documents,user:c";
+    List<Integer> chunkSizes = new ArrayList<>();
+    List<RelationTuple> tuples = new ArrayList<>();
+
+    // Act
+    int unique =
+        parser.parse(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+            ',',
+            chunk -> {
+              chunkSizes.add(chunk.size());
+              tuples.addAll(chunk);
+            });
+
+    // Assert
+    assertThat(unique).isEqualTo(3);
+    assertThat(chunkSizes).hasSizeGreaterThan(1);
+    assertThat(tuples)
+        .extracting(RelationTuple::getTarget)
+        .containsExactly("user:a", target, "user:c");
+  }
+
+  @Test
+  @DisplayName("parse - invalid row after valid ranges - should stop feeding the sink")
+  void parse_invalidRowAfterValidRanges_shouldStopFeedingSink() {
+    // Arrange
+    StringBuilder csv = new StringBuilder();
+    for (int i = 1; i <= 40; i++) {
+      csv.append("document:").append(i).append(",viewer,documents,user:x\n");
+    }
+    csv.append("document:41,viewer\n");
+    for (int i = 42; i <= 80; i++) {
+      csv.append("document:").append(i).append(",viewer,documents,user:x\n");
+    }
+    List<RelationTuple> tuples = new ArrayList<>();
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                parser.parse(
+                    new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    ',',
+                    tuples::addAll))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("line 41");
+    assertThat(tuples)
+        .hasSizeLessThanOrEqualTo(40)
+        .extracting(RelationTuple::getResource)
+        .doesNotContain("document:42", "document:80");
+  }
+
+  @Test
+  @DisplayName("split - delimiter inside quotes - should keep it in the field")
+  void split_delimiterInsideQuotes_shouldKeepIt() {
+    assertThat(RelationCsvParser.split(" a , \"b,c\" ,d", ','))
+        .containsExactly("a", "b,c", "d");
+  }
+}
@@ -0,0 +1,52 @@
+package com.fullbay.rebacservice.lambda;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AppSyncStreamHandlerTest {
+
+  @Test
+  @DisplayName("isBatch - JSON array payload - should detect a batch")
+  void isBatch_jsonArray_shouldReturnTrue() {
+    assertThat(AppSyncStreamHandler.isBatch(bytes("[{\"field\":\"f\"}]"))).isTrue();
+    assertThat(AppSyncStreamHandler.isBatch(bytes(" \n\t[]"))).isTrue();
+  }
+
+  @Test
+  @DisplayName("isBatch - object or empty payload - should not detect a batch")
+  void isBatch_otherPayloads_shouldReturnFalse() {
+    assertThat(AppSyncStreamHandler.isBatch(bytes("{\"httpMethod\":\"GET\"}"))).isFalse();
+    assertThat(AppSyncStreamHandler.isBatch(bytes("  "))).isFalse();
+    assertThat(AppSyncStreamHandler.isBatch(new byte[0])).isFalse();
+  }
+
+  @Test
+  @DisplayName("isDirectInvoke - object with top-level field - should detect a direct invocation")
+  void isDirectInvoke_fieldKey_shouldReturnTrue() {
+    assertThat(
+            AppSyncStreamHandler.isDirectInvoke(
+                bytes("{\"arguments\":{\"field\":\"x\"},\"field\":\"getThing\"}")))
+        .isTrue();
+  }
+
+  @Test
+  @DisplayName("isDirectInvoke - ALB event or malformed payload - should not detect a direct call")
+  void isDirectInvoke_otherPayloads_shouldReturnFalse() {
+    assertThat(
+            AppSyncStreamHandler.isDirectInvoke(
+                bytes("{\"requestContext\":{\"elb\":{}},\"body\":\"{\\\"field\\\":1}\"}")))
+        .isFalse();
+    assertThat(AppSyncStreamHandler.isDirectInvoke(bytes("{\"arguments\":{\"field\":1}}")))
+        .isFalse();
+    assertThat(AppSyncStreamHandler.isDirectInvoke(bytes("[{\"field\":\"f\"}]"))).isFalse();
+    assertThat(AppSyncStreamHandler.isDirectInvoke(bytes("{\"body\":"))).isFalse();
+  }
+
+  private static byte[] bytes(String payload) {
+    return payload.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,351 @@
+package com.fullbay.rebacservice.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.descope.exception.DescopeException;
+import com.descope.exception.ServerCommonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.deadline.DeadlineExceededException;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.config.LambdaEnvironment;
+import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.service.RelationService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+class RelationOutboxTest {
+
+  @TempDir Path directory;
+
+  private RelationService relationService;
+  private RelationOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    relationService = mock(RelationService.class);
+    outbox = newOutbox();
+  }
+
+  @AfterEach
+  void tearDown() {
+    outbox.shutdown();
+  }
+
+  private RelationOutbox newOutbox() {
+    return newOutbox(100);
+  }
+
+  private RelationOutbox newOutbox(int maxOutcomes) {
+    RelationOutbox outbox = new RelationOutbox();
+    outbox.enabled = true;
+    outbox.directory = directory.toString();
+    outbox.segmentBytes = 1024 * 1024;
+    outbox.workers = 4;
+    outbox.maxAttempts = 3;
+    outbox.retryBackoffMillis = 0;
+    outbox.maxRetryBackoffMillis = 0;
+    outbox.maxOutcomes = maxOutcomes;
+    outbox.relationService = relationService;
+    outbox.objectMapper = new ObjectMapper().findAndRegisterModules();
+    outbox.lambdaEnvironment = new LambdaEnvironment();
+    outbox.open();
+    return outbox;
+  }
+
+  private static List<RelationTuple> tuples(String resource) {
+    return List.of(new RelationTuple(resource, "viewer", "documents", "user:alice@example.com"));
+  }
+
+  private void drain() {
+    outbox.dispatch(Runnable::run);
+  }
+
+  private Stream<Path> segmentFiles() throws Exception {
+    return Files.list(directory)
+        .filter(f -> f.getFileName().toString().startsWith(RelationOutbox.SEGMENT_PREFIX));
+  }
+
+  @Test
+  @DisplayName("append - then drained - should apply through the service and report applied")
+  void append_thenDrained_shouldApplyAndReportApplied() {
+    // Arrange
+    List<RelationTuple> created = tuples("document:1");
+
+    // Act
+    String token = outbox.append(RelationChange.Operation.CREATE, created);
+    RelationOutbox.State before = outbox.status(token).orElseThrow().state();
+    drain();
+
+    // Assert
+    assertThat(before).isEqualTo(RelationOutbox.State.PENDING);
+    verify(relationService).createRelations(created);
+    assertThat(outbox.status(token).orElseThrow().state()).isEqualTo(RelationOutbox.State.APPLIED);
+    assertThat(outbox.stats().pending()).isZero();
+    assertThat(outbox.stats().applied()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("dispatch - earlier write to resource failing - should hold later writes to it only")
+  void dispatch_earlierWriteFailing_shouldHoldLaterWritesToSameResource() {
+    // Arrange
+    List<RelationTuple> first = tuples("document:1");
+    List<RelationTuple> second = tuples("document:1");
+    List<RelationTuple> other = tuples("document:2");
+    doThrow(new UncheckedIOException(new IOException("Connection reset")))
+        .doNothing()
+        .when(relationService)
+        .createRelations(first);
+    outbox.append(RelationChange.Operation.CREATE, first);
+    String held = outbox.append(RelationChange.Operation.DELETE, second);
+    outbox.append(RelationChange.Operation.CREATE, other);
+
+    // Act
+    drain();
+
+    // Assert
+    verify(relationService).createRelations(other);
+    verify(relationService, never()).deleteRelations(second);
+    assertThat(outbox.status("1").orElseThrow().attempts()).isEqualTo(1);
+    assertThat(outbox.status(held).orElseThrow().state()).isEqualTo(RelationOutbox.State.PENDING);
+
+    // Act
+    drain();
+    drain();
+
+    // Assert
+    InOrder order = inOrder(relationService);
+    order.verify(relationService, times(2)).createRelations(first);
+    order.verify(relationService).deleteRelations(second);
+    assertThat(outbox.stats().pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("dispatch - retries exhausted - should mark failed and unblock the resource")
+  void dispatch_retriesExhausted_shouldMarkFailedAndUnblock() {
+    // Arrange
+    List<RelationTuple> rejected = tuples("document:1");
+    List<RelationTuple> next = tuples("document:1");
+    doThrow(new UncheckedIOException(new IOException("Connection reset")))
+        .when(relationService)
+        .createRelations(rejected);
+    String failed = outbox.append(RelationChange.Operation.CREATE, rejected);
+    String applied = outbox.append(RelationChange.Operation.DELETE, next);
+
+    // Act
+    for (int i = 0; i < 4; i++) {
+      drain();
+    }
+
+    // Assert
+    verify(relationService, times(3)).createRelations(rejected);
+    assertThat(outbox.status(failed).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.FAILED);
+    assertThat(outbox.status(applied).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+    assertThat(outbox.stats().failed()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("dispatch - request rejected by Descope - should fail at once and unblock")
+  void dispatch_requestRejected_shouldFailAtOnceAndUnblock() {
+    // Arrange
+    List<RelationTuple> rejected = tuples("document:1");
+    List<RelationTuple> next = tuples("document:1");
+    DescopeException invalid = mock(DescopeException.class);
+    when(invalid.getCode()).thenReturn("E011003");
+    doThrow(invalid).when(relationService).createRelations(rejected);
+    String failed = outbox.append(RelationChange.Operation.CREATE, rejected);
+    String applied = outbox.append(RelationChange.Operation.DELETE, next);
+
+    // Act
+    drain();
+    drain();
+
+    // Assert
+    verify(relationService, times(1)).createRelations(rejected);
+    assertThat(outbox.status(failed).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.FAILED);
+    assertThat(outbox.status(applied).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+  }
+
+  @Test
+  @DisplayName("isTransient - timeouts, I/O and server errors - should retry only those")
+  void isTransient_shouldRetryOnlyTimeoutsIoAndServerErrors() {
+    // Arrange
+    DescopeException serverError = mock(DescopeException.class);
+    when(serverError.getCode()).thenReturn("E130500");
+
+    // Act & Assert
+    assertThat(RelationOutbox.isTransient(new DeadlineExceededException("createRelations")))
+        .isTrue();
+    assertThat(RelationOutbox.isTransient(new UncheckedIOException(new IOException("reset"))))
+        .isTrue();
+    assertThat(RelationOutbox.isTransient(serverError)).isTrue();
+    assertThat(RelationOutbox.isTransient(new IllegalArgumentException("relation"))).isFalse();
+  }
+
+  @Test
+  @DisplayName("open - after restart with torn tail - should resume only unresolved entries")
+  void open_afterRestartWithTornTail_shouldResumeUnresolvedEntries() throws Exception {
+    // Arrange
+    List<RelationTuple> delivered = tuples("document:1");
+    List<RelationTuple> queued = tuples("document:2");
+    String deliveredToken = outbox.append(RelationChange.Operation.CREATE, delivered);
+    drain();
+    String queuedToken = outbox.append(RelationChange.Operation.CREATE, queued);
+    outbox.shutdown();
+    try (Stream<Path> files = segmentFiles()) {
+      Path segment = files.sorted().reduce((first, second) -> second).orElseThrow();
+      Files.write(
+          segment, "{\"type\":\"ENT".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    // Act
+    outbox = newOutbox();
+    drain();
+
+    // Assert
+    verify(relationService).createRelations(delivered);
+    verify(relationService).createRelations(queued);
+    assertThat(outbox.status(deliveredToken).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+    assertThat(outbox.status(queuedToken).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+    assertThat(outbox.status("3")).isEmpty();
+    assertThat(outbox.append(RelationChange.Operation.CREATE, tuples("document:3")))
+        .isEqualTo("3");
+  }
+
+  @Test
+  @DisplayName("dispatch - all entries resolved - should delete every segment but the active one")
+  void dispatch_allEntriesResolved_shouldDeleteOldSegments() throws Exception {
+    // Arrange
+    outbox.segmentBytes = 1;
+    for (int i = 0; i < 3; i++) {
+      outbox.append(RelationChange.Operation.CREATE, tuples("document:" + i));
+    }
+    assertThat(outbox.stats().segments()).isEqualTo(3);
+
+    // Act
+    drain();
+
+    // Assert
+    assertThat(outbox.stats().segments()).isEqualTo(1);
+    try (Stream<Path> files = segmentFiles()) {
+      assertThat(files).hasSize(1);
+    }
+  }
+
+  @Test
+  @DisplayName("status - after restart with segments deleted - should report recorded outcomes")
+  void status_afterRestartWithSegmentsDeleted_shouldReportRecordedOutcomes() {
+    // Arrange
+    outbox.segmentBytes = 1;
+    List<RelationTuple> rejected = tuples("document:1");
+    doThrow(ServerCommonException.invalidArgument("relation"))
+        .when(relationService)
+        .createRelations(rejected);
+    String failed = outbox.append(RelationChange.Operation.CREATE, rejected);
+    String applied = outbox.append(RelationChange.Operation.CREATE, tuples("document:2"));
+    outbox.append(RelationChange.Operation.CREATE, tuples("document:3"));
+    for (int i = 0; i < 4; i++) {
+      drain();
+    }
+    assertThat(outbox.stats().segments()).isEqualTo(1);
+    outbox.shutdown();
+
+    // Act
+    outbox = newOutbox();
+
+    // Assert
+    RelationOutbox.PendingWrite failure = outbox.status(failed).orElseThrow();
+    assertThat(failure.state()).isEqualTo(RelationOutbox.State.FAILED);
+    assertThat(failure.lastError()).isNotNull();
+    assertThat(outbox.status(applied).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+  }
+
+  @Test
+  @DisplayName("status - outcome evicted - should report unknown")
+  void status_outcomeEvicted_shouldReportUnknown() {
+    // Arrange
+    outbox.shutdown();
+    outbox = newOutbox(1);
+    String evicted = outbox.append(RelationChange.Operation.CREATE, tuples("document:1"));
+    String retained = outbox.append(RelationChange.Operation.CREATE, tuples("document:2"));
+
+    // Act
+    drain();
+
+    // Assert
+    assertThat(outbox.status(evicted).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.UNKNOWN);
+    assertThat(outbox.status(retained).orElseThrow().state())
+        .isEqualTo(RelationOutbox.State.APPLIED);
+  }
+
+  @Test
+  @DisplayName("open - unreadable record mid-file - should skip it and recover the rest")
+  void open_unreadableRecordMidFile_shouldSkipItAndRecoverTheRest() throws Exception {
+    // Arrange
+    List<RelationTuple> first = tuples("document:1");
+    List<RelationTuple> second = tuples("document:2");
+    outbox.append(RelationChange.Operation.CREATE, first);
+    outbox.shutdown();
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    try (Stream<Path> files = segmentFiles()) {
+      Path segment = files.findFirst().orElseThrow();
+      Files.write(
+          segment, "{\"type\":\"ENT\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      Files.write(
+          segment,
+          objectMapper.writeValueAsBytes(
+              OutboxRecord.entry(2, RelationChange.Operation.CREATE, second, Instant.now())),
+          StandardOpenOption.APPEND);
+      Files.write(segment, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    // Act
+    outbox = newOutbox();
+    drain();
+
+    // Assert
+    verify(relationService).createRelations(first);
+    verify(relationService).createRelations(second);
+    assertThat(outbox.stats().pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("isEnabled - on Lambda - should be false even when configured")
+  void isEnabled_onLambda_shouldBeFalse() {
+    // Arrange
+    outbox.lambdaEnvironment = mock(LambdaEnvironment.class);
+    when(outbox.lambdaEnvironment.isLambda()).thenReturn(true);
+
+    // Act & Assert
+    assertThat(outbox.isEnabled()).isFalse();
+  }
+}
@@ -2,30 +2,46 @@ package com.fullbay.rebacservice.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.inject.Inject;
 
 import com.descope.client.DescopeClient;
 import com.descope.exception.ServerCommonException;
 import com.descope.model.authz.Relation;
+import com.descope.model.authz.RelationQuery;
 import com.descope.model.mgmt.ManagementServices;
 import com.descope.sdk.mgmt.AuthzService;
+import com.fullbay.rebacservice.changelog.RelationChange;
+import com.fullbay.rebacservice.changelog.RelationChangeLog;
 import com.fullbay.rebacservice.config.MockDescopeClientProducer;
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.decision.DecisionKey;
+import com.fullbay.rebacservice.expiry.TupleExpiryService;
 import com.fullbay.rebacservice.model.RelationTuple;
+import com.fullbay.rebacservice.shadow.ShadowEvaluator;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
+import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 
 @QuarkusTest
@@ -33,6 +49,14 @@ class RelationServiceTest {
 
   @Inject RelationService relationService;
 
+  @Inject RelationChangeLog changeLog;
+
+  @Inject DecisionCache decisionCache;
+
+  @Inject TupleExpiryService expiry;
+
+  @InjectMock ShadowEvaluator shadow;
+
   private final DescopeClient descopeClient = MockDescopeClientProducer.getMockClient();
   private ManagementServices managementServices;
   private AuthzService mockAuthzService;
@@ -44,6 +68,13 @@ class RelationServiceTest {
     mockAuthzService = org.mockito.Mockito.mock(AuthzService.class);
     when(descopeClient.getManagementServices()).thenReturn(managementServices);
     when(managementServices.getAuthzService()).thenReturn(mockAuthzService);
+    decisionCache.clear();
+  }
+
+  private static List<RelationQuery> decision(boolean allowed) {
+    RelationQuery result = new RelationQuery();
+    result.setHasRelation(allowed);
+    return List.of(result);
   }
 
   @Test
@@ -78,6 +109,47 @@ class RelationServiceTest {
         .isInstanceOf(ServerCommonException.class);
   }
 
+  @Test
+  @DisplayName("createRelations - valid request - should append changes to the change log")
+  void createRelations_validRequest_shouldAppendToChangeLog() throws Exception {
+    // Arrange
+    long before = changeLog.latestSequence();
+    List<RelationTuple> tuples =
+        Arrays.asList(
+            new RelationTuple("document:123", "owner", "documents", "user:alice@example.com"),
+            new RelationTuple("document:123", "viewer", "documents", "user:bob@example.com"));
+
+    // Act
+    relationService.createRelations(tuples);
+
+    // Assert
+    List<RelationChange> changes = changeLog.readAfter(before, 10);
+    assertThat(changes).hasSize(2);
+    assertThat(changes)
+        .allMatch(change -> change.getOperation() == RelationChange.Operation.CREATE);
+    assertThat(changes.get(1).getTuple().getTarget()).isEqualTo("user:bob@example.com");
+  }
+
+  @Test
+  @DisplayName("createRelations - descope throws exception - should not append to the change log")
+  void createRelations_descopeException_shouldNotAppendToChangeLog() throws Exception {
+    // Arrange
+    long before = changeLog.latestSequence();
+    org.mockito.Mockito.doThrow(ServerCommonException.invalidArgument("relation"))
+        .when(mockAuthzService)
+        .createRelations(anyList());
+
+    // Act & Assert
+    assertThatThrownBy(
+            () ->
+                relationService.createRelations(
+                    Collections.singletonList(
+                        new RelationTuple(
+                            "document:123", "owner", "documents", "user:alice@example.com"))))
+        .isInstanceOf(ServerCommonException.class);
+    assertThat(changeLog.latestSequence()).isEqualTo(before);
+  }
+
   @Test
   @DisplayName("deleteRelations - valid request - should delete relations successfully")
   void deleteRelations_validRequest_shouldDeleteRelations() throws Exception {
@@ -93,6 +165,60 @@ class RelationServiceTest {
     verify(mockAuthzService).deleteRelations(anyList());
   }
 
+  @Test
+  @DisplayName("check - repeated check - should ask Descope once and serve the cached decision")
+  void check_repeated_shouldUseDecisionCache() throws Exception {
+    // Arrange
+    when(mockAuthzService.hasRelations(anyList())).thenReturn(decision(true));
+
+    // Act
+    boolean first = relationService.check("document:123", "viewer", "documents", "user:alice");
+    boolean second = relationService.check("document:123", "viewer", "documents", "user:alice");
+
+    // Assert
+    assertThat(first).isTrue();
+    assertThat(second).isTrue();
+    verify(mockAuthzService, times(1)).hasRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("check - write to the target - should invalidate the cached decision")
+  void check_afterWrite_shouldAskDescopeAgain() throws Exception {
+    // Arrange
+    when(mockAuthzService.hasRelations(anyList())).thenReturn(decision(false), decision(true));
+    relationService.check("document:123", "viewer", "documents", "user:alice");
+
+    // Act
+    relationService.createRelations(
+        List.of(new RelationTuple("group:eng", "member", "groups", "user:alice")));
+    boolean allowed = relationService.check("document:123", "viewer", "documents", "user:alice");
+
+    // Assert
+    assertThat(allowed).isTrue();
+    verify(mockAuthzService, times(2)).hasRelations(anyList());
+  }
+
+  @Test
+  @DisplayName("check - direct tuple expired but not swept - should delete it before asking")
+  void check_directTupleExpired_shouldDeleteBeforeAsking() throws Exception {
+    // Arrange
+    RelationTuple expired =
+        new RelationTuple(
+            "document:123", "viewer", "documents", "user:alice", Instant.now().minusSeconds(60));
+    expiry.schedule(List.of(expired));
+    when(mockAuthzService.hasRelations(anyList())).thenReturn(decision(false));
+
+    // Act
+    boolean allowed = relationService.check("document:123", "viewer", "documents", "user:alice");
+
+    // Assert
+    assertThat(allowed).isFalse();
+    InOrder order = inOrder(mockAuthzService);
+    order.verify(mockAuthzService).deleteRelations(anyList());
+    order.verify(mockAuthzService).hasRelations(anyList());
+    assertThat(expiry.isExpired(expired)).isFalse();
+  }
+
   @Test
   @DisplayName("whoCanAccess - valid request - should return list of targets")
   void whoCanAccess_validRequest_shouldReturnTargets() throws Exception {
@@ -110,6 +236,46 @@ class RelationServiceTest {
     assertThat(result).containsExactlyInAnyOrderElementsOf(expectedTargets);
   }
 
+  @Test
+  @DisplayName("check - shadowed and local disagrees - should return Descope's answer")
+  void check_shadowedLocalDisagrees_shouldReturnDescopeAnswer() throws Exception {
+    // Arrange
+    DecisionKey key = new DecisionKey("document:123", "viewer", "documents", "user:alice");
+    ShadowEvaluator.Local<Boolean> local = new ShadowEvaluator.Local<>(false, "adjacency-store", 5);
+    when(shadow.sample()).thenReturn(true);
+    when(shadow.check(key)).thenReturn(Optional.of(local));
+    when(mockAuthzService.hasRelations(anyList())).thenReturn(decision(true));
+
+    // Act
+    boolean allowed = relationService.check("document:123", "viewer", "documents", "user:alice");
+
+    // Assert
+    assertThat(allowed).isTrue();
+    verify(shadow).compareCheck(eq(key), eq(local), eq(true), anyLong());
+  }
+
+  @Test
+  @DisplayName("whoCanAccess - shadowed - should compare and return Descope's targets")
+  void whoCanAccess_shadowed_shouldCompareAndReturnDescopeTargets() throws Exception {
+    // Arrange
+    List<String> remote = List.of("user:alice", "user:bob");
+    ShadowEvaluator.Local<List<String>> local =
+        new ShadowEvaluator.Local<>(List.of("user:alice"), "relation-index", 5);
+    when(shadow.sample()).thenReturn(true);
+    when(shadow.whoCanAccess("document:123", "viewer", "documents"))
+        .thenReturn(Optional.of(local));
+    when(mockAuthzService.whoCanAccess("document:123", "viewer", "documents")).thenReturn(remote);
+
+    // Act
+    List<String> result = relationService.whoCanAccess("document:123", "viewer", "documents");
+
+    // Assert
+    assertThat(result).isEqualTo(remote);
+    verify(shadow)
+        .compareWhoCanAccess(
+            eq("document:123"), eq("viewer"), eq("documents"), any(), eq(remote), anyLong());
+  }
+
   @Test
   @DisplayName("whoCanAccess - no targets found - should return empty list")
   void whoCanAccess_noTargets_shouldReturnEmptyList() throws Exception {
@@ -200,6 +366,119 @@ class RelationServiceTest {
     assertThat(result.get(1).getResource()).isEqualTo("document:456");
   }
 
+  @Test
+  @DisplayName("getTargetAccess - with filters - should only return matching relations")
+  void getTargetAccess_withFilters_shouldOnlyReturnMatchingRelations() throws Exception {
+    // Arrange
+    Relation viewer = new Relation();
+    viewer.setResource("document:123");
+    viewer.setRelationDefinition("viewer");
+    viewer.setNamespace("documents");
+    viewer.setTarget("user:alice@example.com");
+
+    Relation owner = new Relation();
+    owner.setResource("document:456");
+    owner.setRelationDefinition("owner");
+    owner.setNamespace("documents");
+    owner.setTarget("user:alice@example.com");
+
+    Relation folderViewer = new Relation();
+    folderViewer.setResource("folder:1");
+    folderViewer.setRelationDefinition("viewer");
+    folderViewer.setNamespace("folders");
+    folderViewer.setTarget("user:alice@example.com");
+
+    when(mockAuthzService.whatCanTargetAccess(anyString()))
+        .thenReturn(Arrays.asList(viewer, owner, folderViewer));
+
+    // Act
+    List<RelationTuple> result =
+        relationService.getTargetAccess("user:alice@example.com", "documents", "viewer");
+
+    // Assert
+    assertThat(result).hasSize(1);
+    assertThat(result.get(0).getResource()).isEqualTo("document:123");
+  }
+
+  private static Relation viewerRelation(String resource) {
+    Relation relation = new Relation();
+    relation.setResource(resource);
+    relation.setRelationDefinition("viewer");
+    relation.setNamespace("documents");
+    relation.setTarget("user:alice@example.com");
+    return relation;
+  }
+
+  @Test
+  @DisplayName("filterAccessible - fewer candidates than grants - should keep candidate order")
+  void filterAccessible_fewerCandidates_shouldKeepCandidateOrder() throws Exception {
+    // Arrange
+    when(mockAuthzService.whatCanTargetAccess("user:alice@example.com"))
+        .thenReturn(
+            Arrays.asList(
+                viewerRelation("document:1"),
+                viewerRelation("document:2"),
+                viewerRelation("document:3"),
+                viewerRelation("document:4")));
+
+    // Act
+    List<String> result =
+        relationService.filterAccessible(
+            "user:alice@example.com",
+            "viewer",
+            "documents",
+            Arrays.asList("document:3", "document:1", "document:3"));
+
+    // Assert
+    assertThat(result).containsExactly("document:3", "document:1");
+  }
+
+  @Test
+  @DisplayName("filterAccessible - more candidates than grants - should return granted candidates")
+  void filterAccessible_moreCandidates_shouldReturnGrantedCandidates() throws Exception {
+    // Arrange
+    Relation owner = viewerRelation("document:5");
+    owner.setRelationDefinition("owner");
+    when(mockAuthzService.whatCanTargetAccess("user:alice@example.com"))
+        .thenReturn(Arrays.asList(viewerRelation("document:2"), owner));
+
+    // Act
+    List<String> result =
+        relationService.filterAccessible(
+            "user:alice@example.com",
+            "viewer",
+            "documents",
+            Arrays.asList("document:1", "document:2", "document:3", "document:5"));
+
+    // Assert
+    assertThat(result).containsExactly("document:2");
+  }
+
+  @Test
+  @DisplayName("countResourceRelations - with relation filter - should count matching relations")
+  void countResourceRelations_withRelationFilter_shouldCountMatching() throws Exception {
+    // Arrange
+    Relation owner = new Relation();
+    owner.setResource("document:123");
+    owner.setRelationDefinition("owner");
+    owner.setNamespace("documents");
+    owner.setTarget("user:alice@example.com");
+
+    Relation viewer = new Relation();
+    viewer.setResource("document:123");
+    viewer.setRelationDefinition("viewer");
+    viewer.setNamespace("documents");
+    viewer.setTarget("user:bob@example.com");
+
+    when(mockAuthzService.resourceRelations(anyString())).thenReturn(Arrays.asList(owner, viewer));
+
+    // Act
+    long count = relationService.countResourceRelations("document:123", null, "viewer");
+
+    // Assert
+    assertThat(count).isEqualTo(1L);
+  }
+
   @Test
   @DisplayName("getTargetAccess - no relations found - should return empty list")
   void getTargetAccess_noRelations_shouldReturnEmptyList() throws Exception {
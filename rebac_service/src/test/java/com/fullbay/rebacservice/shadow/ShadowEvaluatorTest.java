@@ -0,0 +1,178 @@
+package com.fullbay.rebacservice.shadow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.fullbay.rebacservice.decision.DecisionCache;
+import com.fullbay.rebacservice.decision.DecisionKey;
+import com.fullbay.rebacservice.graph.AdjacencyStore;
+import com.fullbay.rebacservice.index.RelationIndex;
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShadowEvaluatorTest {
+
+  private static final DecisionKey KEY =
+      new DecisionKey("document:123", "viewer", "documents", "user:alice");
+
+  private ShadowEvaluator shadow;
+  private DecisionCache decisionCache;
+  private AdjacencyStore adjacencyStore;
+  private RelationIndex relationIndex;
+
+  @BeforeEach
+  void setUp() {
+    decisionCache = mock(DecisionCache.class);
+    adjacencyStore = mock(AdjacencyStore.class);
+    relationIndex = mock(RelationIndex.class);
+    when(decisionCache.get(KEY)).thenReturn(Optional.empty());
+    when(relationIndex.resourceRelations("document:123", "documents", "viewer"))
+        .thenReturn(Optional.empty());
+    shadow = new ShadowEvaluator();
+    shadow.enabled = true;
+    shadow.sampleRate = 1.0;
+    shadow.maxMismatches = 2;
+    shadow.decisionCache = decisionCache;
+    shadow.adjacencyStore = adjacencyStore;
+    shadow.relationIndex = relationIndex;
+  }
+
+  @Test
+  @DisplayName("check - cached decision - should answer from the decision cache")
+  void check_cachedDecision_shouldAnswerFromDecisionCache() {
+    // Arrange
+    when(decisionCache.get(KEY)).thenReturn(Optional.of(true));
+    when(adjacencyStore.isEnabled()).thenReturn(true);
+
+    // Act
+    Optional<ShadowEvaluator.Local<Boolean>> local = shadow.check(KEY);
+
+    // Assert
+    assertThat(local).isPresent();
+    assertThat(local.get().answer()).isTrue();
+    assertThat(local.get().source()).isEqualTo(ShadowEvaluator.DECISION_CACHE);
+  }
+
+  @Test
+  @DisplayName("check - no local source - should count the sample as unanswered")
+  void check_noLocalSource_shouldCountUnanswered() {
+    // Act
+    Optional<ShadowEvaluator.Local<Boolean>> local = shadow.check(KEY);
+
+    // Assert
+    assertThat(local).isEmpty();
+    ShadowEvaluator.OperationStats stats = shadow.report().check();
+    assertThat(stats.samples()).isEqualTo(1);
+    assertThat(stats.unanswered()).isEqualTo(1);
+    assertThat(stats.agreementRate()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("check - adjacency store without the resource - should not answer from the store")
+  void check_adjacencyStoreWithoutResource_shouldNotAnswerFromStore() {
+    // Arrange
+    when(adjacencyStore.isEnabled()).thenReturn(true);
+    when(adjacencyStore.covers("documents", "viewer", "document:123")).thenReturn(false);
+
+    // Act
+    Optional<ShadowEvaluator.Local<Boolean>> local = shadow.check(KEY);
+
+    // Assert
+    assertThat(local).isEmpty();
+    assertThat(shadow.report().check().unanswered()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("whoCanAccess - adjacency store without the resource - should not answer")
+  void whoCanAccess_adjacencyStoreWithoutResource_shouldNotAnswer() {
+    // Arrange
+    when(adjacencyStore.isEnabled()).thenReturn(true);
+    when(adjacencyStore.targets("documents", "viewer", "document:123")).thenReturn(List.of());
+
+    // Act
+    Optional<ShadowEvaluator.Local<List<String>>> local =
+        shadow.whoCanAccess("document:123", "viewer", "documents");
+
+    // Assert
+    assertThat(local).isEmpty();
+    assertThat(shadow.report().whoCanAccess().unanswered()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("compareWhoCanAccess - same targets in another order - should agree")
+  void compareWhoCanAccess_sameTargetsInAnotherOrder_shouldAgree() {
+    // Arrange
+    when(relationIndex.resourceRelations("document:123", "documents", "viewer"))
+        .thenReturn(
+            Optional.of(
+                List.of(
+                    new RelationTuple("document:123", "viewer", "documents", "user:bob"),
+                    new RelationTuple("document:123", "viewer", "documents", "user:alice"))));
+    ShadowEvaluator.Local<List<String>> local =
+        shadow.whoCanAccess("document:123", "viewer", "documents").orElseThrow();
+
+    // Act
+    shadow.compareWhoCanAccess(
+        "document:123", "viewer", "documents", local, List.of("user:alice", "user:bob"), 40_000);
+
+    // Assert
+    ShadowEvaluator.Report report = shadow.report();
+    assertThat(local.source()).isEqualTo(ShadowEvaluator.RELATION_INDEX);
+    assertThat(report.whoCanAccess().agreements()).isEqualTo(1);
+    assertThat(report.whoCanAccess().meanRemoteMicros()).isEqualTo(40.0);
+    assertThat(report.recentMismatches()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("compareCheck - repeated disagreements - should keep the most recent with context")
+  void compareCheck_repeatedDisagreements_shouldKeepMostRecentWithContext() {
+    // Arrange
+    ShadowEvaluator.Local<Boolean> local =
+        new ShadowEvaluator.Local<>(false, ShadowEvaluator.ADJACENCY_STORE, 2_000);
+    DecisionKey other = new DecisionKey("document:456", "viewer", "documents", "user:bob");
+
+    // Act
+    shadow.compareCheck(KEY, local, true, 50_000);
+    shadow.compareCheck(KEY, local, false, 50_000);
+    shadow.compareCheck(other, local, true, 50_000);
+    shadow.compareCheck(other, local, true, 50_000);
+
+    // Assert
+    ShadowEvaluator.Report report = shadow.report();
+    assertThat(report.check().mismatches()).isEqualTo(3);
+    assertThat(report.check().agreementRate()).isEqualTo(0.25);
+    assertThat(report.check().meanLatencyDeltaMicros()).isEqualTo(48.0);
+    assertThat(report.recentMismatches()).hasSize(2);
+    ShadowEvaluator.Mismatch latest = report.recentMismatches().get(1);
+    assertThat(latest.resource()).isEqualTo("document:456");
+    assertThat(latest.target()).isEqualTo("user:bob");
+    assertThat(latest.source()).isEqualTo(ShadowEvaluator.ADJACENCY_STORE);
+    assertThat(latest.local()).isEqualTo(false);
+    assertThat(latest.remote()).isEqualTo(true);
+  }
+
+  @Test
+  @DisplayName("compareCheck - max mismatches of 0 - should count but keep none")
+  void compareCheck_maxMismatchesZero_shouldKeepNone() {
+    // Arrange
+    shadow.maxMismatches = 0;
+    ShadowEvaluator.Local<Boolean> local =
+        new ShadowEvaluator.Local<>(false, ShadowEvaluator.ADJACENCY_STORE, 2_000);
+
+    // Act
+    shadow.compareCheck(KEY, local, true, 50_000);
+    shadow.compareCheck(KEY, local, true, 50_000);
+
+    // Assert
+    ShadowEvaluator.Report report = shadow.report();
+    assertThat(report.check().mismatches()).isEqualTo(2);
+    assertThat(report.recentMismatches()).isEmpty();
+  }
+}
@@ -0,0 +1,103 @@
+package com.fullbay.rebacservice.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fullbay.rebacservice.model.RelationTuple;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RelationTupleChecksTest {
+
+  private static RelationTuple valid() {
+    return new RelationTuple("document:123", "viewer", "documents", "user:alice@example.com");
+  }
+
+  @Test
+  @DisplayName("check - all tuples valid - should report nothing")
+  void check_allValid_shouldReportNothing() {
+    // Arrange
+    List<String> violations = new ArrayList<>();
+
+    // Act
+    int reported =
+        RelationTupleChecks.check(
+            Arrays.asList(valid(), valid()), 10, (i, f, m) -> violations.add(f));
+
+    // Assert
+    assertThat(reported).isZero();
+    assertThat(violations).isEmpty();
+  }
+
+  @Test
+  @DisplayName("check - invalid fields - should report index, field and bean validation message")
+  void check_invalidFields_shouldReportIndexFieldAndMessage() {
+    // Arrange
+    RelationTuple blankTarget = valid();
+    blankTarget.setTarget("   ");
+    RelationTuple longNamespace = valid();
+    longNamespace.setNamespace("n".repeat(RelationTuple.MAX_NAMESPACE_LENGTH + 1));
+    List<String> violations = new ArrayList<>();
+
+    // Act
+    RelationTupleChecks.check(
+        Arrays.asList(valid(), blankTarget, longNamespace),
+        10,
+        (i, f, m) -> violations.add(i + ":" + f + ":" + m));
+
+    // Assert
+    assertThat(violations)
+        .containsExactly(
+            "1:target:" + RelationTuple.TARGET_REQUIRED,
+            "2:namespace:" + RelationTuple.NAMESPACE_TOO_LONG);
+  }
+
+  @Test
+  @DisplayName("check - expiry not in the future - should report expiresAt")
+  void check_expiryNotInFuture_shouldReportExpiresAt() {
+    // Arrange
+    RelationTuple expired = valid();
+    expired.setExpiresAt(Instant.now().minusSeconds(60));
+    RelationTuple expiring = valid();
+    expiring.setExpiresAt(Instant.now().plusSeconds(3600));
+    List<String> violations = new ArrayList<>();
+
+    // Act
+    RelationTupleChecks.check(
+        Arrays.asList(expired, expiring), 10, (i, f, m) -> violations.add(i + ":" + f + ":" + m));
+
+    // Assert
+    assertThat(violations).containsExactly("0:expiresAt:" + RelationTuple.EXPIRES_AT_NOT_FUTURE);
+  }
+
+  @Test
+  @DisplayName("check - more violations than limit - should stop at limit")
+  void check_moreViolationsThanLimit_shouldStopAtLimit() {
+    // Arrange
+    List<RelationTuple> tuples = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      tuples.add(new RelationTuple(null, null, null, null));
+    }
+    List<Integer> indices = new ArrayList<>();
+
+    // Act
+    int reported = RelationTupleChecks.check(tuples, 5, (i, f, m) -> indices.add(i));
+
+    // Assert
+    assertThat(reported).isEqualTo(5);
+    assertThat(indices).containsExactly(0, 0, 0, 0, 1);
+  }
+
+  @Test
+  @DisplayName("isBlank - control characters only - should match trim semantics")
+  void isBlank_controlCharactersOnly_shouldMatchTrimSemantics() {
+    assertThat(RelationTupleChecks.isBlank("\t\n ")).isTrue();
+    assertThat(RelationTupleChecks.isBlank(" a ")).isFalse();
+    assertThat(RelationTupleChecks.isBlank(null)).isTrue();
+  }
+}
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares per-invocation duration of the REST path and the direct AppSync path of a deployed
+# Lambda for the same read.
+#
+# Usage: scripts/compare-invoke-overhead.sh <rebac|member> <function-name[:alias]> <id> [count]
+#
+# rebac reads the relations of resource <id>; member looks up user <id>. Each shape is invoked
+# <count> times (default 50) after one warm-up call, and the billed "Duration" from the REPORT
+# line of each invocation is collected. The difference between the two averages is the cost of the
+# ALB event translation, JAX-RS routing and HTTP response serialization that the direct path skips.
+# Both shapes make the same Descope call, so run against a quiet project to keep noise low.
+
+set -euo pipefail
+
+SERVICE="${1:?usage: $0 <rebac|member> <function-name[:alias]> <id> [count]}"
+FUNCTION="${2:?missing function name}"
+ID="${3:?missing id}"
+COUNT="${4:-50}"
+
+case "${SERVICE}" in
+  rebac)
+    REST_EVENT="{\"httpMethod\":\"GET\",\"path\":\"/relations/resource/${ID}\",\"headers\":{},\"requestContext\":{\"elb\":{}},\"isBase64Encoded\":false}"
+    DIRECT_EVENT="{\"field\":\"getResourceRelations\",\"arguments\":{\"resourceId\":\"${ID}\"}}"
+    ;;
+  member)
+    REST_EVENT="{\"httpMethod\":\"GET\",\"path\":\"/users/${ID}\",\"headers\":{},\"requestContext\":{\"elb\":{}},\"isBase64Encoded\":false}"
+    DIRECT_EVENT="{\"field\":\"getUserById\",\"arguments\":{\"userId\":\"${ID}\"}}"
+    ;;
+  *)
+    echo "unknown service: ${SERVICE}" >&2
+    exit 1
+    ;;
+esac
+
+# Invokes the function with the given event and prints the REPORT Duration in ms.
+duration() {
+  aws lambda invoke \
+    --function-name "${FUNCTION}" \
+    --cli-binary-format raw-in-base64-out \
+    --payload "$1" \
+    --log-type Tail \
+    --query LogResult \
+    --output text \
+    /dev/null \
+    | base64 --decode \
+    | sed -n 's/.*REPORT.*\tDuration: \([0-9.]*\) ms.*/\1/p'
+}
+
+# Invokes the function COUNT times and prints average and median duration.
+measure() {
+  local label="$1"
+  local event="$2"
+  duration "${event}" >/dev/null
+  local samples
+  samples="$(for _ in $(seq 1 "${COUNT}"); do duration "${event}"; done | sort -n)"
+  echo "${samples}" | awk -v label="${label}" '
+    { values[NR] = $1; sum += $1 }
+    END { printf "%-8s avg %8.2f ms   p50 %8.2f ms   (%d calls)\n",
+          label, sum / NR, values[int((NR + 1) / 2)], NR }'
+}
+
+measure "rest" "${REST_EVENT}"
+measure "direct" "${DIRECT_EVENT}"
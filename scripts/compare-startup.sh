@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Compares startup time and resident memory of the JVM and native builds of a Quarkus service.
+#
+# Usage: scripts/compare-startup.sh <rebac_service|member_service|org_service>
+#
+# Builds the service twice (JVM, then native in a container), starts each artifact locally with
+# dummy Descope credentials, and reports the time until Quarkus logs "started in" together with the
+# process RSS at that point. Requires Docker or Podman for the native build.
+
+set -euo pipefail
+
+SERVICE="${1:?usage: $0 <service directory>}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+cd "${ROOT}/${SERVICE}"
+
+export DESCOPE_PROJECT_ID="${DESCOPE_PROJECT_ID:-P000000000000000000000000000}"
+export DESCOPE_MANAGEMENT_KEY="${DESCOPE_MANAGEMENT_KEY:-dummy}"
+export SNAPSTART_PRIMING_ENABLED=false
+
+# Starts the given command, waits for the Quarkus startup line, prints elapsed ms and RSS in MB.
+measure() {
+  local label="$1"
+  shift
+  local log
+  log="$(mktemp)"
+  local start
+  start="$(date +%s%N)"
+  "$@" >"${log}" 2>&1 &
+  local pid=$!
+  for _ in $(seq 1 600); do
+    if grep -q "started in" "${log}"; then
+      local elapsed=$((($(date +%s%N) - start) / 1000000))
+      local rss
+      rss="$(awk '/VmRSS/ {printf "%.1f", $2 / 1024}' "/proc/${pid}/status")"
+      printf '%-8s startup %6d ms   RSS %8s MB\n' "${label}" "${elapsed}" "${rss}"
+      kill "${pid}" 2>/dev/null || true
+      wait "${pid}" 2>/dev/null || true
+      rm -f "${log}"
+      return
+    fi
+    sleep 0.05
+  done
+  kill "${pid}" 2>/dev/null || true
+  echo "${label}: did not start, see ${log}" >&2
+  return 1
+}
+
+./gradlew -q clean build -x test
+measure "jvm" java -jar build/quarkus-app/quarkus-run.jar
+
+./gradlew -q build -x test -Dquarkus.native.enabled=true
+measure "native" "$(find build -maxdepth 1 -name '*-runner' -type f | head -n 1)"
@@ -104,36 +104,23 @@ resource "aws_appsync_resolver" "list_members" {
   field       = "listMembers"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "GET",
-    "path": "/tenants/$ctx.args.tenantId/members",
-    "queryStringParameters": {
-      #if($ctx.args.page)
-        "page": "$ctx.args.page",
-      #end
-      #if($ctx.args.pageSize)
-        "pageSize": "$ctx.args.pageSize"
-      #end
-    },
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "listMembers",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -144,30 +131,26 @@ resource "aws_appsync_resolver" "get_member" {
   field       = "getMember"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved through BatchInvoke: AppSync groups resolutions of this field within an operation
+  # into one Lambda invocation, which de-duplicates them and calls Descope in parallel
+  max_batch_size = var.appsync_max_batch_size
+
   request_template = <<EOF
 {
-  "version": "2017-02-28",
-  "operation": "Invoke",
+  "version": "2018-05-29",
+  "operation": "BatchInvoke",
   "payload": {
-    "httpMethod": "GET",
-    "path": "/tenants/$ctx.args.tenantId/members/$util.urlEncode($ctx.args.loginId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "getMember",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#elseif($ctx.result.statusCode == 404)
-  null
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -178,29 +161,23 @@ resource "aws_appsync_resolver" "create_member" {
   field       = "createMember"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "POST",
-    "path": "/tenants/$ctx.args.tenantId/members",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "body": "$util.escapeJavaScript($util.toJson($ctx.args.input))",
-    "requestContext": {}
+    "field": "createMember",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 201)
-  $ctx.result.body
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -211,29 +188,23 @@ resource "aws_appsync_resolver" "update_member" {
   field       = "updateMember"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "PUT",
-    "path": "/tenants/$ctx.args.tenantId/members/$util.urlEncode($ctx.args.loginId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "body": "$util.escapeJavaScript($util.toJson($ctx.args.input))",
-    "requestContext": {}
+    "field": "updateMember",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -244,28 +215,23 @@ resource "aws_appsync_resolver" "delete_member" {
   field       = "deleteMember"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "DELETE",
-    "path": "/tenants/$ctx.args.tenantId/members/$util.urlEncode($ctx.args.loginId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "deleteMember",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 204)
-  true
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -276,30 +242,26 @@ resource "aws_appsync_resolver" "get_user_by_id" {
   field       = "getUserById"
   data_source = aws_appsync_datasource.member_lambda.name
 
+  # Resolved through BatchInvoke: AppSync groups resolutions of this field within an operation
+  # into one Lambda invocation, which de-duplicates them and calls Descope in parallel
+  max_batch_size = var.appsync_max_batch_size
+
   request_template = <<EOF
 {
-  "version": "2017-02-28",
-  "operation": "Invoke",
+  "version": "2018-05-29",
+  "operation": "BatchInvoke",
   "payload": {
-    "httpMethod": "GET",
-    "path": "/users/$util.urlEncode($ctx.args.userId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "getUserById",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#elseif($ctx.result.statusCode == 404)
-  null
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -104,28 +104,26 @@ resource "aws_appsync_resolver" "get_resource_relations" {
   field       = "getResourceRelations"
   data_source = aws_appsync_datasource.rebac_lambda.name
 
+  # Resolved through BatchInvoke: AppSync groups resolutions of this field within an operation
+  # into one Lambda invocation, which de-duplicates them and calls Descope in parallel
+  max_batch_size = var.appsync_max_batch_size
+
   request_template = <<EOF
 {
-  "version": "2017-02-28",
-  "operation": "Invoke",
+  "version": "2018-05-29",
+  "operation": "BatchInvoke",
   "payload": {
-    "httpMethod": "GET",
-    "path": "/relations/resource/$util.urlEncode($ctx.args.resourceId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "getResourceRelations",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -136,28 +134,26 @@ resource "aws_appsync_resolver" "get_target_access" {
   field       = "getTargetAccess"
   data_source = aws_appsync_datasource.rebac_lambda.name
 
+  # Resolved through BatchInvoke: AppSync groups resolutions of this field within an operation
+  # into one Lambda invocation, which de-duplicates them and calls Descope in parallel
+  max_batch_size = var.appsync_max_batch_size
+
   request_template = <<EOF
 {
-  "version": "2017-02-28",
-  "operation": "Invoke",
+  "version": "2018-05-29",
+  "operation": "BatchInvoke",
   "payload": {
-    "httpMethod": "GET",
-    "path": "/relations/target/$util.urlEncode($ctx.args.targetId)",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "requestContext": {}
+    "field": "getTargetAccess",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -168,45 +164,26 @@ resource "aws_appsync_resolver" "who_can_access" {
   field       = "whoCanAccess"
   data_source = aws_appsync_datasource.rebac_lambda.name
 
+  # Resolved through BatchInvoke: AppSync groups resolutions of this field within an operation
+  # into one Lambda invocation, which de-duplicates them and calls Descope in parallel
+  max_batch_size = var.appsync_max_batch_size
+
   request_template = <<EOF
-#set($namespace = [$ctx.args.namespace])
-#set($relationDefinition = [$ctx.args.relationDefinition])
-#set($resource = [$ctx.args.resource])
 {
-  "version": "2017-02-28",
-  "operation": "Invoke",
+  "version": "2018-05-29",
+  "operation": "BatchInvoke",
   "payload": {
-    "requestContext": {
-      "elb": {
-        "targetGroupArn": "arn:aws:elasticloadbalancing:us-west-2:345594586248:targetgroup/rebac-service-lambda-tg/e1d32e7f5e93f247"
-      }
-    },
-    "httpMethod": "GET",
-    "path": "/relations/who-can-access",
-    "multiValueQueryStringParameters": {
-      "namespace": $util.toJson($namespace),
-      "relationDefinition": $util.toJson($relationDefinition),
-      "resource": $util.toJson($resource)
-    },
-    "headers": {
-      "content-type": ["application/json"]
-    },
-    "body": null,
-    "isBase64Encoded": false
+    "field": "whoCanAccess",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 200)
-  $ctx.result.body
-#elseif($ctx.result.statusCode == 400)
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "BadRequest")
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -217,32 +194,23 @@ resource "aws_appsync_resolver" "create_relations" {
   field       = "createRelations"
   data_source = aws_appsync_datasource.rebac_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "POST",
-    "path": "/relations",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "body": "$util.escapeJavaScript($util.toJson($ctx.args.input))",
-    "requestContext": {}
+    "field": "createRelations",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 201)
-  $ctx.result.body
-#elseif($ctx.result.statusCode == 400)
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "BadRequest")
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -253,32 +221,23 @@ resource "aws_appsync_resolver" "delete_relations" {
   field       = "deleteRelations"
   data_source = aws_appsync_datasource.rebac_lambda.name
 
+  # Resolved directly by the service's AppSync handler, without HTTP emulation or REST routing
   request_template = <<EOF
 {
   "version": "2017-02-28",
   "operation": "Invoke",
   "payload": {
-    "httpMethod": "DELETE",
-    "path": "/relations",
-    "headers": {
-      "Content-Type": "application/json"
-    },
-    "body": "$util.escapeJavaScript($util.toJson($ctx.args.input))",
-    "requestContext": {}
+    "field": "deleteRelations",
+    "arguments": $util.toJson($ctx.args)
   }
 }
 EOF
 
   response_template = <<EOF
-#if($ctx.result.statusCode == 204)
-  true
-#elseif($ctx.result.statusCode == 400)
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "BadRequest")
-#else
-  #set($errorBody = $util.parseJson($ctx.result.body))
-  $util.error($errorBody.message, "InternalError")
+#if($ctx.result.errorMessage)
+  $util.error($ctx.result.errorMessage, $ctx.result.errorType)
 #end
+$util.toJson($ctx.result.data)
 EOF
 }
 
@@ -17,15 +17,21 @@ resource "aws_security_group" "lambda" {
   }
 }
 
-# Use the pre-built function.zip from Quarkus
+locals {
+  # Applies to the org service only; native builds run on the OS-only runtime, which does not
+  # support SnapStart
+  lambda_native = var.lambda_package_type == "native"
+}
+
+# Use the pre-built function.zip from Quarkus (JVM jar or native bootstrap binary)
 # Lambda function
 resource "aws_lambda_function" "org_service" {
   filename         = "${path.module}/../org_service/build/function.zip"
   function_name    = var.service_name
   role             = aws_iam_role.lambda.arn
-  handler          = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler::handleRequest"
+  handler          = local.lambda_native ? "not.used.in.provided.runtime" : "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler::handleRequest"
   source_code_hash = filebase64sha256("${path.module}/../org_service/build/function.zip")
-  runtime          = "java21"
+  runtime          = local.lambda_native ? "provided.al2023" : "java21"
   memory_size      = var.lambda_memory_size
   timeout          = var.lambda_timeout
 
@@ -36,14 +42,19 @@ resource "aws_lambda_function" "org_service" {
 
   environment {
     variables = {
-      DESCOPE_PROJECT_ID     = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
-      DESCOPE_MANAGEMENT_KEY = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
-      QUARKUS_LAMBDA_HANDLER = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DESCOPE_PROJECT_ID      = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
+      DESCOPE_MANAGEMENT_KEY  = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
+      QUARKUS_LAMBDA_HANDLER  = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DISABLE_SIGNAL_HANDLERS = "true"
     }
   }
 
-  snap_start {
-    apply_on = "PublishedVersions"
+  # SnapStart is only available for managed Java runtimes
+  dynamic "snap_start" {
+    for_each = local.lambda_native ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
   }
 
   tags = {
@@ -33,12 +33,14 @@ resource "aws_security_group" "member_service_lambda" {
   }
 }
 
-# Member Service Lambda function
+# Member Service Lambda function. Always the JVM build: AppSync direct resolvers send
+# {field, arguments} payloads that only AppSyncStreamHandler understands, and the native
+# bootstrap dispatches every event to the REST handler
 resource "aws_lambda_function" "member_service" {
   filename         = "${path.module}/../member_service/build/function.zip"
   function_name    = local.member_service_name
   role             = aws_iam_role.lambda.arn
-  handler          = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler::handleRequest"
+  handler          = "com.fullbay.memberservice.lambda.AppSyncStreamHandler::handleRequest"
   source_code_hash = filebase64sha256("${path.module}/../member_service/build/function.zip")
   runtime          = "java21"
   memory_size      = var.lambda_memory_size
@@ -51,9 +53,10 @@ resource "aws_lambda_function" "member_service" {
 
   environment {
     variables = {
-      DESCOPE_PROJECT_ID     = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
-      DESCOPE_MANAGEMENT_KEY = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
-      QUARKUS_LAMBDA_HANDLER = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DESCOPE_PROJECT_ID      = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
+      DESCOPE_MANAGEMENT_KEY  = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
+      QUARKUS_LAMBDA_HANDLER  = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DISABLE_SIGNAL_HANDLERS = "true"
     }
   }
 
@@ -33,12 +33,14 @@ resource "aws_security_group" "rebac_service_lambda" {
   }
 }
 
-# ReBAC Service Lambda function
+# ReBAC Service Lambda function. Always the JVM build: AppSync direct resolvers send
+# {field, arguments} payloads that only AppSyncStreamHandler understands, and the native
+# bootstrap dispatches every event to the REST handler
 resource "aws_lambda_function" "rebac_service" {
   filename         = "${path.module}/../rebac_service/build/function.zip"
   function_name    = local.rebac_service_name
   role             = aws_iam_role.lambda.arn
-  handler          = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler::handleRequest"
+  handler          = "com.fullbay.rebacservice.lambda.AppSyncStreamHandler::handleRequest"
   source_code_hash = filebase64sha256("${path.module}/../rebac_service/build/function.zip")
   runtime          = "java21"
   memory_size      = var.lambda_memory_size
@@ -51,9 +53,10 @@ resource "aws_lambda_function" "rebac_service" {
 
   environment {
     variables = {
-      DESCOPE_PROJECT_ID     = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
-      DESCOPE_MANAGEMENT_KEY = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
-      QUARKUS_LAMBDA_HANDLER = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DESCOPE_PROJECT_ID      = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["projectId"]
+      DESCOPE_MANAGEMENT_KEY  = jsondecode(data.aws_secretsmanager_secret_version.descope_credentials.secret_string)["managementKey"]
+      QUARKUS_LAMBDA_HANDLER  = "io.quarkus.amazon.lambda.runtime.QuarkusStreamHandler"
+      DISABLE_SIGNAL_HANDLERS = "true"
     }
   }
 
@@ -40,6 +40,23 @@ variable "lambda_memory_size" {
   default     = 1024
 }
 
+variable "lambda_package_type" {
+  description = "Lambda artifact type for the org service: jvm (java21 with SnapStart) or native (provided.al2023). The rebac and member services always deploy the JVM build"
+  type        = string
+  default     = "jvm"
+
+  validation {
+    condition     = contains(["jvm", "native"], var.lambda_package_type)
+    error_message = "lambda_package_type must be either \"jvm\" or \"native\"."
+  }
+}
+
+variable "appsync_max_batch_size" {
+  description = "Maximum number of field resolutions AppSync sends in one BatchInvoke call"
+  type        = number
+  default     = 100
+}
+
 variable "lambda_timeout" {
   description = "Timeout for the Lambda function in seconds"
   type        = number